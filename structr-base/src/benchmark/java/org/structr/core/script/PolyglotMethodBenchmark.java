@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.script;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.structr.api.config.Settings;
+import org.structr.common.SecurityContext;
+import org.structr.core.script.polyglot.context.ContextFactory;
+import org.structr.schema.action.ActionContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of JavaScript method calls that each use a new
+ * ActionContext, like separate requests do. A context pool size of 0
+ * creates and closes a polyglot context for every call, which was the
+ * only behaviour before context pooling was introduced.
+ *
+ * Run with: mvn -P benchmark test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.structr.core.script.PolyglotMethodBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PolyglotMethodBenchmark {
+
+	private static final String SOURCE = "let sum = 0; for (let i = 0; i < 100; i++) { sum += i; } return sum;";
+
+	@Param({ "0", "16" })
+	private int contextPoolSize;
+
+	@Setup
+	public void setup() {
+		Settings.ScriptingContextPoolSize.setValue(contextPoolSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+		ContextFactory.closePooledContexts();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object threads1() throws Exception {
+		return call();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object threads8() throws Exception {
+		return call();
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PolyglotMethodBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	// ----- private methods -----
+	private Object call() throws Exception {
+
+		final ActionContext actionContext = new ActionContext(SecurityContext.getSuperUserInstance());
+		final Snippet snippet             = new Snippet("benchmarkMethod", SOURCE);
+
+		snippet.setMimeType("application/javascript+module");
+		snippet.setEngineName("js");
+
+		return Scripting.evaluateScript(actionContext, null, "js", snippet);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.traits;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.structr.core.traits.definitions.GraphObjectTraitDefinition;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.structr.core.traits.operations.graphobject.OnModification;
+import org.structr.core.traits.operations.propertycontainer.GetProperty;
+import org.structr.module.CoreModule;
+import org.structr.web.common.UiModule;
+import org.structr.web.traits.operations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the trait lookups on the render and property access hot paths,
+ * i.e. framework methods, lifecycle methods and property keys resolved
+ * through the dispatch table of a type, with one and with eight threads.
+ *
+ * Run with: mvn -P benchmark test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.structr.core.traits.TraitDispatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TraitDispatchBenchmark {
+
+	private Traits div     = null;
+	private Traits content = null;
+
+	@Setup
+	public void setup() {
+
+		new CoreModule().onLoad();
+		new UiModule().onLoad();
+
+		div     = TraitsManager.getRootInstance().getTraits(StructrTraits.DIV);
+		content = TraitsManager.getRootInstance().getTraits(StructrTraits.CONTENT);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void renderThreads1(final Blackhole blackhole) {
+		render(blackhole);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void renderThreads8(final Blackhole blackhole) {
+		render(blackhole);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void propertyAccessThreads1(final Blackhole blackhole) {
+		propertyAccess(blackhole);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void propertyAccessThreads8(final Blackhole blackhole) {
+		propertyAccess(blackhole);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TraitDispatchBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	// ----- private methods -----
+	private void render(final Blackhole blackhole) {
+
+		blackhole.consume(div.getMethod(Render.class));
+		blackhole.consume(div.getMethod(OpeningTag.class));
+		blackhole.consume(div.getMethod(RenderManagedAttributes.class));
+		blackhole.consume(div.getMethod(RenderCustomAttributes.class));
+		blackhole.consume(div.getMethod(IsVoidElement.class));
+		blackhole.consume(content.getMethod(Render.class));
+		blackhole.consume(content.getMethod(RenderContent.class));
+	}
+
+	private void propertyAccess(final Blackhole blackhole) {
+
+		blackhole.consume(div.key(NodeInterfaceTraitDefinition.NAME_PROPERTY));
+		blackhole.consume(div.key(GraphObjectTraitDefinition.VISIBLE_TO_PUBLIC_USERS_PROPERTY));
+		blackhole.consume(div.hasKey("notAPropertyOfDiv"));
+		blackhole.consume(div.contains(StructrTraits.DOM_NODE));
+		blackhole.consume(div.getMethod(GetProperty.class));
+		blackhole.consume(div.getMethods(OnModification.class));
+	}
+}
@@ -25,8 +25,9 @@ import org.structr.core.Services;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.Tx;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.structr.agent.ReturnValue.Retry;
@@ -40,14 +41,16 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 	public static final String EXECUTION_STATUS       = "execution_status";
 	public static final String MAX_QUEUE_SIZE         = "max_queue_size";
 	private static final Logger logger                = LoggerFactory.getLogger(Agent.class.getName());
+	private static final long KEEP_ALIVE_SECONDS      = 5;
 
-	private final AtomicBoolean suspended      = new AtomicBoolean(false);
-	private final Queue<Task<T>> taskQueue     = new ConcurrentLinkedQueue<>();
-	private final AtomicBoolean acceptingTasks = new AtomicBoolean(true);
-	private AgentService agentService          = null;
-	private long averageExecutionTime          = 0;
-	private int maxAgents                      = 10;
-	private int maxQueueSize                   = 200;
+	private final AtomicBoolean suspended          = new AtomicBoolean(false);
+	private final BlockingQueue<Task<T>> taskQueue = new LinkedBlockingQueue<>();
+	private final AtomicBoolean acceptingTasks     = new AtomicBoolean(true);
+	private final Object suspendLock               = new Object();
+	private AgentService agentService              = null;
+	private volatile long averageExecutionTime     = 0;
+	private int maxAgents                          = 10;
+	private int maxQueueSize                       = 200;
 
 	/**
 	 * This method will be called by the AgentService
@@ -71,23 +74,34 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 				continue;
 			}
 
-			while (suspended.get()) {
+			synchronized (suspendLock) {
 
-				Thread.yield();
+				while (suspended.get()) {
 
+					try { suspendLock.wait(); } catch (InterruptedException i) {
+
+						// killAgent() interrupts a suspended agent
+						if (!acceptingTasks.get()) {
+							break;
+						}
+					}
+				}
 			}
 
-			final Task<T> currentTask;
+			Task<T> currentTask = null;
 
-			synchronized (taskQueue) {
+			try {
 
-				currentTask = taskQueue.poll();
+				// wait some time for new tasks before the agent quits
+				currentTask = taskQueue.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
 
-			}
+			} catch (InterruptedException i) {}
 
 			if (currentTask != null) {
 
-				ReturnValue ret = null;
+				final long startTime = System.nanoTime();
+				ReturnValue ret      = null;
+				boolean success      = false;
 
 				// only execute process if Service layer is ready
 				// (and not shutting down right now)
@@ -100,6 +114,8 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 							ret = processTask(currentTask);
 							tx.success();
 
+							success = true;
+
 						} catch (FrameworkException fex) {
 
 							// task processing failed..
@@ -115,7 +131,8 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 
 						try {
 
-							ret = processTask(currentTask);
+							ret     = processTask(currentTask);
+							success = true;
 
 						} catch (FrameworkException fex) {
 
@@ -130,28 +147,33 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 					}
 				}
 
+				final long executionTime = System.nanoTime() - startTime;
+
+				// calc. average execution time
+				averageExecutionTime = averageExecutionTime == 0 ? executionTime : (averageExecutionTime + executionTime) / 2;
+
 				if (ret != null && Retry.equals(ret) && currentTask.getRetryCount() < 2) {
 
 					// wait some time
 					try { Thread.sleep(2000); } catch (InterruptedException ex) {}
 
-					synchronized (taskQueue) {
-
-						currentTask.incrementRetryCount();
-						taskQueue.add(currentTask);
-					}
-				}
+					currentTask.incrementRetryCount();
+					taskQueue.add(currentTask);
 
-				long endTime = System.nanoTime();
+				} else {
 
-				// calc. average execution time
-				averageExecutionTime += endTime;
-				averageExecutionTime /= 2;
+					agentService.notifyTaskFinished(this, currentTask, executionTime, success && !Retry.equals(ret));
+				}
 
 			} else {
 
-				// queue is empty, quit.
-				acceptingTasks.set(false);
+				synchronized (taskQueue) {
+
+					// queue is empty, quit (unless a task was assigned in the meantime)
+					if (taskQueue.isEmpty()) {
+						acceptingTasks.set(false);
+					}
+				}
 			}
 
 		} while (acceptingTasks.get());
@@ -163,19 +185,31 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 
 	public final boolean assignTask(final Task<T> task) {
 
-		if (canHandleMore() && acceptingTasks.get()) {
+		synchronized (taskQueue) {
 
-			synchronized (taskQueue) {
+			if (canHandleMore() && acceptingTasks.get()) {
 
 				taskQueue.add(task);
-			}
 
-			return true;
+				return true;
+			}
 		}
 
 		return false;
 	}
 
+	/**
+	 * Re-creates a task from the journal entry it returned from
+	 * {@link Task#getJournalEntry()}, override this method in agents
+	 * whose tasks should survive a restart.
+	 *
+	 * @param entry
+	 * @return the task or null
+	 */
+	public Task<T> restoreTask(final String entry) {
+		return null;
+	}
+
 	public final void killAgent() {
 
 		// stop accepting tasks
@@ -198,8 +232,13 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 
 	public final void resumeAgent() {
 
-		acceptingTasks.set(true);
-		suspended.set(false);
+		synchronized (suspendLock) {
+
+			acceptingTasks.set(true);
+			suspended.set(false);
+
+			suspendLock.notifyAll();
+		}
 	}
 
 	protected void beforeShutdown() {
@@ -209,13 +248,7 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 
 	protected boolean canHandleMore() {
 
-		int size = 0;
-
-		synchronized (taskQueue) {
-
-			// FIXME: size may not be a constant time operation! slow?
-			size = taskQueue.size();
-		}
+		final int size = taskQueue.size();
 
 		// queue is empty, assume new agent
 		if (size == 0) {
@@ -21,18 +21,29 @@ package org.structr.agent;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.api.service.*;
 import org.structr.core.Services;
 import org.structr.schema.ConfigurationProvider;
 import org.structr.schema.SchemaService;
 
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The agent service main class.
+ *
+ * Tasks are dispatched from a blocking queue in order of descending
+ * priority, tasks with equal priority are dispatched in the order they
+ * were submitted. Tasks that cannot be assigned because all agents for
+ * their type are busy are parked until an agent has capacity again.
  */
 @ServiceDependency(SchemaService.class)
 @StopServiceForMaintenanceMode
@@ -40,12 +51,19 @@ public class AgentService extends Thread implements RunnableService {
 
 	private static final Logger logger = LoggerFactory.getLogger(AgentService.class.getName());
 
-	private final int maxAgents                          = 10;    // TODO: make configurable
-	private final Map<String, List<Agent>> runningAgents = new ConcurrentHashMap<>(10, 0.9f, 8);
-	private final Map<String, Class> agentClassCache     = new ConcurrentHashMap<>(10, 0.9f, 8);
-	private final Queue<Task> taskQueue                  = new ConcurrentLinkedQueue<>();
-	private Set<Class> supportedCommands                 = null;
-	private boolean run                                  = false;
+	private static final Comparator<QueuedTask> dispatchOrder = Comparator.<QueuedTask>comparingInt(q -> q.task.priority()).reversed().thenComparingLong(q -> q.sequence);
+	private static final String JOURNAL_FILE_NAME             = "agents.journal";
+
+	private final Map<String, List<Agent>> runningAgents      = new ConcurrentHashMap<>(10, 0.9f, 8);
+	private final Map<String, Class> agentClassCache          = new ConcurrentHashMap<>(10, 0.9f, 8);
+	private final Map<String, Queue<QueuedTask>> parkedTasks  = new ConcurrentHashMap<>();
+	private final Map<String, TaskStatistics> statistics      = new ConcurrentHashMap<>();
+	private final Map<Task, Long> journalIds                  = Collections.synchronizedMap(new IdentityHashMap<>());
+	private final PriorityBlockingQueue<QueuedTask> taskQueue = new PriorityBlockingQueue<>(64, dispatchOrder);
+	private final AtomicLong sequence                         = new AtomicLong();
+	private Set<Class> supportedCommands                      = null;
+	private volatile TaskJournal journal                      = null;
+	private volatile boolean run                              = false;
 
 	public AgentService() {
 
@@ -58,11 +76,24 @@ public class AgentService extends Thread implements RunnableService {
 
 	public void processTask(Task task) {
 
-		synchronized (taskQueue) {
+		final TaskJournal currentJournal = journal;
+		if (currentJournal != null) {
+
+			final String entry = task.getJournalEntry();
+			if (entry != null) {
 
-			taskQueue.add(task);
-			logger.debug("Task {} added to task queue", task);
+				final long id = currentJournal.add(task.getClass().getName(), entry);
+				if (id >= 0) {
+
+					journalIds.put(task, id);
+				}
+			}
 		}
+
+		getStatistics(task).queued.incrementAndGet();
+
+		taskQueue.add(new QueuedTask(task, sequence.incrementAndGet()));
+		logger.debug("Task {} added to task queue", task);
 	}
 
 	@Override
@@ -72,14 +103,33 @@ public class AgentService extends Thread implements RunnableService {
 
 		while (run) {
 
-			Task nextTask = taskQueue.poll();
-			if (nextTask != null) {
+			try {
 
-				assignNextAgentForTask(nextTask);
-			}
+				final QueuedTask nextTask = taskQueue.take();
+
+				if (!assignNextAgentForTask(nextTask)) {
+
+					logger.debug("Agents limit reached for {}, parking task", nextTask.task.getClass().getSimpleName());
+
+					final Class taskClass = nextTask.task.getClass();
+
+					getParkedTasks(taskClass).add(nextTask);
+
+					// agents may have stopped in the meantime
+					if (getRunningAgentsForTask(taskClass).size() < Settings.AgentServiceMaxAgents.getValue()) {
+
+						releaseParkedTasks(taskClass, 1);
+					}
+				}
+
+			} catch (InterruptedException iex) {
+
+				// stopService() interrupts the blocking take()
 
-			// let others act
-			try { Thread.sleep(10); } catch(Throwable ignore) {}
+			} catch (Throwable t) {
+
+				logger.error("Unable to dispatch task: {}", ExceptionUtils.getStackTrace(t));
+			}
 		}
 	}
 
@@ -88,7 +138,11 @@ public class AgentService extends Thread implements RunnableService {
 		List<Agent> agents = getRunningAgentsForTask(agent.getSupportedTaskType());
 
 		synchronized (agents) {
-			agents.add(agent);
+
+			// agents are registered when they are created, see assignNextAgentForTask()
+			if (!agents.contains(agent)) {
+				agents.add(agent);
+			}
 		}
 	}
 
@@ -99,6 +153,30 @@ public class AgentService extends Thread implements RunnableService {
 		synchronized (agents) {
 			agents.remove(agent);
 		}
+
+		releaseParkedTasks(agent.getSupportedTaskType(), agent.getMaxQueueSize());
+	}
+
+	/**
+	 * Called by an agent after the given task was processed (or finally
+	 * failed), releases the journal entry of the task and hands one parked
+	 * task of the same type back to the dispatcher.
+	 */
+	public void notifyTaskFinished(final Agent agent, final Task task, final long executionNanos, final boolean success) {
+
+		final TaskStatistics stats = getStatistics(task);
+
+		if (success) {
+			stats.processed.increment();
+		} else {
+			stats.failed.increment();
+		}
+
+		stats.executionNanos.add(executionNanos);
+
+		removeJournalEntry(task);
+
+		releaseParkedTasks(agent.getSupportedTaskType(), 1);
 	}
 
 	public Map<String, Class<? extends Agent>> getAgents() {
@@ -131,13 +209,29 @@ public class AgentService extends Thread implements RunnableService {
 	@Override
 	public void startService() throws Exception {
 
+		if (Settings.AgentServiceJournalEnabled.getValue()) {
+
+			journal = new TaskJournal(Paths.get(Settings.BasePath.getValue(), JOURNAL_FILE_NAME));
+
+			restoreTasks(journal.replay());
+		}
+
 		run = true;
 		this.start();
 	}
 
 	@Override
 	public void stopService() {
+
 		run = false;
+		this.interrupt();
+
+		// pending entries stay in the journal and are restored on the next start
+		if (journal != null) {
+
+			journal.close();
+			journal = null;
+		}
 	}
 
 	@Override
@@ -145,10 +239,11 @@ public class AgentService extends Thread implements RunnableService {
 		return true;
 	}
 
-	private void assignNextAgentForTask(final Task nextTask) {
+	private boolean assignNextAgentForTask(final QueuedTask nextTask) {
 
-		Class taskClass    = nextTask.getClass();
-		List<Agent> agents = getRunningAgentsForTask(taskClass);
+		final Task task     = nextTask.task;
+		Class taskClass     = task.getClass();
+		List<Agent> agents  = getRunningAgentsForTask(taskClass);
 
 		// need to synchronize on agents
 		synchronized (agents) {
@@ -157,42 +252,128 @@ public class AgentService extends Thread implements RunnableService {
 			// of the first should do..
 			for (Agent agent : agents) {
 
-				if (agent.assignTask(nextTask)) {
+				if (agent.assignTask(task)) {
 
 					// ok, task is assigned
 					logger.debug("Task assigned to agent {} ({})", agent.getName(), agent.hashCode());
 
-					return;
+					dispatched(nextTask);
+
+					return true;
 				}
 			}
 		}
 
-		if (agents.size() < maxAgents) {
+		if (agents.size() < Settings.AgentServiceMaxAgents.getValue()) {
 
 			// if we get here, task was not assigned to any agent, need to create a new one.
-			Agent agent = createAgent(nextTask);
+			Agent agent = createAgent(task);
+
+			if ((agent != null) && agent.assignTask(task)) {
+
+				dispatched(nextTask);
 
-			if ((agent != null) && agent.assignTask(nextTask)) {
+				// register the agent before it runs, so that the next task sees it
+				synchronized (agents) {
+					agents.add(agent);
+				}
 
 				agent.start();
 
-			} else {
+				return true;
+			}
+
+			if (agent == null) {
+
+				logger.warn("No agent found for task {}, discarding task", taskClass.getSimpleName());
+
+				getStatistics(task).queued.decrementAndGet();
+
+				// a discarded task must not be restored on the next start
+				removeJournalEntry(task);
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void dispatched(final QueuedTask queuedTask) {
+
+		final TaskStatistics stats = getStatistics(queuedTask.task);
+
+		stats.queued.decrementAndGet();
+		stats.waitNanos.add(System.nanoTime() - queuedTask.queuedAt);
+	}
+
+	private void removeJournalEntry(final Task task) {
+
+		final Long journalId = journalIds.remove(task);
+		if (journalId != null) {
+
+			final TaskJournal currentJournal = journal;
+			if (currentJournal != null) {
+
+				currentJournal.remove(journalId);
+			}
+		}
+	}
+
+	private void releaseParkedTasks(final Class taskClass, final int count) {
+
+		final Queue<QueuedTask> parked = parkedTasks.get(taskClass.getName());
+		if (parked != null) {
+
+			for (int i=0; i<count; i++) {
+
+				final QueuedTask queuedTask = parked.poll();
+				if (queuedTask == null) {
 
-				// re-add task..
-				synchronized (taskQueue) {
-					taskQueue.add(nextTask);
+					break;
 				}
+
+				// keeps its original sequence number and thereby its position
+				taskQueue.add(queuedTask);
 			}
+		}
+	}
 
-		} else {
+	private void restoreTasks(final List<String[]> entries) {
+
+		int count = 0;
+
+		for (final String[] entry : entries) {
+
+			final String taskClassName = entry[0];
+
+			try {
+
+				final Class agentClass = lookupAgentClass(taskClassName);
+				if (agentClass != null) {
 
-			logger.debug("Overall agents limit reached, re-queueing task");
+					final Agent agent = (Agent) agentClass.getDeclaredConstructor().newInstance();
+					final Task task   = agent.restoreTask(entry[1]);
 
-			// re-add task..
-			synchronized (taskQueue) {
-				taskQueue.add(nextTask);
+					if (task != null) {
+
+						processTask(task);
+						count++;
+					}
+
+				} else {
+
+					logger.warn("No agent found for journaled task {}, discarding task", taskClassName);
+				}
+
+			} catch (Throwable t) {
+				logger.warn("Unable to restore journaled task {}: {}", taskClassName, t.getMessage());
 			}
 		}
+
+		if (count > 0) {
+			logger.info("Restored {} pending tasks from task journal", count);
+		}
 	}
 
 	/**
@@ -228,9 +409,23 @@ public class AgentService extends Thread implements RunnableService {
 	private Agent lookupAgent(Task task) {
 
 		// FIXME: superuser security context
-		Class taskClass  = task.getClass();
+		Class agentClass = lookupAgentClass(task.getClass().getName());
 		Agent agent      = null;
-		Class agentClass = agentClassCache.get(taskClass.getName());
+
+		if (agentClass != null) {
+
+			try {
+				agent = (Agent) agentClass.getDeclaredConstructor().newInstance();
+
+			} catch (Throwable ignore) {}
+		}
+
+		return (agent);
+	}
+
+	private Class lookupAgentClass(final String taskClassName) {
+
+		Class agentClass = agentClassCache.get(taskClassName);
 
 		// cache miss
 		if (agentClass == null) {
@@ -248,7 +443,7 @@ public class AgentService extends Thread implements RunnableService {
 						Agent supportedAgent     = supportedAgentClass.getDeclaredConstructor().newInstance();
 						Class supportedTaskClass = supportedAgent.getSupportedTaskType();
 
-						if (supportedTaskClass.equals(taskClass)) {
+						if (supportedTaskClass.getName().equals(taskClassName)) {
 							agentClass = supportedAgentClass;
 						}
 
@@ -259,23 +454,30 @@ public class AgentService extends Thread implements RunnableService {
 			}
 		}
 
-		if (agentClass != null) {
-
-			try {
-				agent = (Agent) agentClass.getDeclaredConstructor().newInstance();
-
-			} catch (Throwable ignore) {}
-		}
-
-		return (agent);
+		return agentClass;
 	}
 
 	/**
-	 * Returns the current queue of remaining tasks.
+	 * Returns the current queue of remaining tasks in dispatch order.
 	 * @return tasks
 	 */
 	public Collection<Task> getTaskQueue() {
-		return (taskQueue);
+
+		final List<QueuedTask> queued = new ArrayList<>(taskQueue);
+
+		for (final Queue<QueuedTask> parked : parkedTasks.values()) {
+			queued.addAll(parked);
+		}
+
+		queued.sort(dispatchOrder);
+
+		final List<Task> tasks = new ArrayList<>(queued.size());
+
+		for (final QueuedTask queuedTask : queued) {
+			tasks.add(queuedTask.task);
+		}
+
+		return tasks;
 	}
 
 	/**
@@ -286,19 +488,44 @@ public class AgentService extends Thread implements RunnableService {
 		return (runningAgents);
 	}
 
-	private List<Agent> getRunningAgentsForTask(Class taskClass) {
+	/**
+	 * Returns queue depth, throughput and latency information per task type.
+	 * @return task statistics
+	 */
+	public Map<String, Object> getTaskStatistics() {
+
+		final Map<String, Object> info = new LinkedHashMap<>();
+		final Map<String, Object> types = new TreeMap<>();
 
-		List<Agent> agents = runningAgents.get(taskClass.getName());
+		for (final Entry<String, TaskStatistics> entry : statistics.entrySet()) {
 
-		if (agents == null) {
+			final String type                = entry.getKey();
+			final TaskStatistics stats       = entry.getValue();
+			final List<Agent> agents         = runningAgents.get(type);
+			final Map<String, Object> values = stats.toMap();
 
-			agents = Collections.synchronizedList(new LinkedList<>());
+			values.put("agents", agents != null ? agents.size() : 0);
 
-			// Hashtable is synchronized
-			runningAgents.put(taskClass.getName(), agents);
+			types.put(type.substring(type.lastIndexOf('.') + 1), values);
 		}
 
-		return (agents);
+		info.put("maxAgents", Settings.AgentServiceMaxAgents.getValue());
+		info.put("journaled", journal != null ? journal.getPendingCount() : 0);
+		info.put("tasks", types);
+
+		return info;
+	}
+
+	private List<Agent> getRunningAgentsForTask(Class taskClass) {
+		return runningAgents.computeIfAbsent(taskClass.getName(), k -> Collections.synchronizedList(new LinkedList<>()));
+	}
+
+	private Queue<QueuedTask> getParkedTasks(final Class taskClass) {
+		return parkedTasks.computeIfAbsent(taskClass.getName(), k -> new ConcurrentLinkedQueue<>());
+	}
+
+	private TaskStatistics getStatistics(final Task task) {
+		return statistics.computeIfAbsent(task.getClass().getName(), k -> new TaskStatistics());
 	}
 
 	@Override
@@ -321,4 +548,42 @@ public class AgentService extends Thread implements RunnableService {
 	public String getModuleName() {
 		return "core";
 	}
+
+	// ----- nested classes -----
+	private static class QueuedTask {
+
+		private final Task task;
+		private final long sequence;
+		private final long queuedAt;
+
+		public QueuedTask(final Task task, final long sequence) {
+
+			this.task     = task;
+			this.sequence = sequence;
+			this.queuedAt = System.nanoTime();
+		}
+	}
+
+	private static class TaskStatistics {
+
+		private final AtomicInteger queued      = new AtomicInteger();
+		private final LongAdder processed       = new LongAdder();
+		private final LongAdder failed          = new LongAdder();
+		private final LongAdder waitNanos       = new LongAdder();
+		private final LongAdder executionNanos  = new LongAdder();
+
+		public Map<String, Object> toMap() {
+
+			final Map<String, Object> map = new LinkedHashMap<>();
+			final long finished           = processed.sum() + failed.sum();
+
+			map.put("queued",                queued.get());
+			map.put("processed",             processed.sum());
+			map.put("failed",                failed.sum());
+			map.put("averageWaitMillis",     finished > 0 ? waitNanos.sum() / finished / 1_000_000L : 0L);
+			map.put("averageExecutionMillis", finished > 0 ? executionNanos.sum() / finished / 1_000_000L : 0L);
+
+			return map;
+		}
+	}
 }
@@ -84,4 +84,16 @@ public interface Task<T> extends Delayed, StatusInfo {
 	 * @return the retry count
 	 */
 	int getRetryCount();
+
+	/**
+	 * Returns a single-line representation of this task that allows the
+	 * supporting agent to re-create it after a restart, see
+	 * {@link Agent#restoreTask(String)}. Tasks that return null are not
+	 * journaled and are lost when the service stops.
+	 *
+	 * @return the journal entry or null
+	 */
+	default String getJournalEntry() {
+		return null;
+	}
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.agent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of queued tasks. Every journaled task is written as an
+ * "added" line when it is queued and as a "removed" line when it is finished,
+ * so the tasks that are still pending can be reconstructed after a restart.
+ * The file is truncated whenever no journaled task is pending.
+ *
+ * "added" lines are forced to disk before add() returns, so queued tasks
+ * survive a crash. "removed" lines are only written, not forced, so a
+ * crash can cause a task that was already finished to be run again.
+ */
+class TaskJournal {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskJournal.class);
+
+	private final Path path;
+	private FileChannel channel = null;
+	private long nextId         = 0L;
+	private int pending         = 0;
+
+	TaskJournal(final Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Reads the pending entries of the journal and truncates it, the caller
+	 * is expected to re-queue (and thereby re-journal) the returned tasks.
+	 *
+	 * @return a list of [task class name, journal entry] pairs
+	 */
+	synchronized List<String[]> replay() {
+
+		final Map<Long, String[]> entries = new LinkedHashMap<>();
+
+		if (Files.exists(path)) {
+
+			try {
+
+				for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+
+					final String[] parts = line.split("\t", 4);
+					if (parts.length >= 2) {
+
+						try {
+
+							final long id = Long.parseLong(parts[1]);
+
+							if ("+".equals(parts[0]) && parts.length == 4) {
+
+								entries.put(id, new String[] { parts[2], parts[3] });
+
+							} else if ("-".equals(parts[0])) {
+
+								entries.remove(id);
+							}
+
+						} catch (NumberFormatException nfex) {
+							logger.warn("Ignoring malformed task journal line: {}", line);
+						}
+					}
+				}
+
+			} catch (IOException ioex) {
+				logger.warn("Unable to read task journal {}: {}", path, ioex.getMessage());
+			}
+		}
+
+		pending = 0;
+		open();
+
+		return new ArrayList<>(entries.values());
+	}
+
+	/**
+	 * Records a queued task and returns its journal id, or -1 if the task
+	 * could not be recorded.
+	 */
+	synchronized long add(final String taskClass, final String entry) {
+
+		if (channel == null || entry.indexOf('\n') >= 0 || entry.indexOf('\r') >= 0) {
+			return -1L;
+		}
+
+		final long id = nextId++;
+
+		if (write("+\t" + id + "\t" + taskClass + "\t" + entry, true)) {
+
+			pending++;
+			return id;
+		}
+
+		return -1L;
+	}
+
+	synchronized void remove(final long id) {
+
+		if (channel != null && write("-\t" + id, false)) {
+
+			if (--pending <= 0) {
+
+				// nothing pending anymore, start over with an empty file
+				pending = 0;
+				open();
+			}
+		}
+	}
+
+	synchronized void close() {
+
+		if (channel != null) {
+
+			try {
+				channel.force(false);
+				channel.close();
+
+			} catch (IOException ioex) {
+				logger.warn("Unable to close task journal {}: {}", path, ioex.getMessage());
+			}
+
+			channel = null;
+		}
+	}
+
+	synchronized int getPendingCount() {
+		return pending;
+	}
+
+	// ----- private methods -----
+	private void open() {
+
+		close();
+
+		try {
+
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		} catch (IOException ioex) {
+
+			logger.warn("Unable to open task journal {}, queued tasks will not survive a restart: {}", path, ioex.getMessage());
+			channel = null;
+		}
+	}
+
+	private boolean write(final String line, final boolean force) {
+
+		try {
+
+			final ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+
+			if (force) {
+				channel.force(false);
+			}
+
+			return true;
+
+		} catch (IOException ioex) {
+
+			logger.warn("Unable to write to task journal {}: {}", path, ioex.getMessage());
+		}
+
+		return false;
+	}
+}
@@ -41,8 +41,10 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.cluster.BroadcastReceiver;
 import org.structr.core.cluster.ClusterManager;
 import org.structr.core.cluster.StructrMessage;
+import org.structr.core.function.Functions;
 import org.structr.core.function.SetLogLevelFunction;
 import org.structr.core.graph.*;
+import org.structr.core.script.Scripting;
 import org.structr.cron.CronService;
 import org.structr.docs.Documentable;
 import org.structr.docs.documentables.service.*;
@@ -405,6 +407,11 @@ public class Services implements StructrServices, BroadcastReceiver {
 		Settings.EmailValidationRegex.setChangeHandler((setting, oldValue, newValue) -> {
 			Settings.updateEmailValidationPattern();
 		});
+
+		Settings.StructrScriptCacheSize.setChangeHandler((setting, oldValue, newValue) -> {
+			Functions.resetParseCache();
+			Scripting.resetCaches();
+		});
 	}
 
 	private void startServices() {
@@ -615,6 +622,9 @@ public class Services implements StructrServices, BroadcastReceiver {
 				shutdownServices(serviceClass);
 			}
 
+			// write pending changelog entries and close changelog files
+			ChangelogWriter.shutdown();
+
 			serviceCache.clear();
 
 			// shut down configuration provider
@@ -1381,6 +1391,17 @@ public class Services implements StructrServices, BroadcastReceiver {
 		Services.getInstance().broadcastMessageToCluster("data-changed", ids);
 	}
 
+	public void broadcastCacheInvalidation(final Collection<Long> nodeIds, final Collection<Long> relationshipIds) {
+
+		// null means that the respective cache was cleared
+		final List<List<Long>> payload = new ArrayList<>();
+
+		payload.add(nodeIds != null ? new ArrayList<>(nodeIds) : null);
+		payload.add(relationshipIds != null ? new ArrayList<>(relationshipIds) : null);
+
+		Services.getInstance().broadcastMessageToCluster("cache-invalidated", payload);
+	}
+
 	public void broadcastLogin(final long userId) {
 		try {
 			Services.getInstance().broadcastMessageToCluster("data-changed", List.of(userId), true);
@@ -1430,6 +1451,17 @@ public class Services implements StructrServices, BroadcastReceiver {
 			case "data-changed":
 				break;
 
+			case "cache-invalidated":
+
+				final DatabaseService db = getDatabaseService();
+				if (db != null) {
+
+					final List<Collection<Long>> ids = message.getPayloadAsList();
+
+					db.invalidateCachedEntities(ids.get(0), ids.get(1));
+				}
+				break;
+
 			case "startup-complete":
 
 				this.isClusterStarted = true;
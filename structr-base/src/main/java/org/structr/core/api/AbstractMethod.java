@@ -145,7 +145,7 @@ public abstract class AbstractMethod {
 
 							if (ContextHelper.getReferenceCount(context) <= 0) {
 
-								context.close();
+								ContextFactory.releaseContext(lockedContext);
 								actionContext.putScriptingContext(engineName, null);
 							}
 
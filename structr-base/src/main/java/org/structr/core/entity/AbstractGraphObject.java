@@ -125,7 +125,7 @@ public abstract class AbstractGraphObject<T extends PropertyContainer> implement
 
 	@Override
 	public void clearCaches() {
-		AccessControllableTraitDefinition.clearCaches();
+		AccessControllableTraitDefinition.invalidateCaches(this);
 	}
 
 	@Override
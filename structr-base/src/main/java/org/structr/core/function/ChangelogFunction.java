@@ -34,6 +34,7 @@ import org.structr.core.GraphObjectMap;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
 import org.structr.core.entity.Principal;
+import org.structr.core.graph.ChangelogWriter;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.property.EndNodeProperty;
 import org.structr.core.property.Property;
@@ -274,6 +275,9 @@ public class ChangelogFunction extends AdvancedScriptingFunction {
 
 	protected String getChangelogForUUID (final String uuid, final String changelogType) throws IOException {
 
+		// make sure entries of recent transactions are on disk
+		ChangelogWriter.flush();
+
 		java.io.File file = getChangeLogFileOnDisk(changelogType, uuid, false);
 
 		if (file.exists()) {
@@ -21,7 +21,9 @@ package org.structr.core.function;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.api.service.LicenseManager;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.error.UnlicensedScriptException;
 import org.structr.common.helper.CaseHelper;
@@ -50,6 +52,7 @@ public class Functions {
 	protected static final Logger logger                                 = LoggerFactory.getLogger(Functions.class.getName());
 	private static final Set<Function<Object, Object>> allFunctions      = new LinkedHashSet<>();
 	private static final Map<String, Function<Object, Object>> functions = new LinkedHashMap<>();
+	private static volatile FixedSizeCache<String, Expression> parseCache = createParseCache();
 
 	public static void put(final LicenseManager licenseManager, final Function<Object, Object> function) {
 		Functions.put(licenseManager, function, true);
@@ -64,6 +67,9 @@ public class Functions {
 		function.aliases().forEach(alias -> {
 			functions.put(alias, function);
 		});
+
+		// parsed expressions reference the registered function instances
+		clearParseCache();
 	}
 
 	public static Set<String> getNames() {
@@ -261,11 +267,63 @@ public class Functions {
 
 	public static Object evaluate(final ActionContext actionContext, final GraphObject entity, final Snippet snippet, final EvaluationHints hints) throws FrameworkException, UnlicensedScriptException {
 
-		final Expression root = parse(snippet, new ParseResult(), false);
+		final Expression root = getParsedExpression(snippet);
 
 		return root.evaluate(actionContext, entity, hints);
 	}
 
+	/**
+	 * Returns the expression tree for the given snippet from the parse cache,
+	 * or parses and caches it. Expression trees are not modified after
+	 * parsing, so a cached tree can be evaluated by multiple threads.
+	 * Snippets that fail to parse are not cached.
+	 */
+	public static Expression getParsedExpression(final Snippet snippet) throws FrameworkException, UnlicensedScriptException {
+
+		final FixedSizeCache<String, Expression> cache = parseCache;
+		if (cache == null) {
+			return parse(snippet, new ParseResult(), false);
+		}
+
+		final String source = snippet.getSource();
+		Expression root     = cache.get(source);
+
+		if (root == null) {
+
+			root = parse(snippet, new ParseResult(), false);
+
+			cache.put(source, root);
+		}
+
+		return root;
+	}
+
+	public static void clearParseCache() {
+
+		final FixedSizeCache<String, Expression> cache = parseCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Replaces the parse cache with a new one of the currently
+	 * configured size, or disables it if the size is 0.
+	 */
+	public static void resetParseCache() {
+		parseCache = createParseCache();
+	}
+
+	public static Map<String, Integer> getParseCacheInfo() {
+
+		final FixedSizeCache<String, Expression> cache = parseCache;
+		if (cache != null) {
+			return cache.getCacheInfo();
+		}
+
+		return Map.of();
+	}
+
 	public static String cleanString(final Object input) {
 
 		if (input == null) {
@@ -341,6 +399,17 @@ public class Functions {
 	}
 
 	// ----- private methods -----
+	private static FixedSizeCache<String, Expression> createParseCache() {
+
+		final int size = Settings.StructrScriptCacheSize.getValue();
+		if (size > 0) {
+
+			return new FixedSizeCache<>("StructrScript parse cache", size);
+		}
+
+		return null;
+	}
+
 	private static Expression checkReservedWords(final String word, final int level, final Map<Integer, String> namespace, final int row, final int column) throws FrameworkException {
 
 		if (word == null) {
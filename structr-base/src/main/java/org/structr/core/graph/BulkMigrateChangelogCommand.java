@@ -48,6 +48,9 @@ public class BulkMigrateChangelogCommand extends NodeServiceCommand implements M
 	@Override
 	public void execute(final Map<String, Object> properties) throws FrameworkException {
 
+		// existing files are rewritten below, so pending entries must be written first
+		ChangelogWriter.flush();
+
 		final long nodeCount = bulkGraphOperation(securityContext, StructrApp.getInstance().nodeQuery(), 1000, "MigrateChangeLog", new BulkGraphOperation<NodeInterface>() {
 
 			@Override
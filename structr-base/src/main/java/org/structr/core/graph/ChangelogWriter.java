@@ -0,0 +1,434 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.core.function.ChangelogFunction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes changelog entries to disk in a background thread.
+ *
+ * Entries are appended in the order they were submitted. Appends to the
+ * same file are grouped per batch, recently used files are kept open
+ * (application.changelog.maxopenfiles), and written data is forced to
+ * disk every application.changelog.syncinterval milliseconds. A failed
+ * write is retried once with a newly opened file, entries that can still
+ * not be written are counted as dropped (see getInfo()).
+ */
+public class ChangelogWriter {
+
+	private static final Logger logger                    = LoggerFactory.getLogger(ChangelogWriter.class);
+	private static final BlockingQueue<Entry> queue       = new LinkedBlockingQueue<>(Math.max(1, Settings.ChangelogQueueSize.getValue()));
+	private static final Map<String, FileChannel> channels = new LinkedHashMap<>(16, 0.75f, true);
+	private static final Set<FileChannel> unsynced        = new HashSet<>();
+	private static final LongAdder writtenEntries         = new LongAdder();
+	private static final LongAdder droppedEntries         = new LongAdder();
+	private static final LongAdder fileWrites             = new LongAdder();
+	private static final int MAX_BATCH_SIZE               = 10_000;
+	private static volatile int unsyncedFiles             = 0;
+	private static volatile int openFiles                 = 0;
+	private static Thread writer                          = null;
+	private static long lastSync                          = System.currentTimeMillis();
+
+	/**
+	 * Appends the given text to the changelog file of the given object.
+	 * Blocks if the queue is full.
+	 */
+	public static void append(final String typeFolderName, final String uuid, final String text) {
+
+		if (text == null || text.isEmpty()) {
+			return;
+		}
+
+		submit(new Entry(typeFolderName, uuid, text));
+	}
+
+	/**
+	 * Waits until all entries submitted before this call have been written,
+	 * so the changelog files can be read.
+	 */
+	public static void flush() {
+		await(false);
+	}
+
+	/**
+	 * Writes all pending entries, forces them to disk and closes all open files.
+	 */
+	public static void shutdown() {
+		await(true);
+	}
+
+	/**
+	 * Returns the number of queued, written and dropped entries, the number
+	 * of appends to files and the number of open and unsynced files.
+	 */
+	public static Map<String, Integer> getInfo() {
+
+		final Map<String, Integer> info = new LinkedHashMap<>();
+
+		info.put("queued",        queue.size());
+		info.put("written",       toInt(writtenEntries.sum()));
+		info.put("dropped",       toInt(droppedEntries.sum()));
+		info.put("writes",        toInt(fileWrites.sum()));
+		info.put("openFiles",     openFiles);
+		info.put("unsyncedFiles", unsyncedFiles);
+
+		return info;
+	}
+
+	/**
+	 * Writes the given batch of entries, called by the writer thread.
+	 */
+	static void write(final List<Entry> batch) {
+
+		final Map<String, Entry> grouped = new LinkedHashMap<>();
+
+		for (final Entry entry : batch) {
+
+			if (entry.latch != null) {
+
+				// everything submitted before the marker must be written when it is released
+				writeGrouped(grouped);
+				grouped.clear();
+
+				if (entry.close) {
+					close();
+				}
+
+				updateInfo();
+
+				entry.latch.countDown();
+
+			} else {
+
+				final Entry existing = grouped.get(entry.getKey());
+				if (existing != null) {
+
+					existing.append(entry.text);
+
+				} else {
+
+					grouped.put(entry.getKey(), entry);
+				}
+			}
+		}
+
+		writeGrouped(grouped);
+		updateInfo();
+	}
+
+	// ----- private methods -----
+	private static void await(final boolean close) {
+
+		synchronized (ChangelogWriter.class) {
+
+			// nothing was ever submitted
+			if (writer == null) {
+				return;
+			}
+		}
+
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		submit(new Entry(null, null, null, latch, close));
+
+		try {
+
+			if (!latch.await(30, TimeUnit.SECONDS)) {
+
+				logger.warn("Timeout while waiting for changelog entries to be written.");
+			}
+
+		} catch (InterruptedException iex) {
+
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void submit(final Entry entry) {
+
+		start();
+
+		boolean interrupted = false;
+
+		// the entry belongs to a committed transaction and must not be lost, so an interrupt is restored after it was queued
+		while (true) {
+
+			try {
+
+				queue.put(entry);
+				break;
+
+			} catch (InterruptedException iex) {
+
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static synchronized void start() {
+
+		if (writer == null) {
+
+			writer = new Thread(ChangelogWriter::run, "ChangelogWriter");
+			writer.setDaemon(true);
+			writer.start();
+		}
+	}
+
+	private static void run() {
+
+		final List<Entry> batch = new ArrayList<>();
+
+		while (true) {
+
+			try {
+
+				final Entry first = queue.poll(Math.max(100, Settings.ChangelogSyncInterval.getValue()), TimeUnit.MILLISECONDS);
+				if (first != null) {
+
+					batch.add(first);
+					queue.drainTo(batch, MAX_BATCH_SIZE);
+
+					write(batch);
+				}
+
+				final long now = System.currentTimeMillis();
+
+				if (now - lastSync >= Settings.ChangelogSyncInterval.getValue()) {
+
+					sync();
+					updateInfo();
+
+					lastSync = now;
+				}
+
+			} catch (InterruptedException iex) {
+
+				return;
+
+			} catch (Throwable t) {
+
+				logger.warn("Unable to write changelog", t);
+
+			} finally {
+
+				batch.clear();
+			}
+		}
+	}
+
+	private static void writeGrouped(final Map<String, Entry> grouped) {
+
+		for (final Entry entry : grouped.values()) {
+
+			final ByteBuffer buffer = ByteBuffer.wrap(entry.getText().getBytes(StandardCharsets.UTF_8));
+
+			// retry once with a new channel, only the remaining bytes are written
+			if (writeBuffer(entry, buffer) || writeBuffer(entry, buffer)) {
+
+				writtenEntries.add(entry.count);
+
+			} else {
+
+				droppedEntries.add(entry.count);
+
+				logger.error("Unable to write {} changelog entries for {}, entries are lost.", entry.count, entry.uuid);
+			}
+		}
+	}
+
+	private static boolean writeBuffer(final Entry entry, final ByteBuffer buffer) {
+
+		try {
+
+			final FileChannel channel = getChannel(entry);
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+
+			unsynced.add(channel);
+			fileWrites.increment();
+
+			return true;
+
+		} catch (IOException ioex) {
+
+			logger.warn("Unable to write changelog to file: {}", ioex.getMessage());
+
+			closeChannel(channels.remove(entry.getKey()));
+		}
+
+		return false;
+	}
+
+	private static FileChannel getChannel(final Entry entry) throws IOException {
+
+		final String key    = entry.getKey();
+		FileChannel channel = channels.get(key);
+
+		if (channel == null) {
+
+			final java.io.File file = ChangelogFunction.getChangeLogFileOnDisk(entry.typeFolderName, entry.uuid, false);
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+			channels.put(key, channel);
+
+			// close least recently used files
+			final int maxOpenFiles = Math.max(1, Settings.ChangelogMaxOpenFiles.getValue());
+			final Iterator<FileChannel> iterator = channels.values().iterator();
+
+			while (channels.size() > maxOpenFiles && iterator.hasNext()) {
+
+				final FileChannel eldest = iterator.next();
+
+				iterator.remove();
+				closeChannel(eldest);
+			}
+		}
+
+		return channel;
+	}
+
+	private static void sync() {
+
+		for (final FileChannel channel : unsynced) {
+
+			try {
+
+				if (channel.isOpen()) {
+					channel.force(false);
+				}
+
+			} catch (IOException ioex) {
+
+				logger.error("Unable to sync changelog file: {}", ioex.getMessage());
+			}
+		}
+
+		unsynced.clear();
+	}
+
+	private static void close() {
+
+		for (final FileChannel channel : channels.values()) {
+			closeChannel(channel);
+		}
+
+		channels.clear();
+		unsynced.clear();
+	}
+
+	private static void updateInfo() {
+
+		openFiles     = channels.size();
+		unsyncedFiles = unsynced.size();
+	}
+
+	private static int toInt(final long value) {
+		return (int)Math.min(Integer.MAX_VALUE, value);
+	}
+
+	private static void closeChannel(final FileChannel channel) {
+
+		if (channel != null) {
+
+			try {
+
+				if (unsynced.remove(channel)) {
+					channel.force(false);
+				}
+
+				channel.close();
+
+			} catch (IOException ioex) {
+
+				logger.error("Unable to close changelog file: {}", ioex.getMessage());
+			}
+		}
+	}
+
+	static class Entry {
+
+		private final String typeFolderName;
+		private final String uuid;
+		private final CountDownLatch latch;
+		private final boolean close;
+		private final String text;
+		private StringBuilder buffer;
+		private int count = 1;
+
+		Entry(final String typeFolderName, final String uuid, final String text) {
+			this(typeFolderName, uuid, text, null, false);
+		}
+
+		private Entry(final String typeFolderName, final String uuid, final String text, final CountDownLatch latch, final boolean close) {
+
+			this.typeFolderName = typeFolderName;
+			this.uuid           = uuid;
+			this.text           = text;
+			this.latch          = latch;
+			this.close          = close;
+		}
+
+		public String getKey() {
+			return typeFolderName + "/" + uuid;
+		}
+
+		public String getText() {
+			return buffer != null ? buffer.toString() : text;
+		}
+
+		public void append(final String additionalText) {
+
+			if (buffer == null) {
+				buffer = new StringBuilder(text);
+			}
+
+			buffer.append(additionalText);
+			count++;
+		}
+	}
+}
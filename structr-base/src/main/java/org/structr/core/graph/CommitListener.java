@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph;
+
+import java.util.Collection;
+
+/**
+ * A listener that is notified of the modifications of every successful
+ * transaction, independent of callbacks and transaction notifications.
+ * Implementations must be fast and must not throw, they are called
+ * synchronously when the transaction is closed.
+ *
+ * Allows caches outside of the core layer to be invalidated without the
+ * core depending on them.
+ */
+public interface CommitListener {
+
+	void afterCommit(final Collection<ModificationEvent> modificationEvents);
+
+	/**
+	 * Called when all caches are flushed.
+	 */
+	default void flushCaches() {
+	}
+}
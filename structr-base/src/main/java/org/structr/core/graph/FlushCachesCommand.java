@@ -23,8 +23,10 @@ import org.slf4j.LoggerFactory;
 import org.structr.common.AccessPathCache;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.app.StructrApp;
+import org.structr.core.function.Functions;
 import org.structr.core.function.LocalizeFunction;
 import org.structr.core.property.FunctionProperty;
+import org.structr.core.traits.definitions.AccessControllableTraitDefinition;
 import org.structr.core.traits.wrappers.ResourceAccessTraitWrapper;
 import org.structr.docs.*;
 import org.structr.docs.ontology.ConceptType;
@@ -51,9 +53,16 @@ public class FlushCachesCommand extends NodeServiceCommand implements Maintenanc
 
 		ResourceAccessTraitWrapper.clearCache();
 		Actions.clearCache();
+		Functions.clearParseCache();
 		FunctionProperty.clearCache();
 		AccessPathCache.invalidate();
+		AccessControllableTraitDefinition.clearCaches();
 		LocalizeFunction.invalidateCache();
+
+		for (final CommitListener listener : TransactionCommand.getCommitListeners()) {
+			listener.flushCaches();
+		}
+
 		//AbstractSchemaNode.clearCachedSchemaMethods();
 		TransactionCommand.flushCaches();
 
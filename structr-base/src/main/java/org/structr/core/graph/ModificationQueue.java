@@ -18,7 +18,6 @@
  */
 package org.structr.core.graph;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
@@ -32,13 +31,11 @@ import org.structr.core.GraphObject;
 import org.structr.core.GraphObjectMap;
 import org.structr.core.entity.Principal;
 import org.structr.core.entity.Relation;
-import org.structr.core.function.ChangelogFunction;
 import org.structr.core.property.GenericProperty;
 import org.structr.core.property.PropertyKey;
 import org.structr.core.property.PropertyMap;
 import org.structr.core.property.RelationProperty;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -207,9 +204,7 @@ public class ModificationQueue {
 							final String uuid           = ev.isDeleted() ? ev.getUuid() : obj.getUuid();
 							final String typeFolderName = obj.isNode() ? "n" : "r";
 
-							java.io.File file = ChangelogFunction.getChangeLogFileOnDisk(typeFolderName, uuid, true);
-
-							FileUtils.write(file, newLog, "utf-8", true);
+							ChangelogWriter.append(typeFolderName, uuid, newLog);
 						}
 					}
 
@@ -217,14 +212,10 @@ public class ModificationQueue {
 
 						for (Map.Entry<String, StringBuilder> entry : ev.getUserChangeLogs().entrySet()) {
 
-							java.io.File file = ChangelogFunction.getChangeLogFileOnDisk("u", entry.getKey(), true);
-
-							FileUtils.write(file, entry.getValue().toString(), "utf-8", true);
+							ChangelogWriter.append("u", entry.getKey(), entry.getValue().toString());
 						}
 					}
 
-				} catch (IOException ioex) {
-					logger.error("Unable to write changelog to file: {}", ioex.getMessage());
 				} catch (Throwable t) {
 					logger.warn("", t);
 				}
@@ -370,12 +361,18 @@ public class ModificationQueue {
 		return modificationEvents;
 	}
 
-	public void postProcess(final String key, final TransactionPostProcess process) {
+	/**
+	 * Registers the given post-process unless a post-process with the
+	 * same key exists, and returns the registered post-process.
+	 */
+	public TransactionPostProcess postProcess(final String key, final TransactionPostProcess process) {
 
 		if (!postProcesses.containsKey(key)) {
 
 			this.postProcesses.put(key, process);
 		}
+
+		return postProcesses.get(key);
 	}
 
 	public boolean isDeleted(final Node node) {
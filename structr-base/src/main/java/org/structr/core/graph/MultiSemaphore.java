@@ -21,63 +21,152 @@ package org.structr.core.graph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * Serializes transactions that modify the same synchronization keys.
  *
+ * Locks are always acquired in the natural order of their keys, so two
+ * threads with overlapping key sets can not deadlock, and threads with
+ * disjoint key sets never wait for each other. The locks that a thread
+ * acquired are remembered until release() is called from the same thread.
  */
 public class MultiSemaphore {
 
 	private static final Logger logger = LoggerFactory.getLogger(MultiSemaphore.class.getName());
 
-	private final Map<String, Semaphore> semaphoreMap = new ConcurrentHashMap<>();
+	private final ThreadLocal<Deque<KeyLock>> acquiredLocks = ThreadLocal.withInitial(ArrayDeque::new);
+	private final Map<String, KeyLock> lockMap              = new ConcurrentHashMap<>();
+	private final long warnAfterMillis;
 
-	public synchronized void acquire(final Set<String> types) throws InterruptedException {
+	public MultiSemaphore() {
+		this(TimeUnit.SECONDS.toMillis(10));
+	}
+
+	/**
+	 * @param warnAfterMillis the interval after which a waiting thread logs a warning and continues to wait
+	 */
+	public MultiSemaphore(final long warnAfterMillis) {
+		this.warnAfterMillis = warnAfterMillis;
+	}
+
+	public void acquire(final Set<String> types) throws InterruptedException {
 
 		if (types != null && !types.isEmpty()) {
 
-			for (Semaphore semaphore : getSemaphores(types)) {
-				semaphore.acquire();
+			final Deque<KeyLock> acquired = acquiredLocks.get();
+
+			for (final KeyLock lock : getLocks(types)) {
+
+				try {
+
+					lock.acquire();
+
+				} catch (InterruptedException iex) {
+
+					// don't keep partially acquired locks
+					releaseAll(acquired);
+
+					throw iex;
+				}
+
+				acquired.push(lock);
 			}
 		}
 	}
 
 	public void release(final Set<String> types) {
 
-		if (types != null && !types.isEmpty()) {
+		// release exactly the locks this thread acquired, the set of keys can have
+		// grown since acquire() was called, or acquire() was never reached
+		releaseAll(acquiredLocks.get());
+	}
 
-			for (Semaphore semaphore : getSemaphores(types)) {
-				semaphore.release();
-			}
+	public Map<String, Map<String, Long>> getContentionInfo() {
+
+		final Map<String, Map<String, Long>> info = new TreeMap<>();
+
+		for (final KeyLock lock : lockMap.values()) {
+
+			final Map<String, Long> data = new LinkedHashMap<>();
+
+			data.put("acquired",   lock.acquired.sum());
+			data.put("contended",  lock.contended.sum());
+			data.put("waitMillis", TimeUnit.NANOSECONDS.toMillis(lock.waitNanos.sum()));
+			data.put("queued",     (long)lock.getQueueLength());
+
+			info.put(lock.key, data);
 		}
+
+		return info;
 	}
 
-	private Set<Semaphore> getSemaphores(final Set<String> types) {
+	// ----- private methods -----
+	private List<KeyLock> getLocks(final Set<String> types) {
 
-		Set<Semaphore> semaphores = new LinkedHashSet<>();
+		final List<KeyLock> locks = new ArrayList<>();
 
-		if (types != null) {
+		// stable global order prevents lock-order inversion between threads
+		for (final String type : new TreeSet<>(types.stream().filter(Objects::nonNull).toList())) {
 
-			for (String type : types) {
+			locks.add(lockMap.computeIfAbsent(type, key -> new KeyLock(key, warnAfterMillis)));
+		}
 
-				if (type != null) {
+		return locks;
+	}
+
+	private void releaseAll(final Deque<KeyLock> acquired) {
+
+		while (!acquired.isEmpty()) {
+
+			acquired.pop().unlock();
+		}
+	}
 
-					Semaphore semaphore = semaphoreMap.get(type);
-					if (semaphore == null) {
+	// ----- nested classes -----
+	private static class KeyLock extends ReentrantLock {
+
+		private final LongAdder acquired  = new LongAdder();
+		private final LongAdder contended = new LongAdder();
+		private final LongAdder waitNanos = new LongAdder();
+		private final long warnAfterMillis;
+		private final String key;
+
+		public KeyLock(final String key, final long warnAfterMillis) {
+
+			super(true);
+
+			this.warnAfterMillis = warnAfterMillis;
+			this.key             = key;
+		}
 
-						semaphore = new Semaphore(1, true);
-						semaphoreMap.put(type, semaphore);
-					}
+		public void acquire() throws InterruptedException {
 
-					semaphores.add(semaphore);
+			acquired.increment();
+
+			if (tryLock()) {
+				return;
+			}
+
+			final long start = System.nanoTime();
+
+			contended.increment();
+
+			try {
+
+				while (!tryLock(warnAfterMillis, TimeUnit.MILLISECONDS)) {
+
+					logger.warn("Waiting for synchronization key {} for more than {} seconds, {} threads queued.", key, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), getQueueLength());
 				}
+
+			} finally {
+
+				waitNanos.add(System.nanoTime() - start);
 			}
 		}
-
-		return semaphores;
 	}
 }
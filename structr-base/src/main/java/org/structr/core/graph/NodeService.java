@@ -80,6 +80,9 @@ public class NodeService implements SingletonService {
 
 			if (databaseService.initialize(serviceName, services.getVersion(), services.getInstanceName())) {
 
+				// propagate invalidations of the shared entity caches to the other cluster members
+				databaseService.setCacheInvalidationListener(Services.getInstance()::broadcastCacheInvalidation);
+
 				filesPath = Settings.FilesPath.getValue();
 
 				// check existence of files path
@@ -43,6 +43,7 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Graph service command for database operations that need to be wrapped in
@@ -52,6 +53,7 @@ public class TransactionCommand {
 
 	private static final Logger logger                             = LoggerFactory.getLogger(TransactionCommand.class.getName());
 	private static final Set<StructrTransactionListener> listeners = new LinkedHashSet<>();
+	private static final Set<CommitListener> commitListeners       = new CopyOnWriteArraySet<>();
 	private static final ThreadLocal<TransactionCommand> commands  = new ThreadLocal<>();
 	private static final MultiSemaphore                  semaphore = new MultiSemaphore();
 
@@ -249,7 +251,7 @@ public class TransactionCommand {
 		}
 	}
 
-	public static void postProcess(final String key, final TransactionPostProcess process) {
+	public static TransactionPostProcess postProcess(final String key, final TransactionPostProcess process) {
 
 		TransactionCommand command = commands.get();
 		if (command != null) {
@@ -257,7 +259,7 @@ public class TransactionCommand {
 			ModificationQueue modificationQueue = command.getModificationQueue();
 			if (modificationQueue != null) {
 
-				modificationQueue.postProcess(key, process);
+				return modificationQueue.postProcess(key, process);
 
 			} else {
 
@@ -270,6 +272,7 @@ public class TransactionCommand {
 			throw new NotInTransactionException("Not in transaction.");
 		}
 
+		return null;
 	}
 
 	public static void nodeCreated(final Principal user, final NodeInterface node) {
@@ -430,6 +433,18 @@ public class TransactionCommand {
 		return listeners;
 	}
 
+	public static void registerCommitListener(final CommitListener listener) {
+		commitListeners.add(listener);
+	}
+
+	public static void removeCommitListener(final CommitListener listener) {
+		commitListeners.remove(listener);
+	}
+
+	public static Set<CommitListener> getCommitListeners() {
+		return commitListeners;
+	}
+
 	public static void simpleBroadcastWarning(final String title, final String text, final Predicate<String> sessionIdPredicate) {
 
 		final Map<String, Object> messageData = new HashMap();
@@ -504,6 +519,17 @@ public class TransactionCommand {
 		return commands.get() != null;
 	}
 
+	public static boolean hasChanges() {
+
+		final TransactionCommand cmd = commands.get();
+		if (cmd != null && cmd.queue != null) {
+
+			return cmd.queue.hasChanges();
+		}
+
+		return false;
+	}
+
 	public static long getCurrentTransactionId() {
 
 		final TransactionCommand cmd = commands.get();
@@ -617,6 +643,10 @@ public class TransactionCommand {
 		}
 	}
 
+	public static Map<String, Map<String, Long>> getSynchronizationInfo() {
+		return semaphore.getContentionInfo();
+	}
+
 	public static void flushCaches() {
 		final DatabaseService graphDb = Services.getInstance().getDatabaseService();
 		graphDb.flushCaches();
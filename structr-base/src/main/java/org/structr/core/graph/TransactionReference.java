@@ -143,6 +143,11 @@ public class TransactionReference implements Transaction {
 		tx.prefetch2(query, outgoingKeys, incomingKeys, id);
 	}
 
+	@Override
+	public void prefetchNodes(final Iterable<Identity> nodeIds, final Set<String> outgoingTypes, final Set<String> incomingTypes) {
+		tx.prefetchNodes(nodeIds, outgoingTypes, incomingTypes);
+	}
+
 	@Override
 	public void setIsPing(boolean isPing) {
 		tx.setIsPing(isPing);
@@ -20,6 +20,7 @@ package org.structr.core.graph;
 
 import org.structr.api.Prefetcher;
 import org.structr.api.RetryException;
+import org.structr.api.graph.Identity;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.Services;
@@ -97,6 +98,11 @@ public class Tx implements AutoCloseable, Prefetcher {
 		TransactionCommand.getCurrentTransaction().prefetch2(query, outgoingKeys, incomingKeys, id);
 	}
 
+	@Override
+	public void prefetchNodes(final Iterable<Identity> nodeIds, final Set<String> outgoingTypes, final Set<String> incomingTypes) {
+		TransactionCommand.getCurrentTransaction().prefetchNodes(nodeIds, outgoingTypes, incomingTypes);
+	}
+
 	public void setIsPing(final boolean isPing) {
 		TransactionCommand.getCurrentTransaction().setIsPing(isPing);
 	}
@@ -108,6 +114,17 @@ public class Tx implements AutoCloseable, Prefetcher {
 
 		if (guard.compareAndSet(false, true) && (modificationQueue == null || modificationQueue.transactionWasSuccessful())) {
 
+			// notify commit listeners, regardless of callbacks and notifications
+			if (modificationQueue != null) {
+
+				final Collection<ModificationEvent> modificationEvents = modificationQueue.getModificationEvents();
+
+				for (final CommitListener listener : TransactionCommand.getCommitListeners()) {
+
+					listener.afterCommit(modificationEvents);
+				}
+			}
+
 			final List<Long> ids = new ArrayList<>();
 			boolean hasChanges   = false;
 			boolean retry        = true;
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph.search;
+
+import org.structr.api.config.Settings;
+import org.structr.api.graph.PropagationDirection;
+import org.structr.api.search.PermissionQuery;
+import org.structr.common.Permission;
+import org.structr.common.SecurityContext;
+import org.structr.core.GraphObject;
+import org.structr.core.entity.Principal;
+import org.structr.core.entity.Relation;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.TraitsInstance;
+import org.structr.core.traits.TraitsManager;
+import org.structr.core.traits.definitions.GraphObjectTraitDefinition;
+import org.structr.core.traits.operations.accesscontrollable.AllowedBySchema;
+import org.structr.core.traits.relationships.SecurityRelationshipDefinition;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search attribute that restricts a node query to the nodes the
+ * accessing user can read, so the database returns only visible nodes
+ * and paging can be done in the database.
+ *
+ * The database filter covers the visibility flags, ownership, security
+ * relationships and group membership. It is only used if these are the
+ * only sources of read permissions for the searched type, see
+ * {@link #isApplicable(Traits, Principal)}.
+ */
+public class PermissionSearchAttribute<T> extends SearchAttribute<T> implements PermissionQuery {
+
+	private static volatile SchemaInfo schemaInfo = null;
+
+	private final SecurityContext securityContext;
+	private final Set<String> principalIds;
+	private final boolean publicOnly;
+
+	public PermissionSearchAttribute(final SecurityContext securityContext, final Principal user, final boolean publicOnly) {
+
+		super(null, null);
+
+		this.principalIds    = user != null ? user.getOwnAndRecursiveParentsUuids() : Set.of();
+		this.securityContext = securityContext;
+		this.publicOnly      = publicOnly;
+	}
+
+	/**
+	 * Indicates whether the permissions for the given type can be
+	 * resolved in the database. This is not the case if the schema
+	 * contains permission-propagating relationships or if the type
+	 * or one of its subtypes grants read access via schema grants.
+	 *
+	 * @param type the searched type
+	 * @param user the accessing user, or null for anonymous access
+	 *
+	 * @return whether a PermissionSearchAttribute can be used
+	 */
+	public static boolean isApplicable(final Traits type, final Principal user) {
+
+		if (type == null || !type.isNodeType() || !Settings.PermissionQueryFiltering.getValue()) {
+			return false;
+		}
+
+		final SchemaInfo info = getSchemaInfo();
+		if (info.hasPermissionPropagation) {
+			return false;
+		}
+
+		if (user != null) {
+
+			for (final String subtype : info.getSubtypes(type.getName())) {
+
+				final AllowedBySchema allowedBySchema = Traits.of(subtype).getMethod(AllowedBySchema.class);
+
+				// schema grants only depend on the principal, not on the node
+				if (allowedBySchema != null && allowedBySchema.allowedBySchema(null, user, Permission.read)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PermissionSearchAttribute(" + principalIds + ")";
+	}
+
+	@Override
+	public boolean includeInResult(final GraphObject entity) {
+		return entity instanceof NodeInterface node && securityContext.isReadable(node, true, publicOnly);
+	}
+
+	@Override
+	public Class getQueryType() {
+		return PermissionQuery.class;
+	}
+
+	@Override
+	public boolean isExactMatch() {
+		return true;
+	}
+
+	// ----- interface PermissionQuery -----
+	@Override
+	public Set<String> getPrincipalIds() {
+		return principalIds;
+	}
+
+	@Override
+	public boolean isPublicOnly() {
+		return publicOnly;
+	}
+
+	@Override
+	public String getPermission() {
+		return Permission.read.name();
+	}
+
+	@Override
+	public String getIdPropertyName() {
+		return Traits.of(StructrTraits.GRAPH_OBJECT).key(GraphObjectTraitDefinition.ID_PROPERTY).dbName();
+	}
+
+	@Override
+	public String getPublicPropertyName() {
+		return Traits.of(StructrTraits.GRAPH_OBJECT).key(GraphObjectTraitDefinition.VISIBLE_TO_PUBLIC_USERS_PROPERTY).dbName();
+	}
+
+	@Override
+	public String getAuthenticatedPropertyName() {
+		return Traits.of(StructrTraits.GRAPH_OBJECT).key(GraphObjectTraitDefinition.VISIBLE_TO_AUTHENTICATED_USERS_PROPERTY).dbName();
+	}
+
+	@Override
+	public String getOwnerRelationship() {
+		return Traits.of(StructrTraits.PRINCIPAL_OWNS_NODE).getRelation().name();
+	}
+
+	@Override
+	public String getSecurityRelationship() {
+		return Traits.of(StructrTraits.SECURITY).getRelation().name();
+	}
+
+	@Override
+	public String getAllowedPropertyName() {
+		return Traits.of(StructrTraits.SECURITY).key(SecurityRelationshipDefinition.ALLOWED_PROPERTY).dbName();
+	}
+
+	// ----- private methods -----
+	private static SchemaInfo getSchemaInfo() {
+
+		final TraitsInstance instance = TraitsManager.getCurrentInstance();
+		SchemaInfo info               = schemaInfo;
+
+		// schema info is recomputed when the schema changes
+		if (info == null || info.instance != instance) {
+
+			info       = new SchemaInfo(instance);
+			schemaInfo = info;
+		}
+
+		return info;
+	}
+
+	// ----- nested classes -----
+	private static class SchemaInfo {
+
+		private final Map<String, Set<String>> subtypes = new ConcurrentHashMap<>();
+		private final boolean hasPermissionPropagation;
+		private final TraitsInstance instance;
+
+		public SchemaInfo(final TraitsInstance instance) {
+
+			this.instance                 = instance;
+			this.hasPermissionPropagation = !Traits.getAllTypes(t -> {
+
+				final Relation relation = t.isRelationshipType() ? t.getRelation() : null;
+
+				return relation != null && !PropagationDirection.None.equals(relation.getPropagationDirection());
+
+			}).isEmpty();
+		}
+
+		public Set<String> getSubtypes(final String type) {
+			return subtypes.computeIfAbsent(type, k -> Traits.getAllTypes(t -> t.getAllTraits().contains(k)));
+		}
+	}
+}
@@ -20,6 +20,8 @@ package org.structr.core.graph.search;
 
 import org.structr.api.Predicate;
 import org.structr.api.UnknownClientException;
+import org.structr.api.config.Settings;
+import org.structr.api.graph.Identity;
 import org.structr.api.graph.PropertyContainer;
 import org.structr.api.index.Index;
 import org.structr.api.search.Operation;
@@ -28,6 +30,7 @@ import org.structr.api.search.SortOrder;
 import org.structr.api.util.Iterables;
 import org.structr.api.util.PagingIterable;
 import org.structr.api.util.ResultStream;
+import org.structr.api.util.TopKSelector;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.geo.GeoCodingResult;
@@ -38,6 +41,7 @@ import org.structr.core.app.QueryGroup;
 import org.structr.core.entity.Principal;
 import org.structr.core.graph.Factory;
 import org.structr.core.graph.NodeServiceCommand;
+import org.structr.core.graph.TransactionCommand;
 import org.structr.core.property.PropertyKey;
 import org.structr.core.traits.StructrTraits;
 import org.structr.core.traits.Traits;
@@ -54,6 +58,7 @@ import java.util.*;
 public abstract class SearchCommand<S extends PropertyContainer, T extends GraphObject> extends NodeServiceCommand implements Query<T> {
 
 	private static final Set<String> indexedWarningDisabled = new LinkedHashSet<>(Arrays.asList(SchemaMethodTraitDefinition.SOURCE_PROPERTY, SchemaPropertyTraitDefinition.READ_FUNCTION_PROPERTY, SchemaPropertyTraitDefinition.WRITE_FUNCTION_PROPERTY));
+	private static final int PERMISSION_PREFETCH_BATCH_SIZE = 100;
 
 	private SearchAttributeGroup<T> rootGroup       = null;
 	private SortOrder sortOrder                     = new DefaultSortOrder();
@@ -114,6 +119,19 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 			}
 		}
 
+		// resolve read permissions in the database if possible, so paging can be done there as well
+		if (!isRelationshipSearch() && !securityContext.isSuperUser() && (user == null || !user.isAdmin()) && PermissionSearchAttribute.isApplicable(this.traits, user)) {
+
+			rootGroup.add(new PermissionSearchAttribute<>(securityContext, user, publicOnly));
+			queryContext.setIsPermissionFiltered(true);
+
+			if (queryContext.isSliced()) {
+
+				page     = queryContext.getPage();
+				pageSize = queryContext.getPageSize();
+			}
+		}
+
 		// special handling of deleted and hidden flags
 		if (!includeHidden && !isRelationshipSearch()) {
 
@@ -155,7 +173,14 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 
 				// do query
 				try {
-					indexHits = Iterables.map(factory, index.query(getQueryContext(), rootGroup, pageSize, page));
+					Iterable<S> rawHits = index.query(getQueryContext(), rootGroup, pageSize, page);
+
+					// the read permission check of every result needs its ownership and security relationships
+					if (!isRelationshipSearch() && user != null && !user.isAdmin() && !securityContext.isSuperUser()) {
+						rawHits = prefetchPermissionRelationships(rawHits);
+					}
+
+					indexHits = Iterables.map(factory, rawHits);
 
 				} catch (UnknownClientException uclex) {
 
@@ -164,14 +189,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 
 				if (comparator != null) {
 
-					// pull results into memory
-					final List<T> rawResult = Iterables.toList(indexHits);
-
-					// sort result
-					Collections.sort(rawResult, comparator);
-
-					// return paging iterable
-					return new PagingIterable(description, rawResult, pageSize, page, queryContext.getSkipped());
+					return sortAndPage(description, indexHits, comparator);
 				}
 			}
 		}
@@ -234,10 +252,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 			// default sort order is applied at database level
 			if (!(sortOrder instanceof DefaultSortOrder)) {
 
-				final List<T> finalResult = new LinkedList<>(Iterables.toList(indexHits));
-				Collections.sort(finalResult, sortOrder);
-
-				return new PagingIterable(description, finalResult, pageSize, page, queryContext.getSkipped());
+				return sortAndPage(description, indexHits, sortOrder);
 			}
 
 			// no filtering
@@ -245,6 +260,60 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 		}
 	}
 
+	/**
+	 * Loads the incoming ownership and security relationships of the given
+	 * nodes in batches, so the read permission check does not need two
+	 * queries per node.
+	 */
+	private Iterable<S> prefetchPermissionRelationships(final Iterable<S> source) {
+
+		final Set<String> incomingTypes = Set.of(
+			Traits.of(StructrTraits.PRINCIPAL_OWNS_NODE).getRelation().name(),
+			Traits.of(StructrTraits.SECURITY).getRelation().name()
+		);
+
+		return Iterables.batch(source, PERMISSION_PREFETCH_BATCH_SIZE, batch -> {
+
+			final List<Identity> ids = new ArrayList<>(batch.size());
+
+			for (final S node : batch) {
+				ids.add(node.getId());
+			}
+
+			TransactionCommand.getCurrentTransaction().prefetchNodes(ids, Set.of(), incomingTypes);
+		});
+	}
+
+	/**
+	 * Sorts the given result in memory and returns the requested page. If the
+	 * requested page is within the first {@link Settings#SortTopKLimit}
+	 * results, only the elements up to the end of the page are kept in
+	 * memory while the result is streamed.
+	 */
+	private PagingIterable sortAndPage(final String description, final Iterable<T> source, final Comparator<T> comparator) {
+
+		final long limit = (long)page * (long)pageSize;
+
+		if (page > 0 && pageSize < Integer.MAX_VALUE && limit <= Settings.SortTopKLimit.getValue()) {
+
+			final TopKSelector<T> selector = new TopKSelector<T>(comparator, (int)limit).addAll(source);
+			final int skipped              = queryContext.getSkipped();
+			final PagingIterable result    = new PagingIterable(description, selector.getResult(), pageSize, page, skipped);
+
+			// the result count cannot be determined from the selected elements
+			result.setOverriddenResultCount(skipped + (int)selector.getCount());
+
+			return result;
+		}
+
+		// pull results into memory
+		final List<T> rawResult = new ArrayList<>(Iterables.toList(source));
+
+		Collections.sort(rawResult, comparator);
+
+		return new PagingIterable(description, rawResult, pageSize, page, queryContext.getSkipped());
+	}
+
 	private void handleSearchAttributeGroup(final SearchConfig config, final SearchAttributeGroup group, final List<SourceSearchAttribute> sources) throws FrameworkException {
 
 		// check for optional-only queries
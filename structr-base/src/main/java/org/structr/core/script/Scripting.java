@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.Predicate;
 import org.structr.api.config.Settings;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.api.util.Iterables;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.AssertException;
@@ -51,6 +52,7 @@ import org.structr.schema.action.ActionContext;
 import org.structr.schema.action.EvaluationHints;
 import org.structr.schema.parser.DatePropertyGenerator;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -59,8 +61,10 @@ import java.util.stream.Stream;
 
 public class Scripting {
 
-	private static final Pattern ScriptEngineExpression             = Pattern.compile("^\\$\\{(\\w+)\\{(.*)\\}\\}$", Pattern.DOTALL);
-	private static final Logger logger                              = LoggerFactory.getLogger(Scripting.class.getName());
+	private static final Pattern ScriptEngineExpression                  = Pattern.compile("^\\$\\{(\\w+)\\{(.*)\\}\\}$", Pattern.DOTALL);
+	private static final Logger logger                                   = LoggerFactory.getLogger(Scripting.class.getName());
+	private static volatile FixedSizeCache<String, Template> templates   = createTemplateCache();
+	private static volatile FixedSizeCache<String, CachedSource> sources = createSourceCache();
 
 	public static String replaceVariables(final ActionContext actionContext, final GraphObject entity, final Object rawValue) throws FrameworkException {
 		return replaceVariables(actionContext, entity, rawValue, false, "script source");
@@ -93,43 +97,51 @@ public class Scripting {
 			// this is a very important check here, the ActionContext can be set to "raw" mode
 			if (!actionContext.returnRawValue()) {
 
-				final List<Tuple> replacements = new LinkedList<>();
+				final Template template = getTemplate(value);
+				final int count         = template.expressions.length;
 
-				for (final String expression : extractScripts(value)) {
+				if (count > 0) {
 
-					try {
+					final StringBuilder buf         = new StringBuilder(template.parts[0]);
+					final ScriptConfig scriptConfig = ScriptConfig.builder()
+							.wrapJsInMain(Settings.WrapJSInMainFunction.getValue(false))
+							.build();
 
-						final ScriptConfig scriptConfig = ScriptConfig.builder()
-								.wrapJsInMain(Settings.WrapJSInMainFunction.getValue(false))
-								.build();
+					for (int i=0; i<count; i++) {
 
-						final Object extractedValue = evaluate(actionContext, entity, expression, methodName, 0, entity != null ? entity.getUuid() : null, scriptConfig);
-						String partValue            = extractedValue != null ? formatToDefaultDateOrString(extractedValue) : "";
+						final String expression = template.expressions[i];
 
-						// non-null value?
-						valueWasNull &= extractedValue == null;
+						// expressions that can not be evaluated remain in the output
+						String replacement = expression;
 
-						if (partValue != null) {
+						try {
 
-							replacements.add(new Tuple(expression, partValue));
+							final Object extractedValue = evaluate(actionContext, entity, expression, methodName, 0, entity != null ? entity.getUuid() : null, scriptConfig);
+							String partValue            = extractedValue != null ? formatToDefaultDateOrString(extractedValue) : "";
 
-						} else {
+							// non-null value?
+							valueWasNull &= extractedValue == null;
+
+							if (partValue != null) {
+
+								replacement = partValue;
 
-							if (!value.equals(expression)) {
-								replacements.add(new Tuple(expression, ""));
+							} else {
+
+								if (!value.equals(expression)) {
+									replacement = "";
+								}
 							}
+
+						} catch (UnlicensedScriptException ex) {
+							ex.log(logger);
 						}
 
-					} catch (UnlicensedScriptException ex) {
-						ex.log(logger);
+						buf.append(replacement);
+						buf.append(template.parts[i + 1]);
 					}
-				}
-
-				// apply replacements
-				for (final Tuple tuple : replacements) {
 
-					// only replace a single occurrence at a time!
-					value = StringUtils.replaceOnce(value, tuple.key, tuple.value);
+					value = buf.toString();
 				}
 			}
 
@@ -297,7 +309,7 @@ public class Scripting {
 
 					if (ContextHelper.getReferenceCount(context) <= 0) {
 
-						context.close();
+						ContextFactory.releaseContext(lockedContext);
 						actionContext.putScriptingContext(engineName, null);
 					}
 				}
@@ -326,15 +338,7 @@ public class Scripting {
 
 		try {
 
-			Source source = null;
-			String code = snippet.getSource();
-
-			if ("js".equals(engineName) && snippet.embed()) {
-
-				code = JSFunctionTranspiler.transpileSource(snippet);
-			}
-
-			source = Source.newBuilder(engineName, code, snippet.getName()).mimeType(snippet.getMimeType()).build();
+			final Source source = getSource(engineName, snippet);
 
 			try {
 				if (source != null) {
@@ -431,7 +435,121 @@ public class Scripting {
 		return new String[] { engine, script };
 	}
 
+	public static Map<String, Integer> getSourceCacheInfo() {
+
+		final FixedSizeCache<String, CachedSource> cache = sources;
+		if (cache != null) {
+			return cache.getCacheInfo();
+		}
+
+		return Map.of();
+	}
+
+	public static Map<String, Integer> getTemplateCacheInfo() {
+
+		final FixedSizeCache<String, Template> cache = templates;
+		if (cache != null) {
+			return cache.getCacheInfo();
+		}
+
+		return Map.of();
+	}
+
+	/**
+	 * Replaces the template and source caches with new ones of the
+	 * currently configured size, or disables them if the size is 0.
+	 */
+	public static void resetCaches() {
+
+		templates = createTemplateCache();
+		sources   = createSourceCache();
+	}
+
 	// ----- private methods -----
+	private static FixedSizeCache<String, Template> createTemplateCache() {
+
+		final int size = Settings.StructrScriptCacheSize.getValue();
+		if (size > 0) {
+
+			return new FixedSizeCache<>("Template cache", size);
+		}
+
+		return null;
+	}
+
+	private static FixedSizeCache<String, CachedSource> createSourceCache() {
+
+		final int size = Settings.StructrScriptCacheSize.getValue();
+		if (size > 0) {
+
+			return new FixedSizeCache<>("Polyglot source cache", size);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a (transpiled) polyglot source for the given snippet. Sources
+	 * are cached by engine, name and source hash, so repeated calls of the
+	 * same method reuse the same Source object. The source text is compared
+	 * on every hit to protect against hash collisions.
+	 */
+	private static Source getSource(final String engineName, final Snippet snippet) throws IOException {
+
+		final boolean transpile = "js".equals(engineName) && snippet.embed();
+		final String original   = snippet.getSource();
+		final String key        = engineName + ":" + snippet.getName() + ":" + snippet.getMimeType() + ":" + transpile + ":" + original.hashCode();
+
+		final FixedSizeCache<String, CachedSource> cache = sources;
+		if (cache != null) {
+
+			final CachedSource cached = cache.get(key);
+			if (cached != null && cached.original.equals(original)) {
+
+				if (transpile) {
+					snippet.setTranscribedSource(cached.code);
+				}
+
+				return cached.source;
+			}
+		}
+
+		final String code   = transpile ? JSFunctionTranspiler.transpileSource(snippet) : original;
+		final Source source = Source.newBuilder(engineName, code, snippet.getName()).mimeType(snippet.getMimeType()).build();
+
+		if (cache != null) {
+			cache.put(key, new CachedSource(original, code, source));
+		}
+
+		return source;
+	}
+
+	/**
+	 * Returns the given source split into literal text and script
+	 * expressions. Sources without script expressions are not cached
+	 * because scanning them is as cheap as a cache lookup.
+	 */
+	private static Template getTemplate(final String source) {
+
+		if (!source.contains("${")) {
+			return new Template(source, List.of());
+		}
+
+		final FixedSizeCache<String, Template> cache = templates;
+		if (cache == null) {
+			return new Template(source, extractScripts(source));
+		}
+
+		Template template = cache.get(source);
+		if (template == null) {
+
+			template = new Template(source, extractScripts(source));
+
+			cache.put(source, template);
+		}
+
+		return template;
+	}
 
 	// this is only public to be testable :(
 	public static List<String> extractScripts(final String source) {
@@ -788,14 +906,48 @@ public class Scripting {
 	}
 
 	// ----- nested classes -----
-	private static class Tuple {
+	private static class CachedSource {
+
+		private final String original;
+		private final String code;
+		private final Source source;
+
+		public CachedSource(final String original, final String code, final Source source) {
+
+			this.original = original;
+			this.code     = code;
+			this.source   = source;
+		}
+	}
+
+	/**
+	 * Immutable representation of a source string with n script expressions
+	 * and the n+1 literal parts around them.
+	 */
+	private static class Template {
+
+		private final String[] expressions;
+		private final String[] parts;
+
+		public Template(final String source, final List<String> scripts) {
+
+			final int count = scripts.size();
+			int pos         = 0;
 
-		public String key = null;
-		public String value = null;
+			this.expressions = new String[count];
+			this.parts       = new String[count + 1];
+
+			for (int i=0; i<count; i++) {
+
+				final String expression = scripts.get(i);
+				final int start         = source.indexOf(expression, pos);
+
+				expressions[i] = expression;
+				parts[i]       = source.substring(pos, start);
+				pos            = start + expression.length();
+			}
 
-		public Tuple(final String key, final String value) {
-			this.key = key;
-			this.value = value;
+			parts[count] = source.substring(pos);
 		}
 	}
 }
@@ -550,7 +550,7 @@ public abstract class PolyglotWrapper {
 
 					if (ContextHelper.getReferenceCount(lockedContext.getContext()) <= 0) {
 
-						lockedContext.getContext().close();
+						ContextFactory.releaseContext(lockedContext);
 						actionContext.removeScriptingContextByValue(lockedContext);
 					}
 				}
@@ -20,6 +20,8 @@ package org.structr.core.script.polyglot.context;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
 import org.structr.common.error.FrameworkException;
@@ -28,9 +30,11 @@ import org.structr.core.script.polyglot.AccessProvider;
 import org.structr.core.script.polyglot.StructrBinding;
 import org.structr.schema.action.ActionContext;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -38,6 +42,7 @@ import java.util.stream.Collectors;
 public abstract class ContextFactory {
 
 	private static final String debuggerPath        = "/structr/scripting/remotedebugger/";
+	private static final Map<String, BlockingQueue<LockedContext>> contextPools = new ConcurrentHashMap<>();
 	private static String currentDebuggerUUID = "";
 	private static Engine engine              = buildEngine();
 
@@ -105,6 +110,9 @@ public abstract class ContextFactory {
 
 					engine = buildEngine();
 
+					// pooled contexts belong to the previous engine
+					closePooledContexts();
+
 					genericBuilder.engine(engine);
 					jsBuilder.engine(engine);
 					pythonBuilder.engine(engine);
@@ -192,16 +200,81 @@ public abstract class ContextFactory {
 		return  storedContext;
 	}
 
+	/**
+	 * Closes the given context or, if context pooling is enabled, resets
+	 * it and keeps it for the next script evaluation. Only JavaScript
+	 * contexts are pooled, because their built-in objects can be checked
+	 * for modifications before a context is reused.
+	 *
+	 * @param lockedContext
+	 */
+	public static void releaseContext(final ContextFactory.LockedContext lockedContext) {
+
+		final int poolSize = Settings.ScriptingContextPoolSize.getValue(0);
+
+		if (poolSize > 0 && lockedContext.engine == engine && lockedContext.integrityCheck != null && lockedContext.reset()) {
+
+			final BlockingQueue<LockedContext> pool = contextPools.computeIfAbsent(lockedContext.language, k -> new LinkedBlockingQueue<>());
+
+			// the size check is not atomic, so the pool can exceed its size by the number of concurrent releases
+			if (pool.size() < poolSize && pool.offer(lockedContext)) {
+				return;
+			}
+		}
+
+		lockedContext.close();
+	}
+
+	public static Map<String, Integer> getContextPoolInfo() {
+
+		final Map<String, Integer> info = new LinkedHashMap<>();
+
+		info.put("max", Settings.ScriptingContextPoolSize.getValue(0));
+
+		for (final Map.Entry<String, BlockingQueue<LockedContext>> entry : contextPools.entrySet()) {
+			info.put(entry.getKey(), entry.getValue().size());
+		}
+
+		return info;
+	}
+
+	public static void closePooledContexts() {
+
+		for (final BlockingQueue<LockedContext> pool : contextPools.values()) {
+
+			LockedContext lockedContext = null;
+
+			while ((lockedContext = pool.poll()) != null) {
+				lockedContext.close();
+			}
+		}
+	}
+
+	private static ContextFactory.LockedContext borrowContext(final String language, final Context.Builder builder) {
+
+		final BlockingQueue<LockedContext> pool = contextPools.get(language);
+		if (pool != null) {
+
+			final LockedContext pooled = pool.poll();
+			if (pooled != null) {
+
+				return pooled;
+			}
+		}
+
+		return new LockedContext(language, engine, builder.build());
+	}
+
 	private static ContextFactory.LockedContext buildJSContext(final ActionContext actionContext, final GraphObject entity) {
-		return updateBindings(new LockedContext(jsBuilder.build()), "js", actionContext, entity);
+		return updateBindings(borrowContext("js", jsBuilder), "js", actionContext, entity);
 	}
 
 	private static ContextFactory.LockedContext buildPythonContext(final ActionContext actionContext, final GraphObject entity) {
-		return updateBindings(new LockedContext(pythonBuilder.build()), "python", actionContext, entity);
+		return updateBindings(borrowContext("python", pythonBuilder), "python", actionContext, entity);
 	}
 
 	private static ContextFactory.LockedContext buildGenericContext(final String language, final ActionContext actionContext, final GraphObject entity) {
-		return updateBindings(new LockedContext(genericBuilder.build()), language, actionContext, entity);
+		return updateBindings(new LockedContext(language, engine, genericBuilder.build()), language, actionContext, entity);
 	}
 
 	private static ContextFactory.LockedContext updateBindings(final ContextFactory.LockedContext lockedContext, final String language, final ActionContext actionContext, final GraphObject entity) {
@@ -262,12 +335,77 @@ public abstract class ContextFactory {
 
 	public static class LockedContext {
 		private static final boolean DEBUG_ENABLED = false;
+
+		/**
+		 * Records the property descriptors, prototype and extensibility of
+		 * the global object, of all objects and constructor prototypes
+		 * reachable from it and of the iterator and generator intrinsics.
+		 * Returns a function that checks whether any of them was modified.
+		 * The check only uses functions captured here and index-based loops,
+		 * so that modified built-ins can not influence its result.
+		 */
+		private static final Source integritySnapshot = Source.create("js", """
+			(function() {
+				const ownKeys = Reflect.ownKeys, getDescriptor = Object.getOwnPropertyDescriptor, getPrototype = Object.getPrototypeOf, isExtensible = Object.isExtensible, is = Object.is;
+				const attributes = ['value', 'get', 'set', 'writable', 'enumerable', 'configurable'];
+				const targets    = [globalThis];
+				const add        = function(o) { if (o !== null && (typeof o === 'object' || typeof o === 'function') && targets.indexOf(o) < 0) { targets.push(o); } };
+				const globalKeys = ownKeys(globalThis);
+				for (let i = 0; i < globalKeys.length; i++) {
+					const value = getDescriptor(globalThis, globalKeys[i]).value;
+					add(value);
+					if (typeof value === 'function') {
+						const prototype = getDescriptor(value, 'prototype');
+						if (prototype !== undefined) { add(prototype.value); }
+					}
+				}
+				const intrinsics = [[][Symbol.iterator](), new Map().entries(), new Set().values(), ''[Symbol.iterator](), function*() {}, (function*() {})(), async function() {}];
+				for (let i = 0; i < intrinsics.length; i++) {
+					add(getPrototype(intrinsics[i]));
+					add(getPrototype(getPrototype(intrinsics[i])));
+				}
+				const snapshot = [];
+				for (let i = 0; i < targets.length; i++) {
+					const keys        = ownKeys(targets[i]);
+					const descriptors = [];
+					for (let j = 0; j < keys.length; j++) { descriptors[j] = getDescriptor(targets[i], keys[j]); }
+					snapshot[i] = [targets[i], getPrototype(targets[i]), isExtensible(targets[i]), keys, descriptors];
+				}
+				return function() {
+					for (let i = 0; i < snapshot.length; i++) {
+						const entry = snapshot[i], target = entry[0], keys = ownKeys(target);
+						if (getPrototype(target) !== entry[1] || isExtensible(target) !== entry[2] || keys.length !== entry[3].length) { return false; }
+						for (let j = 0; j < keys.length; j++) {
+							if (keys[j] !== entry[3][j]) { return false; }
+							const actual = getDescriptor(target, keys[j]), expected = entry[4][j];
+							for (let k = 0; k < attributes.length; k++) {
+								if (!is(actual[attributes[k]], expected[attributes[k]])) { return false; }
+							}
+						}
+					}
+					return true;
+				};
+			})()
+			""");
+
 		private final ReentrantLock lock = new PolyglotReentrantLock();
+		private final Set<String> initialMembers;
+		private final Value integrityCheck;
 		private final Context context;
+		private final String language;
+		private final Engine engine;
 		private StructrBinding binding = null;
 
-		public LockedContext(final Context context) {
-			this.context = context;
+		public LockedContext(final String language, final Engine engine, final Context context) {
+			this.initialMembers = new HashSet<>(context.getBindings(language).getMemberKeys());
+			this.integrityCheck = "js".equals(language) ? context.eval(integritySnapshot) : null;
+			this.language       = language;
+			this.context        = context;
+			this.engine         = engine;
+		}
+
+		public String getLanguage() {
+			return this.language;
 		}
 
 		public ReentrantLock getLock() {
@@ -293,6 +431,63 @@ public abstract class ContextFactory {
 			throw new IllegalStateException("Lock for context is not held by current thread.");
 		}
 
+		/**
+		 * Removes all global bindings that were created after this context
+		 * was built. Contexts whose remaining globals or built-in objects
+		 * differ from the state recorded when the context was built can
+		 * not be reused, because the modifications would be visible to the
+		 * next evaluation.
+		 *
+		 * @return whether the context can be reused
+		 */
+		private boolean reset() {
+
+			lock.lock();
+			try {
+
+				final Value bindings = context.getBindings(language);
+
+				for (final String key : new ArrayList<>(bindings.getMemberKeys())) {
+
+					if (!initialMembers.contains(key)) {
+						bindings.removeMember(key);
+					}
+				}
+
+				if (!initialMembers.equals(new HashSet<>(bindings.getMemberKeys())) || !integrityCheck.execute().asBoolean()) {
+
+					LoggerFactory.getLogger(ContextFactory.class).debug("Not reusing {} context, global objects were modified.", language);
+
+					return false;
+				}
+
+				ContextHelper.setReferenceCount(context, 0);
+
+				this.binding = null;
+
+				return true;
+
+			} catch (Throwable t) {
+
+				LoggerFactory.getLogger(ContextFactory.class).warn("Unable to reset {} context for reuse: {}", language, t.getMessage());
+
+			} finally {
+				lock.unlock();
+			}
+
+			return false;
+		}
+
+		private void close() {
+
+			lock.lock();
+			try {
+				context.close();
+			} finally {
+				lock.unlock();
+			}
+		}
+
 		public static class PolyglotReentrantLock extends ReentrantLock {
 
 			@Override
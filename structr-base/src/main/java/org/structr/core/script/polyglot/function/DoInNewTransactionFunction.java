@@ -169,7 +169,7 @@ public class DoInNewTransactionFunction extends BuiltinFunctionHint implements P
 								innerContext.leave();
 								if (ContextHelper.getReferenceCount(innerContext) <= 0) {
 
-									innerContext.close();
+									ContextFactory.releaseContext(innerLockedContext);
 									actionContext.removeScriptingContextByValue(innerLockedContext);
 								}
 							} finally {
@@ -150,6 +150,14 @@ public class Trait implements TypeInfo {
 		return (T) frameworkMethods.get(type);
 	}
 
+	public Map<Class, LifecycleMethod> getLifecycleMethods() {
+		return lifecycleMethods;
+	}
+
+	public Map<Class, FrameworkMethod> getFrameworkMethods() {
+		return frameworkMethods;
+	}
+
 	public Map<Class, RelationshipTraitFactory> getRelationshipTraitFactories() {
 		return relationshipTraitFactories;
 	}
@@ -200,6 +208,8 @@ public class Trait implements TypeInfo {
 
 			dynamicMethods.put(method.getName(), new ScriptMethod(method));
 		}
+
+		traitsInstance.traitModified(this);
 	}
 
 	public boolean isDynamic() {
@@ -273,6 +283,8 @@ public class Trait implements TypeInfo {
 					return getSuper().allowedBySchema(node, principal, permission);
 				}
 			});
+
+			traitsInstance.traitModified(this);
 		}
 	}
 
@@ -293,6 +305,8 @@ public class Trait implements TypeInfo {
 		if (key.isDynamic() || DEFAULT_PROPERTY_KEYS.contains(name)) {
 			this.views.computeIfAbsent("custom", k -> new LinkedHashSet<>()).add(name);
 		}
+
+		traitsInstance.traitModified(this);
 	}
 
 	// ----- interface TypeInfo -----
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.traits;
+
+import org.structr.core.api.AbstractMethod;
+import org.structr.core.entity.Relation;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.operations.FrameworkMethod;
+import org.structr.core.traits.operations.LifecycleMethod;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable dispatch table of a resolved type. Framework methods, lifecycle
+ * methods and trait factories are stored in arrays that are indexed by a
+ * stable slot number per class, so a lookup is an array access without
+ * hashing or locking. A table is never modified after construction, a new
+ * table replaces the old one when the trait hierarchy is resolved again or
+ * when one of its traits is modified.
+ */
+final class TraitDispatchTable {
+
+	private static final AtomicInteger slotCounter = new AtomicInteger();
+	private static final ClassValue<Integer> slots = new ClassValue<>() {
+
+		@Override
+		protected Integer computeValue(final Class<?> type) {
+			return slotCounter.getAndIncrement();
+		}
+	};
+
+	private final Map<String, PropertyKey> keys;
+	private final Map<String, AbstractMethod> dynamicMethods;
+	private final Set<String> labels;
+	private final FrameworkMethod[] frameworkMethods;
+	private final Set[] lifecycleMethods;
+	private final NodeTraitFactory[] nodeTraitFactories;
+	private final RelationshipTraitFactory[] relationshipTraitFactories;
+	private final Relation relation;
+
+	TraitDispatchTable(final Collection<Trait> traits) {
+
+		final Map<String, PropertyKey> keyMap                          = new HashMap<>();
+		final Map<String, AbstractMethod> methodMap                    = new LinkedHashMap<>();
+		final Set<String> labelSet                                     = new LinkedHashSet<>();
+		final Map<Class, FrameworkMethod> frameworkMap                 = new LinkedHashMap<>();
+		final Map<Class, Set<LifecycleMethod>> lifecycleMap            = new LinkedHashMap<>();
+		final Map<Class, NodeTraitFactory> nodeFactoryMap              = new LinkedHashMap<>();
+		final Map<Class, RelationshipTraitFactory> relFactoryMap       = new LinkedHashMap<>();
+		Relation firstRelation                                         = null;
+
+		for (final Trait trait : traits) {
+
+			labelSet.add(trait.getLabel());
+
+			// later traits overwrite keys and methods of earlier traits
+			keyMap.putAll(trait.getPropertyKeys());
+			methodMap.putAll(trait.getDynamicMethods());
+
+			for (final Map.Entry<Class, FrameworkMethod> entry : trait.getFrameworkMethods().entrySet()) {
+
+				final FrameworkMethod method  = entry.getValue();
+				final FrameworkMethod current = frameworkMap.get(entry.getKey());
+
+				if (current != null) {
+
+					method.setSuper(current);
+				}
+
+				frameworkMap.put(entry.getKey(), method);
+			}
+
+			for (final Map.Entry<Class, LifecycleMethod> entry : trait.getLifecycleMethods().entrySet()) {
+
+				lifecycleMap.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).add(entry.getValue());
+			}
+
+			// the first trait that provides a factory wins
+			for (final Map.Entry<Class, NodeTraitFactory> entry : trait.getNodeTraitFactories().entrySet()) {
+				nodeFactoryMap.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+
+			for (final Map.Entry<Class, RelationshipTraitFactory> entry : trait.getRelationshipTraitFactories().entrySet()) {
+				relFactoryMap.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+
+			if (firstRelation == null) {
+				firstRelation = trait.getRelation();
+			}
+		}
+
+		this.keys                       = Map.copyOf(keyMap);
+		this.dynamicMethods             = Collections.unmodifiableMap(methodMap);
+		this.labels                     = Collections.unmodifiableSet(labelSet);
+		this.frameworkMethods           = new FrameworkMethod[arraySize(frameworkMap.keySet())];
+		this.lifecycleMethods           = new Set[arraySize(lifecycleMap.keySet())];
+		this.nodeTraitFactories         = new NodeTraitFactory[arraySize(nodeFactoryMap.keySet())];
+		this.relationshipTraitFactories = new RelationshipTraitFactory[arraySize(relFactoryMap.keySet())];
+		this.relation                   = firstRelation;
+
+		for (final Map.Entry<Class, FrameworkMethod> entry : frameworkMap.entrySet()) {
+			frameworkMethods[slot(entry.getKey())] = entry.getValue();
+		}
+
+		for (final Map.Entry<Class, Set<LifecycleMethod>> entry : lifecycleMap.entrySet()) {
+			lifecycleMethods[slot(entry.getKey())] = Collections.unmodifiableSet(entry.getValue());
+		}
+
+		for (final Map.Entry<Class, NodeTraitFactory> entry : nodeFactoryMap.entrySet()) {
+			nodeTraitFactories[slot(entry.getKey())] = entry.getValue();
+		}
+
+		for (final Map.Entry<Class, RelationshipTraitFactory> entry : relFactoryMap.entrySet()) {
+			relationshipTraitFactories[slot(entry.getKey())] = entry.getValue();
+		}
+	}
+
+	PropertyKey getKey(final String name) {
+		return keys.get(name);
+	}
+
+	Map<String, AbstractMethod> getDynamicMethods() {
+		return dynamicMethods;
+	}
+
+	Set<String> getLabels() {
+		return labels;
+	}
+
+	Relation getRelation() {
+		return relation;
+	}
+
+	<T extends FrameworkMethod> T getFrameworkMethod(final Class<T> type) {
+
+		final int slot = slot(type);
+		if (slot < frameworkMethods.length) {
+
+			return (T) frameworkMethods[slot];
+		}
+
+		return null;
+	}
+
+	<T extends LifecycleMethod> Set<T> getLifecycleMethods(final Class<T> type) {
+
+		final int slot = slot(type);
+		if (slot < lifecycleMethods.length && lifecycleMethods[slot] != null) {
+
+			return lifecycleMethods[slot];
+		}
+
+		return Set.of();
+	}
+
+	NodeTraitFactory getNodeTraitFactory(final Class type) {
+
+		final int slot = slot(type);
+		if (slot < nodeTraitFactories.length) {
+
+			return nodeTraitFactories[slot];
+		}
+
+		return null;
+	}
+
+	RelationshipTraitFactory getRelationshipTraitFactory(final Class type) {
+
+		final int slot = slot(type);
+		if (slot < relationshipTraitFactories.length) {
+
+			return relationshipTraitFactories[slot];
+		}
+
+		return null;
+	}
+
+	// ----- private methods -----
+	private static int slot(final Class type) {
+		return slots.get(type);
+	}
+
+	private static int arraySize(final Set<Class> types) {
+
+		int size = 0;
+
+		for (final Class type : types) {
+			size = Math.max(size, slot(type) + 1);
+		}
+
+		return size;
+	}
+}
@@ -38,14 +38,9 @@ import java.util.*;
 public class TraitsImplementation implements Traits {
 
 	private final TraitsInstance traitsInstance;
-	private final Set<String> traitNames                                = new LinkedHashSet<>();
-	private final Set<Trait> traits                                     = new LinkedHashSet<>();
-	private final Map<String, Wrapper<PropertyKey>> keyCache            = new LinkedHashMap<>();
-	private final Map<Class, FrameworkMethod> frameworkMethodCache      = new LinkedHashMap<>();
-	private final Map<Class, Set<LifecycleMethod>> lifecycleMethodCache = new LinkedHashMap<>();
-	private final Map<Class, NodeTraitFactory> nodeTraitFactoryCache    = new LinkedHashMap<>();
-	private Map<String, AbstractMethod> dynamicMethodCache              = null;
-	private Wrapper<Relation> cachedRelation                            = null;
+	private final Set<String> traitNames                = new LinkedHashSet<>();
+	private volatile Set<Trait> traits                  = Set.of();
+	private volatile TraitDispatchTable dispatchTable   = null;
 
 	private final boolean isNodeType;
 	private final boolean isRelationshipType;
@@ -70,7 +65,7 @@ public class TraitsImplementation implements Traits {
 		final TraitsImplementation copy = new TraitsImplementation(traitsInstance, typeName, isBuiltInType, isNodeType, isRelationshipType, changelogEnabled, isServiceClass);
 
 		copy.traitNames.addAll(traitNames);
-		copy.traits.addAll(traits);
+		copy.traits = traits;
 
 		return copy;
 	}
@@ -85,20 +80,12 @@ public class TraitsImplementation implements Traits {
 
 	@Override
 	public Set<String> getLabels() {
-
-		final Set<String> labels = new LinkedHashSet<>();
-
-		for (final Trait trait : getTraits()) {
-
-			labels.add(trait.getLabel());
-		}
-
-		return labels;
+		return new LinkedHashSet<>(getDispatchTable().getLabels());
 	}
 
 	@Override
 	public boolean contains(final String type) {
-		return getLabels().contains(type);
+		return getDispatchTable().getLabels().contains(type);
 	}
 
 	@Override
@@ -108,27 +95,7 @@ public class TraitsImplementation implements Traits {
 
 	private <T> PropertyKey<T> key(final String name, final boolean throwException) {
 
-		// use wrapper to cache null values as well
-		Wrapper<PropertyKey> wrapper = keyCache.get(name);
-		if (wrapper != null && wrapper.value != null) {
-
-			return wrapper.value;
-		}
-
-		PropertyKey<T> key = null;
-
-		for (final Trait trait : getTraits()) {
-
-			final Map<String, PropertyKey> keys = trait.getPropertyKeys();
-			if (keys.containsKey(name)) {
-
-				key = keys.get(name);
-			}
-		}
-
-		keyCache.put(name, new Wrapper(key));
-
-		// return last key, not first
+		final PropertyKey<T> key = getDispatchTable().getKey(name);
 		if (key != null) {
 
 			return key;
@@ -231,77 +198,17 @@ public class TraitsImplementation implements Traits {
 
 	@Override
 	public <T extends LifecycleMethod> Set<T> getMethods(final Class<T> type) {
-
-		Set<T> methods = (Set) lifecycleMethodCache.get(type);
-		if (methods != null) {
-
-			return methods;
-		}
-
-		methods = new LinkedHashSet<>();
-
-		for (final Trait trait : getTraits()) {
-
-			final T method    = trait.getLifecycleMethod(type);
-			if (method != null) {
-
-				methods.add(method);
-			}
-		}
-
-		// store in cache
-		lifecycleMethodCache.put(type, (Set)methods);
-
-		return methods;
+		return getDispatchTable().getLifecycleMethods(type);
 	}
 
 	@Override
 	public <T extends FrameworkMethod> T getMethod(final Class<T> type) {
-
-		T current = (T) frameworkMethodCache.get(type);
-
-		if (current != null) {
-			return current;
-		}
-
-		for (final Trait trait : getTraits()) {
-
-			final T method = trait.getFrameworkMethod(type);
-			if (method != null) {
-
-				if (current != null) {
-
-					method.setSuper(current);
-				}
-
-				current = method;
-			}
-		}
-
-		if (current != null) {
-
-			frameworkMethodCache.put(type, current);
-		}
-
-		return current;
+		return getDispatchTable().getFrameworkMethod(type);
 	}
 
 	@Override
 	public Map<String, AbstractMethod> getDynamicMethods() {
-
-		if (dynamicMethodCache != null) {
-			return dynamicMethodCache;
-		}
-
-		dynamicMethodCache = new LinkedHashMap<>();
-
-		for (final Trait trait : getTraits()) {
-
-			// this is the place where we can detect clashes!
-			dynamicMethodCache.putAll(trait.getDynamicMethods());
-		}
-
-		return dynamicMethodCache;
+		return getDispatchTable().getDynamicMethods();
 	}
 
 	@Override
@@ -309,36 +216,18 @@ public class TraitsImplementation implements Traits {
 
 		if (obj.isNode()) {
 
-			final NodeTraitFactory cachedFactory = nodeTraitFactoryCache.get(type);
-			if (cachedFactory != null) {
-
-				return (T) cachedFactory.newInstance(this, (NodeInterface) obj);
-			}
-
-			for (final Trait trait : getTraits()) {
-
-				final Map<Class, NodeTraitFactory> factories = trait.getNodeTraitFactories();
-				final NodeTraitFactory factory               = factories.get(type);
+			final NodeTraitFactory factory = getDispatchTable().getNodeTraitFactory(type);
+			if (factory != null) {
 
-				if (factory != null) {
-
-					nodeTraitFactoryCache.put(type, factory);
-
-					return (T) factory.newInstance(this, (NodeInterface) obj);
-				}
+				return (T) factory.newInstance(this, (NodeInterface) obj);
 			}
 
 		} else {
 
-			for (final Trait trait : getTraits()) {
+			final RelationshipTraitFactory factory = getDispatchTable().getRelationshipTraitFactory(type);
+			if (factory != null) {
 
-				final Map<Class, RelationshipTraitFactory> factories = trait.getRelationshipTraitFactories();
-				final RelationshipTraitFactory factory               = factories.get(type);
-
-				if (factory != null) {
-
-					return (T) factory.newInstance(this, (RelationshipInterface) obj);
-				}
+				return (T) factory.newInstance(this, (RelationshipInterface) obj);
 			}
 		}
 
@@ -347,27 +236,7 @@ public class TraitsImplementation implements Traits {
 
 	@Override
 	public Relation getRelation() {
-
-		if (cachedRelation != null) {
-
-			return cachedRelation.value;
-		}
-
-		for (final Trait trait : getTraits()) {
-
-			final Relation rel = trait.getRelation();
-			if (rel != null) {
-
-				cachedRelation = new Wrapper(rel);
-
-				return rel;
-			}
-		}
-
-		// cache null as well
-		cachedRelation = new Wrapper(null);
-
-		return null;
+		return getDispatchTable().getRelation();
 	}
 
 	@Override
@@ -557,19 +426,38 @@ public class TraitsImplementation implements Traits {
 		return properties;
 	}
 
-	// ----- private methods -----
-	private Set<Trait> getTraits() {
+	// ----- package-private methods -----
+	Set<Trait> getTraits() {
 		return traits;
 	}
 
+	TraitDispatchTable getDispatchTable() {
+
+		TraitDispatchTable table = dispatchTable;
+		if (table == null) {
+
+			// copies of a type and types with modified traits are frozen when they are first used
+			table = new TraitDispatchTable(traits);
+			dispatchTable = table;
+		}
+
+		return table;
+	}
+
+	void traitModified(final Trait trait) {
+
+		if (traits.contains(trait)) {
+			dispatchTable = null;
+		}
+	}
+
 	public void addTrait(final String trait) {
 		traitNames.add(trait);
 	}
 
 	public void resolveTraits() {
 
-		traits.clear();
-
+		final Set<Trait> resolved        = new LinkedHashSet<>();
 		final Set<String> resolvedTraits = new LinkedHashSet<>();
 		final Set<String> seenTraits     = new LinkedHashSet<>();
 
@@ -584,11 +472,16 @@ public class TraitsImplementation implements Traits {
 			final Trait resolvedTrait = traitsInstance.getTrait(name);
 			if (resolvedTrait != null) {
 
-				traits.add(resolvedTrait);
+				resolved.add(resolvedTrait);
 			}
 		}
+
+		// freeze the resolved hierarchy into an immutable dispatch table
+		this.dispatchTable = new TraitDispatchTable(resolved);
+		this.traits        = Collections.unmodifiableSet(resolved);
 	}
 
+	// ----- private methods -----
 	private void recurse(final Set<String> resolvedTraits, final Set<String> seenTraits, final String name, final int depth) {
 
 		if (!seenTraits.add(name)) {
@@ -607,13 +500,4 @@ public class TraitsImplementation implements Traits {
 
 		resolvedTraits.add(name);
 	}
-
-	class Wrapper<T> {
-
-		T value;
-
-		public Wrapper(final T value) {
-			this.value = value;
-		}
-	}
 }
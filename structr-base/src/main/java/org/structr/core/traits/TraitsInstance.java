@@ -64,6 +64,24 @@ public class TraitsInstance {
 		return globalTypeMap.get(name);
 	}
 
+	/**
+	 * Drops the dispatch tables of all types that contain the given trait,
+	 * so that keys and methods registered after the trait hierarchies were
+	 * resolved are visible. Traits that are not registered yet are still
+	 * being initialized and can not be part of a resolved type.
+	 */
+	void traitModified(final Trait trait) {
+
+		if (globalTraitMap.get(trait.getName()) != trait) {
+			return;
+		}
+
+		for (final Traits traits : globalTypeMap.values()) {
+
+			((TraitsImplementation) traits).traitModified(trait);
+		}
+	}
+
 	// ----- public methods -----
 	public void registerTrait(final Trait trait) {
 
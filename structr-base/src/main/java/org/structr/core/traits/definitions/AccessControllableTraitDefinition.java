@@ -27,12 +27,14 @@ import org.structr.api.graph.PropagationDirection;
 import org.structr.api.util.FixedSizeCache;
 import org.structr.api.util.Iterables;
 import org.structr.common.*;
+import org.structr.common.error.ErrorBuffer;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.app.StructrApp;
 import org.structr.core.entity.Principal;
 import org.structr.core.entity.Relation;
 import org.structr.core.entity.Security;
+import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.RelationshipInterface;
 import org.structr.core.property.PropertyMap;
@@ -48,13 +50,28 @@ import org.structr.core.traits.relationships.SecurityRelationshipDefinition;
 import org.structr.core.traits.wrappers.AccessControllableTraitWrapper;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public final class AccessControllableTraitDefinition extends AbstractNodeTraitDefinition {
 
 	private static final Logger logger                                                                        = LoggerFactory.getLogger(AccessControllableTraitDefinition.class);
-	private static final Map<String, Map<String, PermissionResolutionResult>> globalPermissionResolutionCache = new HashMap<>();
+	private static final FixedSizeCache<ResolutionKey, Byte> globalPermissionResolutionCache                  = new FixedSizeCache<>("Permission resolution cache", Settings.PermissionResolutionCacheSize.getValue());
 	private static final FixedSizeCache<String, Boolean> isGrantedResultCache                                 = new FixedSizeCache<>("Grant result cache", 100000);
+	private static final Map<String, Set<String>> grantResultDependencies                                    = new ConcurrentHashMap<>();
+	private static final Map<String, Set<ResolutionKey>> resolutionResultDependencies                        = new ConcurrentHashMap<>();
+	private static final AtomicInteger dependencyCount                                                        = new AtomicInteger();
+	private static final LongAdder resolutionCacheHits                                                        = new LongAdder();
+	private static final LongAdder resolutionCacheMisses                                                      = new LongAdder();
+	private static final LongAdder partialInvalidations                                                       = new LongAdder();
+	private static final LongAdder fullInvalidations                                                          = new LongAdder();
+	private static final LongAdder invalidatedEntries                                                         = new LongAdder();
+	private static final int maxDependencyCount                                                               = 1_000_000;
+	private static final int bytesPerResolutionEntry                                                          = getBytesPerResolutionEntry();
+	private static final int bytesPerDependency                                                               = 40;     // set node and table slot
+	private static final int bytesPerDependencySet                                                            = 200;    // outer map node, key set view, map and initial table
 	private static final int permissionResolutionMaxLevel                                                     = Settings.ResolutionDepth.getValue();
 
 	public AccessControllableTraitDefinition() {
@@ -65,12 +82,70 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 	public Map<Class, LifecycleMethod> createLifecycleMethods(TraitsInstance traitsInstance) {
 		return Map.of(
 
-			OnModification.class,         new OnModificationActionVoid(AccessControllableTraitDefinition::clearCaches),
-			OnDeletion.class,             new OnDeletionActionVoid(AccessControllableTraitDefinition::clearCaches),
-			OwnerModified.class,          new OwnerModifiedActionVoid(AccessControllableTraitDefinition::clearCaches),
-			SecurityModified.class,       new SecurityModifiedActionVoid(AccessControllableTraitDefinition::clearCaches),
-			LocationModified.class,       new LocationModifiedActionVoid(AccessControllableTraitDefinition::clearCaches),
-			PropagatedModification.class, new PropagatedModificationActionVoid(AccessControllableTraitDefinition::clearCaches)
+			OnModification.class,
+			new OnModification() {
+
+				@Override
+				public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
+					invalidateCaches(graphObject);
+				}
+			},
+
+			OnDeletion.class,
+			new OnDeletion() {
+
+				@Override
+				public void onDeletion(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final PropertyMap properties) throws FrameworkException {
+
+					// the node is already gone, so we use the uuid from the removed properties
+					final String uuid = properties != null ? properties.get(graphObject.getTraits().key(GraphObjectTraitDefinition.ID_PROPERTY)) : null;
+
+					if (uuid != null && !graphObject.is(StructrTraits.SCHEMA_RELOADING_NODE)) {
+
+						invalidateCaches(uuid);
+
+					} else {
+
+						clearCaches();
+					}
+				}
+			},
+
+			OwnerModified.class,
+			new OwnerModified() {
+
+				@Override
+				public void ownerModified(final GraphObject graphObject, final SecurityContext securityContext) {
+					invalidateCaches(graphObject);
+				}
+			},
+
+			SecurityModified.class,
+			new SecurityModified() {
+
+				@Override
+				public void securityModified(final GraphObject graphObject, final SecurityContext securityContext) {
+					invalidateCaches(graphObject);
+				}
+			},
+
+			LocationModified.class,
+			new LocationModified() {
+
+				@Override
+				public void locationModified(final GraphObject graphObject, final SecurityContext securityContext) {
+					invalidateCaches(graphObject);
+				}
+			},
+
+			PropagatedModification.class,
+			new PropagatedModification() {
+
+				@Override
+				public void propagatedModification(final GraphObject graphObject, final SecurityContext securityContext) {
+					invalidateCaches(graphObject);
+				}
+			}
 		);
 	}
 
@@ -124,11 +199,17 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 						return true;
 					}
 
-					final boolean doLog = node.getSecurityContext().hasParameter("logPermissionResolution");
-					final boolean result = AccessControllableTraitDefinition.isGranted(node, permission, accessingUser, new PermissionResolutionMask(), 0, new AlreadyTraversed(), true, doLog, isCreation);
+					final AlreadyTraversed alreadyTraversed = new AlreadyTraversed();
+					final boolean doLog                     = node.getSecurityContext().hasParameter("logPermissionResolution");
+					final boolean result                    = AccessControllableTraitDefinition.isGranted(node, permission, accessingUser, new PermissionResolutionMask(), 0, alreadyTraversed, true, doLog, isCreation);
 
 					isGrantedResultCache.put(cacheKey, result);
 
+					// negative results are never served from the cache, so they don't need to be tracked
+					if (result) {
+						registerDependencies(grantResultDependencies, alreadyTraversed.getTouched(), cacheKey);
+					}
+
 					return result;
 				}
 			},
@@ -143,7 +224,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 						throw new FrameworkException(403, getAccessControlNotPermittedExceptionString(node, "grant", permissions, principal, ctx));
 					}
 
-					clearCaches();
+					invalidateCaches(node.getUuid());
 
 					final Security secRel = node.as(AccessControllable.class).getSecurityRelationship(principal);
 					if (secRel == null) {
@@ -194,7 +275,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 						throw new FrameworkException(403, getAccessControlNotPermittedExceptionString(node, "revoke", permissions, principal, ctx));
 					}
 
-					clearCaches();
+					invalidateCaches(node.getUuid());
 
 					final Security secRel = node.as(AccessControllable.class).getSecurityRelationship(principal);
 					if (secRel != null) {
@@ -214,7 +295,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 						throw new FrameworkException(403, getAccessControlNotPermittedExceptionString(node, "set", permissions, principal, ctx));
 					}
 
-					clearCaches();
+					invalidateCaches(node.getUuid());
 
 					final Set<String> permissionSet = new HashSet<>();
 
@@ -326,8 +407,164 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 	}
 
 	public static void clearCaches() {
+
 		globalPermissionResolutionCache.clear();
 		isGrantedResultCache.clear();
+		grantResultDependencies.clear();
+		resolutionResultDependencies.clear();
+		dependencyCount.set(0);
+
+		fullInvalidations.increment();
+	}
+
+	/**
+	 * Removes all cached permission resolution results that depend on the
+	 * given object. Modifications of schema nodes can change propagation
+	 * settings and schema grants, so they clear all caches.
+	 *
+	 * @param graphObject
+	 */
+	public static void invalidateCaches(final GraphObject graphObject) {
+
+		final String uuid = graphObject.getUuid();
+
+		if (uuid != null && !graphObject.is(StructrTraits.SCHEMA_RELOADING_NODE)) {
+
+			invalidateCaches(uuid);
+
+		} else {
+
+			clearCaches();
+		}
+	}
+
+	/**
+	 * Removes all cached permission resolution results whose resolution
+	 * path touched the node with the given UUID. Cached results of nodes
+	 * that were evicted are treated as modified as well, because other
+	 * resolutions can have used them as a shortcut.
+	 *
+	 * @param uuid
+	 */
+	public static void invalidateCaches(final String uuid) {
+
+		final Queue<String> queue = new LinkedList<>();
+		final Set<String> seen    = new HashSet<>();
+
+		partialInvalidations.increment();
+
+		queue.add(uuid);
+
+		while (!queue.isEmpty()) {
+
+			final String current = queue.poll();
+
+			if (seen.add(current)) {
+
+				final Set<String> grantKeys = grantResultDependencies.remove(current);
+				if (grantKeys != null) {
+
+					dependencyCount.addAndGet(-grantKeys.size());
+
+					for (final String key : grantKeys) {
+
+						if (isGrantedResultCache.remove(key) != null) {
+							invalidatedEntries.increment();
+						}
+					}
+				}
+
+				final Set<ResolutionKey> resolutionKeys = resolutionResultDependencies.remove(current);
+				if (resolutionKeys != null) {
+
+					dependencyCount.addAndGet(-resolutionKeys.size());
+
+					for (final ResolutionKey key : resolutionKeys) {
+
+						if (globalPermissionResolutionCache.remove(key) != null) {
+							invalidatedEntries.increment();
+						}
+
+						queue.add(key.nodeId);
+					}
+				}
+			}
+		}
+	}
+
+	public static Map<String, Map<String, Integer>> getCachesInfo() {
+
+		final Map<String, Map<String, Integer>> info = new LinkedHashMap<>();
+		final Map<String, Integer> resolution        = new LinkedHashMap<>(globalPermissionResolutionCache.getCacheInfo());
+		final Map<String, Integer> invalidation      = new LinkedHashMap<>();
+
+		// count lookups per permission, not per cache entry
+		resolution.put("hits",   toInt(resolutionCacheHits.sum()));
+		resolution.put("misses", toInt(resolutionCacheMisses.sum()));
+		resolution.put("bytes",  toInt(estimateResolutionCacheBytes()));
+
+		invalidation.put("partial",      toInt(partialInvalidations.sum()));
+		invalidation.put("full",         toInt(fullInvalidations.sum()));
+		invalidation.put("evicted",      toInt(invalidatedEntries.sum()));
+		invalidation.put("dependencies", dependencyCount.get());
+
+		info.put("grantResults",           isGrantedResultCache.getCacheInfo());
+		info.put("permissionResolution",   resolution);
+		info.put("permissionInvalidation", invalidation);
+
+		return info;
+	}
+
+	/**
+	 * Estimates the heap footprint of the permission resolution cache from
+	 * the number of entries and the number of dependency sets and entries
+	 * that refer to them.
+	 */
+	private static long estimateResolutionCacheBytes() {
+
+		long dependencies = 0L;
+		int sets          = 0;
+
+		for (final Set<ResolutionKey> keys : resolutionResultDependencies.values()) {
+
+			dependencies += keys.size();
+			sets++;
+		}
+
+		return (long)globalPermissionResolutionCache.size() * bytesPerResolutionEntry + dependencies * bytesPerDependency + (long)sets * bytesPerDependencySet;
+	}
+
+	private static int getBytesPerResolutionEntry() {
+
+		// object sizes with compressed oops: 12 bytes header, 4 bytes per reference, 8 byte alignment
+		final int key       = 48;    // ResolutionKey: header, node UUID reference, four longs
+		final int entry     = 24;    // cache entry: header, key and value references, two flags
+		final int mapNode   = 32;    // ConcurrentHashMap node: header, hash, key, value and next references
+		final int table     = 8;     // share of the map table at the default load factor
+		final int queueNode = 24;    // eviction queue node: header, item and next references
+
+		// the Byte value comes from the Byte cache, the node UUID string is shared with the node
+		return key + entry + mapNode + table + queueNode;
+	}
+
+	private static <K> void registerDependencies(final Map<String, Set<K>> dependencies, final Set<String> touched, final K key) {
+
+		for (final String uuid : touched) {
+
+			if (dependencies.computeIfAbsent(uuid, k -> ConcurrentHashMap.newKeySet()).add(key)) {
+				dependencyCount.incrementAndGet();
+			}
+		}
+
+		// keys of entries that were evicted from the fixed size cache remain in the
+		// dependency sets until the next invalidation, so we start over at some point
+		if (dependencyCount.get() > maxDependencyCount) {
+			clearCaches();
+		}
+	}
+
+	private static int toInt(final long value) {
+		return (int)Math.min(Integer.MAX_VALUE, value);
 	}
 
 	private static Security getSecurityRelationship(final Principal p, final Map<String, Security> securityRelationships) {
@@ -365,6 +602,13 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 
 		if (doLog) { logger.info("{}{} ({}): {} check on level {} for {}", StringUtils.repeat("    ", level), node.getUuid(), node.getType(), permission.name(), level, accessingUser != null ? accessingUser.getName() : null); }
 
+		// remember all nodes and principals on the resolution path for cache invalidation
+		alreadyTraversed.touch(node.getUuid());
+
+		if (accessingUser != null) {
+			alreadyTraversed.touch(accessingUser.getUuid());
+		}
+
 		if (accessingUser != null) {
 
 			// this includes SuperUser
@@ -440,7 +684,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 							if (Boolean.TRUE.equals(value)) {
 
 								// do backtracking
-								backtrack(info, accessingUser.getUuid(), permission, true, 0, doLog);
+								backtrack(info, accessingUser.getUuid(), permission, true, 0, alreadyTraversed, doLog);
 
 								return true;
 							}
@@ -450,7 +694,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 							if (hasEffectivePermissions(info.node, info, accessingUser, permission, mask, level, alreadyTraversed, bfsNodes, doLog, isCreation)) {
 
 								// do backtracking
-								backtrack(info, accessingUser.getUuid(), permission, true, 0, doLog);
+								backtrack(info, accessingUser.getUuid(), permission, true, 0, alreadyTraversed, doLog);
 
 								return true;
 							}
@@ -460,14 +704,14 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 				} while (!bfsNodes.isEmpty());
 
 				// do backtracking
-				backtrack(root, accessingUser.getUuid(), permission, false, 0, doLog);
+				backtrack(root, accessingUser.getUuid(), permission, false, 0, alreadyTraversed, doLog);
 			}
 		}
 
 		return false;
 	}
 
-	private static void backtrack(final BFSInfo info, final String principalId, final Permission permission, final boolean value, final int level, final boolean doLog) {
+	private static void backtrack(final BFSInfo info, final String principalId, final Permission permission, final boolean value, final int level, final AlreadyTraversed alreadyTraversed, final boolean doLog) {
 
 		final StringBuilder buf = new StringBuilder();
 
@@ -488,12 +732,12 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 			buf.append(info.node.getType()).append(" (").append(info.node.getUuid()).append(") --> ");
 		}
 
-		storePermissionResolutionResult(info.node, principalId, permission, value);
+		storePermissionResolutionResult(info.node, principalId, permission, value, alreadyTraversed);
 
 		// go to parent(s)
 		if (info.parent != null) {
 
-			backtrack(info.parent, principalId, permission, value, level+1, doLog);
+			backtrack(info.parent, principalId, permission, value, level+1, alreadyTraversed, doLog);
 		}
 
 		if (doLog && level == 0) {
@@ -542,7 +786,7 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 
 									if (isGranted(otherNode, permission, principal, mask, level + 1, alreadyTraversed, false, doLog, isCreation)) {
 
-										storePermissionResolutionResult(otherNode, principal.getUuid(), permission, true);
+										storePermissionResolutionResult(otherNode, principal.getUuid(), permission, true, alreadyTraversed);
 
 										// break early
 										return true;
@@ -691,69 +935,76 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 
 	private static Boolean getPermissionResolutionResult(final NodeInterface node, final String principalId, final Permission permission) {
 
-		Map<String, PermissionResolutionResult> permissionResolutionCache = globalPermissionResolutionCache.get(node.getUuid());
-		if (permissionResolutionCache == null) {
+		final ResolutionKey key = ResolutionKey.create(node.getUuid(), principalId);
+		final int offset        = bitOffset(permission);
 
-			permissionResolutionCache = new HashMap<>();
-			globalPermissionResolutionCache.put(node.getUuid(), permissionResolutionCache);
+		if (key == null || offset < 0) {
+			return null;
 		}
 
-		PermissionResolutionResult result = permissionResolutionCache.get(principalId);
-		if (result != null) {
+		final Byte value = globalPermissionResolutionCache.get(key);
+		final int bits   = value != null ? value & 0xff : 0;
 
-			if (permission.equals(Permission.read)) {
-				return result.read;
-			}
+		if ((bits & (1 << offset)) != 0) {
 
-			if (permission.equals(Permission.write)) {
-				return result.write;
-			}
+			resolutionCacheHits.increment();
 
-			if (permission.equals(Permission.delete)) {
-				return result.delete;
-			}
-
-			if (permission.equals(Permission.accessControl)) {
-				return result.accessControl;
-			}
+			return (bits & (2 << offset)) != 0;
 		}
 
+		resolutionCacheMisses.increment();
+
 		return null;
 	}
 
-	private static void storePermissionResolutionResult(final NodeInterface node, final String principalId, final Permission permission, final boolean value) {
+	private static void storePermissionResolutionResult(final NodeInterface node, final String principalId, final Permission permission, final boolean value, final AlreadyTraversed alreadyTraversed) {
 
-		Map<String, PermissionResolutionResult> permissionResolutionCache = globalPermissionResolutionCache.get(node.getUuid());
-		if (permissionResolutionCache == null) {
+		final ResolutionKey key = ResolutionKey.create(node.getUuid(), principalId);
+		final int offset        = bitOffset(permission);
 
-			permissionResolutionCache = new HashMap<>();
-			globalPermissionResolutionCache.put(node.getUuid(), permissionResolutionCache);
+		if (key == null || offset < 0) {
+			return;
 		}
 
-		PermissionResolutionResult result = permissionResolutionCache.get(principalId);
-		if (result == null) {
+		registerDependencies(resolutionResultDependencies, alreadyTraversed.getTouched(), key);
+
+		final Byte existing = globalPermissionResolutionCache.get(key);
+		final int bits      = existing != null ? existing & 0xff : 0;
+
+		// a positive result is never overwritten with a negative one
+		if ((bits & (2 << offset)) == 0) {
 
-			result = new PermissionResolutionResult();
-			permissionResolutionCache.put(principalId, result);
+			// concurrent updates of the same entry can lose a bit, which only results in a cache miss
+			globalPermissionResolutionCache.put(key, (byte)(bits | (1 << offset) | (value ? (2 << offset) : 0)));
 		}
+	}
+
+	/**
+	 * Each permission occupies two bits in a cache entry, the lower one
+	 * marks the permission as resolved, the upper one holds the result.
+	 */
+	private static int bitOffset(final Permission permission) {
 
-		if (permission.equals(Permission.read) && (result.read == null || result.read == false)) {
-			result.read = value;
+		if (permission.equals(Permission.read)) {
+			return 0;
 		}
 
-		if (permission.equals(Permission.write) && (result.write == null || result.write == false)) {
-			result.write = value;
+		if (permission.equals(Permission.write)) {
+			return 2;
 		}
 
-		if (permission.equals(Permission.delete) && (result.delete == null || result.delete == false)) {
-			result.delete = value;
+		if (permission.equals(Permission.delete)) {
+			return 4;
 		}
 
-		if (permission.equals(Permission.accessControl) && (result.accessControl == null || result.accessControl == false)) {
-			result.accessControl = value;
+		if (permission.equals(Permission.accessControl)) {
+			return 6;
 		}
+
+		return -1;
 	}
 
+
 	protected String getAccessControlNotPermittedExceptionString(final GraphObject graphObject, final String action, final Set<Permission> permissions, Principal principal, final SecurityContext ctx) {
 
 		final String userString       = PropertyContainerTraitDefinition.getCurrentUserString(ctx);
@@ -765,9 +1016,104 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 	}
 
 	// ----- nested classes -----
+	/**
+	 * Cache key for a node/principal combination. The UUIDs are stored as
+	 * 128-bit values, the node UUID string is kept as a reference to the
+	 * existing instance for dependency tracking and is not compared.
+	 */
+	private static final class ResolutionKey {
+
+		private final String nodeId;
+		private final long nodeHigh;
+		private final long nodeLow;
+		private final long principalHigh;
+		private final long principalLow;
+
+		private ResolutionKey(final String nodeId, final long nodeHigh, final long nodeLow, final long principalHigh, final long principalLow) {
+
+			this.nodeId        = nodeId;
+			this.nodeHigh      = nodeHigh;
+			this.nodeLow       = nodeLow;
+			this.principalHigh = principalHigh;
+			this.principalLow  = principalLow;
+		}
+
+		/**
+		 * Returns null if one of the IDs is not a UUID, so the result is
+		 * not cached.
+		 */
+		public static ResolutionKey create(final String nodeId, final String principalId) {
+
+			final String node      = compactUuid(nodeId);
+			final String principal = compactUuid(principalId);
+
+			if (node == null || principal == null) {
+				return null;
+			}
+
+			try {
+
+				return new ResolutionKey(
+					nodeId,
+					Long.parseUnsignedLong(node, 0, 16, 16),
+					Long.parseUnsignedLong(node, 16, 32, 16),
+					Long.parseUnsignedLong(principal, 0, 16, 16),
+					Long.parseUnsignedLong(principal, 16, 32, 16)
+				);
+
+			} catch (NumberFormatException nfex) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+
+			if (other instanceof ResolutionKey key) {
+				return nodeLow == key.nodeLow && principalLow == key.principalLow && nodeHigh == key.nodeHigh && principalHigh == key.principalHigh;
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(nodeLow) * 31 + Long.hashCode(principalLow);
+		}
+
+		private static String compactUuid(final String uuid) {
+
+			if (uuid == null) {
+				return null;
+			}
+
+			if (uuid.length() == 32) {
+				return uuid;
+			}
+
+			if (uuid.length() == 36) {
+				return uuid.replace("-", "");
+			}
+
+			return null;
+		}
+	}
+
 	private static class AlreadyTraversed {
 
 		private Map<String, Set<String>> sets = new HashMap<>();
+		private Set<String> touched           = new LinkedHashSet<>();
+
+		public void touch(final String uuid) {
+
+			if (uuid != null) {
+				touched.add(uuid);
+			}
+		}
+
+		public Set<String> getTouched() {
+			return touched;
+		}
 
 		public boolean contains(final String key, final String uuid) {
 
@@ -798,12 +1144,4 @@ public final class AccessControllableTraitDefinition extends AbstractNodeTraitDe
 			}
 		}
 	}
-
-	private static class PermissionResolutionResult {
-
-		Boolean read          = null;
-		Boolean write         = null;
-		Boolean delete        = null;
-		Boolean accessControl = null;
-	}
 }
@@ -29,7 +29,6 @@ import org.structr.core.entity.Relation;
 import org.structr.core.entity.SchemaNode;
 import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
-import org.structr.core.graph.TransactionCommand;
 import org.structr.core.property.*;
 import org.structr.core.traits.NodeTraitFactory;
 import org.structr.core.traits.StructrTraits;
@@ -107,7 +106,7 @@ public class SchemaNodeTraitDefinition extends AbstractNodeTraitDefinition {
 
 					throwExceptionIfTypeAlreadyExists(graphObject);
 
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(graphObject);
 				}
 			},
 
@@ -117,11 +116,21 @@ public class SchemaNodeTraitDefinition extends AbstractNodeTraitDefinition {
 				@Override
 				public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
 
-					if (modificationQueue.isPropertyModified(graphObject, Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY))) {
+					final boolean nameModified = modificationQueue.isPropertyModified(graphObject, Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY));
+
+					if (nameModified) {
 						throwExceptionIfTypeAlreadyExists(graphObject);
 					}
 
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					// renaming a type or changing its inheritance affects other types as well
+					if (nameModified || modificationQueue.isPropertyModified(graphObject, graphObject.getTraits().key(INHERITED_TRAITS_PROPERTY))) {
+
+						ReloadSchema.schedule(true, Set.of());
+
+					} else {
+
+						ReloadSchema.schedule(graphObject, modificationQueue);
+					}
 				}
 			},
 
@@ -131,7 +140,7 @@ public class SchemaNodeTraitDefinition extends AbstractNodeTraitDefinition {
 				@Override
 				public void onNodeDeletion(final NodeInterface nodeInterface, final SecurityContext securityContext) throws FrameworkException {
 
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(true, Set.of());
 				}
 			}
 		);
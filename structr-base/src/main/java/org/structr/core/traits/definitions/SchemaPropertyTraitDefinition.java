@@ -28,7 +28,6 @@ import org.structr.core.entity.Relation;
 import org.structr.core.entity.SchemaProperty;
 import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
-import org.structr.core.graph.TransactionCommand;
 import org.structr.core.notion.PropertySetNotion;
 import org.structr.core.property.*;
 import org.structr.core.traits.NodeTraitFactory;
@@ -111,7 +110,7 @@ public class SchemaPropertyTraitDefinition extends AbstractNodeTraitDefinition {
 
 				@Override
 				public void onCreation(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer) throws FrameworkException {
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(graphObject);
 				}
 			},
 
@@ -120,7 +119,7 @@ public class SchemaPropertyTraitDefinition extends AbstractNodeTraitDefinition {
 
 				@Override
 				public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(graphObject, modificationQueue);
 				}
 			}
 		);
@@ -36,7 +36,6 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.entity.*;
 import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
-import org.structr.core.graph.TransactionCommand;
 import org.structr.core.notion.PropertyNotion;
 import org.structr.core.property.*;
 import org.structr.core.traits.NodeTraitFactory;
@@ -137,7 +136,7 @@ public class SchemaRelationshipNodeTraitDefinition extends AbstractNodeTraitDefi
 				public void onCreation(final GraphObject obj, final SecurityContext securityContext, final ErrorBuffer errorBuffer) throws FrameworkException {
 
 					// register transaction postprocessing that recreates the schema information
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(false));
+					ReloadSchema.schedule(obj);
 				}
 			},
 
@@ -168,7 +167,7 @@ public class SchemaRelationshipNodeTraitDefinition extends AbstractNodeTraitDefi
 					obj.setProperties(securityContext, map);
 
 					// register transaction postprocessing that recreates the schema information
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(false));
+					ReloadSchema.schedule(obj, modificationQueue);
 				}
 			},
 
@@ -179,7 +178,7 @@ public class SchemaRelationshipNodeTraitDefinition extends AbstractNodeTraitDefi
 				public void onDeletion(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final PropertyMap properties) throws FrameworkException {
 
 					// register transaction postprocessing that recreates the schema information
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(true, Set.of());
 				}
 			},
 
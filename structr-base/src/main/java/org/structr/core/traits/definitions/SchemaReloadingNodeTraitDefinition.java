@@ -25,7 +25,6 @@ import org.structr.core.GraphObject;
 import org.structr.core.entity.Relation;
 import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
-import org.structr.core.graph.TransactionCommand;
 import org.structr.core.traits.StructrTraits;
 import org.structr.core.traits.TraitsInstance;
 import org.structr.core.traits.operations.LifecycleMethod;
@@ -35,6 +34,7 @@ import org.structr.core.traits.operations.nodeinterface.OnNodeDeletion;
 import org.structr.schema.ReloadSchema;
 
 import java.util.Map;
+import java.util.Set;
 
 public class SchemaReloadingNodeTraitDefinition extends AbstractNodeTraitDefinition {
 
@@ -52,7 +52,7 @@ public class SchemaReloadingNodeTraitDefinition extends AbstractNodeTraitDefinit
 
 				@Override
 				public void onCreation(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer) throws FrameworkException {
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(graphObject);
 				}
 			},
 
@@ -61,7 +61,7 @@ public class SchemaReloadingNodeTraitDefinition extends AbstractNodeTraitDefinit
 
 				@Override
 				public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(graphObject, modificationQueue);
 				}
 			},
 
@@ -70,7 +70,7 @@ public class SchemaReloadingNodeTraitDefinition extends AbstractNodeTraitDefinit
 
 				@Override
 				public void onNodeDeletion(final NodeInterface nodeInterface, final SecurityContext securityContext) throws FrameworkException {
-					TransactionCommand.postProcess("reloadSchema", new ReloadSchema(true));
+					ReloadSchema.schedule(true, Set.of());
 				}
 			}
 		);
@@ -60,6 +60,7 @@ import org.structr.rest.common.StatsCallback;
 import org.structr.rest.servlet.DocumentationServlet;
 import org.structr.rest.servlet.MetricsServlet;
 import org.structr.schema.SchemaService;
+import org.structr.websocket.WebsocketController;
 import org.structr.websocket.servlet.WebSocketConfigurator;
 
 import java.io.File;
@@ -192,6 +193,8 @@ public class HttpService implements RunnableService, StatsCallback {
 				logger.warn("Exception while stopping temporary maintenance server: {}", ex.getMessage());
 			}
 		}
+
+		WebsocketController.shutdownBroadcastExecutor();
 	}
 
 	@Override
@@ -866,6 +869,8 @@ public class HttpService implements RunnableService, StatsCallback {
 			}
 		}
 
+		WebsocketController.shutdownBroadcastExecutor();
+
 		// send lifecycle event that the server has been stopped
 		sendLifecycleEvent(LifecycleEvent.Stopped);
 	}
@@ -18,18 +18,47 @@
  */
 package org.structr.schema;
 
+import org.apache.commons.lang3.StringUtils;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.ErrorBuffer;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.GraphObjectMap;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.AbstractSchemaNode;
+import org.structr.core.entity.SchemaGrant;
+import org.structr.core.entity.SchemaMethod;
+import org.structr.core.entity.SchemaNode;
+import org.structr.core.entity.SchemaProperty;
+import org.structr.core.entity.SchemaRelationshipNode;
+import org.structr.core.entity.SchemaView;
+import org.structr.core.graph.ModificationQueue;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.TransactionCommand;
 import org.structr.core.graph.TransactionPostProcess;
+import org.structr.core.property.GenericProperty;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.definitions.SchemaMethodParameterTraitDefinition;
+import org.structr.core.traits.definitions.SchemaPropertyTraitDefinition;
+import org.structr.core.traits.definitions.SchemaViewTraitDefinition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
- *
- *
+ * Transaction post-process that reloads the schema. All schema changes of a
+ * transaction are collected in a single instance, a full reload is done if
+ * any of them requires one, otherwise only the changed types are rebuilt.
  */
 public class ReloadSchema implements TransactionPostProcess {
 
-	private boolean forceFullReload = false;
+	private final Set<String> changedTypes = new LinkedHashSet<>();
+	private boolean forceFullReload        = false;
 
 	public ReloadSchema(final boolean forceFullReload) {
 		this.forceFullReload = forceFullReload;
@@ -37,6 +66,191 @@ public class ReloadSchema implements TransactionPostProcess {
 
 	@Override
 	public boolean execute(SecurityContext securityContext, ErrorBuffer errorBuffer) throws FrameworkException {
-		return SchemaHelper.reloadSchema(errorBuffer, securityContext.getSessionId(), forceFullReload, true).isSuccess();
+		return SchemaHelper.reloadSchema(errorBuffer, securityContext.getSessionId(), forceFullReload || changedTypes.isEmpty(), changedTypes, true).isSuccess();
+	}
+
+	/**
+	 * Registers a schema reload for the given schema object in the current transaction.
+	 *
+	 * @param schemaObject the created or modified schema object
+	 */
+	public static void schedule(final GraphObject schemaObject) {
+
+		final Set<String> types = getAffectedTypes(schemaObject);
+		if (types != null) {
+
+			schedule(false, types);
+
+		} else {
+
+			schedule(true, Set.of());
+		}
+	}
+
+	/**
+	 * Registers a schema reload for the given modified schema object in the
+	 * current transaction. If the object was moved to a different schema node
+	 * or relationship endpoint, the previous types are affected as well.
+	 *
+	 * @param schemaObject the modified schema object
+	 * @param modificationQueue the modification queue of the transaction
+	 */
+	public static void schedule(final GraphObject schemaObject, final ModificationQueue modificationQueue) throws FrameworkException {
+
+		final Set<String> types = getAffectedTypes(schemaObject);
+		if (types != null) {
+
+			types.addAll(getPreviousTypes(schemaObject, modificationQueue));
+
+			schedule(false, types);
+
+		} else {
+
+			schedule(true, Set.of());
+		}
+	}
+
+	/**
+	 * Registers a schema reload in the current transaction.
+	 *
+	 * @param forceFullReload whether all types must be rebuilt
+	 * @param changedTypes the names of the changed types
+	 */
+	public static void schedule(final boolean forceFullReload, final Collection<String> changedTypes) {
+
+		final TransactionPostProcess process = TransactionCommand.postProcess("reloadSchema", new ReloadSchema(forceFullReload));
+		if (process instanceof ReloadSchema reloadSchema) {
+
+			reloadSchema.forceFullReload |= forceFullReload;
+			reloadSchema.changedTypes.addAll(changedTypes);
+		}
+	}
+
+	// ----- private static methods -----
+	private static Set<String> getAffectedTypes(final GraphObject obj) {
+
+		final Set<String> types = new LinkedHashSet<>();
+
+		if (obj.is(StructrTraits.SCHEMA_NODE)) {
+
+			types.add(obj.as(SchemaNode.class).getName());
+
+		} else if (obj.is(StructrTraits.SCHEMA_RELATIONSHIP_NODE)) {
+
+			final SchemaRelationshipNode rel = obj.as(SchemaRelationshipNode.class);
+
+			types.add(rel.getClassName());
+			types.add(rel.getSchemaNodeSourceType());
+			types.add(rel.getSchemaNodeTargetType());
+
+		} else if (obj.is(StructrTraits.SCHEMA_METHOD)) {
+
+			final SchemaMethod method = obj.as(SchemaMethod.class);
+
+			types.add(getTypeName(method.getSchemaNode(), method.getStaticSchemaNodeName()));
+
+		} else if (obj.is(StructrTraits.SCHEMA_METHOD_PARAMETER)) {
+
+			final NodeInterface method = obj.getProperty(obj.getTraits().key(SchemaMethodParameterTraitDefinition.SCHEMA_METHOD_PROPERTY));
+			if (method != null) {
+
+				return getAffectedTypes(method);
+			}
+
+		} else if (obj.is(StructrTraits.SCHEMA_PROPERTY)) {
+
+			final SchemaProperty property = obj.as(SchemaProperty.class);
+
+			types.add(getTypeName(property.getSchemaNode(), property.getStaticSchemaNodeName()));
+
+		} else if (obj.is(StructrTraits.SCHEMA_VIEW)) {
+
+			final NodeInterface schemaNode = obj.getProperty(obj.getTraits().key(SchemaViewTraitDefinition.SCHEMA_NODE_PROPERTY));
+			final SchemaView view          = obj.as(SchemaView.class);
+
+			types.add(getTypeName(schemaNode != null ? schemaNode.as(AbstractSchemaNode.class) : null, view.getStaticSchemaNodeName()));
+
+		} else if (obj.is(StructrTraits.SCHEMA_GRANT)) {
+
+			final SchemaGrant grant = obj.as(SchemaGrant.class);
+
+			types.add(getTypeName(grant.getSchemaNode(), grant.getStaticSchemaNodeName()));
+		}
+
+		types.remove(null);
+
+		if (types.isEmpty()) {
+
+			// unknown origin, rebuild everything
+			return null;
+		}
+
+		return types;
+	}
+
+	private static Set<String> getPreviousTypes(final GraphObject obj, final ModificationQueue modificationQueue) throws FrameworkException {
+
+		final Set<String> types                = new LinkedHashSet<>();
+		final GraphObjectMap modifications     = modificationQueue.getModifications(obj);
+		final GraphObjectMap before            = modifications.get(new GenericProperty<>("before"));
+		final Map<String, Object> removed      = modifications.get(new GenericProperty<>("removed"));
+		final App app                          = StructrApp.getInstance();
+
+		// previous schema node, source or target node
+		if (removed != null) {
+
+			for (final Object value : removed.values()) {
+
+				final Collection<?> uuids = value instanceof Collection<?> collection ? collection : Collections.singleton(value);
+
+				for (final Object uuid : uuids) {
+
+					if (uuid instanceof String id) {
+
+						final NodeInterface node = app.getNodeById(StructrTraits.ABSTRACT_SCHEMA_NODE, id);
+						if (node != null) {
+
+							types.add(getTypeName(node.as(AbstractSchemaNode.class), null));
+						}
+					}
+				}
+			}
+		}
+
+		// previous static type name
+		if (before != null && obj.getTraits().hasKey(SchemaPropertyTraitDefinition.STATIC_SCHEMA_NODE_NAME_PROPERTY)) {
+
+			final PropertyKey<String> key = obj.getTraits().key(SchemaPropertyTraitDefinition.STATIC_SCHEMA_NODE_NAME_PROPERTY);
+			final String previousName     = before.getProperty(key);
+
+			if (StringUtils.isNotBlank(previousName)) {
+
+				types.add(previousName);
+			}
+		}
+
+		types.remove(null);
+
+		return types;
+	}
+
+	private static String getTypeName(final AbstractSchemaNode schemaNode, final String staticSchemaNodeName) {
+
+		if (schemaNode != null) {
+
+			if (schemaNode.is(StructrTraits.SCHEMA_RELATIONSHIP_NODE)) {
+
+				return schemaNode.as(SchemaRelationshipNode.class).getClassName();
+			}
+
+			return schemaNode.getName();
+		}
+
+		if (StringUtils.isNotBlank(staticSchemaNodeName)) {
+
+			return staticSchemaNodeName;
+		}
+
+		return null;
 	}
 }
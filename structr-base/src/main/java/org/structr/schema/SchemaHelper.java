@@ -357,6 +357,10 @@ public class SchemaHelper {
 		return SchemaService.reloadSchema(errorBuffer, initiatedBySessionId, forceFullReload, notifyCluster);
 	}
 
+	public static ServiceResult reloadSchema(final ErrorBuffer errorBuffer, final String initiatedBySessionId, final boolean forceFullReload, final Set<String> changedTypes, final boolean notifyCluster) {
+		return SchemaService.reloadSchema(errorBuffer, initiatedBySessionId, forceFullReload, changedTypes, notifyCluster);
+	}
+
 	public static PropertyGenerator getPropertyGenerator(final ErrorBuffer errorBuffer, final String className, final PropertyDefinition propertyDefinition) throws FrameworkException {
 
 		final String propertyName              = propertyDefinition.getPropertyName();
@@ -58,6 +58,9 @@ public class SchemaService implements Service {
 	private static final Semaphore IndexUpdateSemaphore      = new Semaphore(1);
 	private static final AtomicBoolean schemaIsBeingReplaced = new AtomicBoolean(false);
 	private static final Set<String> blacklist               = new LinkedHashSet<>();
+	private static Map<String, NewIndexConfig> appliedIndexConfig = null;
+	private static Map<String, Object> lastReloadInfo             = Map.of();
+	private static volatile Set<String> lastIndexedTypes          = null;
 
 	@Override
 	public void injectArguments(final Command command) {
@@ -69,6 +72,17 @@ public class SchemaService implements Service {
 	}
 
 	public static ServiceResult reloadSchema(final ErrorBuffer errorBuffer, final String initiatedBySessionId, final boolean fullReload, final boolean notifyCluster) {
+		return reloadSchema(errorBuffer, initiatedBySessionId, fullReload, Set.of(), notifyCluster);
+	}
+
+	/**
+	 * Reloads the dynamic schema. The trait model is always rebuilt completely
+	 * because property keys are bound to their schema instance, but an
+	 * incremental reload (fullReload == false with a set of changed types)
+	 * restricts migration, view node creation and index updates to the
+	 * changed types, their subtypes and the relationship types between them.
+	 */
+	public static ServiceResult reloadSchema(final ErrorBuffer errorBuffer, final String initiatedBySessionId, final boolean fullReload, final Set<String> changedTypes, final boolean notifyCluster) {
 
 		// compiling must only be done once
 		if (!schemaIsBeingReplaced.compareAndSet(false, true)) {
@@ -79,6 +93,9 @@ public class SchemaService implements Service {
 
 			final TraitsInstance existingSchema = TraitsManager.getCurrentInstance();
 			final TraitsInstance newSchema      = TraitsManager.createCopyOfRootInstance();
+			final boolean incremental           = !fullReload && !changedTypes.isEmpty() && existingSchema != TraitsManager.getRootInstance();
+			final Set<String> migratedTypes     = new LinkedHashSet<>();
+			final Set<String> viewTypes         = new LinkedHashSet<>();
 
 			blacklist("Favoritable");
 
@@ -110,8 +127,11 @@ public class SchemaService implements Service {
 
 					final SchemaNode schemaNode = node.as(SchemaNode.class);
 
-					// migration entry point
-					schemaNode.handleMigration();
+					// migration entry point, unchanged types have been migrated before
+					if (!incremental || changedTypes.contains(schemaNode.getName())) {
+						schemaNode.handleMigration();
+						migratedTypes.add(schemaNode.getName());
+					}
 
 					// create traits
 					final TraitDefinition definition = schemaNode.getTraitDefinition(newSchema);
@@ -219,21 +239,38 @@ public class SchemaService implements Service {
 
 				newSchema.resolveTraitHierarchies();
 
+				final Set<String> affectedTypes = incremental ? getAffectedTypes(newSchema, changedTypes) : null;
+
 				for (final NodeInterface node : app.nodeQuery(StructrTraits.ABSTRACT_SCHEMA_NODE).getResultStream()) {
 
 					final String label = node.getName();
 
 					// create views (was a post process before, but needs access to the new schema)
-					AbstractSchemaNodeTraitDefinition.createViewNodesForClass(newSchema, node.as(AbstractSchemaNode.class), label);
+					if (affectedTypes == null || affectedTypes.contains(label)) {
+
+						AbstractSchemaNodeTraitDefinition.createViewNodesForClass(newSchema, node.as(AbstractSchemaNode.class), label);
+						viewTypes.add(label);
+					}
 				}
 
-				updateIndexConfiguration(newSchema, removedTypes);
+				updateIndexConfiguration(newSchema, removedTypes, incremental);
+
+				if (incremental) {
+					logger.info("Incremental schema reload, {} types affected by changes to {}", affectedTypes.size(), changedTypes);
+				}
 
 				tx.success();
 
 				// lastly: replace schema
 				TraitsManager.replaceCurrentInstance(newSchema);
 
+				lastReloadInfo = Map.of(
+					"incremental",   incremental,
+					"changedTypes",  Set.copyOf(changedTypes),
+					"migratedTypes", Collections.unmodifiableSet(migratedTypes),
+					"viewTypes",     Collections.unmodifiableSet(viewTypes)
+				);
+
 			} catch (Throwable t) {
 
 				logger.error(ExceptionUtils.getStackTrace(t));
@@ -273,6 +310,21 @@ public class SchemaService implements Service {
 		SchemaService.blacklist.add(typeName);
 	}
 
+	/**
+	 * Returns the types that were migrated, got their view nodes created and
+	 * had their indexes updated in the last successful schema reload. The
+	 * indexed types are updated asynchronously and are null until the index
+	 * update of that reload has finished.
+	 */
+	public static Map<String, Object> getLastReloadInfo() {
+
+		final Map<String, Object> info = new LinkedHashMap<>(lastReloadInfo);
+
+		info.put("indexedTypes", lastIndexedTypes);
+
+		return info;
+	}
+
 	public static Set<String> getBlacklist() {
 		return SchemaService.blacklist;
 	}
@@ -308,25 +360,64 @@ public class SchemaService implements Service {
 	}
 
 	// ----- private methods -----
-	private static void updateIndexConfiguration(final TraitsInstance traitsInstance, final Map<String, Map<String, PropertyKey>> removedTypes) {
+	/**
+	 * Returns the changed types, their subtypes and all relationship types
+	 * whose source or target type is one of them.
+	 */
+	private static Set<String> getAffectedTypes(final TraitsInstance traitsInstance, final Set<String> changedTypes) {
+
+		final Set<String> affectedTypes = new LinkedHashSet<>();
+
+		for (final String type : traitsInstance.getAllTypes()) {
+
+			final Traits traits = traitsInstance.getTraits(type);
+
+			for (final String changedType : changedTypes) {
+
+				if (type.equals(changedType) || traits.contains(changedType)) {
+
+					affectedTypes.add(type);
+					break;
+				}
+			}
+		}
+
+		for (final String type : traitsInstance.getAllTypes(t -> t.isRelationshipType())) {
+
+			final Relation relation = traitsInstance.getTraits(type).getRelation();
+			if (relation != null && (affectedTypes.contains(relation.getSourceType()) || affectedTypes.contains(relation.getTargetType()))) {
+
+				affectedTypes.add(type);
+			}
+		}
+
+		return affectedTypes;
+	}
+
+	private static void updateIndexConfiguration(final TraitsInstance traitsInstance, final Map<String, Map<String, PropertyKey>> removedTypes, final boolean incremental) {
+
+		final boolean skipDatabaseUpdate;
 
 		if (Services.overrideIndexManagement()) {
 
-			if (Services.skipIndexConfiguration()) {
+			skipDatabaseUpdate = Services.skipIndexConfiguration();
+			if (skipDatabaseUpdate) {
 
 				logger.info("Skipping index creation because of manual override.");
-				return;
 			}
 
 		} else {
 
-			if (Services.isTesting()) {
+			skipDatabaseUpdate = Services.isTesting();
+			if (skipDatabaseUpdate) {
 
 				logger.info("Skipping index creation in test mode.");
-				return;
 			}
 		}
 
+		// the index configuration diff is still computed when the database update is skipped, so the indexed types are known
+		lastIndexedTypes = null;
+
 		final Thread indexUpdater = new Thread(() -> {
 
 			try {
@@ -341,6 +432,7 @@ public class SchemaService implements Service {
 				final DatabaseService graphDb = StructrApp.getInstance().getDatabaseService();
 
 				final Map<String, NewIndexConfig> schemaIndexConfig  = new LinkedHashMap<>();
+				final Set<String> indexedTypes                       = new LinkedHashSet<>();
 
 				for (final String type : traitsInstance.getAllTypes()) {
 
@@ -398,11 +490,58 @@ public class SchemaService implements Service {
 					}
 				}
 
-				// use map to make list of index configs unique
-				graphDb.updateIndexConfiguration(new LinkedList<>(schemaIndexConfig.values()));
+				if (incremental && appliedIndexConfig != null) {
+
+					// only create and drop the index definitions that differ from the last update
+					final List<NewIndexConfig> indexesToCreate = new LinkedList<>();
+					final List<NewIndexConfig> indexesToDrop   = new LinkedList<>();
+
+					for (final Map.Entry<String, NewIndexConfig> entry : schemaIndexConfig.entrySet()) {
+
+						if (!entry.getValue().equals(appliedIndexConfig.get(entry.getKey()))) {
+							indexesToCreate.add(entry.getValue());
+						}
+					}
+
+					for (final Map.Entry<String, NewIndexConfig> entry : appliedIndexConfig.entrySet()) {
+
+						if (!entry.getValue().equals(schemaIndexConfig.get(entry.getKey()))) {
+							indexesToDrop.add(entry.getValue());
+						}
+					}
+
+					for (final NewIndexConfig config : indexesToCreate) {
+						indexedTypes.add(config.getType());
+					}
+
+					for (final NewIndexConfig config : indexesToDrop) {
+						indexedTypes.add(config.getType());
+					}
+
+					if (!skipDatabaseUpdate && (!indexesToCreate.isEmpty() || !indexesToDrop.isEmpty())) {
+						graphDb.updateIndexConfiguration(indexesToCreate, indexesToDrop);
+					}
+
+				} else {
+
+					for (final NewIndexConfig config : schemaIndexConfig.values()) {
+						indexedTypes.add(config.getType());
+					}
+
+					// use map to make list of index configs unique
+					if (!skipDatabaseUpdate) {
+						graphDb.updateIndexConfiguration(new LinkedList<>(schemaIndexConfig.values()));
+					}
+				}
+
+				appliedIndexConfig = schemaIndexConfig;
+				lastIndexedTypes   = Collections.unmodifiableSet(indexedTypes);
 
 			} catch (Throwable t) {
 
+				// force a full update next time
+				appliedIndexConfig = null;
+
 				t.printStackTrace();
 
 			} finally {
@@ -21,18 +21,27 @@ package org.structr.storage;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.LoggerFactory;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.web.entity.AbstractFile;
 import org.structr.web.entity.StorageConfiguration;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.OpenOption;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.*;
 
 /**
  * Abstract base class for all storage providers.
  */
 public abstract class AbstractStorageProvider implements StorageProvider {
 
+	private static final FixedSizeCache<String, Long> writeSequences = new FixedSizeCache<>("Storage write sequences", 10_000);
+	private static final AtomicLong writeCounter                     = new AtomicLong();
+
 	private final StorageConfiguration config;
 	private final AbstractFile file;
 	private final String name;
@@ -44,6 +53,29 @@ public abstract class AbstractStorageProvider implements StorageProvider {
 		this.name   = config != null ? config.getName() : "default";
 	}
 
+	/**
+	 * Returns a value that changes whenever the contents of the given file
+	 * are opened for writing or deleted, or -1 if the file was not written
+	 * recently.
+	 *
+	 * @param file
+	 * @return the write sequence or -1
+	 */
+	public static long getWriteSequence(final AbstractFile file) {
+
+		final String uuid = file.getUuid();
+		if (uuid != null) {
+
+			final Long sequence = writeSequences.get(uuid);
+			if (sequence != null) {
+
+				return sequence;
+			}
+		}
+
+		return -1L;
+	}
+
 	@Override
 	public String getProviderName() {
 		return name;
@@ -80,6 +112,24 @@ public abstract class AbstractStorageProvider implements StorageProvider {
 		return false;
 	}
 
+	/**
+	 * Must be called by implementations before the contents of the file
+	 * are written or deleted.
+	 */
+	protected void contentsModified() {
+
+		final String uuid = file.getUuid();
+		if (uuid != null) {
+
+			// values are never reused, so an evicted and re-added file gets a new one
+			writeSequences.put(uuid, writeCounter.incrementAndGet());
+		}
+	}
+
+	protected static boolean isWrite(final Set<? extends OpenOption> options) {
+		return options.contains(WRITE) || options.contains(APPEND) || options.contains(CREATE_NEW) || options.contains(TRUNCATE_EXISTING);
+	}
+
 	@Override
 	public void moveTo(final StorageProvider newFileStorageProvider) {
 
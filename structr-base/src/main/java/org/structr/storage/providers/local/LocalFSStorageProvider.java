@@ -76,6 +76,8 @@ public class LocalFSStorageProvider extends AbstractStorageProvider {
 	@Override
 	public OutputStream getOutputStream(final boolean append) {
 
+		contentsModified();
+
 		try {
 
 			ensureFileExists();
@@ -109,6 +111,10 @@ public class LocalFSStorageProvider extends AbstractStorageProvider {
 	@Override
 	public SeekableByteChannel getSeekableByteChannel(final Set<? extends OpenOption> options) {
 
+		if (isWrite(options)) {
+			contentsModified();
+		}
+
 		try {
 
 			final AbstractFile file = getAbstractFile();
@@ -168,6 +174,8 @@ public class LocalFSStorageProvider extends AbstractStorageProvider {
 	@Override
 	public void delete() {
 
+		contentsModified();
+
 		java.io.File fileOnDisk = fsHelper.getFileOnDisk(getAbstractFile());
 		if (fileOnDisk.exists() && fileOnDisk.isFile()) {
 
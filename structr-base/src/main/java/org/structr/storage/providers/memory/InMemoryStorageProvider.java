@@ -54,7 +54,7 @@ public class InMemoryStorageProvider extends AbstractStorageProvider {
 
 	@Override
 	public OutputStream getOutputStream() {
-		return new InMemoryOutputStream(false);
+		return getOutputStream(false);
 	}
 
 	@Override
@@ -69,12 +69,19 @@ public class InMemoryStorageProvider extends AbstractStorageProvider {
 
 	@Override
 	public OutputStream getOutputStream(boolean append) {
+
+		contentsModified();
+
 		return new InMemoryOutputStream(append);
 	}
 
 	@Override
 	public SeekableByteChannel getSeekableByteChannel(final Set<? extends OpenOption> options) {
 
+		if (isWrite(options)) {
+			contentsModified();
+		}
+
 		return new SavingInMemorySeekableByteChannel();
 	}
 
@@ -85,6 +92,9 @@ public class InMemoryStorageProvider extends AbstractStorageProvider {
 
 	@Override
 	public void delete() {
+
+		contentsModified();
+
 		dataMap.remove(getAbstractFile().getUuid());
 	}
 
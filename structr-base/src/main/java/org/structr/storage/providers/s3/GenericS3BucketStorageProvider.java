@@ -234,6 +234,7 @@ public class GenericS3BucketStorageProvider extends AbstractStorageProvider {
     public OutputStream getOutputStream(final boolean append) {
 
         setKeyFromAbstractFile();
+        contentsModified();
 
         try {
 
@@ -270,6 +271,7 @@ public class GenericS3BucketStorageProvider extends AbstractStorageProvider {
                     options.contains(StandardOpenOption.CREATE_NEW);
 
             if (write) {
+                contentsModified();
                 logger.debug("Opening writable seekable channel for S3 object: {}", key);
                 return new S3SeekableByteChannel(s3Client, bucketName, key, contentType, true);
             } else {
@@ -287,6 +289,7 @@ public class GenericS3BucketStorageProvider extends AbstractStorageProvider {
     public void delete() {
 
         setKeyFromAbstractFile();
+        contentsModified();
 
         try {
             if (!initialized || key == null) {
@@ -25,6 +25,7 @@ import org.structr.agent.ReturnValue;
 import org.structr.agent.Task;
 import org.structr.common.AccessControllable;
 import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.NodeInterface;
@@ -44,7 +45,11 @@ import org.structr.web.traits.relationships.ImageTHUMBNAILImage;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 
@@ -52,6 +57,9 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 	public static final String TASK_NAME                     = "ThumbnailAgent";
 	public static final Set queuedImageUUIDs                 = Collections.synchronizedSet(new HashSet<>());
 
+	// thumbnails that are queued but not yet created, per original image, so they can be created together
+	private static final Map<String, Set<ThumbnailWorkObject>> pendingWorkObjects = new ConcurrentHashMap<>();
+
 	public ThumbnailAgent() {
 
 		setName(TASK_NAME);
@@ -69,8 +77,12 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 
 			for (ThumbnailWorkObject wo : task.getWorkObjects()) {
 
-				logger.debug("Creating thumbnail for image {} with width:{} and height:{}, cropToFit:{}", wo.getOriginalImageId(), wo.getMaxWidth(), wo.getMaxHeight(), wo.isCropToFit());
-				createThumbnail(securityContext, wo.getOriginalImageId(), wo.getMaxWidth(), wo.getMaxHeight(), wo.isCropToFit());
+				// create all pending thumbnails of this image from a single decoding pass,
+				// the tasks of the other thumbnails will find them already existing
+				final Set<ThumbnailWorkObject> workObjects = takePendingWorkObjects(wo);
+
+				logger.debug("Creating thumbnails for image {}: {}", wo.getOriginalImageId(), workObjects);
+				createThumbnails(securityContext, wo.getOriginalImageId(), workObjects);
 			}
 
 			return ReturnValue.Success;
@@ -85,11 +97,35 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 		return ThumbnailTask.class;
 	}
 
+	@Override
+	public Task<ThumbnailWorkObject> restoreTask(final String entry) {
+		return ThumbnailTask.fromJournalEntry(entry);
+	}
+
+	static void registerPendingWorkObject(final ThumbnailWorkObject wo) {
+		pendingWorkObjects.computeIfAbsent(wo.getOriginalImageId(), k -> ConcurrentHashMap.newKeySet()).add(wo);
+	}
+
 	/**  Private Methods  **/
-	private static void createThumbnail(final SecurityContext securityContext, final String imageUuid, final int maxWidth, final int maxHeight, final boolean cropToFit) {
+	private static Set<ThumbnailWorkObject> takePendingWorkObjects(final ThumbnailWorkObject wo) {
+
+		final Set<ThumbnailWorkObject> workObjects = new LinkedHashSet<>();
+		final Set<ThumbnailWorkObject> pending     = pendingWorkObjects.remove(wo.getOriginalImageId());
+
+		workObjects.add(wo);
+
+		if (pending != null) {
+			workObjects.addAll(pending);
+		}
+
+		return workObjects;
+	}
+
+	private static void createThumbnails(final SecurityContext securityContext, final String imageUuid, final Set<ThumbnailWorkObject> workObjects) {
 
 		final Logger logger = LoggerFactory.getLogger(Image.class);
 		final App app = StructrApp.getInstance();
+		boolean queued      = false;
 
 		synchronized (queuedImageUUIDs) {
 
@@ -101,17 +137,24 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 
 		try (final Tx tx = app.tx()) {
 
-			final String thumbnailRel = StructrTraits.IMAGE_THUMBNAIL_IMAGE;
-			final NodeInterface node  = app.nodeQuery(StructrTraits.IMAGE).uuid(imageUuid).getFirst();
-			NodeInterface thumbnail   = null;
+			final NodeInterface node = app.nodeQuery(StructrTraits.IMAGE).uuid(imageUuid).getFirst();
 
 			if (node == null) {
 				return;
 			}
 
-			final Image originalImage = node.as(Image.class);
+			final Image originalImage                                       = node.as(Image.class);
+			final Map<ImageHelper.ThumbnailSpec, ThumbnailWorkObject> specs = new LinkedHashMap<>();
 
-			if (originalImage.getExistingThumbnail(maxWidth, maxHeight, cropToFit) != null) {
+			for (final ThumbnailWorkObject wo : workObjects) {
+
+				if (originalImage.getExistingThumbnail(wo.getMaxWidth(), wo.getMaxHeight(), wo.isCropToFit()) == null) {
+
+					specs.put(new ImageHelper.ThumbnailSpec(wo.getMaxWidth(), wo.getMaxHeight(), wo.isCropToFit()), wo);
+				}
+			}
+
+			if (specs.isEmpty()) {
 
 				return;
 			}
@@ -119,76 +162,32 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 			synchronized (queuedImageUUIDs) {
 
 				queuedImageUUIDs.add(imageUuid);
+				queued = true;
 			}
 
-			final ImageHelper.Thumbnail thumbnailData = ImageHelper.createThumbnail(originalImage, maxWidth, maxHeight, cropToFit);
-			if (thumbnailData != null) {
+			final Map<ImageHelper.ThumbnailSpec, ImageHelper.Thumbnail> thumbnails = ImageHelper.createThumbnails(originalImage, specs.keySet());
 
-				final Integer tnWidth  = thumbnailData.getWidth();
-				final Integer tnHeight = thumbnailData.getHeight();
-				byte[] data            = null;
+			for (final Map.Entry<ImageHelper.ThumbnailSpec, ThumbnailWorkObject> entry : specs.entrySet()) {
 
-				try {
+				final ImageHelper.Thumbnail thumbnailData = thumbnails.get(entry.getKey());
+				final ThumbnailWorkObject wo              = entry.getValue();
 
-					data = thumbnailData.getBytes();
-					final String thumbnailName = ImageHelper.getThumbnailName(originalImage.getName(), tnWidth, tnHeight);
+				if (thumbnailData != null) {
 
-					// create thumbnail node
-					thumbnail = ImageHelper.createImageNode(securityContext, data, "image/" + ImageHelper.Thumbnail.defaultFormat, StructrTraits.IMAGE, thumbnailName, true);
+					createThumbnailNode(securityContext, app, node, originalImage, thumbnailData, wo.getMaxWidth(), wo.getMaxHeight(), wo.isCropToFit());
 
-				} catch (IOException ex) {
+				} else {
 
-					logger.warn("Could not create thumbnail image for " + originalImage.getUuid(), ex);
-				}
+					logger.warn("Could not create thumbnail for image {} ({})", originalImage.getName(), imageUuid);
 
-				if (thumbnail != null && data != null) {
-
-					// Create a thumbnail relationship
-					final PropertyMap relProperties = new PropertyMap();
-					// FIXME ? why are the image attributes being stored on the relationship? (at least width and height do not exist on rel-level)
-					relProperties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.WIDTH_PROPERTY),                      tnWidth);
-					relProperties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.HEIGHT_PROPERTY),                     tnHeight);
-
-					// We have to store the specs here in order to find existing thumbnails based on the specs they've been created for, not actual dimensions.
-					relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.CHECKSUM_PROPERTY),    originalImage.getChecksum());
-					relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.MAX_WIDTH_PROPERTY),   maxWidth);
-					relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.MAX_HEIGHT_PROPERTY),  maxHeight);
-					relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.CROP_TO_FIT_PROPERTY), cropToFit);
-
-					app.create(node, thumbnail, thumbnailRel, relProperties);
-
-					// Create thumbnail Image node
-					final PropertyMap properties = new PropertyMap();
-					properties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.WIDTH_PROPERTY),                                         tnWidth);
-					properties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.HEIGHT_PROPERTY),                                        tnHeight);
-					properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.HIDDEN_PROPERTY),                       originalImage.isHidden());
-					properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(GraphObjectTraitDefinition.VISIBLE_TO_AUTHENTICATED_USERS_PROPERTY), originalImage.isVisibleToAuthenticatedUsers());
-					properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(GraphObjectTraitDefinition.VISIBLE_TO_PUBLIC_USERS_PROPERTY),        originalImage.isVisibleToPublicUsers());
-					properties.put(Traits.of(StructrTraits.FILE).key(FileTraitDefinition.SIZE_PROPERTY),                                            Long.valueOf(data.length));
-					properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.OWNER_PROPERTY),                        originalImage.as(AccessControllable.class).getOwnerNode());
-					properties.put(Traits.of(StructrTraits.FILE).key(AbstractFileTraitDefinition.PARENT_PROPERTY),                                  originalImage.getThumbnailParentFolder(originalImage.getParent(), securityContext));
-					properties.put(Traits.of(StructrTraits.FILE).key(AbstractFileTraitDefinition.HAS_PARENT_PROPERTY),                              true);
-
-					thumbnail.unlockSystemPropertiesOnce();
-					thumbnail.setProperties(securityContext, properties);
+					// mark file so we don't try to create a thumbnail again
+					originalImage.setProperty(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.THUMBNAIL_CREATION_FAILED_PROPERTY), true);
 				}
-
-			} else {
-
-				logger.warn("Could not create thumbnail for image {} ({})", originalImage.getName(), imageUuid);
-
-				// mark file so we don't try to create a thumbnail again
-				originalImage.setProperty(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.THUMBNAIL_CREATION_FAILED_PROPERTY), true);
 			}
 
 			originalImage.unlockSystemPropertiesOnce();
 			originalImage.setIsCreatingThumb(false);
 
-			synchronized (queuedImageUUIDs) {
-
-				queuedImageUUIDs.remove(imageUuid);
-			}
-
 			tx.success();
 
 		} catch (Throwable t) {
@@ -197,6 +196,67 @@ public class ThumbnailAgent extends Agent<ThumbnailWorkObject> {
 
 			logger.warn("Unable to create thumbnail for " + imageUuid, t);
 
+		} finally {
+
+			if (queued) {
+
+				queuedImageUUIDs.remove(imageUuid);
+			}
+		}
+	}
+
+	private static void createThumbnailNode(final SecurityContext securityContext, final App app, final NodeInterface node, final Image originalImage, final ImageHelper.Thumbnail thumbnailData, final int maxWidth, final int maxHeight, final boolean cropToFit) throws FrameworkException {
+
+		final Logger logger       = LoggerFactory.getLogger(Image.class);
+		final String thumbnailRel = StructrTraits.IMAGE_THUMBNAIL_IMAGE;
+		final Integer tnWidth     = thumbnailData.getWidth();
+		final Integer tnHeight    = thumbnailData.getHeight();
+		NodeInterface thumbnail   = null;
+		byte[] data               = null;
+
+		try {
+
+			data = thumbnailData.getBytes();
+			final String thumbnailName = ImageHelper.getThumbnailName(originalImage.getName(), tnWidth, tnHeight);
+
+			// create thumbnail node
+			thumbnail = ImageHelper.createImageNode(securityContext, data, "image/" + ImageHelper.Thumbnail.defaultFormat, StructrTraits.IMAGE, thumbnailName, true);
+
+		} catch (IOException ex) {
+
+			logger.warn("Could not create thumbnail image for " + originalImage.getUuid(), ex);
+		}
+
+		if (thumbnail != null && data != null) {
+
+			// Create a thumbnail relationship
+			final PropertyMap relProperties = new PropertyMap();
+			// FIXME ? why are the image attributes being stored on the relationship? (at least width and height do not exist on rel-level)
+			relProperties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.WIDTH_PROPERTY),                      tnWidth);
+			relProperties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.HEIGHT_PROPERTY),                     tnHeight);
+
+			// We have to store the specs here in order to find existing thumbnails based on the specs they've been created for, not actual dimensions.
+			relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.CHECKSUM_PROPERTY),    originalImage.getChecksum());
+			relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.MAX_WIDTH_PROPERTY),   maxWidth);
+			relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.MAX_HEIGHT_PROPERTY),  maxHeight);
+			relProperties.put(Traits.of(StructrTraits.IMAGE_THUMBNAIL_IMAGE).key(ImageTHUMBNAILImage.CROP_TO_FIT_PROPERTY), cropToFit);
+
+			app.create(node, thumbnail, thumbnailRel, relProperties);
+
+			// Create thumbnail Image node
+			final PropertyMap properties = new PropertyMap();
+			properties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.WIDTH_PROPERTY),                                         tnWidth);
+			properties.put(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.HEIGHT_PROPERTY),                                        tnHeight);
+			properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.HIDDEN_PROPERTY),                       originalImage.isHidden());
+			properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(GraphObjectTraitDefinition.VISIBLE_TO_AUTHENTICATED_USERS_PROPERTY), originalImage.isVisibleToAuthenticatedUsers());
+			properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(GraphObjectTraitDefinition.VISIBLE_TO_PUBLIC_USERS_PROPERTY),        originalImage.isVisibleToPublicUsers());
+			properties.put(Traits.of(StructrTraits.FILE).key(FileTraitDefinition.SIZE_PROPERTY),                                            Long.valueOf(data.length));
+			properties.put(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.OWNER_PROPERTY),                        originalImage.as(AccessControllable.class).getOwnerNode());
+			properties.put(Traits.of(StructrTraits.FILE).key(AbstractFileTraitDefinition.PARENT_PROPERTY),                                  originalImage.getThumbnailParentFolder(originalImage.getParent(), securityContext));
+			properties.put(Traits.of(StructrTraits.FILE).key(AbstractFileTraitDefinition.HAS_PARENT_PROPERTY),                              true);
+
+			thumbnail.unlockSystemPropertiesOnce();
+			thumbnail.setProperties(securityContext, properties);
 		}
 	}
 }
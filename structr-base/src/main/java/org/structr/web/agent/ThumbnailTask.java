@@ -24,5 +24,26 @@ public class ThumbnailTask extends AbstractTask<ThumbnailWorkObject> {
 
 	public ThumbnailTask(final String originalImageId, final int maxWidth, final int maxHeight, final boolean cropToFit) {
 		super(ThumbnailAgent.TASK_NAME, null, new ThumbnailWorkObject(originalImageId, maxWidth, maxHeight, cropToFit));
+
+		ThumbnailAgent.registerPendingWorkObject(getWorkObjects().get(0));
+	}
+
+	@Override
+	public String getJournalEntry() {
+
+		final ThumbnailWorkObject wo = getWorkObjects().get(0);
+
+		return wo.getOriginalImageId() + "," + wo.getMaxWidth() + "," + wo.getMaxHeight() + "," + wo.isCropToFit();
+	}
+
+	public static ThumbnailTask fromJournalEntry(final String entry) {
+
+		final String[] parts = entry.split(",");
+		if (parts.length == 4) {
+
+			return new ThumbnailTask(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Boolean.parseBoolean(parts[3]));
+		}
+
+		return null;
 	}
 }
@@ -18,6 +18,8 @@
  */
 package org.structr.web.agent;
 
+import java.util.Objects;
+
 public class ThumbnailWorkObject {
 	private final String originalImageId;
 	private final int maxWidth;
@@ -46,4 +48,25 @@ public class ThumbnailWorkObject {
 	public boolean isCropToFit() {
 		return cropToFit;
 	}
+
+	@Override
+	public boolean equals(final Object other) {
+
+		if (other instanceof ThumbnailWorkObject wo) {
+
+			return maxWidth == wo.maxWidth && maxHeight == wo.maxHeight && cropToFit == wo.cropToFit && Objects.equals(originalImageId, wo.originalImageId);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(originalImageId, maxWidth, maxHeight, cropToFit);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + maxWidth + ", " + maxHeight + ", " + cropToFit + ")";
+	}
 }
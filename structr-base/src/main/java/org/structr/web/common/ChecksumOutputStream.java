@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.structr.core.property.PropertyMap;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.web.traits.definitions.FileTraitDefinition;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.zip.CRC32;
+
+/**
+ * Output stream that passes all data to the wrapped stream and computes the
+ * xxHash checksum and the enabled CRC32, MD5, SHA-1 and SHA-512 checksums
+ * of that data at the same time, so file contents don't have to be read
+ * again after they have been written.
+ */
+public class ChecksumOutputStream extends FilterOutputStream {
+
+	private final XXHash64 xxHash   = new XXHash64();
+	private String enabledChecksums = null;
+	private CRC32 crc32             = null;
+	private MessageDigest md5       = null;
+	private MessageDigest sha1      = null;
+	private MessageDigest sha512    = null;
+	private PropertyMap checksums   = null;
+	private long size               = 0L;
+
+	/**
+	 * @param out the stream to write to
+	 * @param enabledChecksums the checksums to calculate in addition to xxHash, see {@link FileHelper#getEnabledChecksums}
+	 */
+	public ChecksumOutputStream(final OutputStream out, final String enabledChecksums) {
+
+		super(out);
+
+		this.enabledChecksums = enabledChecksums;
+
+		if (StringUtils.contains(enabledChecksums, "crc32")) {
+			crc32 = new CRC32();
+		}
+
+		if (StringUtils.contains(enabledChecksums, "md5")) {
+			md5 = DigestUtils.getMd5Digest();
+		}
+
+		if (StringUtils.contains(enabledChecksums, "sha1")) {
+			sha1 = DigestUtils.getSha1Digest();
+		}
+
+		if (StringUtils.contains(enabledChecksums, "sha512")) {
+			sha512 = DigestUtils.getSha512Digest();
+		}
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+
+		out.write(b);
+
+		update(new byte[] { (byte)b }, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+
+		out.write(b, off, len);
+
+		update(b, off, len);
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public String getEnabledChecksums() {
+		return enabledChecksums;
+	}
+
+	/**
+	 * Returns the checksums of the written data, using the same property
+	 * keys as {@link FileHelper#updateMetadata}. Must only be called after
+	 * all data has been written.
+	 *
+	 * @return the checksum properties
+	 */
+	public PropertyMap getChecksums() {
+
+		if (checksums != null) {
+			return new PropertyMap(checksums);
+		}
+
+		final Traits traits = Traits.of(StructrTraits.FILE);
+
+		checksums = new PropertyMap();
+
+		checksums.put(traits.key(FileTraitDefinition.CHECKSUM_PROPERTY), xxHash.getValue());
+
+		if (crc32 != null) {
+			checksums.put(traits.key(FileTraitDefinition.CRC32_PROPERTY), crc32.getValue());
+		}
+
+		if (md5 != null) {
+			checksums.put(traits.key(FileTraitDefinition.MD5_PROPERTY), Hex.encodeHexString(md5.digest()));
+		}
+
+		if (sha1 != null) {
+			checksums.put(traits.key(FileTraitDefinition.SHA1_PROPERTY), Hex.encodeHexString(sha1.digest()));
+		}
+
+		if (sha512 != null) {
+			checksums.put(traits.key(FileTraitDefinition.SHA512_PROPERTY), Hex.encodeHexString(sha512.digest()));
+		}
+
+		return new PropertyMap(checksums);
+	}
+
+	// ----- private methods -----
+	private void update(final byte[] b, final int off, final int len) {
+
+		xxHash.update(b, off, len);
+
+		if (crc32 != null) {
+			crc32.update(b, off, len);
+		}
+
+		if (md5 != null) {
+			md5.update(b, off, len);
+		}
+
+		if (sha1 != null) {
+			sha1.update(b, off, len);
+		}
+
+		if (sha512 != null) {
+			sha512.update(b, off, len);
+		}
+
+		size += len;
+	}
+
+	// ----- nested classes -----
+	/**
+	 * Incremental XXH64 with seed 0, produces the same values as the
+	 * LongHashFunction.xx() checksum in {@link FileHelper#getChecksum}.
+	 */
+	static class XXHash64 {
+
+		private static final long P1 = 0x9E3779B185EBCA87L;
+		private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+		private static final long P3 = 0x165667B19E3779F9L;
+		private static final long P4 = 0x85EBCA77C2B2AE63L;
+		private static final long P5 = 0x27D4EB2F165667C5L;
+
+		private final byte[] buffer = new byte[32];
+		private int bufferSize      = 0;
+		private long length         = 0L;
+		private long v1             = P1 + P2;
+		private long v2             = P2;
+		private long v3             = 0L;
+		private long v4             = -P1;
+
+		void update(final byte[] b, int off, int len) {
+
+			length += len;
+
+			// fill up a partial stripe first
+			if (bufferSize > 0) {
+
+				final int count = Math.min(32 - bufferSize, len);
+
+				System.arraycopy(b, off, buffer, bufferSize, count);
+
+				bufferSize += count;
+				off        += count;
+				len        -= count;
+
+				if (bufferSize < 32) {
+					return;
+				}
+
+				processStripe(buffer, 0);
+				bufferSize = 0;
+			}
+
+			while (len >= 32) {
+
+				processStripe(b, off);
+
+				off += 32;
+				len -= 32;
+			}
+
+			if (len > 0) {
+
+				System.arraycopy(b, off, buffer, 0, len);
+				bufferSize = len;
+			}
+		}
+
+		long getValue() {
+
+			long h;
+
+			if (length >= 32) {
+
+				h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+				h = mergeRound(h, v1);
+				h = mergeRound(h, v2);
+				h = mergeRound(h, v3);
+				h = mergeRound(h, v4);
+
+			} else {
+
+				h = P5;
+			}
+
+			h += length;
+
+			int pos = 0;
+
+			while (pos + 8 <= bufferSize) {
+
+				h ^= round(0L, getLong(buffer, pos));
+				h  = Long.rotateLeft(h, 27) * P1 + P4;
+				pos += 8;
+			}
+
+			if (pos + 4 <= bufferSize) {
+
+				h ^= (getInt(buffer, pos) & 0xFFFFFFFFL) * P1;
+				h  = Long.rotateLeft(h, 23) * P2 + P3;
+				pos += 4;
+			}
+
+			while (pos < bufferSize) {
+
+				h ^= (buffer[pos] & 0xFFL) * P5;
+				h  = Long.rotateLeft(h, 11) * P1;
+				pos++;
+			}
+
+			h ^= h >>> 33;
+			h *= P2;
+			h ^= h >>> 29;
+			h *= P3;
+			h ^= h >>> 32;
+
+			return h;
+		}
+
+		private void processStripe(final byte[] b, final int off) {
+
+			v1 = round(v1, getLong(b, off));
+			v2 = round(v2, getLong(b, off + 8));
+			v3 = round(v3, getLong(b, off + 16));
+			v4 = round(v4, getLong(b, off + 24));
+		}
+
+		private static long round(long acc, final long input) {
+
+			acc += input * P2;
+			acc  = Long.rotateLeft(acc, 31);
+
+			return acc * P1;
+		}
+
+		private static long mergeRound(long acc, final long val) {
+
+			acc ^= round(0L, val);
+
+			return acc * P1 + P4;
+		}
+
+		private static long getLong(final byte[] b, final int i) {
+			return (getInt(b, i) & 0xFFFFFFFFL) | ((long)getInt(b, i + 4) << 32);
+		}
+
+		private static int getInt(final byte[] b, final int i) {
+			return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | ((b[i + 2] & 0xFF) << 16) | ((b[i + 3] & 0xFF) << 24);
+		}
+	}
+}
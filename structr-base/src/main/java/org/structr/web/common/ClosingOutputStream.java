@@ -23,6 +23,7 @@ import org.structr.web.entity.File;
 
 import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  */
@@ -31,14 +32,19 @@ public class ClosingOutputStream extends BufferedOutputStream {
 	private boolean closed = false;
 	private boolean notifyIndexerAfterClosing = false;
 	private File thisFile  = null;
+	private ChecksumOutputStream checksumStream = null;
 
 	public ClosingOutputStream(final File thisFile, final boolean append, final boolean notifyIndexerAfterClosing) throws IOException {
 
-		super(StorageProviderFactory.getStorageProvider(thisFile).getOutputStream(append));
+		super(getOutputStream(thisFile, append));
 
 		this.notifyIndexerAfterClosing = notifyIndexerAfterClosing;
 
 		this.thisFile = thisFile;
+
+		if (out instanceof ChecksumOutputStream cos) {
+			this.checksumStream = cos;
+		}
 	}
 
 	@Override
@@ -50,10 +56,27 @@ public class ClosingOutputStream extends BufferedOutputStream {
 
 		super.close();
 
+		if (checksumStream != null) {
+			FileHelper.storeStreamedChecksums(thisFile, checksumStream);
+		}
+
 		if (notifyIndexerAfterClosing) {
 			thisFile.notifyUploadCompletion();
 		}
 
 		closed = true;
 	}
+
+	// ----- private static methods -----
+	private static OutputStream getOutputStream(final File file, final boolean append) {
+
+		final OutputStream out = StorageProviderFactory.getStorageProvider(file).getOutputStream(append);
+
+		// checksums of appended data can't be calculated from the written bytes alone
+		if (append) {
+			return out;
+		}
+
+		return new ChecksumOutputStream(out, FileHelper.getEnabledChecksums(file));
+	}
 }
@@ -39,6 +39,7 @@ import org.apache.tika.mime.MediaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.helper.PathHelper;
@@ -53,6 +54,7 @@ import org.structr.core.traits.StructrTraits;
 import org.structr.core.traits.Traits;
 import org.structr.core.traits.definitions.GraphObjectTraitDefinition;
 import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.structr.storage.AbstractStorageProvider;
 import org.structr.storage.StorageProvider;
 import org.structr.storage.StorageProviderFactory;
 import org.structr.util.Base64;
@@ -82,6 +84,8 @@ public class FileHelper {
 	private static final Logger logger                    = LoggerFactory.getLogger(FileHelper.class.getName());
 	private static final MimetypesFileTypeMap mimeTypeMap = new MimetypesFileTypeMap(FileHelper.class.getResourceAsStream("/mime.types"));
 
+	private static final FixedSizeCache<String, StreamedChecksums> streamedChecksums = new FixedSizeCache<>("Streamed checksums", 1000);
+
 	/**
 	 * Transform an existing file into the target class.
 	 *
@@ -315,10 +319,10 @@ public class FileHelper {
 	 */
 	public static void setFileData(final File file, final byte[] fileData, final String contentType, final boolean updateMetadata) throws FrameworkException, IOException {
 
-		FileHelper.writeToFile(file, fileData);
+		final PropertyMap checksums = FileHelper.writeToFile(file, fileData);
 
 		if (updateMetadata) {
-			setFilePropertiesOnCreation(file, contentType);
+			setFilePropertiesOnCreation(file, contentType, checksums);
 		}
 	}
 
@@ -333,8 +337,9 @@ public class FileHelper {
 	 */
 	public static void setFileData(final File file, final InputStream fileStream, final String contentType) throws FrameworkException, IOException {
 
-		FileHelper.writeToFile(file, fileStream);
-		setFilePropertiesOnCreation(file, contentType);
+		final PropertyMap checksums = FileHelper.writeToFile(file, fileStream);
+
+		setFilePropertiesOnCreation(file, contentType, checksums);
 	}
 
 	/**
@@ -342,10 +347,11 @@ public class FileHelper {
 	 *
 	 * @param file
 	 * @param contentType if null, try to auto-detect content type
+	 * @param checksums the checksums that were calculated while the file was written
 	 * @throws FrameworkException
 	 * @throws IOException
 	 */
-	private static void setFilePropertiesOnCreation(final File file, final String contentType) throws IOException, FrameworkException {
+	private static void setFilePropertiesOnCreation(final File file, final String contentType, final PropertyMap checksums) throws IOException, FrameworkException {
 
 		final PropertyMap map = new PropertyMap();
 		final Traits traits   = Traits.of(StructrTraits.FILE);
@@ -354,7 +360,7 @@ public class FileHelper {
 		map.put(traits.key(FileTraitDefinition.SIZE_PROPERTY),         FileHelper.getSize(file));
 		map.put(traits.key(FileTraitDefinition.VERSION_PROPERTY),      1);
 
-		map.putAll(getChecksums(file));
+		map.putAll(checksums);
 
 		if (file.is(StructrTraits.IMAGE)) {
 
@@ -404,16 +410,13 @@ public class FileHelper {
 	}
 
 	/**
-	 * Calculate checksums that are configured in settings of parent folder.
+	 * Returns the checksums that are configured in settings of the parent
+	 * folder (or its ancestors), or the default checksums.
 	 *
 	 * @param file
-	 * @return
-	 * @throws IOException
+	 * @return the enabled checksums
 	 */
-	private static PropertyMap getChecksums(final File file) throws IOException {
-
-		final PropertyMap propertiesWithChecksums = new PropertyMap();
-		final Traits traits                       = Traits.of(StructrTraits.FILE);
+	public static String getEnabledChecksums(final File file) {
 
 		Folder parentFolder = file.getParent();
 		String checksums = null;
@@ -428,27 +431,62 @@ public class FileHelper {
 			checksums = Settings.DefaultChecksums.getValue();
 		}
 
-		// New, very fast xxHash default checksum, will always be calculated
-		propertiesWithChecksums.put(traits.key(FileTraitDefinition.CHECKSUM_PROPERTY), FileHelper.getChecksum(file));
+		return checksums;
+	}
 
-		if (StringUtils.contains(checksums, "crc32"))	{
-			propertiesWithChecksums.put(traits.key(FileTraitDefinition.CRC32_PROPERTY), FileHelper.getCRC32Checksum(file));
-		}
+	/**
+	 * Stores the checksums that were calculated while the contents of the
+	 * given file were written, so that the next metadata update does not
+	 * need to read the file again. Must be called after the stream was
+	 * closed; the entry is only used as long as the contents of the file
+	 * have not been opened for writing again.
+	 *
+	 * @param file
+	 * @param stream
+	 */
+	public static void storeStreamedChecksums(final File file, final ChecksumOutputStream stream) {
 
-		if (StringUtils.contains(checksums, "md5"))	{
-			propertiesWithChecksums.put(traits.key(FileTraitDefinition.MD5_PROPERTY), FileHelper.getMD5Checksum(file));
-		}
+		final String uuid        = file.getUuid();
+		final long writeSequence = AbstractStorageProvider.getWriteSequence(file);
+
+		if (uuid != null && writeSequence >= 0) {
 
-		if (StringUtils.contains(checksums, "sha1"))	{
-			propertiesWithChecksums.put(traits.key(FileTraitDefinition.SHA1_PROPERTY), FileHelper.getSHA1Checksum(file));
+			streamedChecksums.put(uuid, new StreamedChecksums(stream.getChecksums(), writeSequence, stream.getEnabledChecksums()));
 		}
+	}
+
+	/**
+	 * Calculate checksums that are configured in settings of parent folder.
+	 * Uses the checksums that were calculated while the file was written if
+	 * they are still valid, otherwise all checksums are calculated in a
+	 * single pass over the file contents.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private static PropertyMap getChecksums(final File file) throws IOException {
+
+		final String checksums = getEnabledChecksums(file);
+		final String uuid      = file.getUuid();
 
-		if (StringUtils.contains(checksums, "sha512"))	{
-			propertiesWithChecksums.put(traits.key(FileTraitDefinition.SHA512_PROPERTY), FileHelper.getSHA512Checksum(file));
+		if (uuid != null) {
+
+			final StreamedChecksums streamed = streamedChecksums.remove(uuid);
+			if (streamed != null && checksums.equals(streamed.enabledChecksums) && streamed.writeSequence == AbstractStorageProvider.getWriteSequence(file)) {
+
+				return new PropertyMap(streamed.checksums);
+			}
 		}
 
-		return propertiesWithChecksums;
+		try (final InputStream is = StorageProviderFactory.getStorageProvider(file).getInputStream(); final ChecksumOutputStream os = new ChecksumOutputStream(OutputStream.nullOutputStream(), checksums)) {
+
+			IOUtils.copy(is, os, 131072);
+
+			return os.getChecksums();
+		}
 	}
+
 	/**
 	 * Update checksums, content type, size and additional properties of the given file
 	 *
@@ -612,17 +650,12 @@ public class FileHelper {
 	 *
 	 * @param fileNode
 	 * @param data
+	 * @return the checksums of the written data
 	 * @throws FrameworkException
 	 * @throws IOException
 	 */
-	public static void writeToFile(final File fileNode, final byte[] data) throws FrameworkException, IOException {
-
-		setFilePropertiesOnCreation(fileNode);
-
-		try (final InputStream is = new ByteArrayInputStream(data); final OutputStream os = StorageProviderFactory.getStorageProvider(fileNode).getOutputStream()) {
-			IOUtils.copy(is, os);
-		}
-
+	public static PropertyMap writeToFile(final File fileNode, final byte[] data) throws FrameworkException, IOException {
+		return writeToFile(fileNode, new ByteArrayInputStream(data));
 	}
 
 	/**
@@ -630,17 +663,22 @@ public class FileHelper {
 	 *
 	 * @param fileNode
 	 * @param data	The input stream from which to read the file data (Stream is not closed automatically - has to be handled by caller)
+	 * @return the checksums of the written data
 	 * @throws FrameworkException
 	 * @throws IOException
 	 */
-	public static void writeToFile(final File fileNode, final InputStream data) throws FrameworkException, IOException {
+	public static PropertyMap writeToFile(final File fileNode, final InputStream data) throws FrameworkException, IOException {
 
 		setFilePropertiesOnCreation(fileNode);
 
-		try (final OutputStream out = StorageProviderFactory.getStorageProvider(fileNode).getOutputStream()) {
+		final ChecksumOutputStream os = new ChecksumOutputStream(StorageProviderFactory.getStorageProvider(fileNode).getOutputStream(), getEnabledChecksums(fileNode));
 
-			IOUtils.copy(data, out);
+		try (os) {
+
+			IOUtils.copy(data, os, 131072);
 		}
+
+		return os.getChecksums();
 	}
 
 	/**
@@ -1363,4 +1401,19 @@ public class FileHelper {
 			)
 		);
 	}
+
+	// ----- nested classes -----
+	private static class StreamedChecksums {
+
+		private final PropertyMap checksums;
+		private final String enabledChecksums;
+		private final long writeSequence;
+
+		public StreamedChecksums(final PropertyMap checksums, final long writeSequence, final String enabledChecksums) {
+
+			this.checksums        = checksums;
+			this.enabledChecksums = enabledChecksums;
+			this.writeSequence    = writeSequence;
+		}
+	}
 }
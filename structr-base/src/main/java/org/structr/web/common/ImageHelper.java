@@ -35,6 +35,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.helper.PathHelper;
@@ -58,6 +59,8 @@ import org.structr.web.traits.definitions.FileTraitDefinition;
 import org.structr.web.traits.definitions.ImageTraitDefinition;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
@@ -66,13 +69,29 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 public abstract class ImageHelper extends FileHelper {
 
 	private static final Logger logger = LoggerFactory.getLogger(ImageHelper.class.getName());
 
+	private static final int thumbnailMemoryLimit      = Math.max(1, Settings.ThumbnailMemoryLimit.getValue());
+	private static final int thumbnailWorkerLimit      = Math.max(1, Settings.ThumbnailWorkers.getValue());
+	private static final Semaphore thumbnailMemory     = new Semaphore(thumbnailMemoryLimit, true);
+	private static final Semaphore thumbnailWorkers    = new Semaphore(thumbnailWorkerLimit, true);
+
 	/**
 	 * Create a new image node from the given image data
 	 *
@@ -273,19 +292,54 @@ public abstract class ImageHelper extends FileHelper {
 
 	public static Thumbnail createThumbnail(final Image originalImage, final int maxWidth, final int maxHeight, final String formatString, final boolean crop, final Integer reqOffsetX, final Integer reqOffsetY) {
 
-		final Thumbnail.Format format    = Thumbnail.defaultFormat;
-		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		final Thumbnail tn               = new Thumbnail();
+		final ThumbnailSpec spec = new ThumbnailSpec(maxWidth, maxHeight, crop, reqOffsetX, reqOffsetY);
 
-		try {
+		return createThumbnails(originalImage, List.of(spec)).get(spec);
+	}
 
-			final long start = System.nanoTime();
-			BufferedImage source = getRotatedImage(originalImage);
+	/**
+	 * Creates thumbnails of all the given sizes from a single decoding pass
+	 * over the original image. If all thumbnails are much smaller than the
+	 * original, the image is decoded with source subsampling, and smaller
+	 * thumbnails are derived from progressively downscaled intermediates
+	 * instead of the full-size image. The number of concurrently decoded
+	 * images and the memory they occupy are limited by the settings
+	 * application.thumbnails.workers and application.thumbnails.memorylimit.
+	 *
+	 * @param originalImage
+	 * @param specs
+	 * @return a map of the created thumbnails, specs for which no thumbnail could be created are missing
+	 */
+	public static Map<ThumbnailSpec, Thumbnail> createThumbnails(final Image originalImage, final Collection<ThumbnailSpec> specs) {
 
-			if (source != null) {
+		final Map<ThumbnailSpec, Thumbnail> thumbnails = new LinkedHashMap<>();
+		final Thumbnail.Format format                  = Thumbnail.defaultFormat;
 
-				final int sourceWidth  = source.getWidth();
-				final int sourceHeight = source.getHeight();
+		try (final InputStream is = originalImage.getInputStream(); final ImageInputStream in = ImageIO.createImageInputStream(is)) {
+
+			final Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+			if (!readers.hasNext()) {
+
+				logger.debug("Thumbnail could not be created");
+
+				return thumbnails;
+			}
+
+			final long start         = System.nanoTime();
+			final ImageReader reader = readers.next();
+
+			try {
+
+				reader.setInput(in, true, true);
+
+				final int orientation  = getOrientation(originalImage);
+				final boolean swap     = orientation >= 5 && orientation <= 8;
+				final int sourceWidth  = swap ? reader.getHeight(0) : reader.getWidth(0);
+				final int sourceHeight = swap ? reader.getWidth(0)  : reader.getHeight(0);
+				final List<int[]> sizes = new ArrayList<>();
+				final List<ThumbnailSpec> sortedSpecs = new ArrayList<>(new LinkedHashSet<>(specs));
+				int maxTargetWidth  = 1;
+				int maxTargetHeight = 1;
 
 				// Update image dimensions
 				final PropertyMap properties = new PropertyMap();
@@ -296,69 +350,83 @@ public abstract class ImageHelper extends FileHelper {
 
 				originalImage.setProperties(originalImage.getSecurityContext(), properties);
 
-				// float aspectRatio = sourceWidth/sourceHeight;
-				final float scale = getScaleRatio(sourceWidth, sourceHeight, maxWidth, maxHeight, crop);
+				// largest thumbnails first, so smaller ones can be derived from their intermediates
+				sortedSpecs.sort(Comparator.comparingLong((ThumbnailSpec spec) -> {
 
-				// Don't scale up
-				if (scale > 1.0) {
+					final int[] size = spec.getThumbnailSize(sourceWidth, sourceHeight);
+					return (long)size[0] * size[1];
 
-					final int destWidth  = getThumbnailWidth(sourceWidth, scale);
-					final int destHeight = getThumbnailHeight(sourceHeight, scale);
+				}).reversed());
 
-					if (crop) {
+				for (final ThumbnailSpec spec : sortedSpecs) {
 
-						final int offsetX = reqOffsetX != null ? reqOffsetX : Math.abs(maxWidth - destWidth) / 2;
-						final int offsetY = reqOffsetY != null ? reqOffsetY : Math.abs(maxHeight - destHeight) / 2;
+					final int[] size = spec.getThumbnailSize(sourceWidth, sourceHeight);
 
-						final Integer[] dims = finalImageDimensions(offsetX, offsetY, maxWidth, maxHeight, sourceWidth, sourceHeight);
+					maxTargetWidth  = Math.max(maxTargetWidth, size[0]);
+					maxTargetHeight = Math.max(maxTargetHeight, size[1]);
 
-						logger.debug("Offset and Size (x,y,w,h): {},{},{},{}", dims[0], dims[1], dims[2], dims[3]);
+					sizes.add(size);
+				}
+
+				// decode with at least twice the resolution of the largest thumbnail
+				final int subsampling   = Math.max(1, Math.min(sourceWidth / (2 * maxTargetWidth), sourceHeight / (2 * maxTargetHeight)));
+				final long decodedBytes = 4L * ((sourceWidth + subsampling - 1) / subsampling) * ((sourceHeight + subsampling - 1) / subsampling);
+				final int permits       = acquireThumbnailPermits(orientation > 1 ? 2 * decodedBytes : decodedBytes);
 
-						scaleAndWrite(source, dims[2], dims[3], baos, format.name());
+				try {
 
-						tn.setWidth(dims[2]);
-						tn.setHeight(dims[3]);
+					final ImageReadParam param = reader.getDefaultReadParam();
 
-					} else {
+					if (subsampling > 1) {
+						param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+					}
 
-						scaleAndWrite(source, destWidth, destHeight, baos, format.name());
+					final BufferedImage decoded = getRotatedImage(reader.read(0, param), orientation);
+					if (decoded == null) {
 
-						tn.setWidth(destWidth);
-						tn.setHeight(destHeight);
+						logger.debug("Thumbnail could not be created");
 
+						return thumbnails;
 					}
 
-				} else {
+					final List<BufferedImage> intermediates = new ArrayList<>();
 
-					scaleAndWrite(source, sourceWidth, sourceHeight, baos, format.name());
+					intermediates.add(decoded);
 
-					tn.setWidth(sourceWidth);
-					tn.setHeight(sourceHeight);
-				}
+					for (int i=0; i<sortedSpecs.size(); i++) {
 
-			} else {
+						final ThumbnailSpec spec           = sortedSpecs.get(i);
+						final int width                    = sizes.get(i)[0];
+						final int height                   = sizes.get(i)[1];
+						final ByteArrayOutputStream baos   = new ByteArrayOutputStream();
+						final BufferedImage source         = getIntermediate(intermediates, width, height);
 
-				logger.debug("Thumbnail could not be created");
+						scaleAndWrite(source, width, height, baos, format.name());
 
-				return null;
+						thumbnails.put(spec, new Thumbnail(baos.toByteArray(), width, height));
+					}
 
-			}
+				} finally {
 
-			final long end  = System.nanoTime();
-			final long time = (end - start) / 1000000;
+					thumbnailMemory.release(permits);
+					thumbnailWorkers.release();
+				}
 
-			logger.info("Thumbnail ({}, {}, {}) created for image {} ({}). Reading, scaling and writing took {} ms", maxWidth, maxHeight, crop, originalImage.getName(), originalImage.getUuid(), time);
+				final long time = (System.nanoTime() - start) / 1000000;
 
-			tn.setBytes(baos.toByteArray());
+				logger.info("{} thumbnail(s) {} created for image {} ({}) with subsampling {}. Reading, scaling and writing took {} ms", thumbnails.size(), sortedSpecs, originalImage.getName(), originalImage.getUuid(), subsampling, time);
 
-			return tn;
+			} finally {
+
+				reader.dispose();
+			}
 
 		} catch (Throwable t) {
 
 			logger.warn("Unable to create thumbnail for image with ID {}.", originalImage.getUuid(), t);
 		}
 
-		return null;
+		return thumbnails;
 	}
 
 	public static Thumbnail createCroppedImage(final Image originalImage, final int maxWidth, final int maxHeight, final Integer reqOffsetX, final Integer reqOffsetY, final String formatString) {
@@ -448,7 +516,24 @@ public abstract class ImageHelper extends FileHelper {
 			// no need for try-with-resources for the below InputStream because ImageIO.read() closes its input stream
 			final ImageInputStream in = ImageIO.createImageInputStream(originalImage.getInputStream());
 			final int orientation     = getOrientation(originalImage);
-			BufferedImage source      = ImageIO.read(in);
+
+			return getRotatedImage(ImageIO.read(in), orientation);
+
+		} catch (Throwable t) {
+			logger.debug("Unable to transform image", t);
+		}
+
+		return null;
+	}
+
+	private static BufferedImage getRotatedImage(final BufferedImage source, final int orientation) {
+
+		try {
+
+			// no transformation needed, avoid a copy of the decoded image
+			if (source == null || orientation < 2 || orientation > 8) {
+				return source;
+			}
 
 			if (source != null) {
 
@@ -518,6 +603,80 @@ public abstract class ImageHelper extends FileHelper {
 		return null;
 	}
 
+	/**
+	 * Returns the smallest intermediate that still has at least twice the
+	 * target size, creating additional half-size intermediates as needed.
+	 */
+	private static BufferedImage getIntermediate(final List<BufferedImage> intermediates, final int width, final int height) {
+
+		BufferedImage source = intermediates.get(0);
+
+		for (final BufferedImage candidate : intermediates) {
+
+			if (candidate.getWidth() >= 2 * width && candidate.getHeight() >= 2 * height) {
+				source = candidate;
+			}
+		}
+
+		while (source == intermediates.get(intermediates.size() - 1) && source.getWidth() / 2 >= 2 * width && source.getHeight() / 2 >= 2 * height) {
+
+			final BufferedImage half = new BufferedImage(source.getWidth() / 2, source.getHeight() / 2, BufferedImage.TYPE_INT_ARGB);
+			final Graphics2D g       = half.createGraphics();
+
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(source, 0, 0, half.getWidth(), half.getHeight(), null);
+			g.dispose();
+
+			intermediates.add(half);
+
+			source = half;
+		}
+
+		return source;
+	}
+
+	/**
+	 * Waits until a thumbnail worker slot and enough of the thumbnail memory
+	 * budget for an image of the given size are available.
+	 *
+	 * @return the number of memory permits that must be released afterwards
+	 */
+	private static int acquireThumbnailPermits(final long bytes) throws InterruptedException {
+
+		// an image that exceeds the budget on its own takes all of it
+		final int permits = (int)Math.min(thumbnailMemoryLimit, Math.max(1L, (bytes + 1024 * 1024 - 1) / (1024 * 1024)));
+
+		thumbnailWorkers.acquire();
+
+		try {
+
+			thumbnailMemory.acquire(permits);
+
+		} catch (InterruptedException iex) {
+
+			thumbnailWorkers.release();
+			throw iex;
+		}
+
+		return permits;
+	}
+
+	/**
+	 * Returns the configured limits and the currently available capacity of
+	 * the thumbnail decoding admission.
+	 */
+	public static Map<String, Integer> getThumbnailAdmissionInfo() {
+
+		final Map<String, Integer> info = new LinkedHashMap<>();
+
+		info.put("workers",          thumbnailWorkerLimit);
+		info.put("availableWorkers", thumbnailWorkers.availablePermits());
+		info.put("memoryLimit",      thumbnailMemoryLimit);
+		info.put("availableMemory",  thumbnailMemory.availablePermits());
+
+		return info;
+	}
+
 	private static BufferedImage getScaledImage(final BufferedImage source, final double sx, final double sy) {
 
 		try {
@@ -948,6 +1107,95 @@ public abstract class ImageHelper extends FileHelper {
 		}
 	}
 
+	/**
+	 * Requested size of a thumbnail.
+	 */
+	public static class ThumbnailSpec {
+
+		private final int maxWidth;
+		private final int maxHeight;
+		private final boolean crop;
+		private final Integer offsetX;
+		private final Integer offsetY;
+
+		public ThumbnailSpec(final int maxWidth, final int maxHeight, final boolean crop) {
+			this(maxWidth, maxHeight, crop, null, null);
+		}
+
+		public ThumbnailSpec(final int maxWidth, final int maxHeight, final boolean crop, final Integer offsetX, final Integer offsetY) {
+
+			this.maxWidth  = maxWidth;
+			this.maxHeight = maxHeight;
+			this.crop      = crop;
+			this.offsetX   = offsetX;
+			this.offsetY   = offsetY;
+		}
+
+		public int getMaxWidth() {
+			return maxWidth;
+		}
+
+		public int getMaxHeight() {
+			return maxHeight;
+		}
+
+		public boolean getCrop() {
+			return crop;
+		}
+
+		/**
+		 * Returns the width and height of the thumbnail for an image of the given size.
+		 */
+		public int[] getThumbnailSize(final int sourceWidth, final int sourceHeight) {
+
+			final float scale = getScaleRatio(sourceWidth, sourceHeight, maxWidth, maxHeight, crop);
+
+			// Don't scale up
+			if (scale > 1.0) {
+
+				final int destWidth  = getThumbnailWidth(sourceWidth, scale);
+				final int destHeight = getThumbnailHeight(sourceHeight, scale);
+
+				if (crop) {
+
+					final int x = offsetX != null ? offsetX : Math.abs(maxWidth - destWidth) / 2;
+					final int y = offsetY != null ? offsetY : Math.abs(maxHeight - destHeight) / 2;
+
+					final Integer[] dims = finalImageDimensions(x, y, maxWidth, maxHeight, sourceWidth, sourceHeight);
+
+					logger.debug("Offset and Size (x,y,w,h): {},{},{},{}", dims[0], dims[1], dims[2], dims[3]);
+
+					return new int[] { dims[2], dims[3] };
+				}
+
+				return new int[] { destWidth, destHeight };
+			}
+
+			return new int[] { sourceWidth, sourceHeight };
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+
+			if (other instanceof ThumbnailSpec spec) {
+
+				return maxWidth == spec.maxWidth && maxHeight == spec.maxHeight && crop == spec.crop && Objects.equals(offsetX, spec.offsetX) && Objects.equals(offsetY, spec.offsetY);
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(maxWidth, maxHeight, crop, offsetX, offsetY);
+		}
+
+		@Override
+		public String toString() {
+			return "(" + maxWidth + ", " + maxHeight + ", " + crop + ")";
+		}
+	}
+
 	public static class Thumbnail {
 
 		public enum Format {
@@ -84,6 +84,7 @@ public class RenderContext extends ActionContext {
 	private boolean isPartialRendering                 = false;
 	private String templateRootId                      = null;
 	private String templateId                          = null;
+	private RenderedFragmentCache.Recorder recorder    = null;
 
 	public enum EditMode {
 
@@ -294,6 +295,14 @@ public class RenderContext extends ActionContext {
 		return inBody;
 	}
 
+	void setFragmentRecorder(final RenderedFragmentCache.Recorder recorder) {
+		this.recorder = recorder;
+	}
+
+	RenderedFragmentCache.Recorder getFragmentRecorder() {
+		return recorder;
+	}
+
 	public void setIsPartialRendering(final boolean isPartialRendering) {
 		this.isPartialRendering = isPartialRendering;
 	}
@@ -335,6 +344,9 @@ public class RenderContext extends ActionContext {
 		dataObjects.put(key, currentDataObject);
 		setDataObject(currentDataObject);
 
+		if (recorder != null) {
+			recorder.recordDataObject(currentDataObject);
+		}
 	}
 
 	public void clearDataObject(final String key) {
@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import org.structr.api.config.Settings;
+import org.structr.api.graph.PropertyContainer;
+import org.structr.api.util.FixedSizeCache;
+import org.structr.api.util.Iterables;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.CommitListener;
+import org.structr.core.graph.ModificationEvent;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.traits.StructrTraits;
+import org.structr.web.entity.LinkSource;
+import org.structr.web.entity.dom.DOMElement;
+import org.structr.web.entity.dom.DOMNode;
+import org.structr.web.traits.definitions.html.Option;
+import org.structr.web.traits.definitions.dom.DOMNodeTraitDefinition;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side cache for the rendered output of DOM subtrees.
+ *
+ * The output of a subtree is recorded while it is rendered and stored if
+ * none of its nodes uses request-dependent scripting, or if the root of
+ * the subtree is explicitly marked with cacheFragment = always. Entries are
+ * keyed by subtree, locale and principal class (public, user, admin) and
+ * are invalidated when one of the rendered nodes or data objects changes.
+ *
+ * Only one subtree is recorded at a time per render context. A subtree
+ * that turns out to be dynamic is remembered as such, so its children
+ * are recorded separately on the next request.
+ */
+public class RenderedFragmentCache {
+
+	private static final FixedSizeCache<String, Fragment> fragments = new FixedSizeCache<>("Rendered fragment cache", Math.max(1, Settings.HtmlFragmentCacheSize.getValue()), RenderedFragmentCache::removeDependencies);
+	private static final Map<String, Set<String>> dependencies      = new ConcurrentHashMap<>();
+	private static long generation                                  = 0L;
+
+	static {
+
+		// drop rendered output that depends on modified objects, regardless of callbacks and notifications
+		TransactionCommand.registerCommitListener(new CommitListener() {
+
+			@Override
+			public void afterCommit(final Collection<ModificationEvent> modificationEvents) {
+				invalidate(modificationEvents);
+			}
+
+			@Override
+			public void flushCaches() {
+				clear();
+			}
+		});
+	}
+
+	private static final Set<String> dynamicProperties = Set.of(
+		DOMNodeTraitDefinition.DATA_KEY_PROPERTY, DOMNodeTraitDefinition.CYPHER_QUERY_PROPERTY, DOMNodeTraitDefinition.FUNCTION_QUERY_PROPERTY,
+		DOMNodeTraitDefinition.SHOW_CONDITIONS_PROPERTY, DOMNodeTraitDefinition.HIDE_CONDITIONS_PROPERTY, DOMNodeTraitDefinition.SHARED_COMPONENT_CONFIGURATION_PROPERTY,
+		DOMNodeTraitDefinition.FLOW_PROPERTY, Option.SELECTEDVALUES_PROPERTY
+	);
+
+	@FunctionalInterface
+	public interface FragmentRenderer {
+		void render() throws FrameworkException;
+	}
+
+	/**
+	 * Renders the given node, either from the cache or with the given
+	 * renderer, recording its output if possible.
+	 */
+	public static void render(final DOMNode node, final RenderContext renderContext, final int depth, final FragmentRenderer renderer) throws FrameworkException {
+
+		if (!isEnabled(renderContext)) {
+
+			renderer.render();
+			return;
+		}
+
+		// node is part of a subtree that is already being recorded
+		final Recorder active = renderContext.getFragmentRecorder();
+		if (active != null) {
+
+			active.recordNode(node, renderContext);
+			renderer.render();
+			return;
+		}
+
+		final String cacheFragment = node.getCacheFragment();
+		if ("never".equals(cacheFragment)) {
+
+			renderer.render();
+			return;
+		}
+
+		final String key        = getKey(node, renderContext, depth);
+		final Fragment fragment = fragments.get(key);
+
+		if (fragment != null) {
+
+			if (fragment.output != null) {
+
+				renderContext.getBuffer().append(fragment.output);
+
+				if (fragment.inBody) {
+					renderContext.setInBody(true);
+				}
+
+			} else {
+
+				// known to be dynamic
+				renderer.render();
+			}
+
+			return;
+		}
+
+		final Recorder recorder = new Recorder(key, "always".equals(cacheFragment), renderContext.getBuffer());
+		boolean success         = false;
+
+		recorder.recordNode(node, renderContext);
+
+		renderContext.setFragmentRecorder(recorder);
+		renderContext.setBuffer(recorder.buffer);
+
+		try {
+
+			renderer.render();
+			success = true;
+
+		} finally {
+
+			renderContext.setFragmentRecorder(null);
+			renderContext.setBuffer(recorder.parentBuffer);
+
+			final String output = recorder.getOutput();
+
+			recorder.parentBuffer.append(output);
+
+			if (success) {
+				store(recorder, output, renderContext.inBody());
+			}
+		}
+	}
+
+	/**
+	 * Removes all fragments that depend on one of the modified objects.
+	 */
+	public static void invalidate(final Collection<ModificationEvent> modificationEvents) {
+
+		if (modificationEvents.isEmpty() || (fragments.isEmpty() && dependencies.isEmpty())) {
+			return;
+		}
+
+		synchronized (RenderedFragmentCache.class) {
+
+			// fragments recorded concurrently may contain stale data
+			generation++;
+
+			for (final ModificationEvent event : modificationEvents) {
+
+				final Set<String> keys = dependencies.remove(event.getUuid());
+				if (keys != null) {
+
+					for (final String key : keys) {
+
+						removeFragment(key);
+					}
+				}
+			}
+		}
+	}
+
+	public static void clear() {
+
+		synchronized (RenderedFragmentCache.class) {
+
+			generation++;
+
+			fragments.clear();
+			dependencies.clear();
+		}
+	}
+
+	public static Map<String, Integer> getCacheInfo() {
+
+		final Map<String, Integer> info = new LinkedHashMap<>(fragments.getCacheInfo());
+
+		info.put("dependencies", dependencies.size());
+
+		return info;
+	}
+
+	// ----- private static methods -----
+	private static boolean isEnabled(final RenderContext renderContext) {
+		return Settings.HtmlFragmentCacheEnabled.getValue() && RenderContext.EditMode.NONE.equals(renderContext.getEditMode(renderContext.getSecurityContext().getUser(false)));
+	}
+
+	private static String getKey(final DOMNode node, final RenderContext renderContext, final int depth) {
+
+		final StringBuilder buf = new StringBuilder(node.getUuid());
+
+		buf.append("|").append(depth);
+		buf.append("|").append(renderContext.getLocale());
+		buf.append("|").append(getPrincipalClass(renderContext));
+		buf.append("|").append(renderContext.getPageId());
+		buf.append("|").append(renderContext.inBody());
+		buf.append("|").append(renderContext.isPartialRendering());
+
+		return buf.toString();
+	}
+
+	private static String getPrincipalClass(final RenderContext renderContext) {
+
+		final Principal user = renderContext.getSecurityContext().getUser(false);
+		if (user == null) {
+
+			return "public";
+		}
+
+		return user.isAdmin() ? "admin" : "user";
+	}
+
+	private static void store(final Recorder recorder, final String output, final boolean inBody) {
+
+		synchronized (RenderedFragmentCache.class) {
+
+			if (recorder.generation != generation) {
+				return;
+			}
+
+			removeFragment(recorder.key);
+
+			// register dependencies first, so they are removed if the new fragment is evicted right away
+			for (final String uuid : recorder.dependencies) {
+
+				dependencies.computeIfAbsent(uuid, k -> ConcurrentHashMap.newKeySet()).add(recorder.key);
+			}
+
+			fragments.put(recorder.key, new Fragment(recorder.dynamic ? null : output, inBody, recorder.dependencies));
+		}
+	}
+
+	private static void removeFragment(final String key) {
+
+		final Fragment fragment = fragments.remove(key);
+		if (fragment != null) {
+
+			removeDependencies(key, fragment);
+		}
+	}
+
+	/**
+	 * Removes the reverse dependency entries of a fragment that is no
+	 * longer cached, called for removed and for evicted fragments.
+	 */
+	private static void removeDependencies(final String key, final Fragment fragment) {
+
+		for (final String uuid : fragment.dependencies) {
+
+			dependencies.computeIfPresent(uuid, (k, keys) -> {
+
+				keys.remove(key);
+
+				return keys.isEmpty() ? null : keys;
+			});
+		}
+	}
+
+	/**
+	 * Returns true if the output of the given node (without its children)
+	 * may depend on the request, the current data object or on objects
+	 * that are not tracked as dependencies.
+	 */
+	private static boolean isDynamic(final DOMNode node) {
+
+		final PropertyContainer propertyContainer = node.getPropertyContainer();
+
+		for (final String key : propertyContainer.getPropertyKeys()) {
+
+			final Object value = propertyContainer.getProperty(key);
+			if (value == null) {
+				continue;
+			}
+
+			if (dynamicProperties.contains(key) && !"".equals(value)) {
+				return true;
+			}
+
+			if (value instanceof String string && (string.contains("${") || string.contains("$!{"))) {
+				return true;
+			}
+		}
+
+		// event action mappings and links render attributes of other objects
+		if (node.is(StructrTraits.DOM_ELEMENT) && !Iterables.isEmpty(node.as(DOMElement.class).getTriggeredActions())) {
+			return true;
+		}
+
+		if (node.is(StructrTraits.LINK_SOURCE) && node.as(LinkSource.class).getLinkable() != null) {
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns true if the visibility of the given node is the same for all
+	 * principals of the current principal class.
+	 */
+	private static boolean hasUniformVisibility(final DOMNode node, final RenderContext renderContext) {
+
+		final Principal user = renderContext.getSecurityContext().getUser(false);
+		if (user == null || user.isAdmin()) {
+
+			return true;
+		}
+
+		return node.isHidden() || node.isVisibleToAuthenticatedUsers();
+	}
+
+	// ----- nested classes -----
+	static class Recorder {
+
+		private final Set<String> dependencies  = new HashSet<>();
+		private final StringRenderBuffer buffer = new StringRenderBuffer();
+		private final AsyncBuffer parentBuffer;
+		private final boolean explicit;
+		private final long generation;
+		private final String key;
+		private boolean dynamic                 = false;
+
+		private Recorder(final String key, final boolean explicit, final AsyncBuffer parentBuffer) {
+
+			this.key          = key;
+			this.explicit     = explicit;
+			this.parentBuffer = parentBuffer;
+
+			synchronized (RenderedFragmentCache.class) {
+				this.generation = RenderedFragmentCache.generation;
+			}
+		}
+
+		void recordNode(final DOMNode node, final RenderContext renderContext) {
+
+			dependencies.add(node.getUuid());
+
+			// shared component instances render the children of their master
+			final DOMNode sharedComponent = node.getSharedComponent();
+			if (sharedComponent != null) {
+
+				recordSharedComponent(sharedComponent, new HashSet<>());
+			}
+
+			if (dynamic) {
+				return;
+			}
+
+			if ("never".equals(node.getCacheFragment()) || !hasUniformVisibility(node, renderContext) || (!explicit && isDynamic(node))) {
+				dynamic = true;
+			}
+		}
+
+		private void recordSharedComponent(final DOMNode node, final Set<String> visited) {
+
+			final String uuid = node.getUuid();
+
+			if (visited.add(uuid)) {
+
+				dependencies.add(uuid);
+
+				for (final DOMNode child : node.getChildren()) {
+
+					recordSharedComponent(child, visited);
+				}
+			}
+		}
+
+		void recordDataObject(final GraphObject dataObject) {
+
+			if (dataObject != null) {
+				dependencies.add(dataObject.getUuid());
+			}
+		}
+
+		String getOutput() {
+			return buffer.getBuffer().toString();
+		}
+	}
+
+	private static class Fragment {
+
+		private final Set<String> dependencies;
+		private final String output;
+		private final boolean inBody;
+
+		public Fragment(final String output, final boolean inBody, final Set<String> dependencies) {
+
+			this.dependencies = dependencies;
+			this.output       = output;
+			this.inBody       = inBody;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Render buffer for asynchronous streaming of page output.
+ *
+ * Rendered fragments are encoded to UTF-8 directly into pooled byte chunks.
+ * Completed chunks are handed over to the writer via a bounded queue, and
+ * the listener is notified whenever a chunk or the end of the output is
+ * available. When the queue is full, the render thread waits until the
+ * writer has taken a chunk or the output was cancelled, so a slow client
+ * cannot make the server buffer the whole page. Chunks must be returned
+ * to the pool with {@link #release} once they have been written.
+ */
+public class StreamingRenderBuffer extends AsyncBuffer {
+
+	private static final int MAX_QUEUED_CHUNKS         = 64;
+	private static final int CHUNK_SIZE                = 8192;
+	private static final int MAX_POOLED_CHUNKS         = 1024;
+	private static final long WAIT_INTERVAL            = 100;
+	private static final Queue<ByteBuffer> pool        = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger pooledChunks    = new AtomicInteger();
+
+	private final CharsetEncoder encoder               = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final BlockingQueue<ByteBuffer> chunks;
+	private final Runnable listener;
+	private volatile boolean finished                  = false;
+	private volatile boolean cancelled                 = false;
+	private ByteBuffer current                         = null;
+
+	public StreamingRenderBuffer(final Runnable listener) {
+		this(listener, MAX_QUEUED_CHUNKS);
+	}
+
+	public StreamingRenderBuffer(final Runnable listener, final int maxQueuedChunks) {
+
+		this.chunks   = new ArrayBlockingQueue<>(Math.max(1, maxQueuedChunks));
+		this.listener = listener;
+	}
+
+	@Override
+	public AsyncBuffer append(final String s) {
+
+		if (s == null || s.isEmpty() || cancelled) {
+			return this;
+		}
+
+		final CharBuffer input = CharBuffer.wrap(s);
+
+		encoder.reset();
+
+		while (!cancelled) {
+
+			if (current == null) {
+				current = acquire();
+			}
+
+			final CoderResult result = encoder.encode(input, current, true);
+			if (result.isOverflow()) {
+
+				publish();
+
+			} else {
+
+				break;
+			}
+		}
+
+		if (current != null && !current.hasRemaining()) {
+			publish();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Hands over the current partial chunk to the writer.
+	 */
+	public void flush() {
+
+		if (current != null && current.position() > 0) {
+			publish();
+		}
+	}
+
+	/**
+	 * Marks the end of the output and notifies the writer.
+	 */
+	public void finish() {
+
+		flush();
+
+		finished = true;
+
+		listener.run();
+	}
+
+	/**
+	 * Discards all pending output, subsequent calls to append are ignored
+	 * and a render thread that waits for the writer is released.
+	 */
+	public void cancel() {
+
+		cancelled = true;
+		finished  = true;
+
+		ByteBuffer chunk = chunks.poll();
+		while (chunk != null) {
+
+			release(chunk);
+			chunk = chunks.poll();
+		}
+	}
+
+	/**
+	 * Returns the next chunk that is ready to be written (flipped for reading),
+	 * or null if no chunk is available at the moment.
+	 */
+	public ByteBuffer poll() {
+		return chunks.poll();
+	}
+
+	public boolean hasChunks() {
+		return !chunks.isEmpty();
+	}
+
+	/**
+	 * Returns true when rendering has finished and all chunks were taken.
+	 */
+	public boolean isDone() {
+		return finished && chunks.isEmpty();
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public int getQueuedChunks() {
+		return chunks.size();
+	}
+
+	public static void release(final ByteBuffer chunk) {
+
+		if (pooledChunks.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+
+			chunk.clear();
+			pool.offer(chunk);
+
+		} else {
+
+			pooledChunks.decrementAndGet();
+		}
+	}
+
+	// ----- private methods -----
+	private void publish() {
+
+		final ByteBuffer chunk = current;
+
+		current = null;
+
+		chunk.flip();
+
+		try {
+
+			// wait for the writer if the queue is full
+			while (!chunks.offer(chunk, WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
+
+				if (cancelled) {
+
+					release(chunk);
+					return;
+				}
+
+				// make sure an idle writer takes the queued chunks
+				listener.run();
+			}
+
+		} catch (InterruptedException iex) {
+
+			Thread.currentThread().interrupt();
+
+			release(chunk);
+			cancel();
+
+			return;
+		}
+
+		// discard chunks that were queued after the output was cancelled
+		if (cancelled) {
+
+			cancel();
+			return;
+		}
+
+		listener.run();
+	}
+
+	private static ByteBuffer acquire() {
+
+		final ByteBuffer chunk = pool.poll();
+		if (chunk != null) {
+
+			pooledChunks.decrementAndGet();
+
+			return chunk;
+		}
+
+		return ByteBuffer.allocate(CHUNK_SIZE);
+	}
+}
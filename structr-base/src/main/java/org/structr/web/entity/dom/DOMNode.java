@@ -127,6 +127,7 @@ public interface DOMNode extends NodeInterface, LinkedTreeNode {
 	String getHideConditions();
 	String getShowForLocales();
 	String getHideForLocales();
+	String getCacheFragment();
 	String getContent(final RenderContext.EditMode editMode) throws FrameworkException;
 	String getDataHash();
 	String getDataKey();
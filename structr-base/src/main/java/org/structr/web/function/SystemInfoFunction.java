@@ -18,20 +18,28 @@
  */
 package org.structr.web.function;
 
+import org.structr.agent.AgentService;
 import org.structr.api.DatabaseService;
 import org.structr.api.config.Settings;
 import org.structr.api.util.CountResult;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.Services;
 import org.structr.core.function.AdvancedScriptingFunction;
+import org.structr.core.function.Functions;
 import org.structr.core.function.LocalizeFunction;
+import org.structr.core.graph.ChangelogWriter;
 import org.structr.core.graph.NodeService;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.script.Scripting;
+import org.structr.core.script.polyglot.context.ContextFactory;
+import org.structr.core.traits.definitions.AccessControllableTraitDefinition;
 import org.structr.docs.Signature;
 import org.structr.docs.Usage;
 import org.structr.docs.Example;
 import org.structr.docs.Parameter;
 import org.structr.docs.ontology.FunctionCategory;
 import org.structr.schema.action.ActionContext;
+import org.structr.web.common.RenderedFragmentCache;
 import org.structr.web.maintenance.DeployCommand;
 
 import java.lang.management.ManagementFactory;
@@ -149,12 +157,27 @@ public class SystemInfoFunction extends AdvancedScriptingFunction {
 
 				cacheInfo.putAll(db.getCachesInfo());
 				cacheInfo.put("localizations", LocalizeFunction.getCacheInfo());
+				cacheInfo.putAll(AccessControllableTraitDefinition.getCachesInfo());
+				cacheInfo.put("structrScript", Functions.getParseCacheInfo());
+				cacheInfo.put("templates", Scripting.getTemplateCacheInfo());
+				cacheInfo.put("polyglotSources", Scripting.getSourceCacheInfo());
+				cacheInfo.put("polyglotContexts", ContextFactory.getContextPoolInfo());
+				cacheInfo.put("renderedFragments", RenderedFragmentCache.getCacheInfo());
 
 				info.put("counts", counts);
 				info.put("caches", cacheInfo);
 			}
 		}
 
+		info.put("synchronization", TransactionCommand.getSynchronizationInfo());
+		info.put("changelog", ChangelogWriter.getInfo());
+
+		final AgentService agentService = Services.getInstance().getServices(AgentService.class).get("default");
+		if (agentService != null) {
+
+			info.put("agents", agentService.getTaskStatistics());
+		}
+
 		info.put("deploymentActive", DeployCommand.isDeploymentActive());
 		info.put("maintenanceActive", Settings.MaintenanceModeEnabled.getValue());
 
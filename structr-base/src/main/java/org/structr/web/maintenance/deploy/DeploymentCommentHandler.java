@@ -133,6 +133,10 @@ public class DeploymentCommentHandler implements CommentHandler {
 			node.setProperty(Traits.of(StructrTraits.DOM_NODE).key(DOMNodeTraitDefinition.HIDE_FOR_LOCALES_PROPERTY), DOMNode.unescapeForHtmlAttributes(DOMNode.unescapeForHtmlAttributes(parameters)));
 		});
 
+		handlers.put("cache-fragment", (final Page page, final DOMNode node, final String parameters) -> {
+			node.setProperty(Traits.of(StructrTraits.DOM_NODE).key(DOMNodeTraitDefinition.CACHE_FRAGMENT_PROPERTY), parameters.trim());
+		});
+
 		handlers.put("owner", (final Page page, final DOMNode node, final String name) -> {
 
 			final List<NodeInterface> principals = StructrApp.getInstance().nodeQuery(StructrTraits.PRINCIPAL).name(name).getAsList();
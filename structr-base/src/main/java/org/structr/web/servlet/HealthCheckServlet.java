@@ -31,6 +31,7 @@ import org.structr.common.error.FrameworkException;
 import org.structr.core.Services;
 import org.structr.core.app.StructrApp;
 import org.structr.core.auth.Authenticator;
+import org.structr.core.graph.ChangelogWriter;
 import org.structr.core.graph.Tx;
 import org.structr.docs.Documentation;
 import org.structr.rest.common.Stats;
@@ -185,6 +186,15 @@ public class HealthCheckServlet extends AbstractDataServlet {
 							);
 						}
 
+						final Map<String, Integer> changelogInfo = ChangelogWriter.getInfo();
+						final int droppedChangelogEntries        = changelogInfo.get("dropped");
+
+						embedGroup(details, "changelog",
+								embedValue("queued entries",  "system", changelogInfo.get("queued"),    null, "pass"),
+								embedValue("open files",      "system", changelogInfo.get("openFiles"), null, "pass"),
+								embedValue("dropped entries", "system", droppedChangelogEntries,        null, droppedChangelogEntries > 0 ? "warn" : "pass")
+						);
+
 						final HttpService httpService = Services.getInstance().getService(HttpService.class, "default");
 						if (httpService != null) {
 
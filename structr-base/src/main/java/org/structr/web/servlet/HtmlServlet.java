@@ -78,6 +78,7 @@ import org.structr.web.common.PagePaths;
 import org.structr.web.common.RenderContext;
 import org.structr.web.common.RenderContext.EditMode;
 import org.structr.web.common.StringRenderBuffer;
+import org.structr.web.common.StreamingRenderBuffer;
 import org.structr.web.entity.File;
 import org.structr.web.entity.Linkable;
 import org.structr.web.entity.Site;
@@ -95,9 +96,14 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -116,7 +122,7 @@ public class HtmlServlet extends AbstractServletBase implements HttpServiceServl
 	public static final String ERROR_PAGE_KEY            = "onerror";
 
 	public static final String ENCODED_RENDER_STATE_PARAMETER_NAME    = "structr-encoded-render-state";
-	private static final ExecutorService threadPool                   = Executors.newCachedThreadPool();
+	private static final ThreadPoolExecutor renderExecutor            = createRenderExecutor();
 	private final Pattern FilenameCleanerPattern                      = Pattern.compile("[\n\r]", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
 	private final StructrHttpServiceConfig config                     = new StructrHttpServiceConfig();
 	private final Set<String> possiblePropertyNamesForEntityResolving = new HashSet<>();
@@ -860,112 +866,88 @@ public class HtmlServlet extends AbstractServletBase implements HttpServiceServl
 
 	protected void renderAsyncOutput(HttpServletRequest request, HttpServletResponse response, App app, RenderContext renderContext, DOMNode rootElement, final long requestStartTime) throws IOException {
 
-		final AsyncContext async      = request.startAsync();
-		final ServletOutputStream out = async.getResponse().getOutputStream();
-		final AtomicBoolean finished  = new AtomicBoolean(false);
-		final DOMNode rootNode        = rootElement;
+		final AsyncContext async            = request.startAsync();
+		final ServletOutputStream out       = async.getResponse().getOutputStream();
+		final AsyncPageWriter writer        = new AsyncPageWriter(request, async, out);
+		final StreamingRenderBuffer buffer  = new StreamingRenderBuffer(writer::dataAvailable);
+		final DOMNode rootNode              = rootElement;
 
-		threadPool.submit(new Runnable() {
+		writer.setBuffer(buffer);
+		renderContext.setBuffer(buffer);
 
-			@Override
-			public void run() {
+		// release a render thread that waits for the writer if the request times out
+		async.addListener(writer);
 
-				String name = "unknown";
+		final Runnable renderTask = () -> {
 
-				try (final Tx tx = app.tx()) {
-
-					DOMNode.prefetchDOMNodes(rootNode.getUuid());
-
-					name = rootNode.getName();
-
-					tx.prefetchHint("Render page " + name);
-
-					// render
-					rootNode.render(renderContext, 0);
-					finished.set(true);
-
-					tx.success();
-
-				} catch (Throwable t) {
+			String name = "unknown";
 
-					logger.warn("Error while rendering page {}: {}", name, t.getMessage());
-					logger.warn(ExceptionUtils.getStackTrace(t));
+			try (final Tx tx = app.tx()) {
 
-					try {
+				DOMNode.prefetchDOMNodes(rootNode.getUuid());
 
-						response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-						finished.set(true);
+				name = rootNode.getName();
 
-					} catch (IOException ex) {
-						logger.warn(ExceptionUtils.getStackTrace(ex));
-					}
-				}
+				tx.prefetchHint("Render page " + name);
 
-				// record async rendering time
-				HtmlServlet.super.stats.recordStatsValue("html", name, System.currentTimeMillis() - requestStartTime);
-			}
+				// render
+				rootNode.render(renderContext, 0);
 
-		});
+				tx.success();
 
-		// start output write listener
-		out.setWriteListener(new WriteListener() {
+			} catch (Throwable t) {
 
-			@Override
-			public void onWritePossible() throws IOException {
+				logger.warn("Error while rendering page {}: {}", name, t.getMessage());
+				logger.warn(ExceptionUtils.getStackTrace(t));
 
 				try {
 
-					final Queue<String> queue = renderContext.getBuffer().getQueue();
-					while (out.isReady()) {
-
-						String buffer = null;
+					response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 
-						synchronized (queue) {
-							buffer = queue.poll();
-						}
+				} catch (IOException ex) {
+					logger.warn(ExceptionUtils.getStackTrace(ex));
+				}
 
-						if (buffer != null) {
+			} finally {
 
-							out.print(buffer);
+				buffer.finish();
+			}
 
-						} else {
+			// record async rendering time
+			stats.recordStatsValue("html", name, System.currentTimeMillis() - requestStartTime);
+		};
 
-							if (finished.get()) {
+		if (submitRenderTask(renderExecutor, renderTask, request, response, async, buffer)) {
 
-								async.complete();
+			// start output write listener
+			out.setWriteListener(writer);
+		}
+	}
 
-								// prevent this block from being called again
-								break;
-							}
+	/**
+	 * Submits the given render task to the executor, or rejects the request
+	 * with 503 Service Unavailable if the render queue is full.
+	 *
+	 * @return whether the task was accepted
+	 */
+	static boolean submitRenderTask(final Executor executor, final Runnable renderTask, final HttpServletRequest request, final HttpServletResponse response, final AsyncContext async, final StreamingRenderBuffer buffer) throws IOException {
 
-							Thread.sleep(1);
-						}
-					}
+		try {
 
-				} catch (EofException ee) {
-					// ignore EofException which (by jettys standards) should be handled less verbosely
+			executor.execute(renderTask);
 
-				} catch (IOException | InterruptedException t) {
-					//logger.warn("Unexpected exception", t);
-				}
-			}
+			return true;
 
-			@Override
-			public void onError(Throwable t) {
+		} catch (RejectedExecutionException rex) {
 
-				// prevent async from running into default timeout of 30s
-				async.complete();
-				finished.set(true);
+			logger.warn("Render queue is full, rejecting request for {}", request.getRequestURI());
 
-				if (t instanceof QuietException || t.getCause() instanceof QuietException) {
-					// ignore exceptions which (by jettys standards) should be handled less verbosely
-				} else {
+			buffer.cancel();
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			async.complete();
+		}
 
-					logger.warn("Could not flush the response body content to the client, probably because the network connection was terminated.");
-					logger.warn(" -> From: {} | URI: {} | Query: {}", request.getRemoteAddr(), request.getRequestURI(), request.getQueryString());
-				}
-			}
-		});
+		return false;
 	}
 
 	protected void writeOutputStream(HttpServletResponse response, StringRenderBuffer buffer) throws IOException {
@@ -1955,6 +1937,18 @@ public class HtmlServlet extends AbstractServletBase implements HttpServiceServl
 		return null;
 	}
 
+	private static ThreadPoolExecutor createRenderExecutor() {
+
+		final int threads           = Math.max(1, Settings.HtmlRenderThreads.getValue());
+		final int queueSize         = Math.max(1, Settings.HtmlRenderQueueSize.getValue());
+		final ThreadFactory factory = Settings.HtmlRenderVirtualThreads.getValue() ? Thread.ofVirtual().name("HtmlRenderer-", 0).factory() : Thread.ofPlatform().name("HtmlRenderer-", 0).daemon().factory();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), factory);
+
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+
 	// ----- nested classes -----
 	private enum AuthState {
 		NoBasicAuth, MustAuthenticate, Authenticated
@@ -1993,4 +1987,179 @@ public class HtmlServlet extends AbstractServletBase implements HttpServiceServl
 			return rootElement;
 		}
 	}
+
+	/**
+	 * Writes the chunks of a {@link StreamingRenderBuffer} to the client without
+	 * blocking. The writer runs on a container thread when output is possible,
+	 * and is dispatched again by the render thread when new data arrives while
+	 * the writer is idle. A timeout or error of the async context cancels the
+	 * output, so a render thread that waits for the writer is released.
+	 */
+	static class AsyncPageWriter implements WriteListener, AsyncListener {
+
+		static final int IDLE        = 0;
+		static final int WRITING     = 1;
+		static final int AWAITING_IO = 2;
+		static final int DONE        = 3;
+
+		private final AtomicInteger state           = new AtomicInteger(AWAITING_IO);
+		private final HttpServletRequest request;
+		private final AsyncContext async;
+		private final ServletOutputStream out;
+		private StreamingRenderBuffer buffer        = null;
+		private ByteBuffer inFlight                 = null;
+
+		public AsyncPageWriter(final HttpServletRequest request, final AsyncContext async, final ServletOutputStream out) {
+
+			this.request = request;
+			this.async   = async;
+			this.out     = out;
+		}
+
+		public void setBuffer(final StreamingRenderBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int getState() {
+			return state.get();
+		}
+
+		/**
+		 * Called by the render thread when a chunk or the end of output is available.
+		 */
+		public void dataAvailable() {
+
+			if (state.compareAndSet(IDLE, WRITING)) {
+
+				async.start(this::writeChunks);
+			}
+		}
+
+		@Override
+		public void onWritePossible() throws IOException {
+
+			if (state.compareAndSet(AWAITING_IO, WRITING)) {
+
+				writeChunks();
+			}
+		}
+
+		@Override
+		public void onError(final Throwable t) {
+
+			state.set(DONE);
+
+			// the chunk in flight may still be referenced by the container, so it is not returned to the pool
+			inFlight = null;
+
+			buffer.cancel();
+
+			// prevent async from running into default timeout of 30s
+			async.complete();
+
+			if (t instanceof QuietException || t.getCause() instanceof QuietException) {
+				// ignore exceptions which (by jettys standards) should be handled less verbosely
+			} else {
+
+				logger.warn("Could not flush the response body content to the client, probably because the network connection was terminated.");
+				logger.warn(" -> From: {} | URI: {} | Query: {}", request.getRemoteAddr(), request.getRequestURI(), request.getQueryString());
+			}
+		}
+
+		// ----- interface AsyncListener -----
+		@Override
+		public void onComplete(final AsyncEvent event) {
+
+			state.set(DONE);
+			buffer.cancel();
+		}
+
+		@Override
+		public void onTimeout(final AsyncEvent event) {
+
+			state.set(DONE);
+			inFlight = null;
+
+			buffer.cancel();
+
+			logger.warn("Timeout while writing the response body content for URI {}", request.getRequestURI());
+
+			async.complete();
+		}
+
+		@Override
+		public void onError(final AsyncEvent event) {
+
+			state.set(DONE);
+			inFlight = null;
+
+			buffer.cancel();
+		}
+
+		@Override
+		public void onStartAsync(final AsyncEvent event) {
+		}
+
+		// ----- private methods -----
+		private void writeChunks() {
+
+			try {
+
+				while (true) {
+
+					while (out.isReady()) {
+
+						// the previous write has completed, its chunk can be reused
+						releaseInFlight();
+
+						final ByteBuffer chunk = buffer.poll();
+						if (chunk == null) {
+							break;
+						}
+
+						out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+						inFlight = chunk;
+					}
+
+					if (!out.isReady()) {
+
+						// the container calls onWritePossible when the pending write has completed
+						state.compareAndSet(WRITING, AWAITING_IO);
+						return;
+					}
+
+					if (buffer.isDone()) {
+
+						if (state.compareAndSet(WRITING, DONE)) {
+							async.complete();
+						}
+
+						return;
+					}
+
+					state.compareAndSet(WRITING, IDLE);
+
+					// data may have arrived between the last poll and the state change
+					if (!(buffer.hasChunks() || buffer.isDone()) || !state.compareAndSet(IDLE, WRITING)) {
+						return;
+					}
+				}
+
+			} catch (EofException ee) {
+				// ignore EofException which (by jettys standards) should be handled less verbosely
+
+			} catch (IOException t) {
+				//logger.warn("Unexpected exception", t);
+			}
+		}
+
+		private void releaseInFlight() {
+
+			if (inFlight != null) {
+
+				StreamingRenderBuffer.release(inFlight);
+				inFlight = null;
+			}
+		}
+	}
 }
@@ -386,7 +386,7 @@ public class ContentTraitDefinition extends AbstractNodeTraitDefinition {
 					DOMNodeTraitDefinition.SHARED_COMPONENT_CONFIGURATION_PROPERTY, DOMNodeTraitDefinition.SHOW_FOR_LOCALES_PROPERTY,
 					DOMNodeTraitDefinition.HIDE_FOR_LOCALES_PROPERTY, DOMNodeTraitDefinition.SHOW_CONDITIONS_PROPERTY,
 					DOMNodeTraitDefinition.HIDE_CONDITIONS_PROPERTY, DOMNodeTraitDefinition.DATA_KEY_PROPERTY,
-					DOMNodeTraitDefinition.CYPHER_QUERY_PROPERTY, DOMNodeTraitDefinition.FUNCTION_QUERY_PROPERTY
+					DOMNodeTraitDefinition.CYPHER_QUERY_PROPERTY, DOMNodeTraitDefinition.FUNCTION_QUERY_PROPERTY, DOMNodeTraitDefinition.CACHE_FRAGMENT_PROPERTY
 			)
 		);
 	}
@@ -1188,7 +1188,7 @@ public class DOMElementTraitDefinition extends AbstractNodeTraitDefinition {
 					DOMNodeTraitDefinition.DATA_STRUCTR_ID_PROPERTY, DOMNodeTraitDefinition.CHILDREN_PROPERTY, DOMNodeTraitDefinition.CHILDREN_IDS_PROPERTY,
 					DOMNodeTraitDefinition.SHOW_FOR_LOCALES_PROPERTY, DOMNodeTraitDefinition.HIDE_FOR_LOCALES_PROPERTY, DOMNodeTraitDefinition.SHOW_CONDITIONS_PROPERTY,
 					DOMNodeTraitDefinition.HIDE_CONDITIONS_PROPERTY, DOMNodeTraitDefinition.DATA_KEY_PROPERTY,
-					DOMNodeTraitDefinition.CYPHER_QUERY_PROPERTY, DOMNodeTraitDefinition.FUNCTION_QUERY_PROPERTY,
+					DOMNodeTraitDefinition.CYPHER_QUERY_PROPERTY, DOMNodeTraitDefinition.FUNCTION_QUERY_PROPERTY, DOMNodeTraitDefinition.CACHE_FRAGMENT_PROPERTY,
 					DOMElementTraitDefinition.DATA_STRUCTR_RENDERING_MODE_PROPERTY, DOMElementTraitDefinition.DATA_STRUCTR_DELAY_OR_INTERVAL_PROPERTY,
 					DOMElementTraitDefinition.DATA_STRUCTR_INSERT_PROPERTY, DOMElementTraitDefinition.DATA_STRUCTR_FROM_WIDGET_PROPERTY,
 					DOMElementTraitDefinition.DATA_STRUCTR_TREE_CHILDREN_PROPERTY, DOMElementTraitDefinition.DATA_STRUCTR_RELOAD_TARGET_PROPERTY,
@@ -91,6 +91,7 @@ public class DOMNodeTraitDefinition extends AbstractNodeTraitDefinition {
 	public static final String DATA_STRUCTR_ID_PROPERTY                = "data-structr-id";
 	public static final String DATA_STRUCTR_HASH_PROPERTY              = "data-structr-hash";
 	public static final String DONT_CACHE_PROPERTY                     = "dontCache";
+	public static final String CACHE_FRAGMENT_PROPERTY                 = "cacheFragment";
 	public static final String IS_DOM_NODE_PROPERTY                    = "isDOMNode";
 	public static final String HAS_SHARED_COMPONENT_PROPERTY           = "hasSharedComponent";
 	public static final String DOM_SORT_POSITION_PROPERTY              = "domSortPosition";
@@ -718,6 +719,7 @@ public class DOMNodeTraitDefinition extends AbstractNodeTraitDefinition {
 		final Property<String> dataStructrIdProperty                               = new StringProperty(DATA_STRUCTR_ID_PROPERTY).category(DOMNode.PAGE_CATEGORY).description("Set to ${current.id} most of the time.");
 		final Property<String> dataStructrHashProperty                             = new StringProperty(DATA_STRUCTR_HASH_PROPERTY).category(DOMNode.PAGE_CATEGORY);
 		final Property<Boolean> dontCacheProperty                                  = new BooleanProperty(DONT_CACHE_PROPERTY).defaultValue(false);
+		final Property<String> cacheFragmentProperty                               = new EnumProperty(CACHE_FRAGMENT_PROPERTY, newSet("auto", "always", "never")).category(DOMNode.PAGE_CATEGORY).description("Controls the server-side caching of the rendered output of this element and its children. 'auto' (or empty) caches the output if the elements contain no request-dependent scripting. Only effective if htmlservlet.fragmentcache.enabled is set.");
 		final Property<Boolean> isDOMNodeProperty                                  = new ConstantBooleanProperty(IS_DOM_NODE_PROPERTY, true).category(DOMNode.PAGE_CATEGORY);
 		final Property<Boolean> hasSharedComponent                                 = new BooleanProperty(HAS_SHARED_COMPONENT_PROPERTY).indexed();
 		final Property<Integer> domSortPositionProperty                            = new IntProperty(DOM_SORT_POSITION_PROPERTY).category(DOMNode.PAGE_CATEGORY);
@@ -749,6 +751,7 @@ public class DOMNodeTraitDefinition extends AbstractNodeTraitDefinition {
 			dataStructrIdProperty,
 			dataStructrHashProperty,
 			dontCacheProperty,
+			cacheFragmentProperty,
 			isDOMNodeProperty,
 			hasSharedComponent,
 			domSortPositionProperty
@@ -50,6 +50,7 @@ import org.structr.schema.action.Function;
 import org.structr.web.common.AsyncBuffer;
 import org.structr.web.common.RenderContext;
 import org.structr.web.common.RenderContext.EditMode;
+import org.structr.web.common.RenderedFragmentCache;
 import org.structr.web.common.StringRenderBuffer;
 import org.structr.web.entity.LinkSource;
 import org.structr.web.entity.Linkable;
@@ -649,7 +650,7 @@ public class DOMNodeTraitWrapper extends AbstractNodeTraitWrapper implements DOM
 
 	@Override
 	public final void render(final RenderContext renderContext, final int depth) throws FrameworkException {
-		traits.getMethod(Render.class).render(this, renderContext, depth);
+		RenderedFragmentCache.render(this, renderContext, depth, () -> traits.getMethod(Render.class).render(this, renderContext, depth));
 	}
 
 	@Override
@@ -802,6 +803,11 @@ public class DOMNodeTraitWrapper extends AbstractNodeTraitWrapper implements DOM
 		return wrappedObject.getProperty(traits.key(DOMNodeTraitDefinition.DONT_CACHE_PROPERTY));
 	}
 
+	@Override
+	public final String getCacheFragment() {
+		return wrappedObject.getProperty(traits.key(DOMNodeTraitDefinition.CACHE_FRAGMENT_PROPERTY));
+	}
+
 	@Override
 	public final boolean displayForLocale(final RenderContext renderContext) {
 
@@ -1383,6 +1389,12 @@ public class DOMNodeTraitWrapper extends AbstractNodeTraitWrapper implements DOM
 
 				instructions.add("@structr:hide-for-locales(" + DOMNode.escapeForHtmlAttributes(_hideForLocales) + ")");
 			}
+
+			final String _cacheFragment = getCacheFragment();
+			if (StringUtils.isNotEmpty(_cacheFragment)) {
+
+				instructions.add("@structr:cache-fragment(" + _cacheFragment + ")");
+			}
 		}
 	}
 
@@ -20,20 +20,24 @@ package org.structr.websocket;
 
 import com.google.gson.Gson;
 import org.eclipse.jetty.util.URIUtil;
+import org.eclipse.jetty.websocket.api.Callback;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.exceptions.WebSocketException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.Predicate;
+import org.structr.api.config.Settings;
 import org.structr.api.graph.RelationshipType;
 import org.structr.api.util.Iterables;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.StructrTransactionListener;
+import org.structr.core.app.StructrApp;
 import org.structr.core.graph.ModificationEvent;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.RelationshipInterface;
+import org.structr.core.graph.Tx;
 import org.structr.core.property.PropertyKey;
 import org.structr.core.property.PropertyMap;
 import org.structr.core.traits.StructrTraits;
@@ -45,7 +49,9 @@ import org.structr.websocket.message.MessageBuilder;
 import org.structr.websocket.message.WebSocketMessage;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  *
@@ -58,23 +64,57 @@ public class WebsocketController implements StructrTransactionListener {
 	private static final Set<String> BroadcastBlacklistForNodeTypes      = Set.of("IndexedWord");
 	private static final Set<String> BroadcastBlacklistForNodeProperties = Set.of(PrincipalTraitDefinition.GRANTED_NODES_PROPERTY, PrincipalTraitDefinition.OWNED_NODES_PROPERTY);
 	private static final Set<String> BroadcastBlacklistForRelTypes       = Set.of("INDEXED_WORD");
+	private static final int MaxBroadcastsPerRun                         = 100;
+	private static ExecutorService broadcastExecutor                     = null;
 
-	private final Set<StructrWebSocket> clients = ConcurrentHashMap.newKeySet();
-	private Gson gson                           = null;
+	private final Map<StructrWebSocket, ClientQueue> clients = new ConcurrentHashMap<>();
+	private final BlockingQueue<Broadcast> broadcasts        = new LinkedBlockingQueue<>(Math.max(1, Settings.WsBroadcastQueueSize.getValue()));
+	private final AtomicBoolean dispatching                  = new AtomicBoolean(false);
+	private final LongAdder droppedBroadcasts                = new LongAdder();
+	private final LongAdder droppedClientMessages            = new LongAdder();
+	private Gson gson                                        = null;
 
 	public WebsocketController(final Gson gson) {
-
 		this.gson = gson;
 	}
 
+	/**
+	 * Stops the broadcast thread that is shared by all controllers, it is
+	 * started again with the next broadcast. Broadcasts that are still
+	 * queued are dispatched after the restart.
+	 */
+	public static synchronized void shutdownBroadcastExecutor() {
+
+		if (broadcastExecutor != null) {
+
+			broadcastExecutor.shutdownNow();
+			broadcastExecutor = null;
+		}
+	}
+
+	public Map<String, Long> getBroadcastInfo() {
+
+		final Map<String, Long> info = new LinkedHashMap<>();
+
+		info.put("queued",                (long)broadcasts.size());
+		info.put("droppedBroadcasts",     droppedBroadcasts.sum());
+		info.put("droppedClientMessages", droppedClientMessages.sum());
+
+		return info;
+	}
+
 	public void registerClient(final StructrWebSocket client) {
 
-		clients.add(client);
+		clients.put(client, new ClientQueue(client));
 	}
 
 	public void unregisterClient(final StructrWebSocket client) {
 
-		clients.remove(client);
+		final ClientQueue queue = clients.remove(client);
+		if (queue != null) {
+
+			queue.clear();
+		}
 	}
 
 	private void broadcast(final WebSocketMessage webSocketData) {
@@ -82,8 +122,112 @@ public class WebsocketController implements StructrTransactionListener {
 		broadcast(webSocketData, null);
 	}
 
+	/**
+	 * Hands the given message to the broadcast dispatcher. Committing threads
+	 * only wait here if the dispatcher has fallen behind by more than the
+	 * configured queue size.
+	 */
 	private void broadcast(final WebSocketMessage webSocketData, final Predicate<String> receiverSessionPredicate) {
 
+		if (clients.isEmpty()) {
+			return;
+		}
+
+		try {
+
+			if (!broadcasts.offer(new Broadcast(webSocketData, receiverSessionPredicate), 1, TimeUnit.SECONDS)) {
+
+				droppedBroadcasts.increment();
+
+				logger.warn("Websocket broadcast queue is full, dropping {} message ({} dropped in total)", webSocketData.getCommand(), droppedBroadcasts.sum());
+			}
+
+		} catch (InterruptedException iex) {
+
+			Thread.currentThread().interrupt();
+		}
+
+		scheduleDispatch();
+	}
+
+	private void scheduleDispatch() {
+
+		if (!broadcasts.isEmpty() && dispatching.compareAndSet(false, true)) {
+
+			try {
+
+				getBroadcastExecutor().execute(this::dispatch);
+
+			} catch (RejectedExecutionException rex) {
+
+				// executor was shut down in the meantime, the next broadcast schedules again
+				dispatching.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Dispatches a limited number of queued broadcasts, so that the
+	 * controllers sharing the broadcast thread take turns.
+	 */
+	private void dispatch() {
+
+		try {
+
+			for (int i=0; i<MaxBroadcastsPerRun; i++) {
+
+				final Broadcast broadcast = broadcasts.poll();
+				if (broadcast == null) {
+
+					break;
+				}
+
+				try (final Tx tx = StructrApp.getInstance().tx(false, false, false)) {
+
+					doBroadcast(broadcast.message, broadcast.receiverSessionPredicate);
+
+					tx.success();
+
+				} catch (Throwable t) {
+
+					logger.warn("Unable to dispatch websocket broadcast {}: {}", broadcast.message.getCommand(), t.getMessage());
+				}
+
+				if (Thread.currentThread().isInterrupted()) {
+					break;
+				}
+			}
+
+		} finally {
+
+			dispatching.set(false);
+		}
+
+		// broadcasts added after the last poll() or beyond the limit, unless the executor is shutting down
+		if (!Thread.currentThread().isInterrupted()) {
+			scheduleDispatch();
+		}
+	}
+
+	private static synchronized ExecutorService getBroadcastExecutor() {
+
+		if (broadcastExecutor == null) {
+
+			broadcastExecutor = Executors.newSingleThreadExecutor(runnable -> {
+
+				final Thread thread = new Thread(runnable, "WebsocketBroadcast");
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+		}
+
+		return broadcastExecutor;
+	}
+
+	private void doBroadcast(final WebSocketMessage webSocketData, final Predicate<String> receiverSessionPredicate) {
+
 		// session must be valid to be received by the client
 		webSocketData.setSessionValid(true);
 
@@ -92,12 +236,16 @@ public class WebsocketController implements StructrTransactionListener {
 		final List<StructrWebSocket> clientsToRemove = new LinkedList<>();
 		final Iterable<? extends GraphObject> result = webSocketData.getResult();
 		final String command                         = webSocketData.getCommand();
-		final GraphObject obj                        = webSocketData.getGraphObject();
+		final boolean filterResult                   = result != null && BroadcastCommands.contains(command);
+		final List<? extends GraphObject> objects    = filterResult ? Iterables.toList(result) : null;
+
+		// clients that can see the same subset of the result share the same serialized message
+		final Map<BitSet, String> messages           = new HashMap<>();
+		String unfilteredMessage                     = null;
 
-		String message;
+		for (final ClientQueue queue : clients.values()) {
 
-		// create message
-		for (StructrWebSocket socket : clients) {
+			final StructrWebSocket socket = queue.socket;
 
 			String clientPagePath = socket.getPagePath();
 			if (clientPagePath != null && !clientPagePath.equals(encodedPath)) {
@@ -108,41 +256,64 @@ public class WebsocketController implements StructrTransactionListener {
 
 			if (session != null && socket.isAuthenticated()) {
 
-				final SecurityContext securityContext = socket.getSecurityContext();
+				try {
 
-				if (receiverSessionPredicate != null && !receiverSessionPredicate.accept(securityContext.getSessionId())) {
-					continue;
-				}
+					final SecurityContext securityContext = socket.getSecurityContext();
 
-				if (result != null && BroadcastCommands.contains(command)) {
+					if (receiverSessionPredicate != null && !receiverSessionPredicate.accept(securityContext.getSessionId())) {
+						continue;
+					}
 
-					final WebSocketMessage clientData = webSocketData.copy();
+					final String message;
 
-					clientData.setResult(filter(securityContext, result));
+					if (filterResult) {
 
-					message = gson.toJson(clientData, WebSocketMessage.class);
+						final BitSet visible = new BitSet(objects.size());
 
-				} else {
+						for (int i=0; i<objects.size(); i++) {
 
-					message = gson.toJson(webSocketData, WebSocketMessage.class);
-				}
+							try {
 
-				try {
+								if (securityContext.isVisible(objects.get(i))) {
+									visible.set(i);
+								}
 
-					session.sendText(message, null);
+							} catch (Throwable t) {
 
-				} catch (Throwable t) {
+								// an object that can not be checked is not sent to this client
+								logger.warn("Unable to determine visibility of {} for websocket client {}: {}", objects.get(i), socket, t.getMessage());
+							}
+						}
+
+						message = messages.computeIfAbsent(visible, v -> {
 
-					if (t instanceof WebSocketException) {
+							final WebSocketMessage clientData = webSocketData.copy();
+							final List<GraphObject> filtered  = new ArrayList<>(v.cardinality());
 
-						WebSocketException wse = (WebSocketException) t;
+							for (int i = v.nextSetBit(0); i >= 0; i = v.nextSetBit(i + 1)) {
+								filtered.add(objects.get(i));
+							}
 
-						if ("RemoteEndpoint unavailable, current state [CLOSED], expecting [OPEN or CONNECTED]".equals(wse.getMessage())) {
-							clientsToRemove.add(socket);
+							clientData.setResult(filtered);
+
+							return gson.toJson(clientData, WebSocketMessage.class);
+						});
+
+					} else {
+
+						if (unfilteredMessage == null) {
+							unfilteredMessage = gson.toJson(webSocketData, WebSocketMessage.class);
 						}
+
+						message = unfilteredMessage;
 					}
 
-					logger.debug("Error sending message to client.", t);
+					queue.send(message);
+
+				} catch (Throwable t) {
+
+					// the remaining clients still receive the broadcast
+					logger.warn("Unable to send websocket broadcast {} to client {}: {}", command, socket, t.getMessage());
 				}
 
 			} else {
@@ -159,10 +330,6 @@ public class WebsocketController implements StructrTransactionListener {
 		}
 	}
 
-	private <T extends GraphObject> Iterable<T> filter(final SecurityContext securityContext, final Iterable<T> all) {
-		return Iterables.filter(e -> securityContext.isVisible(e), all);
-	}
-
 	// ----- interface StructrTransactionListener -----
 	@Override
 	public void beforeCommit(final SecurityContext securityContext, final Collection<ModificationEvent> modificationEvents) {
@@ -398,4 +565,127 @@ public class WebsocketController implements StructrTransactionListener {
 
 		return newMessage;
 	}
+
+	// ----- nested classes -----
+	private static class Broadcast {
+
+		private final WebSocketMessage message;
+		private final Predicate<String> receiverSessionPredicate;
+
+		public Broadcast(final WebSocketMessage message, final Predicate<String> receiverSessionPredicate) {
+
+			this.message                  = message;
+			this.receiverSessionPredicate = receiverSessionPredicate;
+		}
+	}
+
+	/**
+	 * Bounded outbound queue of a single client. Messages are sent one at a
+	 * time in order, the next message is sent when the websocket confirms
+	 * the previous one. If the client falls behind, the oldest pending
+	 * messages are dropped.
+	 */
+	private class ClientQueue {
+
+		private final Queue<String> pending = new ArrayDeque<>();
+		private final StructrWebSocket socket;
+		private boolean sending             = false;
+		private long dropped                = 0L;
+
+		public ClientQueue(final StructrWebSocket socket) {
+			this.socket = socket;
+		}
+
+		public void send(final String message) {
+
+			synchronized (this) {
+
+				if (pending.size() >= Math.max(1, Settings.WsClientQueueSize.getValue())) {
+
+					pending.poll();
+					droppedClientMessages.increment();
+
+					if (dropped++ % 1000 == 0) {
+						logger.warn("Websocket client {} cannot keep up, dropping oldest pending messages ({} dropped in total)", socket, dropped);
+					}
+				}
+
+				pending.add(message);
+
+				if (sending) {
+					return;
+				}
+
+				sending = true;
+			}
+
+			sendNext();
+		}
+
+		public synchronized void clear() {
+			pending.clear();
+		}
+
+		private void sendNext() {
+
+			final String message;
+
+			synchronized (this) {
+
+				message = pending.poll();
+				if (message == null) {
+
+					sending = false;
+					return;
+				}
+			}
+
+			final Session session = socket.getSession();
+			if (session == null) {
+
+				unregisterClient(socket);
+				return;
+			}
+
+			try {
+
+				session.sendText(message, new Callback() {
+
+					@Override
+					public void succeed() {
+						sendNext();
+					}
+
+					@Override
+					public void fail(final Throwable t) {
+
+						logger.debug("Error sending message to client.", t);
+
+						if (!session.isOpen()) {
+
+							unregisterClient(socket);
+							logger.warn("Client removed from broadcast list: {}", socket);
+
+						} else {
+
+							sendNext();
+						}
+					}
+				});
+
+			} catch (Throwable t) {
+
+				if (t instanceof WebSocketException wse && "RemoteEndpoint unavailable, current state [CLOSED], expecting [OPEN or CONNECTED]".equals(wse.getMessage())) {
+
+					unregisterClient(socket);
+					logger.warn("Client removed from broadcast list: {}", socket);
+
+				} else {
+
+					logger.warn("Error sending message to client {}: {}", socket, t.getMessage());
+					sendNext();
+				}
+			}
+		}
+	}
 }
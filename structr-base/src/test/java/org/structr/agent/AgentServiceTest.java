@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.agent;
+
+import org.structr.api.config.Settings;
+import org.structr.test.common.StructrTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for task dispatching and the task journal of the agent service.
+ * Uses a separate service instance with its own agent, so the service
+ * of the running instance is not involved.
+ */
+public class AgentServiceTest extends StructrTest {
+
+	private static final List<String> processed  = Collections.synchronizedList(new ArrayList<>());
+	private static final AtomicInteger inFlight  = new AtomicInteger();
+	private static volatile CountDownLatch gate  = null;
+	private static volatile int capacity         = Integer.MAX_VALUE;
+
+	private TestAgentService service = null;
+
+	@BeforeMethod
+	public void resetAgents() {
+
+		processed.clear();
+		inFlight.set(0);
+
+		gate     = null;
+		capacity = Integer.MAX_VALUE;
+
+		Settings.AgentServiceMaxAgents.setValue(1);
+		Settings.AgentServiceJournalEnabled.setValue(false);
+	}
+
+	@AfterMethod
+	public void stopAgents() {
+
+		if (gate != null) {
+			gate.countDown();
+		}
+
+		if (service != null) {
+
+			service.stopService();
+			service = null;
+		}
+
+		Settings.AgentServiceMaxAgents.setValue(Settings.AgentServiceMaxAgents.getDefaultValue());
+		Settings.AgentServiceJournalEnabled.setValue(Settings.AgentServiceJournalEnabled.getDefaultValue());
+	}
+
+	@Test
+	public void testTasksAreDispatchedInPriorityOrder() throws Exception {
+
+		service = new TestAgentService();
+
+		// queued before the dispatcher runs, so the queue decides the order
+		service.processTask(new TestTask("low1",  1));
+		service.processTask(new TestTask("high1", 5));
+		service.processTask(new TestTask("mid",   3));
+		service.processTask(new TestTask("high2", 5));
+		service.processTask(new TestTask("low2",  1));
+
+		service.startService();
+
+		waitForProcessedTasks(5);
+
+		assertEquals("Tasks were not processed by descending priority and submission order", List.of("high1", "high2", "mid", "low1", "low2"), new ArrayList<>(processed));
+	}
+
+	@Test
+	public void testParkedTasksAreReleased() throws Exception {
+
+		// one agent that accepts one task at a time
+		capacity = 1;
+		gate     = new CountDownLatch(1);
+		service  = new TestAgentService();
+
+		service.startService();
+
+		service.processTask(new TestTask("blocking", 0));
+
+		tryWithTimeout(() -> inFlight.get() == 1, () -> fail("Task was not assigned"), 10000, 50);
+
+		service.processTask(new TestTask("parked1", 0));
+		service.processTask(new TestTask("parked2", 0));
+
+		// give the dispatcher time to park both tasks
+		Thread.sleep(500);
+
+		// both tasks are parked, no second agent is created
+		assertEquals("Tasks were not parked", 2, service.getTaskQueue().size());
+
+		assertEquals("Agent limit exceeded", 1, service.getRunningAgents().get(TestTask.class.getName()).size());
+		assertTrue("Parked task was processed while the agent was busy", processed.isEmpty());
+
+		gate.countDown();
+
+		waitForProcessedTasks(3);
+
+		assertEquals("Parked tasks were not released in order", List.of("blocking", "parked1", "parked2"), new ArrayList<>(processed));
+		assertTrue("Task queue is not empty", service.getTaskQueue().isEmpty());
+	}
+
+	@Test
+	public void testJournalReplay() throws Exception {
+
+		final Path journalPath = enableJournal();
+
+		// tasks that were pending when the previous instance stopped
+		final TaskJournal previous = new TaskJournal(journalPath);
+
+		previous.replay();
+		previous.add(TestTask.class.getName(), "restored1");
+		previous.add(TestTask.class.getName(), "restored2");
+		previous.close();
+
+		service.startService();
+
+		waitForProcessedTasks(2);
+
+		assertEquals("Journaled tasks were not restored", List.of("restored1", "restored2"), new ArrayList<>(processed));
+
+		tryWithTimeout(() -> getJournaledCount() == 0, () -> fail("Finished tasks were not removed from the journal"), 10000, 50);
+
+		assertEquals("Journal was not truncated", 0, Files.size(journalPath));
+	}
+
+	@Test
+	public void testDiscardedTaskIsRemovedFromJournal() throws Exception {
+
+		final Path journalPath = enableJournal();
+
+		service.startService();
+
+		// no agent exists for this task type
+		service.processTask(new UnknownTask());
+
+		tryWithTimeout(() -> getJournaledCount() == 0, () -> fail("Discarded task was not removed from the journal"), 10000, 50);
+
+		service.stopService();
+		service = null;
+
+		assertTrue("Discarded task would be restored", new TaskJournal(journalPath).replay().isEmpty());
+	}
+
+	// ----- private methods -----
+	private Path enableJournal() throws IOException {
+
+		final String previousBasePath = Settings.BasePath.getValue();
+		final Path directory          = Files.createTempDirectory("structr-agents");
+
+		Settings.AgentServiceJournalEnabled.setValue(true);
+		Settings.BasePath.setValue(directory.toString());
+
+		// the journal path is resolved when the service starts
+		service = new TestAgentService() {
+
+			@Override
+			public void startService() throws Exception {
+
+				try {
+					super.startService();
+
+				} finally {
+
+					Settings.BasePath.setValue(previousBasePath);
+				}
+			}
+		};
+
+		return directory.resolve("agents.journal");
+	}
+
+	private void waitForProcessedTasks(final int count) {
+		tryWithTimeout(() -> processed.size() >= count, () -> fail("Tasks were not processed, processed so far: " + processed), 10000, 50);
+	}
+
+	private int getJournaledCount() {
+		return (Integer)service.getTaskStatistics().get("journaled");
+	}
+
+	// ----- nested classes -----
+	public static class TestAgentService extends AgentService {
+
+		@Override
+		public Map<String, Class<? extends Agent>> getAgents() {
+			return Map.of("TestAgent", TestAgent.class);
+		}
+	}
+
+	public static class TestTask extends AbstractTask<Object> {
+
+		private final String name;
+
+		public TestTask(final String name, final int priority) {
+
+			super("TestTask", null);
+
+			this.name = name;
+
+			setPriority(priority);
+		}
+
+		@Override
+		public String getJournalEntry() {
+			return name;
+		}
+	}
+
+	public static class UnknownTask extends AbstractTask<Object> {
+
+		public UnknownTask() {
+			super("UnknownTask", null);
+		}
+
+		@Override
+		public String getJournalEntry() {
+			return "unknown";
+		}
+	}
+
+	public static class TestAgent extends Agent<Object> {
+
+		@Override
+		public ReturnValue processTask(final Task<Object> task) throws Throwable {
+
+			final String name = ((TestTask)task).name;
+
+			if (name.startsWith("blocking") && gate != null) {
+				gate.await(10, TimeUnit.SECONDS);
+			}
+
+			processed.add(name);
+			inFlight.decrementAndGet();
+
+			return ReturnValue.Success;
+		}
+
+		@Override
+		public Class getSupportedTaskType() {
+			return TestTask.class;
+		}
+
+		@Override
+		public Task<Object> restoreTask(final String entry) {
+			return new TestTask(entry, 0);
+		}
+
+		@Override
+		public boolean createEnclosingTransaction() {
+			return false;
+		}
+
+		@Override
+		protected boolean canHandleMore() {
+
+			// called by assignTask() right before a task is added
+			synchronized (inFlight) {
+
+				if (inFlight.get() < capacity && super.canHandleMore()) {
+
+					inFlight.incrementAndGet();
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.agent;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ *
+ */
+public class TaskJournalTest {
+
+	@Test
+	public void testReplayReturnsPendingEntriesInOrder() throws IOException {
+
+		final Path path = createJournalPath();
+
+		final TaskJournal journal = new TaskJournal(path);
+
+		assertTrue("Empty journal must not return entries", journal.replay().isEmpty());
+
+		final long first  = journal.add("org.structr.TaskA", "entry1");
+		final long second = journal.add("org.structr.TaskB", "entry2");
+		final long third  = journal.add("org.structr.TaskA", "entry3");
+
+		journal.remove(second);
+
+		assertEquals("Invalid pending count", 2, journal.getPendingCount());
+
+		// simulates a crash, the file is not closed
+		final List<String[]> entries = new TaskJournal(path).replay();
+
+		assertEquals("Invalid number of replayed entries", 2, entries.size());
+		assertEquals("Invalid replayed task class", "org.structr.TaskA", entries.get(0)[0]);
+		assertEquals("Invalid replayed entry",      "entry1",            entries.get(0)[1]);
+		assertEquals("Invalid replayed task class", "org.structr.TaskA", entries.get(1)[0]);
+		assertEquals("Invalid replayed entry",      "entry3",            entries.get(1)[1]);
+
+		assertTrue("Journal ids must be distinct", first != third);
+
+		journal.close();
+	}
+
+	@Test
+	public void testReplayTruncatesJournal() throws IOException {
+
+		final Path path           = createJournalPath();
+		final TaskJournal journal = new TaskJournal(path);
+
+		journal.replay();
+		journal.add("org.structr.TaskA", "entry1");
+		journal.close();
+
+		final TaskJournal replayed = new TaskJournal(path);
+
+		assertEquals("Invalid number of replayed entries", 1, replayed.replay().size());
+
+		// replayed entries are expected to be re-added by the caller
+		assertEquals("Journal was not truncated after replay", 0, Files.size(path));
+		assertEquals("Invalid pending count after replay", 0, replayed.getPendingCount());
+
+		replayed.close();
+	}
+
+	@Test
+	public void testJournalIsTruncatedWhenNothingIsPending() throws IOException {
+
+		final Path path           = createJournalPath();
+		final TaskJournal journal = new TaskJournal(path);
+
+		journal.replay();
+
+		final long id = journal.add("org.structr.TaskA", "entry1");
+
+		assertTrue("Entry was not written", Files.size(path) > 0);
+
+		journal.remove(id);
+
+		assertEquals("Journal was not truncated", 0, Files.size(path));
+
+		journal.close();
+	}
+
+	@Test
+	public void testInvalidEntries() throws IOException {
+
+		final Path path = createJournalPath();
+
+		Files.writeString(path, "+\t1\torg.structr.TaskA\tentry1\ngarbage\n+\tx\torg.structr.TaskA\tentry2\n-\t7\n+\t2\torg.structr.TaskA\tentry3\n", StandardCharsets.UTF_8);
+
+		final TaskJournal journal    = new TaskJournal(path);
+		final List<String[]> entries = journal.replay();
+
+		assertEquals("Malformed lines must be ignored", 2, entries.size());
+		assertEquals("Invalid replayed entry", "entry1", entries.get(0)[1]);
+		assertEquals("Invalid replayed entry", "entry3", entries.get(1)[1]);
+
+		// multi-line entries can not be journaled
+		assertEquals("Multi-line entry was journaled", -1L, journal.add("org.structr.TaskA", "line1\nline2"));
+
+		journal.close();
+
+		// a closed journal does not accept entries
+		assertEquals("Closed journal accepted an entry", -1L, journal.add("org.structr.TaskA", "entry4"));
+	}
+
+	// ----- private methods -----
+	private Path createJournalPath() throws IOException {
+
+		final Path directory = Files.createTempDirectory("structr-task-journal");
+
+		directory.toFile().deleteOnExit();
+
+		return directory.resolve("agents.journal");
+	}
+}
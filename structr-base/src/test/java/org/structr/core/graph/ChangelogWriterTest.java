@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph;
+
+import org.structr.api.config.Settings;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.function.ChangelogFunction;
+import org.structr.core.function.Functions;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.structr.schema.action.ActionContext;
+import org.structr.test.common.StructrTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the background changelog writer. Every test writes to its own
+ * changelog directory and closes all files afterwards.
+ */
+public class ChangelogWriterTest extends StructrTest {
+
+	private boolean changelogEnabled = false;
+	private String changelogPath     = null;
+	private Path directory           = null;
+
+	@BeforeMethod
+	public void setupChangelog() throws IOException {
+
+		// close files of previous tests before the path changes
+		ChangelogWriter.shutdown();
+
+		changelogEnabled = Settings.ChangelogEnabled.getValue();
+		changelogPath    = Settings.ChangelogPath.getValue();
+		directory        = Files.createTempDirectory("structr-changelog");
+
+		Settings.ChangelogPath.setValue(directory.toString());
+		Settings.ChangelogSyncInterval.setValue(3_600_000);
+		Settings.ChangelogMaxOpenFiles.setValue(Settings.ChangelogMaxOpenFiles.getDefaultValue());
+	}
+
+	@AfterMethod
+	public void resetChangelog() {
+
+		ChangelogWriter.shutdown();
+
+		Settings.ChangelogEnabled.setValue(changelogEnabled);
+		Settings.ChangelogPath.setValue(changelogPath);
+		Settings.ChangelogSyncInterval.setValue(Settings.ChangelogSyncInterval.getDefaultValue());
+		Settings.ChangelogMaxOpenFiles.setValue(Settings.ChangelogMaxOpenFiles.getDefaultValue());
+	}
+
+	@Test
+	public void testOrderingAndGrouping() throws IOException {
+
+		final String first  = createUuid();
+		final String second = createUuid();
+
+		final StringBuilder expectedFirst  = new StringBuilder();
+		final StringBuilder expectedSecond = new StringBuilder();
+
+		// interleaved appends must keep their order within each file
+		for (int i=0; i<1000; i++) {
+
+			ChangelogWriter.append("n", first,  "first " + i + "\n");
+			ChangelogWriter.append("n", second, "second " + i + "\n");
+
+			expectedFirst.append("first ").append(i).append("\n");
+			expectedSecond.append("second ").append(i).append("\n");
+		}
+
+		ChangelogWriter.flush();
+
+		assertEquals("Changelog entries were reordered", expectedFirst.toString(),  read("n", first));
+		assertEquals("Changelog entries were reordered", expectedSecond.toString(), read("n", second));
+
+		// the entries of a batch are written with one append per file
+		final String third                  = createUuid();
+		final String fourth                 = createUuid();
+		final Map<String, Integer> before   = ChangelogWriter.getInfo();
+
+		ChangelogWriter.write(List.of(
+			new ChangelogWriter.Entry("n", third,  "c1\n"),
+			new ChangelogWriter.Entry("r", fourth, "d1\n"),
+			new ChangelogWriter.Entry("n", third,  "c2\n"),
+			new ChangelogWriter.Entry("r", fourth, "d2\n"),
+			new ChangelogWriter.Entry("n", third,  "c3\n")
+		));
+
+		final Map<String, Integer> after = ChangelogWriter.getInfo();
+
+		assertEquals("Entries of a batch should be grouped per file", 2, after.get("writes")  - before.get("writes"));
+		assertEquals("All entries of a batch should be written",      5, after.get("written") - before.get("written"));
+		assertEquals("Grouped entries were reordered", "c1\nc2\nc3\n", read("n", third));
+		assertEquals("Grouped entries were reordered", "d1\nd2\n",     read("r", fourth));
+	}
+
+	@Test
+	public void testFlushBeforeChangelogFunction() {
+
+		final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+		NodeInterface node                = null;
+
+		Settings.ChangelogEnabled.setValue(true);
+
+		try (final Tx tx = app.tx()) {
+
+			node = createTestNode("TestOne", "changelog");
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// keep the writer busy with entries of other objects
+		for (int i=0; i<5000; i++) {
+			ChangelogWriter.append("n", createUuid(), "{}\n");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			for (int i=0; i<100; i++) {
+				node.setProperty(nameKey, "name" + i);
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			// no explicit flush, the changelog function must wait for the pending entries itself
+			final List changelog = (List)Functions.get("changelog").apply(new ActionContext(securityContext), null, new Object[] { node });
+
+			assertTrue("Changelog function should see all committed entries", changelog.size() > 100);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testMaxOpenFiles() throws IOException {
+
+		final List<String> uuids = new ArrayList<>();
+
+		Settings.ChangelogMaxOpenFiles.setValue(3);
+
+		for (int i=0; i<10; i++) {
+
+			final String uuid = createUuid();
+
+			ChangelogWriter.append("n", uuid, "first\n");
+			uuids.add(uuid);
+		}
+
+		ChangelogWriter.flush();
+
+		assertEquals("Number of open changelog files should be bounded", 3, (int)ChangelogWriter.getInfo().get("openFiles"));
+
+		// closed files are reopened for appending
+		ChangelogWriter.append("n", uuids.get(0), "second\n");
+		ChangelogWriter.flush();
+
+		assertEquals("Number of open changelog files should be bounded", 3, (int)ChangelogWriter.getInfo().get("openFiles"));
+		assertEquals("Reopened changelog file should be appended to", "first\nsecond\n", read("n", uuids.get(0)));
+
+		for (final String uuid : uuids.subList(1, uuids.size())) {
+			assertEquals("Changelog entry of closed file is missing", "first\n", read("n", uuid));
+		}
+	}
+
+	@Test
+	public void testShutdownForcesAndClosesFiles() throws IOException {
+
+		final List<String> uuids = new ArrayList<>();
+
+		for (int i=0; i<4; i++) {
+
+			final String uuid = createUuid();
+
+			ChangelogWriter.append("n", uuid, "entry\n");
+			uuids.add(uuid);
+		}
+
+		ChangelogWriter.flush();
+
+		final Map<String, Integer> flushed = ChangelogWriter.getInfo();
+
+		assertEquals("Flush should keep the files open",        4, (int)flushed.get("openFiles"));
+		assertEquals("Flush should not force the files to disk", 4, (int)flushed.get("unsyncedFiles"));
+
+		ChangelogWriter.shutdown();
+
+		final Map<String, Integer> closed = ChangelogWriter.getInfo();
+
+		assertEquals("Shutdown should close all files",         0, (int)closed.get("openFiles"));
+		assertEquals("Shutdown should force all files to disk", 0, (int)closed.get("unsyncedFiles"));
+
+		for (final String uuid : uuids) {
+			assertEquals("Changelog entry is missing after shutdown", "entry\n", read("n", uuid));
+		}
+
+		// the writer can be used again after shutdown
+		ChangelogWriter.append("n", uuids.get(0), "again\n");
+		ChangelogWriter.flush();
+
+		assertEquals("Changelog file should be reopened after shutdown", "entry\nagain\n", read("n", uuids.get(0)));
+	}
+
+	@Test
+	public void testFailedWritesAreCounted() throws IOException {
+
+		// a regular file as changelog directory makes every write fail
+		final Path file = Files.createTempFile("structr-changelog", ".txt");
+
+		Settings.ChangelogPath.setValue(file.toString());
+
+		final int dropped = ChangelogWriter.getInfo().get("dropped");
+		final String uuid = createUuid();
+
+		ChangelogWriter.append("n", uuid, "lost 1\n");
+		ChangelogWriter.append("n", uuid, "lost 2\n");
+		ChangelogWriter.append("n", uuid, "lost 3\n");
+		ChangelogWriter.flush();
+
+		assertEquals("Entries that could not be written should be counted", 3, ChangelogWriter.getInfo().get("dropped") - dropped);
+	}
+
+	// ----- private methods -----
+	private String createUuid() {
+		return UUID.randomUUID().toString().replace("-", "");
+	}
+
+	private String read(final String typeFolderName, final String uuid) throws IOException {
+		return Files.readString(ChangelogFunction.getChangeLogFileOnDisk(typeFolderName, uuid, false).toPath(), StandardCharsets.UTF_8);
+	}
+}
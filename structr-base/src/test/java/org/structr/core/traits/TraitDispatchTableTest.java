@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.traits;
+
+import org.structr.common.AccessControllable;
+import org.structr.common.Permission;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.api.AbstractMethod;
+import org.structr.core.entity.Principal;
+import org.structr.core.entity.Relation;
+import org.structr.core.entity.Security;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.RelationshipInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.property.StringProperty;
+import org.structr.core.traits.definitions.AbstractNodeTraitDefinition;
+import org.structr.core.traits.operations.FrameworkMethod;
+import org.structr.core.traits.operations.LifecycleMethod;
+import org.structr.test.common.StructrTest;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Compares the lookups of the frozen dispatch tables with a linear
+ * resolution over the traits of a type, which is how they were
+ * resolved before the tables existed.
+ */
+public class TraitDispatchTableTest extends StructrTest {
+
+	@Test
+	public void testResolutionMatchesLinearScan() {
+
+		final TraitsInstance instance = TraitsManager.getCurrentInstance();
+
+		for (final String type : instance.getAllTypes()) {
+
+			assertMatchesLinearResolution((TraitsImplementation) instance.getTraits(type));
+		}
+
+		// restore the super chains of the resolved schema
+		instance.resolveTraitHierarchies();
+	}
+
+	@Test
+	public void testMissingKeysAndMethods() {
+
+		final Traits traits = Traits.of("TestOne");
+
+		assertTrue("Existing key was not found",  traits.hasKey("name"));
+		assertFalse("Missing key was found",      traits.hasKey("doesNotExist"));
+		assertFalse("Missing key was found",      traits.hasKey("doesNotExist"));
+		assertNull("Missing method was found",    traits.getMethod(TestMethod.class));
+		assertTrue("Missing methods were found",  traits.getMethods(TestLifecycleMethod.class).isEmpty());
+		assertEquals("Invalid generic property",  "doesNotExist", traits.keyOrGenericProperty("doesNotExist").jsonName());
+
+		try {
+
+			traits.key("doesNotExist");
+			fail("Missing key should throw an exception");
+
+		} catch (RuntimeException expected) {
+
+			assertEquals("Invalid exception message", "Missing property key 'doesNotExist' of type 'TestOne'.", expected.getMessage());
+		}
+	}
+
+	@Test
+	public void testSuperChain() {
+
+		final TraitsInstance instance = new TraitsInstance("test");
+		final TestTrait a             = register(instance, new TestTrait("A", true));
+		final TestTrait b             = register(instance, new TestTrait("B", false));
+		final TestTrait c             = register(instance, new TestTrait("C", true));
+
+		instance.registerNodeType("Chain", "A", "B", "C");
+
+		final Traits traits = instance.getTraits("Chain");
+
+		// the last trait wins and calls the implementation of the previous trait
+		assertSame("Invalid framework method", c.method, traits.getMethod(TestMethod.class));
+		assertSame("Invalid super method",     a.method, c.method.getSuper());
+		assertNull("Invalid super method",     a.method.getSuper());
+
+		// lifecycle methods are called in trait order
+		assertEquals("Invalid lifecycle methods", List.of(a.lifecycleMethod, b.lifecycleMethod, c.lifecycleMethod), new ArrayList<>(traits.getMethods(TestLifecycleMethod.class)));
+
+		// the first trait that provides a factory wins, the last trait that provides a key
+		assertSame("Invalid node trait factory", a.factory, ((TraitsImplementation) traits).getDispatchTable().getNodeTraitFactory(TestMethod.class));
+		assertSame("Invalid property key",       c.key,     traits.key("testKey"));
+		assertEquals("Invalid labels",           List.of("A", "B", "C"), new ArrayList<>(traits.getLabels()));
+		assertNull("Invalid relation",           traits.getRelation());
+	}
+
+	@Test
+	public void testTraitFactories() {
+
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface user = createTestNode(StructrTraits.USER, "user");
+			final NodeInterface test = createTestNode("TestOne", "test");
+
+			assertEquals("Invalid node trait factory", "user", user.as(Principal.class).getName());
+			assertEquals("Invalid node trait factory", "user", Traits.of(StructrTraits.USER).as(Principal.class, user).getName());
+
+			try {
+
+				test.as(Principal.class);
+				fail("Missing node trait factory should throw an exception");
+
+			} catch (RuntimeException expected) {
+
+				assertEquals("Invalid exception message", "Type TestOne does not define a factory for Principal", expected.getMessage());
+			}
+
+			test.as(AccessControllable.class).grant(Permission.read, user.as(Principal.class));
+
+			final RelationshipInterface rel = test.getIncomingRelationships(StructrTraits.SECURITY).iterator().next();
+
+			assertTrue("Invalid relationship trait factory", rel.as(Security.class).getPermissions().contains("read"));
+			assertNotNull("Invalid relation",                rel.getTraits().getRelation());
+			assertNull("Invalid relation",                   test.getTraits().getRelation());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testCopyBuildsTableOnFirstUse() {
+
+		final TraitsInstance root = TraitsManager.getRootInstance();
+		final TraitsInstance copy = root.createCopy("copy");
+
+		for (final String type : root.getAllTypes()) {
+
+			final TraitsImplementation original = (TraitsImplementation) root.getTraits(type);
+			final TraitsImplementation copied   = (TraitsImplementation) copy.getTraits(type);
+			final TraitDispatchTable table      = copied.getDispatchTable();
+
+			assertNotNull("Copy did not build a dispatch table", table);
+			assertNotSame("Copy shares the dispatch table of the original", original.getDispatchTable(), table);
+			assertSame("Copy did not keep its dispatch table", table, copied.getDispatchTable());
+			assertEquals("Copy has different labels", original.getLabels(), copied.getLabels());
+
+			assertMatchesLinearResolution(copied);
+		}
+
+		// restore the super chains of the resolved schema
+		TraitsManager.getCurrentInstance().resolveTraitHierarchies();
+	}
+
+	@Test
+	public void testLateRegistration() {
+
+		final TraitsInstance instance = new TraitsInstance("test");
+		final TestTrait a             = register(instance, new TestTrait("A", true));
+
+		register(instance, new TestTrait("B", false));
+
+		instance.registerNodeType("WithA", "A", "B");
+		instance.registerNodeType("WithoutA", "B");
+
+		final TraitsImplementation withA    = (TraitsImplementation) instance.getTraits("WithA");
+		final TraitsImplementation withoutA = (TraitsImplementation) instance.getTraits("WithoutA");
+		final TraitDispatchTable table      = withoutA.getDispatchTable();
+
+		assertFalse("Key was registered too early", withA.hasKey("lateKey"));
+
+		// like modules do after the trait hierarchies were resolved
+		final PropertyKey lateKey = new StringProperty("lateKey");
+		a.trait.registerPropertyKey(lateKey);
+
+		assertSame("Late key is not visible",                      lateKey, withA.key("lateKey"));
+		assertFalse("Late key is visible in unrelated type",       withoutA.hasKey("lateKey"));
+		assertSame("Dispatch table of unrelated type was dropped", table,   withoutA.getDispatchTable());
+
+		// traits that are not registered yet do not affect resolved types
+		final TraitDispatchTable current = withA.getDispatchTable();
+		new Trait(instance, new TestTrait("A", true), false).registerPropertyKey(new StringProperty("otherKey"));
+
+		assertSame("Dispatch table was dropped", current, withA.getDispatchTable());
+
+		// the same for the current schema
+		final PropertyKey testKey = new StringProperty("lateTestOneKey");
+		Traits.getTrait("TestOne").registerPropertyKey(testKey);
+
+		assertSame("Late key is not visible", testKey, Traits.of("TestOne").key("lateTestOneKey"));
+	}
+
+	// ----- private methods -----
+	private TestTrait register(final TraitsInstance instance, final TestTrait definition) {
+
+		definition.trait = new Trait(instance, definition, false);
+
+		instance.registerTrait(definition.trait);
+
+		return definition;
+	}
+
+	private void assertMatchesLinearResolution(final TraitsImplementation impl) {
+
+		final Map<String, AbstractMethod> dynamicMethods = new LinkedHashMap<>();
+		final List<Trait> traits                         = new ArrayList<>(impl.getTraits());
+		final Set<Class> frameworkTypes                  = new LinkedHashSet<>();
+		final Set<Class> lifecycleTypes                  = new LinkedHashSet<>();
+		final Set<Class> nodeFactoryTypes                = new LinkedHashSet<>();
+		final Set<Class> relFactoryTypes                 = new LinkedHashSet<>();
+		final Set<String> keyNames                       = new LinkedHashSet<>();
+		final List<String> labels                        = new ArrayList<>();
+		final String type                                = impl.getName();
+		Relation relation                                = null;
+
+		for (final Trait trait : traits) {
+
+			frameworkTypes.addAll(trait.getFrameworkMethods().keySet());
+			lifecycleTypes.addAll(trait.getLifecycleMethods().keySet());
+			nodeFactoryTypes.addAll(trait.getNodeTraitFactories().keySet());
+			relFactoryTypes.addAll(trait.getRelationshipTraitFactories().keySet());
+			keyNames.addAll(trait.getPropertyKeys().keySet());
+			dynamicMethods.putAll(trait.getDynamicMethods());
+
+			if (!labels.contains(trait.getLabel())) {
+				labels.add(trait.getLabel());
+			}
+
+			if (relation == null) {
+				relation = trait.getRelation();
+			}
+		}
+
+		// framework methods are shared between types, so the super chain is only valid for the table that was built last
+		impl.traitModified(traits.getFirst());
+
+		final TraitDispatchTable table = impl.getDispatchTable();
+
+		for (final Class methodType : frameworkTypes) {
+
+			final List<FrameworkMethod> providers = new ArrayList<>();
+
+			for (final Trait trait : traits) {
+
+				final FrameworkMethod method = trait.getFrameworkMethods().get(methodType);
+				if (method != null) {
+
+					providers.add(method);
+				}
+			}
+
+			FrameworkMethod method = impl.getMethod(methodType);
+
+			// walk the super chain from the last to the first implementation
+			for (int i=providers.size()-1; i>=0; i--) {
+
+				assertSame("Invalid framework method " + methodType.getSimpleName() + " of " + type, providers.get(i), method);
+
+				method = i > 0 ? (FrameworkMethod) method.getSuper() : null;
+			}
+		}
+
+		for (final Class methodType : lifecycleTypes) {
+
+			final List<LifecycleMethod> expected = new ArrayList<>();
+
+			for (final Trait trait : traits) {
+
+				final LifecycleMethod method = trait.getLifecycleMethods().get(methodType);
+				if (method != null && !expected.contains(method)) {
+
+					expected.add(method);
+				}
+			}
+
+			assertEquals("Invalid lifecycle methods " + methodType.getSimpleName() + " of " + type, expected, new ArrayList<>(impl.getMethods(methodType)));
+		}
+
+		for (final Class factoryType : nodeFactoryTypes) {
+
+			NodeTraitFactory expected = null;
+
+			for (final Trait trait : traits) {
+
+				expected = trait.getNodeTraitFactories().get(factoryType);
+				if (expected != null) {
+					break;
+				}
+			}
+
+			assertSame("Invalid node trait factory " + factoryType.getSimpleName() + " of " + type, expected, table.getNodeTraitFactory(factoryType));
+		}
+
+		for (final Class factoryType : relFactoryTypes) {
+
+			RelationshipTraitFactory expected = null;
+
+			for (final Trait trait : traits) {
+
+				expected = trait.getRelationshipTraitFactories().get(factoryType);
+				if (expected != null) {
+					break;
+				}
+			}
+
+			assertSame("Invalid relationship trait factory " + factoryType.getSimpleName() + " of " + type, expected, table.getRelationshipTraitFactory(factoryType));
+		}
+
+		for (final String name : keyNames) {
+
+			PropertyKey expected = null;
+
+			for (final Trait trait : traits) {
+
+				final PropertyKey key = trait.getPropertyKeys().get(name);
+				if (key != null) {
+
+					expected = key;
+				}
+			}
+
+			assertSame("Invalid property key " + name + " of " + type, expected, impl.key(name));
+		}
+
+		assertEquals("Invalid dynamic methods of " + type, new ArrayList<>(dynamicMethods.entrySet()), new ArrayList<>(impl.getDynamicMethods().entrySet()));
+		assertEquals("Invalid labels of " + type,          labels, new ArrayList<>(impl.getLabels()));
+		assertSame("Invalid relation of " + type,          relation, impl.getRelation());
+	}
+
+	// ----- nested classes -----
+	private static class TestMethod extends FrameworkMethod<TestMethod> {
+	}
+
+	private interface TestLifecycleMethod extends LifecycleMethod {
+	}
+
+	private static class TestTrait extends AbstractNodeTraitDefinition {
+
+		private final TestLifecycleMethod lifecycleMethod = new TestLifecycleMethod() {};
+		private final NodeTraitFactory factory            = (traits, node) -> node;
+		private final PropertyKey key                     = new StringProperty("testKey");
+		private final TestMethod method;
+		private Trait trait;
+
+		public TestTrait(final String name, final boolean hasMethod) {
+
+			super(name);
+
+			this.method = hasMethod ? new TestMethod() : null;
+		}
+
+		@Override
+		public Map<Class, LifecycleMethod> createLifecycleMethods(final TraitsInstance traitsInstance) {
+			return Map.of(TestLifecycleMethod.class, lifecycleMethod);
+		}
+
+		@Override
+		public Map<Class, FrameworkMethod> getFrameworkMethods() {
+
+			if (method != null) {
+				return Map.of(TestMethod.class, method);
+			}
+
+			return Map.of();
+		}
+
+		@Override
+		public Map<Class, NodeTraitFactory> getNodeTraitFactories() {
+			return Map.of(TestMethod.class, factory);
+		}
+
+		@Override
+		public Set<PropertyKey> createPropertyKeys(final TraitsInstance traitsInstance) {
+			return Set.of(key);
+		}
+
+		@Override
+		public Relation getRelation() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.DatabaseService;
+import org.structr.api.graph.Direction;
+import org.structr.api.graph.Relationship;
+import org.structr.api.util.Iterables;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.graph.GraphDatabaseCommand;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.RelationshipInterface;
+import org.structr.core.graph.Tx;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests that the per-node relationship cache of the database driver
+ * returns relationships in their natural order and is invalidated when
+ * relationships are created or deleted in the same transaction.
+ */
+public class AdjacencyCacheTest extends StructrTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdjacencyCacheTest.class.getName());
+
+	@Test
+	public void testRelationshipCacheInvalidation() {
+
+		final List<Long> manyToMany = new ArrayList<>();
+		final List<Long> all        = new ArrayList<>();
+		NodeInterface source        = null;
+		NodeInterface extra         = null;
+
+		try (final Tx tx = app.tx()) {
+
+			final List<NodeInterface> targets = createTestNodes("TestOne", 6);
+
+			source = createTestNode("TestSix", "source");
+			extra  = createTestNode("TestOne", "extra");
+
+			// interleave two relationship types so reading all of them needs to merge both buckets
+			for (int i=0; i<targets.size(); i++) {
+
+				final boolean isManyToMany     = (i % 2) == 0;
+				final RelationshipInterface rel = app.create(source, targets.get(i), isManyToMany ? "SixOneManyToMany" : "SixOneOneToMany");
+				final long id                   = rel.getRelationship().getId().getId();
+
+				if (isManyToMany) {
+					manyToMany.add(id);
+				}
+
+				all.add(id);
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final DatabaseService db = app.command(GraphDatabaseCommand.class).execute();
+
+			assertEquals("Invalid relationship order", all,        getIds(source.getNode().getRelationships(Direction.OUTGOING)));
+			assertEquals("Invalid relationship order", manyToMany, getIds(source.getNode().getRelationships(Direction.OUTGOING, db.getRelationshipType("MANY_TO_MANY"))));
+
+			// creating a relationship must be visible to the cached node
+			final RelationshipInterface created = app.create(source, extra, "SixOneManyToMany");
+			final long createdId                = created.getRelationship().getId().getId();
+
+			manyToMany.add(createdId);
+			all.add(createdId);
+
+			assertEquals("Cache not updated after create", manyToMany, getIds(source.getNode().getRelationships(Direction.OUTGOING, db.getRelationshipType("MANY_TO_MANY"))));
+			assertEquals("Cache not updated after create", all,        getIds(source.getNode().getRelationships(Direction.OUTGOING)));
+			assertEquals("Cache not updated after create", 1,          getIds(extra.getNode().getRelationships(Direction.INCOMING)).size());
+
+			// deleting a relationship must be visible to the cached node
+			final Long deletedId = manyToMany.remove(0);
+			all.remove(deletedId);
+
+			for (final RelationshipInterface rel : Iterables.toList(source.getOutgoingRelationships("SixOneManyToMany"))) {
+
+				if (deletedId.equals(rel.getRelationship().getId().getId())) {
+					app.delete(rel);
+				}
+			}
+
+			assertEquals("Cache not invalidated after delete", manyToMany, getIds(source.getNode().getRelationships(Direction.OUTGOING, db.getRelationshipType("MANY_TO_MANY"))));
+			assertEquals("Cache not invalidated after delete", all,        getIds(source.getNode().getRelationships(Direction.OUTGOING)));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			assertEquals("Invalid relationships after commit", all, getIds(source.getNode().getRelationships(Direction.OUTGOING)));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+	}
+
+	// ----- private methods -----
+	private List<Long> getIds(final Iterable<Relationship> relationships) {
+
+		final List<Long> ids = new ArrayList<>();
+
+		for (final Relationship rel : relationships) {
+			ids.add(rel.getId().getId());
+		}
+
+		return ids;
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.structr.api.DatabaseService;
+import org.structr.api.NotFoundException;
+import org.structr.api.config.Settings;
+import org.structr.api.graph.Identity;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.graph.GraphDatabaseCommand;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.RelationshipInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the invalidation of the entity caches that the database
+ * driver shares between transactions, see database.cache.node.size.
+ */
+public class EntityCacheTest extends StructrTest {
+
+	private DatabaseService db = null;
+
+	@Override
+	protected void setupDatabaseConnection(final String testDatabaseConnection) {
+
+		super.setupDatabaseConnection(testDatabaseConnection);
+
+		Settings.NodeCacheSize.setValue(1000);
+		Settings.RelationshipCacheSize.setValue(1000);
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void resetCacheSettings() {
+
+		Settings.NodeCacheSize.setValue(0);
+		Settings.RelationshipCacheSize.setValue(0);
+	}
+
+	@BeforeMethod
+	public void getDatabaseService() throws FrameworkException {
+		db = app.command(GraphDatabaseCommand.class).execute();
+	}
+
+	@Test
+	public void testInvalidationOnCommit() {
+
+		// the memory driver has no shared entity caches
+		if (db.getCachesInfo().containsKey("nodes")) {
+
+			try {
+
+				final NodeInterface node = createTestNode("TestOne", "original");
+				Identity id              = null;
+
+				try (final Tx tx = app.tx()) {
+
+					id = node.getNode().getId();
+					tx.success();
+				}
+
+				db.flushCaches();
+
+				try (final Tx tx = app.tx()) {
+
+					assertEquals("original", db.getNodeById(id).getProperty("name"));
+					tx.success();
+				}
+
+				assertEquals("Node was not cached", 1, getCacheInfo("nodes", "size"));
+
+				try (final Tx tx = app.tx()) {
+
+					node.setProperty(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY), "changed");
+					tx.success();
+				}
+
+				assertEquals("Modified node was not invalidated on commit", 0, getCacheInfo("nodes", "size"));
+
+				try (final Tx tx = app.tx()) {
+
+					assertEquals("Stale node returned after commit", "changed", db.getNodeById(id).getProperty("name"));
+					tx.success();
+				}
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+		}
+	}
+
+	@Test
+	public void testNoInvalidationOrPopulationOnRollback() {
+
+		if (db.getCachesInfo().containsKey("nodes")) {
+
+			try {
+
+				final NodeInterface node1 = createTestNode("TestOne", "original");
+				final NodeInterface node2 = createTestNode("TestOne", "other");
+				Identity id1              = null;
+				Identity id2              = null;
+
+				try (final Tx tx = app.tx()) {
+
+					id1 = node1.getNode().getId();
+					id2 = node2.getNode().getId();
+					tx.success();
+				}
+
+				db.flushCaches();
+
+				try (final Tx tx = app.tx()) {
+
+					db.getNodeById(id1).getProperty("name");
+					tx.success();
+				}
+
+				assertEquals("Node was not cached", 1, getCacheInfo("nodes", "size"));
+
+				try (final Tx tx = app.tx()) {
+
+					db.getNodeById(id1).setProperty("name", "changed");
+					db.getNodeById(id2).setProperty("name", "changed");
+
+					// a transaction with uncommitted writes must not populate the cache
+					assertEquals("changed", db.getNodeById(id2).getProperty("name"));
+
+					// no tx.success(), transaction is rolled back
+				}
+
+				assertEquals("Uncommitted node was cached", 1, getCacheInfo("nodes", "size"));
+
+				try (final Tx tx = app.tx()) {
+
+					assertEquals("Uncommitted value visible after rollback", "original", db.getNodeById(id1).getProperty("name"));
+					assertEquals("Uncommitted value visible after rollback", "other",    db.getNodeById(id2).getProperty("name"));
+
+					tx.success();
+				}
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+		}
+	}
+
+	@Test
+	public void testRelationshipInvalidationOnNodeDelete() {
+
+		if (db.getCachesInfo().containsKey("relationships")) {
+
+			try {
+
+				final NodeInterface start         = createTestNode("TestOne", "start");
+				final NodeInterface end           = createTestNode("TestTwo", "end");
+				final RelationshipInterface rel   = createTestRelationship(start, end, "OneTwoOneToOne");
+				Identity nodeId                   = null;
+				Identity relId                    = null;
+
+				try (final Tx tx = app.tx()) {
+
+					nodeId = start.getNode().getId();
+					relId  = rel.getRelationship().getId();
+					tx.success();
+				}
+
+				db.flushCaches();
+
+				try (final Tx tx = app.tx()) {
+
+					assertNotNull(db.getRelationshipById(relId));
+					tx.success();
+				}
+
+				assertEquals("Relationship was not cached", 1, getCacheInfo("relationships", "size"));
+
+				// DETACH DELETE removes the relationship without reporting it
+				try (final Tx tx = app.tx()) {
+
+					db.getNodeById(nodeId).delete(true);
+					tx.success();
+				}
+
+				assertEquals("Relationship of deleted node was not invalidated", 0, getCacheInfo("relationships", "size"));
+
+				try (final Tx tx = app.tx()) {
+
+					db.getRelationshipById(relId);
+					fail("Relationship of deleted node should not be found");
+
+				} catch (NotFoundException expected) {
+				}
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+		}
+	}
+
+	// ----- private methods -----
+	private int getCacheInfo(final String cache, final String key) {
+
+		final Map<String, Integer> info = db.getCachesInfo().get(cache);
+
+		return info.get(key);
+	}
+}
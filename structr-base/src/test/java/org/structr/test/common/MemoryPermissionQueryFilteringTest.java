@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.structr.api.config.Settings;
+
+/**
+ * Runs the permission query filtering tests against the in-memory
+ * database driver, independent of the configured test driver.
+ */
+public class MemoryPermissionQueryFilteringTest extends PermissionQueryFilteringTest {
+
+	@Override
+	protected void setupDatabaseConnection(final String testDatabaseConnection) {
+
+		super.setupDatabaseConnection(testDatabaseConnection);
+
+		Settings.DatabaseDriver.setValue(Settings.DEFAULT_DATABASE_DRIVER);
+	}
+}
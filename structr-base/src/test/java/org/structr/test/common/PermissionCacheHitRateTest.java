@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.common.AccessControllable;
+import org.structr.common.AccessMode;
+import org.structr.common.Permission;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.AccessControllableTraitDefinition;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Measures the hit rate of the grant result cache for a read workload
+ * that is interleaved with writes to a single node, once with the
+ * dependency-tracked invalidation and once with the previous behaviour
+ * of clearing all permission caches on every modification.
+ */
+public class PermissionCacheHitRateTest extends StructrTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(PermissionCacheHitRateTest.class.getName());
+
+	@Test
+	public void testHitRateWithDependencyTrackedInvalidation() {
+
+		final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+		Principal user                    = null;
+		String hotNodeId                  = null;
+
+		try (final Tx tx = app.tx()) {
+
+			user = createTestNode(StructrTraits.USER, "user").as(Principal.class);
+
+			for (final NodeInterface node : createTestNodes("TestOne", 50)) {
+				node.as(AccessControllable.class).grant(Permission.read, user);
+			}
+
+			final NodeInterface hotNode = createTestNode("TestTwo", "hot");
+
+			hotNode.as(AccessControllable.class).grant(Permission.read, user);
+			hotNodeId = hotNode.getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		final App userApp   = StructrApp.getInstance(SecurityContext.getInstance(user, AccessMode.Backend));
+		final double before = measureHitRate(userApp, hotNodeId, nameKey, true);
+		final double after  = measureHitRate(userApp, hotNodeId, nameKey, false);
+
+		logger.info("Grant result cache hit rate with a write before every read pass: {}% when clearing all caches, {}% with dependency tracking", Math.round(before * 100.0), Math.round(after * 100.0));
+
+		assertTrue("Dependency-tracked invalidation should keep unrelated entries", after > before);
+		assertTrue("Unrelated entries should be served from the cache", after > 0.5);
+	}
+
+	@Test
+	public void testPermissionResolutionMemoryEstimate() {
+
+		Principal user = null;
+
+		try (final Tx tx = app.tx()) {
+
+			user = createTestNode(StructrTraits.USER, "user").as(Principal.class);
+
+			for (final NodeInterface node : createTestNodes("TestOne", 50)) {
+				node.as(AccessControllable.class).grant(Permission.read, user);
+			}
+
+			createTestNode("TestTwo", "hidden");
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		AccessControllableTraitDefinition.clearCaches();
+
+		final Map<String, Integer> empty = AccessControllableTraitDefinition.getCachesInfo().get("permissionResolution");
+
+		assertEquals("Empty permission resolution cache should have no memory estimate", 0, (int)empty.get("size"));
+		assertEquals("Empty permission resolution cache should have no memory estimate", 0, (int)empty.get("bytes"));
+
+		final App userApp = StructrApp.getInstance(SecurityContext.getInstance(user, AccessMode.Backend));
+
+		try (final Tx tx = userApp.tx()) {
+
+			assertEquals(50, userApp.nodeQuery("TestOne").getAsList().size());
+			assertEquals(0,  userApp.nodeQuery("TestTwo").getAsList().size());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		final Map<String, Integer> info = AccessControllableTraitDefinition.getCachesInfo().get("permissionResolution");
+		final int size                  = info.get("size");
+		final int bytes                 = info.get("bytes");
+
+		assertTrue("Permission resolution cache should contain the resolved entries", size > 0);
+		assertTrue("Memory estimate should cover the key, cache entry and map node of every entry", bytes >= size * 100);
+	}
+
+	// ----- private methods -----
+	private double measureHitRate(final App userApp, final String hotNodeId, final PropertyKey<String> nameKey, final boolean clearAllOnWrite) {
+
+		AccessControllableTraitDefinition.clearCaches();
+
+		// warm up
+		readAll(userApp);
+
+		final int hits0   = getGrantCacheInfo("hits");
+		final int misses0 = getGrantCacheInfo("misses");
+
+		for (int i=0; i<10; i++) {
+
+			try (final Tx tx = app.tx()) {
+
+				app.getNodeById("TestTwo", hotNodeId).setProperty(nameKey, "hot" + i);
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				logger.warn("", fex);
+				fail("Unexpected exception.");
+			}
+
+			if (clearAllOnWrite) {
+
+				// what every modification did before dependency tracking
+				AccessControllableTraitDefinition.clearCaches();
+			}
+
+			readAll(userApp);
+		}
+
+		final int hits   = getGrantCacheInfo("hits")   - hits0;
+		final int misses = getGrantCacheInfo("misses") - misses0;
+
+		return (double)hits / (double)Math.max(1, hits + misses);
+	}
+
+	private void readAll(final App userApp) {
+
+		try (final Tx tx = userApp.tx()) {
+
+			assertEquals(50, userApp.nodeQuery("TestOne").getAsList().size());
+			assertEquals(1,  userApp.nodeQuery("TestTwo").getAsList().size());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+	}
+
+	private int getGrantCacheInfo(final String key) {
+
+		final Map<String, Integer> info = AccessControllableTraitDefinition.getCachesInfo().get("grantResults");
+
+		return info.get(key);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.common.AccessControllable;
+import org.structr.common.AccessMode;
+import org.structr.common.Permission;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.Group;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.GraphObjectTraitDefinition;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Verifies that resolving read permissions in the database query (see
+ * application.security.queryfiltering) returns exactly the same nodes
+ * as the filtering in Java. Runs against the configured test database
+ * driver, see MemoryPermissionQueryFilteringTest for the in-memory driver.
+ */
+public class PermissionQueryFilteringTest extends StructrTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(PermissionQueryFilteringTest.class.getName());
+
+	@AfterMethod
+	public void resetQueryFiltering() {
+		Settings.PermissionQueryFiltering.setValue(false);
+	}
+
+	@Test
+	public void testQueryFilteringMatchesPostFiltering() {
+
+		final Traits traits                     = Traits.of(StructrTraits.NODE_INTERFACE);
+		final PropertyKey<Boolean> publicKey    = traits.key(GraphObjectTraitDefinition.VISIBLE_TO_PUBLIC_USERS_PROPERTY);
+		final PropertyKey<Boolean> authKey      = traits.key(GraphObjectTraitDefinition.VISIBLE_TO_AUTHENTICATED_USERS_PROPERTY);
+		final List<String> invisibleToReader    = new ArrayList<>();
+		final List<String> visibleToReader      = new ArrayList<>();
+		Principal reader                        = null;
+		Principal outsider                      = null;
+
+		try (final Tx tx = app.tx()) {
+
+			reader   = createTestNode(StructrTraits.USER, "reader").as(Principal.class);
+			outsider = createTestNode(StructrTraits.USER, "outsider").as(Principal.class);
+
+			final Group group = app.create(StructrTraits.GROUP, "group").as(Group.class);
+
+			group.addMember(securityContext, reader);
+
+			for (int i=0; i<40; i++) {
+
+				final String name = "node" + String.format("%02d", i);
+				final NodeInterface node;
+
+				switch (i % 8) {
+
+					case 0:
+						node = createTestNode("TestOne", name);
+						node.setProperty(publicKey, true);
+						break;
+
+					case 1:
+						node = createTestNode("TestOne", name);
+						node.setProperty(authKey, true);
+						break;
+
+					case 2:
+						node = createTestNode("TestOne", name);
+						node.setProperty(traits.key(NodeInterfaceTraitDefinition.OWNER_PROPERTY), reader);
+						visibleToReader.add(node.getUuid());
+						break;
+
+					case 3:
+						node = createTestNode("TestOne", name);
+						node.as(AccessControllable.class).grant(Permission.read, reader);
+						visibleToReader.add(node.getUuid());
+						break;
+
+					case 4:
+						node = createTestNode("TestOne", name);
+						node.as(AccessControllable.class).grant(Permission.read, group);
+						visibleToReader.add(node.getUuid());
+						break;
+
+					case 5:
+						node = createTestNode("TestOne", name);
+						node.as(AccessControllable.class).grant(Permission.write, reader);
+						invisibleToReader.add(node.getUuid());
+						break;
+
+					case 6:
+						node = createTestNode("TestOne", name);
+						node.setProperty(traits.key(NodeInterfaceTraitDefinition.OWNER_PROPERTY), outsider);
+						invisibleToReader.add(node.getUuid());
+						break;
+
+					default:
+						node = createTestNode("TestOne", name);
+						invisibleToReader.add(node.getUuid());
+						break;
+				}
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		final List<SecurityContext> contexts = List.of(
+			SecurityContext.getInstance(null,     AccessMode.Frontend),
+			SecurityContext.getInstance(reader,   AccessMode.Frontend),
+			SecurityContext.getInstance(reader,   AccessMode.Backend),
+			SecurityContext.getInstance(outsider, AccessMode.Backend)
+		);
+
+		for (final SecurityContext context : contexts) {
+
+			final List<String> postFiltered  = query(context, false, 0, 0);
+			final List<String> queryFiltered = query(context, true, 0, 0);
+
+			assertEquals("Query filtering differs from post filtering for " + context.getUser(false), postFiltered, queryFiltered);
+
+			// paging in the database must not lose or duplicate nodes
+			final List<String> paged = new ArrayList<>();
+
+			for (int page=1; page<=10; page++) {
+				paged.addAll(query(context, true, page, 4));
+			}
+
+			assertEquals("Paged query filtering differs from post filtering for " + context.getUser(false), postFiltered, paged);
+		}
+
+		final List<String> readerResult = query(contexts.get(2), true, 0, 0);
+
+		for (final String uuid : visibleToReader) {
+			assertTrue("Node readable by ownership or grant is missing", readerResult.contains(uuid));
+		}
+
+		for (final String uuid : invisibleToReader) {
+			assertFalse("Node without read permission is visible", readerResult.contains(uuid));
+		}
+	}
+
+	// ----- private methods -----
+	private List<String> query(final SecurityContext context, final boolean queryFiltering, final int page, final int pageSize) {
+
+		final App userApp         = StructrApp.getInstance(context);
+		final List<String> result = new ArrayList<>();
+
+		Settings.PermissionQueryFiltering.setValue(queryFiltering);
+
+		try (final Tx tx = userApp.tx()) {
+
+			final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+
+			if (pageSize > 0) {
+
+				for (final NodeInterface node : userApp.nodeQuery("TestOne").sort(nameKey).page(page).pageSize(pageSize).getAsList()) {
+					result.add(node.getUuid());
+				}
+
+			} else {
+
+				for (final NodeInterface node : userApp.nodeQuery("TestOne").sort(nameKey).getAsList()) {
+					result.add(node.getUuid());
+				}
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		return result;
+	}
+}
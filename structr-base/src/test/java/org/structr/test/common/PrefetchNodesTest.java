@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.DatabaseService;
+import org.structr.api.graph.Direction;
+import org.structr.api.graph.Identity;
+import org.structr.api.util.Iterables;
+import org.structr.common.AccessControllable;
+import org.structr.common.AccessMode;
+import org.structr.common.Permission;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.GraphDatabaseCommand;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests the batch prefetching of nodes and their relationships, which
+ * node queries of non-admin users use to load the ownership and security
+ * relationships of their results.
+ */
+public class PrefetchNodesTest extends StructrTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(PrefetchNodesTest.class.getName());
+
+	@Test
+	public void testPrefetchNodesReturnsSameRelationships() {
+
+		final Set<String> types               = Set.of(Traits.of(StructrTraits.PRINCIPAL_OWNS_NODE).getRelation().name(), Traits.of(StructrTraits.SECURITY).getRelation().name());
+		final Map<Identity, Integer> expected = new LinkedHashMap<>();
+		final List<Identity> ids              = new ArrayList<>();
+
+		try (final Tx tx = app.tx()) {
+
+			final Principal user = createTestNode(StructrTraits.USER, "user").as(Principal.class);
+
+			for (final NodeInterface node : createTestNodes("TestOne", 30)) {
+
+				final int i = ids.size();
+
+				if (i % 3 == 0) {
+					node.setProperty(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.OWNER_PROPERTY), user);
+				}
+
+				if (i % 2 == 0) {
+					node.as(AccessControllable.class).grant(Permission.read, user);
+				}
+
+				ids.add(node.getNode().getId());
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final DatabaseService db = app.command(GraphDatabaseCommand.class).execute();
+
+			for (final Identity id : ids) {
+				expected.put(id, countIncoming(db, id, types));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final DatabaseService db = app.command(GraphDatabaseCommand.class).execute();
+
+			tx.prefetchNodes(ids, Set.of(), types);
+
+			for (final Identity id : ids) {
+				assertEquals("Prefetched relationships differ from fetched relationships", expected.get(id), countIncoming(db, id, types));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testNodeQueryWithPermissionPrefetching() {
+
+		final List<String> expected = new ArrayList<>();
+		Principal user              = null;
+
+		// more nodes than fit into a single prefetch batch
+		try (final Tx tx = app.tx()) {
+
+			user = createTestNode(StructrTraits.USER, "user").as(Principal.class);
+
+			final List<NodeInterface> nodes = createTestNodes("TestOne", 250);
+
+			for (int i=0; i<nodes.size(); i++) {
+
+				final NodeInterface node = nodes.get(i);
+
+				node.setProperty(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY), "node" + String.format("%03d", i));
+
+				switch (i % 4) {
+
+					case 0:
+						node.setProperty(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.OWNER_PROPERTY), user);
+						expected.add(node.getUuid());
+						break;
+
+					case 1:
+						node.as(AccessControllable.class).grant(Permission.read, user);
+						expected.add(node.getUuid());
+						break;
+				}
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+
+		final App userApp = StructrApp.getInstance(SecurityContext.getInstance(user, AccessMode.Backend));
+
+		try (final Tx tx = userApp.tx()) {
+
+			final List<String> result = new ArrayList<>();
+
+			for (final NodeInterface node : userApp.nodeQuery("TestOne").sort(Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY)).getAsList()) {
+				result.add(node.getUuid());
+			}
+
+			assertEquals("Invalid query result with permission prefetching", expected, result);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception.");
+		}
+	}
+
+	// ----- private methods -----
+	private int countIncoming(final DatabaseService db, final Identity id, final Set<String> types) {
+
+		int count = 0;
+
+		for (final String type : types) {
+			count += Iterables.count(db.getNodeById(id).getRelationships(Direction.INCOMING, db.getRelationshipType(type)));
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.common;
+
+import org.structr.api.DatabaseFeature;
+import org.structr.api.config.Settings;
+import org.structr.api.util.Iterables;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.Services;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.core.traits.definitions.NodeInterfaceTraitDefinition;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the write-behind buffer of the database driver, see
+ * database.writebehind.enabled.
+ */
+public class WriteBehindTest extends StructrTest {
+
+	@BeforeMethod
+	public void enableWriteBehind() {
+		Settings.WriteBehindEnabled.setValue(true);
+	}
+
+	@AfterMethod
+	public void disableWriteBehind() {
+		Settings.WriteBehindEnabled.setValue(false);
+	}
+
+	@Test
+	public void testPendingWritesAreFlushedBeforeQueries() {
+
+		final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+
+		try {
+
+			final List<NodeInterface> nodes = createTestNodes("TestOne", 10);
+
+			try (final Tx tx = app.tx()) {
+
+				for (int i=0; i<nodes.size(); i++) {
+					nodes.get(i).setProperty(nameKey, "changed" + i);
+				}
+
+				// the wrapper must report the buffered value
+				assertEquals("Invalid property value before flush", "changed3", nodes.get(3).getProperty(nameKey));
+
+				// a structr query must see the buffered values
+				final List<NodeInterface> result = app.nodeQuery("TestOne").key(nameKey, "changed5").getAsList();
+
+				assertEquals("Query did not see buffered write", 1, result.size());
+				assertEquals("Query did not see buffered write", nodes.get(5).getUuid(), result.get(0).getUuid());
+
+				tx.success();
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				assertEquals("Invalid number of changed nodes after commit", 10, app.nodeQuery("TestOne").key(nameKey, "changed", false).getAsList().size());
+
+				tx.success();
+			}
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+
+	@Test
+	public void testPendingWritesAreFlushedBeforeCypherQueries() {
+
+		if (Services.getInstance().getDatabaseService().supportsFeature(DatabaseFeature.QueryLanguage, "application/x-cypher-query")) {
+
+			final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+
+			try {
+
+				final NodeInterface node = createTestNode("TestOne", "original");
+
+				try (final Tx tx = app.tx()) {
+
+					node.setProperty(nameKey, "changed");
+
+					final List<GraphObject> result = Iterables.toList(app.query("MATCH (n:TestOne:" + randomTenantId + ") WHERE n.name = $name RETURN n", Map.of("name", "changed")));
+
+					assertEquals("Cypher query did not see buffered write", 1, result.size());
+					assertEquals("Cypher query did not see buffered write", node.getUuid(), result.get(0).getUuid());
+
+					tx.success();
+				}
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+		}
+	}
+
+	@Test
+	public void testPendingWritesAreDiscardedOnRollback() {
+
+		final PropertyKey<String> nameKey = Traits.of(StructrTraits.NODE_INTERFACE).key(NodeInterfaceTraitDefinition.NAME_PROPERTY);
+
+		try {
+
+			final NodeInterface node = createTestNode("TestOne", "original");
+			final String uuid        = node.getUuid();
+
+			try (final Tx tx = app.tx()) {
+
+				app.getNodeById("TestOne", uuid).setProperty(nameKey, "changed");
+
+				// no tx.success(), transaction is rolled back
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final NodeInterface reloaded = app.getNodeById("TestOne", uuid);
+
+				assertEquals("Buffered write survived rollback", "original", reloaded.getProperty(nameKey));
+				assertEquals("Buffered write survived rollback", 0, app.nodeQuery("TestOne").key(nameKey, "changed").getAsList().size());
+
+				tx.success();
+			}
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+}
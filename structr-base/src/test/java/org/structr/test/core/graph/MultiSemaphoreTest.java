@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.core.graph;
+
+import org.structr.core.graph.MultiSemaphore;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ *
+ */
+public class MultiSemaphoreTest {
+
+	@Test
+	public void testOverlappingKeySetsInReverseOrder() throws Exception {
+
+		final MultiSemaphore semaphore = new MultiSemaphore();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		final CountDownLatch start     = new CountDownLatch(1);
+		final List<Future<?>> futures  = new ArrayList<>();
+
+		// the key sets are passed in opposite iteration order, which deadlocks without a stable lock order
+		futures.add(executor.submit(() -> lockRepeatedly(semaphore, start, List.of("A", "B", "C"))));
+		futures.add(executor.submit(() -> lockRepeatedly(semaphore, start, List.of("C", "B", "A"))));
+
+		start.countDown();
+
+		try {
+
+			for (final Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+
+		} catch (TimeoutException tex) {
+
+			fail("Threads with overlapping key sets did not finish, probable deadlock.");
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		final Map<String, Map<String, Long>> info = semaphore.getContentionInfo();
+
+		assertEquals(Set.of("A", "B", "C"), info.keySet());
+		assertEquals(Long.valueOf(2000), info.get("A").get("acquired"));
+		assertEquals(Long.valueOf(0), info.get("A").get("queued"));
+	}
+
+	@Test
+	public void testDisjointKeySetsDoNotWait() throws Exception {
+
+		final MultiSemaphore semaphore = new MultiSemaphore();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		semaphore.acquire(Set.of("A"));
+
+		try {
+
+			final Future<?> future = executor.submit(() -> {
+
+				semaphore.acquire(Set.of("B"));
+				semaphore.release(Set.of("B"));
+
+				return null;
+			});
+
+			// must not block while "A" is held by this thread
+			future.get(5, TimeUnit.SECONDS);
+
+		} finally {
+
+			semaphore.release(Set.of("A"));
+			executor.shutdownNow();
+		}
+
+		assertEquals(Long.valueOf(0), semaphore.getContentionInfo().get("B").get("contended"));
+	}
+
+	@Test
+	public void testWaitingContinuesAfterWarningInterval() throws Exception {
+
+		// the warning interval is shorter than the time the lock is held
+		final MultiSemaphore semaphore = new MultiSemaphore(50);
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch waiting   = new CountDownLatch(1);
+
+		semaphore.acquire(Set.of("A"));
+
+		try {
+
+			final Future<?> future = executor.submit(() -> {
+
+				waiting.countDown();
+
+				semaphore.acquire(Set.of("A"));
+				semaphore.release(Set.of("A"));
+
+				return null;
+			});
+
+			waiting.await();
+			Thread.sleep(300);
+
+			assertFalse("Waiting thread must not give up after the warning interval", future.isDone());
+			assertEquals(Long.valueOf(1), semaphore.getContentionInfo().get("A").get("queued"));
+
+			semaphore.release(Set.of("A"));
+
+			future.get(5, TimeUnit.SECONDS);
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		final Map<String, Long> info = semaphore.getContentionInfo().get("A");
+
+		assertEquals(Long.valueOf(1), info.get("contended"));
+		assertTrue("Wait time must be recorded", info.get("waitMillis") >= 200);
+	}
+
+	@Test
+	public void testReleaseOnlyAcquiredLocks() throws Exception {
+
+		final MultiSemaphore semaphore = new MultiSemaphore();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		semaphore.acquire(Set.of("A"));
+
+		// the key set has grown since acquire(), "B" was never locked
+		semaphore.release(Set.of("A", "B"));
+
+		// release without acquire must not fail either
+		semaphore.release(Set.of("C"));
+
+		try {
+
+			// all keys must be available for other threads
+			executor.submit(() -> {
+
+				semaphore.acquire(Set.of("A", "B", "C"));
+				semaphore.release(Set.of("A", "B", "C"));
+
+				return null;
+
+			}).get(5, TimeUnit.SECONDS);
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testInterruptReleasesPartiallyAcquiredLocks() throws Exception {
+
+		final MultiSemaphore semaphore = new MultiSemaphore();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch waiting   = new CountDownLatch(1);
+
+		semaphore.acquire(Set.of("B"));
+
+		try {
+
+			// acquires "A" first, then blocks on "B"
+			final Future<?> future = executor.submit(() -> {
+
+				waiting.countDown();
+				semaphore.acquire(Set.of("A", "B"));
+
+				return null;
+			});
+
+			waiting.await();
+
+			while (semaphore.getContentionInfo().get("B").get("queued") == 0L) {
+				Thread.sleep(10);
+			}
+
+			future.cancel(true);
+
+			// "A" must have been released by the interrupted thread
+			final ExecutorService other = Executors.newSingleThreadExecutor();
+
+			try {
+
+				other.submit(() -> {
+
+					semaphore.acquire(Set.of("A"));
+					semaphore.release(Set.of("A"));
+
+					return null;
+
+				}).get(5, TimeUnit.SECONDS);
+
+			} finally {
+
+				other.shutdownNow();
+			}
+
+		} finally {
+
+			semaphore.release(Set.of("B"));
+			executor.shutdownNow();
+		}
+	}
+
+	// ----- private methods -----
+	private Void lockRepeatedly(final MultiSemaphore semaphore, final CountDownLatch start, final List<String> keys) throws Exception {
+
+		// a set with a fixed iteration order
+		final Set<String> keySet = new LinkedHashSet<>(keys);
+
+		start.await();
+
+		for (int i=0; i<1000; i++) {
+
+			semaphore.acquire(keySet);
+			semaphore.release(keySet);
+		}
+
+		return null;
+	}
+}
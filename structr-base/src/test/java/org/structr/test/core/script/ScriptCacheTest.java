@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.core.script;
+
+import org.structr.api.config.Settings;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.function.Functions;
+import org.structr.core.function.UnlicensedFunction;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.core.parser.Expression;
+import org.structr.core.script.Scripting;
+import org.structr.core.script.Snippet;
+import org.structr.schema.action.ActionContext;
+import org.structr.test.common.StructrTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the StructrScript parse cache and the template cache,
+ * see application.scripting.cache.size.
+ */
+public class ScriptCacheTest extends StructrTest {
+
+	@AfterMethod
+	public void resetCacheSize() {
+		Settings.StructrScriptCacheSize.setValue(Settings.StructrScriptCacheSize.getDefaultValue());
+	}
+
+	@Test
+	public void testTemplateOutput() {
+
+		Functions.put(null, new TestFunction("cache_test_unlicensed", null));
+
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface test = createTestNode("TestOne", "test");
+
+			// evaluate twice, the second call uses the cached template
+			for (int i=0; i<2; i++) {
+
+				assertEquals("Invalid template result", "test",           replace(test, "${this.name}"));
+				assertEquals("Invalid template result", "test-test-test", replace(test, "${this.name}-${this.name}-${this.name}"));
+				assertEquals("Invalid template result", "(test)",         replace(test, "(${ this.name })"));
+				assertEquals("Invalid template result", "abtestcd",       replace(test, "a${null}b${this.name}c${null}d"));
+				assertEquals("Invalid template result", "no expressions", replace(test, "no expressions"));
+				assertEquals("Invalid template result", "$ {this.name}",  replace(test, "$ {this.name}"));
+
+				// expressions that can not be evaluated remain in the output
+				assertEquals("Invalid template result", "${cache_test_unlicensed()} test ${cache_test_unlicensed()}", replace(test, "${cache_test_unlicensed()} ${this.name} ${cache_test_unlicensed()}"));
+
+				// null results
+				assertNull("Invalid template result", Scripting.replaceVariables(new ActionContext(securityContext), test, "${null}", true, "test"));
+				assertNull("Invalid template result", Scripting.replaceVariables(new ActionContext(securityContext), test, " ${null}${null} ", true, "test"));
+				assertEquals("Invalid template result", "", Scripting.replaceVariables(new ActionContext(securityContext), test, "${null}", false, "test"));
+			}
+
+			assertTrue("Templates were not cached", Scripting.getTemplateCacheInfo().get("hits") > 0);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testParseErrorsAreNotCached() {
+
+		final Snippet valid   = new Snippet("test", "concat('cache', 'test')");
+		final Snippet invalid = new Snippet("test", "concat('cache', 'test'");
+
+		try {
+
+			assertSame("Parsed expression was not cached", Functions.getParsedExpression(valid), Functions.getParsedExpression(valid));
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		for (int i=0; i<2; i++) {
+
+			final int size = Functions.getParseCacheInfo().get("size");
+
+			try {
+
+				Functions.getParsedExpression(invalid);
+				fail("Invalid expression should throw an exception");
+
+			} catch (FrameworkException expected) {
+			}
+
+			assertEquals("Parse error was cached", size, (int)Functions.getParseCacheInfo().get("size"));
+		}
+	}
+
+	@Test
+	public void testFunctionRegistrationClearsParseCache() {
+
+		final Snippet snippet = new Snippet("test", "cache_test()");
+
+		Functions.put(null, new TestFunction("cache_test", "first"));
+
+		try (final Tx tx = app.tx()) {
+
+			final Expression first = Functions.getParsedExpression(snippet);
+
+			assertSame("Parsed expression was not cached", first, Functions.getParsedExpression(snippet));
+			assertEquals("Invalid function result", "first", replace(null, "${cache_test()}"));
+
+			// re-registering a function must invalidate expressions that reference the old instance
+			Functions.put(null, new TestFunction("cache_test", "second"));
+
+			assertNotSame("Parse cache was not cleared", first, Functions.getParsedExpression(snippet));
+			assertEquals("Invalid function result", "second", replace(null, "${cache_test()}"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testCacheSizeZeroDisablesCaches() {
+
+		final Snippet snippet = new Snippet("test", "concat('cache', 'test')");
+
+		Settings.StructrScriptCacheSize.setValue(0);
+
+		assertTrue("Parse cache was not disabled",    Functions.getParseCacheInfo().isEmpty());
+		assertTrue("Template cache was not disabled", Scripting.getTemplateCacheInfo().isEmpty());
+		assertTrue("Source cache was not disabled",   Scripting.getSourceCacheInfo().isEmpty());
+
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface test = createTestNode("TestOne", "test");
+
+			assertNotSame("Parsed expression was cached", Functions.getParsedExpression(snippet), Functions.getParsedExpression(snippet));
+
+			for (int i=0; i<2; i++) {
+
+				assertEquals("Invalid template result", "test-test", replace(test, "${this.name}-${this.name}"));
+				assertEquals("Invalid script result",   "3",         replace(test, "${{ 1 + 2 }}"));
+			}
+
+			assertTrue("Parse cache was not disabled",    Functions.getParseCacheInfo().isEmpty());
+			assertTrue("Template cache was not disabled", Scripting.getTemplateCacheInfo().isEmpty());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// restoring the size enables the caches again
+		Settings.StructrScriptCacheSize.setValue(100);
+
+		assertEquals("Parse cache was not enabled",    100, (int)Functions.getParseCacheInfo().get("max"));
+		assertEquals("Template cache was not enabled", 100, (int)Scripting.getTemplateCacheInfo().get("max"));
+	}
+
+	// ----- private methods -----
+	private String replace(final NodeInterface entity, final String template) throws FrameworkException {
+		return Scripting.replaceVariables(new ActionContext(securityContext), entity, template);
+	}
+
+	// ----- nested classes -----
+	/**
+	 * Function that returns a fixed result, or behaves like an unlicensed
+	 * function if the result is null.
+	 */
+	private static class TestFunction extends UnlicensedFunction {
+
+		private final String result;
+		private final String name;
+
+		public TestFunction(final String name, final String result) {
+
+			super(name, "test");
+
+			this.result = result;
+			this.name   = name;
+		}
+
+		@Override
+		public Object apply(final ActionContext ctx, final Object caller, final Object[] sources) throws FrameworkException {
+
+			if (result == null) {
+				return super.apply(ctx, caller, sources);
+			}
+
+			return result;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.core.script;
+
+import org.structr.api.config.Settings;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.graph.Tx;
+import org.structr.core.script.Scripting;
+import org.structr.core.script.polyglot.context.ContextFactory;
+import org.structr.schema.action.ActionContext;
+import org.structr.test.common.StructrTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the polyglot source cache and the scripting context pool,
+ * see application.scripting.contextpool.size.
+ */
+public class ScriptingContextPoolTest extends StructrTest {
+
+	@BeforeMethod
+	public void enablePooling() {
+
+		ContextFactory.closePooledContexts();
+		Settings.ScriptingContextPoolSize.setValue(2);
+	}
+
+	@AfterMethod
+	public void disablePooling() {
+
+		Settings.ScriptingContextPoolSize.setValue(0);
+		ContextFactory.closePooledContexts();
+	}
+
+	@Test
+	public void testContextIsReturnedToPool() {
+
+		try (final Tx tx = app.tx()) {
+
+			assertEquals("Invalid script result", "2", evaluate("${{ 1 + 1 }}").toString());
+			assertEquals("Context was not returned to the pool", 1, getPooledContexts());
+
+			// the pooled context is borrowed and returned again
+			assertEquals("Invalid script result", "3", evaluate("${{ 1 + 2 }}").toString());
+			assertEquals("Context was not reused", 1, getPooledContexts());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testModifiedGlobalsAreNotVisibleToNextScript() {
+
+		try (final Tx tx = app.tx()) {
+
+			// fill the pool
+			evaluate("${{ 1 }}");
+			assertEquals("Context was not returned to the pool", 1, getPooledContexts());
+
+			// script A modifies globals, built-ins and prototypes
+			evaluate("${{ globalThis.leaked = 'secret'; }}");
+			evaluate("${{ JSON.stringify = function() { return 'secret'; }; }}");
+			evaluate("${{ Object.prototype.leaked = 'secret'; }}");
+			evaluate("${{ Array.prototype.map = function() { return ['secret']; }; }}");
+			evaluate("${{ Object.defineProperty(Math, 'max', { value: function() { return 'secret'; } }); }}");
+			evaluate("${{ Object.setPrototypeOf(String.prototype, { leaked: 'secret' }); }}");
+			evaluate("${{ Object.getPrototypeOf([][Symbol.iterator]()).next = function() { return { done: true }; }; }}");
+
+			// script B must see a clean global state
+			assertEquals("Global binding leaked into the next script",  "undefined", evaluate("${{ typeof globalThis.leaked }}"));
+			assertEquals("Modified built-in leaked into the next script", "[1]",     evaluate("${{ JSON.stringify([1]) }}"));
+			assertEquals("Prototype pollution leaked into the next script", "undefined", evaluate("${{ typeof ({}).leaked }}"));
+			assertEquals("Prototype pollution leaked into the next script", "2",     evaluate("${{ [1].map(x => x + 1).join() }}"));
+			assertEquals("Modified built-in leaked into the next script", "3",       evaluate("${{ Math.max(1, 3).toString() }}"));
+			assertEquals("Prototype pollution leaked into the next script", "undefined", evaluate("${{ typeof 'a'.leaked }}"));
+			assertEquals("Modified iterator leaked into the next script", "1,2",     evaluate("${{ [...[1, 2]].join() }}"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testModifiedContextIsNotPooled() {
+
+		try (final Tx tx = app.tx()) {
+
+			evaluate("${{ 1 }}");
+			assertEquals("Context was not returned to the pool", 1, getPooledContexts());
+
+			// the modified context is closed instead of being returned
+			evaluate("${{ Object.prototype.leaked = 'secret'; }}");
+			assertEquals("Modified context was returned to the pool", 0, getPooledContexts());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testNoPoolingWhenDisabled() {
+
+		Settings.ScriptingContextPoolSize.setValue(0);
+
+		try (final Tx tx = app.tx()) {
+
+			evaluate("${{ 1 }}");
+			evaluate("${{ 2 }}");
+
+			assertEquals("Context was pooled although pooling is disabled", 0, getPooledContexts());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testSourceCache() {
+
+		try (final Tx tx = app.tx()) {
+
+			final int hits   = Scripting.getSourceCacheInfo().get("hits");
+			final int misses = Scripting.getSourceCacheInfo().get("misses");
+
+			assertEquals("Invalid script result", "source1", evaluate("${{ 'source' + 1 }}"));
+			assertEquals("Invalid script result", "source1", evaluate("${{ 'source' + 1 }}"));
+
+			final Map<String, Integer> info = Scripting.getSourceCacheInfo();
+
+			assertEquals("Identical source was not served from the cache", hits + 1, info.get("hits").intValue());
+			assertEquals("Invalid number of source cache misses", misses + 1, info.get("misses").intValue());
+
+			// a different source with the same method name must not return the cached source
+			assertEquals("Invalid script result", "source2", evaluate("${{ 'source' + 2 }}"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	// ----- private methods -----
+	private Object evaluate(final String source) throws FrameworkException {
+		return Scripting.evaluate(new ActionContext(securityContext), null, source, "test");
+	}
+
+	private int getPooledContexts() {
+		return ContextFactory.getContextPoolInfo().getOrDefault("js", 0);
+	}
+}
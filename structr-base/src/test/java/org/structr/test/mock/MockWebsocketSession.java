@@ -68,7 +68,12 @@ public class MockWebsocketSession implements Session {
 
 	@Override
 	public void sendText(String text, Callback callback) {
+
 		messages.add(text);
+
+		if (callback != null) {
+			callback.succeed();
+		}
 	}
 
 	@Override
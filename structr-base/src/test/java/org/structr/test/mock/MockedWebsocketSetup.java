@@ -19,6 +19,7 @@
 package org.structr.test.mock;
 
 import org.structr.websocket.StructrWebSocket;
+import org.structr.websocket.WebsocketController;
 
 import java.util.Map;
 
@@ -26,11 +27,13 @@ public class MockedWebsocketSetup {
 
 	private final MockWebsocketSession session;
 	private final StructrWebSocket webSocket;
+	private final WebsocketController controller;
 
-	public MockedWebsocketSetup(final MockWebsocketSession session, final StructrWebSocket webSocket) {
+	public MockedWebsocketSetup(final MockWebsocketSession session, final StructrWebSocket webSocket, final WebsocketController controller) {
 
-		this.session   = session;
-		this.webSocket = webSocket;
+		this.session    = session;
+		this.webSocket  = webSocket;
+		this.controller = controller;
 	}
 
 	public MockWebsocketSession getSession() {
@@ -41,6 +44,10 @@ public class MockedWebsocketSetup {
 		return webSocket;
 	}
 
+	public WebsocketController getController() {
+		return controller;
+	}
+
 	public Map<String, Object> getLastWebsocketResponse() {
 		return session.getLastWebsocketResponse();
 	}
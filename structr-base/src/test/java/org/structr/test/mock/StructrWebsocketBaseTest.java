@@ -30,6 +30,7 @@ import org.structr.websocket.WebsocketController;
 import org.structr.websocket.message.WebSocketMessage;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.testng.AssertJUnit.assertEquals;
 
@@ -42,6 +43,10 @@ public class StructrWebsocketBaseTest extends StructrUiTest {
 	 * @return
 	 */
 	protected MockedWebsocketSetup getMockedWebsocketSetup() {
+		return getMockedWebsocketSetup(MockWebsocketSession::new);
+	}
+
+	protected MockedWebsocketSetup getMockedWebsocketSetup(final Function<Gson, MockWebsocketSession> sessionFactory) {
 
 		// Caution: this code is taken from WebSocketServlet.java and needs to be updated
 		// if any changes to the original code are made!
@@ -68,12 +73,12 @@ public class StructrWebsocketBaseTest extends StructrUiTest {
 		final Authenticator authenticator    = new UiAuthenticator();
 		final StructrWebSocket websocket     = new StructrWebSocket(controller, gson, authenticator);
 		final MockServletRequest request     = new MockServletRequest();
-		final MockWebsocketSession session   = new MockWebsocketSession(gson);
+		final MockWebsocketSession session   = sessionFactory.apply(gson);
 
 		websocket.setRequest(request);
 		websocket.onWebSocketOpen(session);
 
-		return new MockedWebsocketSetup(session, websocket);
+		return new MockedWebsocketSetup(session, websocket, controller);
 	}
 
 	protected String toJson(final Map<String, Object> data) {
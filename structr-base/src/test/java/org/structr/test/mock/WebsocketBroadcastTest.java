@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.test.mock;
+
+import com.google.gson.Gson;
+import org.eclipse.jetty.websocket.api.Callback;
+import org.structr.api.config.Settings;
+import org.structr.websocket.WebsocketController;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for the queueing and drop behaviour of websocket broadcasts.
+ */
+public class WebsocketBroadcastTest extends StructrWebsocketBaseTest {
+
+	@AfterMethod
+	public void resetQueueSizes() {
+
+		Settings.WsBroadcastQueueSize.setValue(Settings.WsBroadcastQueueSize.getDefaultValue());
+		Settings.WsClientQueueSize.setValue(Settings.WsClientQueueSize.getDefaultValue());
+	}
+
+	@Test
+	public void testBroadcastsAreDroppedWhenQueueIsFull() {
+
+		// the queue size is read when the controller is created
+		Settings.WsBroadcastQueueSize.setValue(2);
+
+		final CountDownLatch latch           = new CountDownLatch(1);
+		final MockedWebsocketSetup mock      = getLoggedInSetup();
+		final RecordingSession session       = (RecordingSession)mock.getSession();
+		final WebsocketController controller = mock.getController();
+
+		try {
+
+			// the broadcast thread blocks while sending the first message
+			session.block = latch;
+
+			controller.simpleBroadcast("TEST_1", Map.of(), null);
+
+			tryWithTimeout(() -> session.getCommands().size() == 1, () -> fail("Broadcast was not dispatched"), 10000, 50);
+
+			controller.simpleBroadcast("TEST_2", Map.of(), null);
+			controller.simpleBroadcast("TEST_3", Map.of(), null);
+
+			assertEquals("Broadcasts were not queued", Long.valueOf(2), controller.getBroadcastInfo().get("queued"));
+
+			// waits one second for the full queue, then drops the broadcast
+			controller.simpleBroadcast("TEST_4", Map.of(), null);
+
+			assertEquals("Broadcast was not dropped", Long.valueOf(1), controller.getBroadcastInfo().get("droppedBroadcasts"));
+
+			session.block = null;
+			latch.countDown();
+
+			tryWithTimeout(() -> session.getCommands().size() == 3, () -> fail("Queued broadcasts were not dispatched"), 10000, 50);
+
+			assertEquals("Invalid broadcasts received", List.of("TEST_1", "TEST_2", "TEST_3"), session.getCommands());
+			assertEquals("Broadcast queue is not empty", Long.valueOf(0), controller.getBroadcastInfo().get("queued"));
+
+		} finally {
+
+			latch.countDown();
+		}
+	}
+
+	@Test
+	public void testSlowClientDropsOldestMessages() {
+
+		Settings.WsClientQueueSize.setValue(2);
+
+		final MockedWebsocketSetup mock      = getLoggedInSetup();
+		final RecordingSession session       = (RecordingSession)mock.getSession();
+		final WebsocketController controller = mock.getController();
+
+		// the client does not confirm any message until released
+		session.hold = true;
+
+		for (int i=1; i<=5; i++) {
+			controller.simpleBroadcast("TEST_" + i, Map.of(), null);
+		}
+
+		tryWithTimeout(() -> controller.getBroadcastInfo().get("droppedClientMessages") == 2L, () -> fail("Client messages were not dropped"), 10000, 50);
+
+		// the first message is in flight, TEST_2 and TEST_3 were dropped
+		assertEquals("Invalid broadcasts received", List.of("TEST_1"), session.getCommands());
+
+		session.releaseHeldMessages();
+
+		assertEquals("Invalid broadcasts received", List.of("TEST_1", "TEST_4", "TEST_5"), session.getCommands());
+	}
+
+	@Test
+	public void testBroadcastAfterExecutorShutdown() {
+
+		final MockedWebsocketSetup mock      = getLoggedInSetup();
+		final RecordingSession session       = (RecordingSession)mock.getSession();
+		final WebsocketController controller = mock.getController();
+
+		controller.simpleBroadcast("TEST_1", Map.of(), null);
+
+		tryWithTimeout(() -> session.getCommands().size() == 1, () -> fail("Broadcast was not dispatched"), 10000, 50);
+
+		WebsocketController.shutdownBroadcastExecutor();
+
+		// the broadcast thread is started again
+		controller.simpleBroadcast("TEST_2", Map.of(), null);
+
+		tryWithTimeout(() -> session.getCommands().size() == 2, () -> fail("Broadcast was not dispatched after shutdown"), 10000, 50);
+
+		assertEquals("Invalid broadcasts received", List.of("TEST_1", "TEST_2"), session.getCommands());
+	}
+
+	// ----- private methods -----
+	private MockedWebsocketSetup getLoggedInSetup() {
+
+		createEntityAsSuperUser("/User", "{ name: admin, password: admin, isAdmin: true }");
+		createEntityAsSuperUser("/SessionDataNode", "{ vhost: '0.0.0.0', sessionId: 'TESTSESSION' }");
+
+		final MockedWebsocketSetup mock = getMockedWebsocketSetup(RecordingSession::new);
+
+		login(mock.getWebSocket(), "admin", "admin", "TESTSESSION");
+
+		assertResponse(mock, "LOGIN", 200, true);
+
+		return mock;
+	}
+
+	// ----- nested classes -----
+	private static class RecordingSession extends MockWebsocketSession {
+
+		private final List<String> commands    = Collections.synchronizedList(new ArrayList<>());
+		private final Queue<Callback> held     = new ConcurrentLinkedQueue<>();
+		private volatile CountDownLatch block  = null;
+		private volatile boolean hold          = false;
+		private final Gson gson;
+
+		public RecordingSession(final Gson gson) {
+
+			super(gson);
+
+			this.gson = gson;
+		}
+
+		@Override
+		public void sendText(final String text, final Callback callback) {
+
+			final String command = (String)gson.fromJson(text, Map.class).get("command");
+
+			if (command == null || !command.startsWith("TEST_")) {
+
+				super.sendText(text, callback);
+				return;
+			}
+
+			commands.add(command);
+
+			final CountDownLatch latch = block;
+			if (latch != null) {
+
+				try { latch.await(30, TimeUnit.SECONDS); } catch (InterruptedException iex) {}
+			}
+
+			if (hold) {
+
+				held.add(callback);
+
+			} else if (callback != null) {
+
+				callback.succeed();
+			}
+		}
+
+		public List<String> getCommands() {
+
+			synchronized (commands) {
+				return new ArrayList<>(commands);
+			}
+		}
+
+		public void releaseHeldMessages() {
+
+			hold = false;
+
+			Callback callback = null;
+
+			// each confirmation sends the next pending message
+			while ((callback = held.poll()) != null) {
+				callback.succeed();
+			}
+		}
+	}
+}
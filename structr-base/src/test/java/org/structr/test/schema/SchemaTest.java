@@ -31,13 +31,16 @@ import org.structr.common.PropertyView;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.Services;
+import org.structr.core.entity.AbstractSchemaNode;
 import org.structr.core.entity.SchemaMethod;
+import org.structr.core.entity.SchemaView;
 import org.structr.core.graph.*;
 import org.structr.core.property.PropertyKey;
 import org.structr.core.script.Scripting;
 import org.structr.core.traits.StructrTraits;
 import org.structr.core.traits.Traits;
 import org.structr.core.traits.definitions.*;
+import org.structr.schema.SchemaService;
 import org.structr.schema.action.ActionContext;
 import org.structr.schema.action.Actions;
 import org.structr.schema.export.StructrSchema;
@@ -978,6 +981,160 @@ public class SchemaTest extends StructrTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalSchemaReload() {
+
+		// setup: create base type, subtype and an unrelated type
+		try (final Tx tx = app.tx()) {
+
+			final JsonSchema schema    = StructrSchema.createFromDatabase(app);
+			final JsonObjectType base  = schema.addType("IncrementalBase");
+			final JsonObjectType ext   = schema.addType("IncrementalExtended");
+			final JsonObjectType other = schema.addType("IncrementalOther");
+
+			ext.addTrait("IncrementalBase");
+
+			base.addMethod("doTest", "'first'");
+			other.addStringProperty("otherName", PropertyView.Public).setIndexed(true);
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		// wait for the index update of the setup, the incremental update is computed against it
+		waitForIndexUpdate();
+
+		final Set<String> otherViewIds = getSchemaViewIds("IncrementalOther");
+
+		assertFalse("Untouched type has no view nodes", otherViewIds.isEmpty());
+
+		// modify the base type only, which triggers an incremental reload
+		try (final Tx tx = app.tx()) {
+
+			final Traits propertyTraits = Traits.of(StructrTraits.SCHEMA_PROPERTY);
+			final NodeInterface base    = app.nodeQuery(StructrTraits.SCHEMA_NODE).name("IncrementalBase").getFirst();
+			final NodeInterface method  = app.nodeQuery(StructrTraits.SCHEMA_METHOD).name("doTest").getFirst();
+
+			method.as(SchemaMethod.class).setSource("'second'");
+
+			app.create(StructrTraits.SCHEMA_PROPERTY,
+				new NodeAttribute<>(propertyTraits.key(NodeInterfaceTraitDefinition.NAME_PROPERTY), "addedLater"),
+				new NodeAttribute<>(propertyTraits.key(SchemaPropertyTraitDefinition.SCHEMA_NODE_PROPERTY), base),
+				new NodeAttribute<>(propertyTraits.key(SchemaPropertyTraitDefinition.PROPERTY_TYPE_PROPERTY), "String"),
+				new NodeAttribute<>(propertyTraits.key(SchemaPropertyTraitDefinition.INDEXED_PROPERTY), true)
+			);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		// verify that only the changed type and its subtype were rebuilt
+		final Map<String, Object> info = waitForIndexUpdate();
+
+		assertEquals("Schema reload was not incremental", Boolean.TRUE, info.get("incremental"));
+		assertEquals("Invalid changed types in incremental reload", Set.of("IncrementalBase"), info.get("changedTypes"));
+		assertEquals("Invalid migrated types in incremental reload", Set.of("IncrementalBase"), info.get("migratedTypes"));
+		assertEquals("Invalid view node types in incremental reload", Set.of("IncrementalBase", "IncrementalExtended"), info.get("viewTypes"));
+		assertTrue("Changed type was not re-indexed in incremental reload", ((Set)info.get("indexedTypes")).contains("IncrementalBase"));
+		assertFalse("Untouched type was re-indexed in incremental reload", ((Set)info.get("indexedTypes")).contains("IncrementalOther"));
+		assertEquals("View nodes of untouched type were recreated in incremental reload", otherViewIds, getSchemaViewIds("IncrementalOther"));
+
+		// verify that the subtype sees the changes of the base type
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface ext = app.create("IncrementalExtended", "ext");
+			final ActionContext ctx = new ActionContext(securityContext);
+
+			assertTrue("Subtype is missing property added to base type in incremental reload", Traits.of("IncrementalExtended").hasKey("addedLater"));
+			assertEquals("Subtype does not see method modified in incremental reload", "second", Scripting.evaluate(ctx, ext, "${{ $.this.doTest(); }}", "test"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+
+	@Test
+	public void testIncrementalSchemaReloadWithMovedSchemaObjects() {
+
+		// setup: create three types, a property and a relationship
+		try (final Tx tx = app.tx()) {
+
+			final JsonSchema schema     = StructrSchema.createFromDatabase(app);
+			final JsonObjectType source = schema.addType("MoveSource");
+			final JsonObjectType target = schema.addType("MoveTarget");
+			final JsonObjectType other  = schema.addType("MoveOther");
+
+			source.addStringProperty("moving", PropertyView.Public);
+			source.relate(other, "MOVES", Cardinality.OneToMany, "mover", "others");
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		// move the property and the source of the relationship to another type
+		try (final Tx tx = app.tx()) {
+
+			final Traits propertyTraits = Traits.of(StructrTraits.SCHEMA_PROPERTY);
+			final Traits relTraits      = Traits.of(StructrTraits.SCHEMA_RELATIONSHIP_NODE);
+			final NodeInterface target  = app.nodeQuery(StructrTraits.SCHEMA_NODE).name("MoveTarget").getFirst();
+			final NodeInterface moving  = app.nodeQuery(StructrTraits.SCHEMA_PROPERTY).name("moving").getFirst();
+			final NodeInterface rel     = app.nodeQuery(StructrTraits.SCHEMA_RELATIONSHIP_NODE).key(relTraits.key(SchemaRelationshipNodeTraitDefinition.RELATIONSHIP_TYPE_PROPERTY), "MOVES").getFirst();
+
+			moving.setProperty(propertyTraits.key(SchemaPropertyTraitDefinition.SCHEMA_NODE_PROPERTY), target);
+			rel.setProperty(relTraits.key(RelationshipInterfaceTraitDefinition.SOURCE_NODE_PROPERTY), target);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		final Map<String, Object> info   = SchemaService.getLastReloadInfo();
+		final Set<String> changedTypes   = (Set<String>)info.get("changedTypes");
+
+		assertEquals("Schema reload was not incremental", Boolean.TRUE, info.get("incremental"));
+		assertTrue("Previous owner of moved property is not affected by incremental reload", changedTypes.contains("MoveSource"));
+		assertTrue("New owner of moved property is not affected by incremental reload", changedTypes.contains("MoveTarget"));
+		assertTrue("Target of moved relationship is not affected by incremental reload", changedTypes.contains("MoveOther"));
+
+		try (final Tx tx = app.tx()) {
+
+			assertFalse("Previous owner still has moved property after incremental reload", Traits.of("MoveSource").hasKey("moving"));
+			assertTrue("New owner is missing moved property after incremental reload", Traits.of("MoveTarget").hasKey("moving"));
+			assertFalse("Previous source still has moved relationship after incremental reload", Traits.of("MoveSource").hasKey("others"));
+			assertTrue("New source is missing moved relationship after incremental reload", Traits.of("MoveTarget").hasKey("others"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+
 	@Test
 	public void testOverwrittenPropertyRemoval() {
 
@@ -1641,4 +1798,34 @@ public class SchemaTest extends StructrTest {
 
 		return map;
 	}
+
+	private Map<String, Object> waitForIndexUpdate() {
+
+		tryWithTimeout(() -> SchemaService.getLastReloadInfo().get("indexedTypes") != null, () -> fail("Index update of schema reload did not finish"), 10000, 100);
+
+		return SchemaService.getLastReloadInfo();
+	}
+
+	private Set<String> getSchemaViewIds(final String type) {
+
+		final Set<String> ids = new LinkedHashSet<>();
+
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface schemaNode = app.nodeQuery(StructrTraits.SCHEMA_NODE).name(type).getFirst();
+
+			for (final SchemaView view : schemaNode.as(AbstractSchemaNode.class).getSchemaViews()) {
+				ids.add(view.getUuid());
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		return ids;
+	}
 }
@@ -20,6 +20,7 @@ package org.structr.test.web.advanced;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.util.Iterables;
 import org.structr.common.AccessControllable;
 import org.structr.common.AccessMode;
 import org.structr.common.Permission;
@@ -42,16 +43,28 @@ import org.structr.web.common.FileHelper;
 import org.structr.web.common.ImageHelper;
 import org.structr.web.entity.File;
 import org.structr.web.entity.Folder;
+import org.structr.web.entity.Image;
 import org.structr.web.traits.definitions.AbstractFileTraitDefinition;
 import org.structr.web.traits.definitions.ImageTraitDefinition;
 import org.testng.annotations.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
-import static org.testng.AssertJUnit.assertEquals;
-import static org.testng.AssertJUnit.fail;
+import static org.testng.AssertJUnit.*;
 
 public class ImageTest extends StructrUiTest {
 
@@ -202,6 +215,204 @@ public class ImageTest extends StructrUiTest {
 		}
 	}
 
+	@Test
+	public void testMultipleThumbnailSizes() {
+
+		final ImageHelper.ThumbnailSpec large   = new ImageHelper.ThumbnailSpec(300, 300, false);
+		final ImageHelper.ThumbnailSpec small   = new ImageHelper.ThumbnailSpec(100, 100, false);
+		final ImageHelper.ThumbnailSpec cropped = new ImageHelper.ThumbnailSpec(64, 64, true);
+		final ImageHelper.ThumbnailSpec huge    = new ImageHelper.ThumbnailSpec(2000, 2000, false);
+
+		try (final Tx tx = app.tx()) {
+
+			final Image image = ImageHelper.createImageNode(securityContext, createImageData(1600, 1200), "image/png", StructrTraits.IMAGE, "large.png", false).as(Image.class);
+
+			// all sizes are much smaller than the image, so it is decoded with subsampling
+			final Map<ImageHelper.ThumbnailSpec, ImageHelper.Thumbnail> thumbnails = ImageHelper.createThumbnails(image, List.of(small, cropped, large));
+
+			assertEquals("Invalid number of thumbnails", 3, thumbnails.size());
+
+			assertThumbnailSize(thumbnails.get(large),   300, 225);
+			assertThumbnailSize(thumbnails.get(small),   100,  75);
+			assertThumbnailSize(thumbnails.get(cropped),  64,  64);
+
+			assertEquals("Image dimensions were not updated", Integer.valueOf(1600), image.getWidth());
+			assertEquals("Image dimensions were not updated", Integer.valueOf(1200), image.getHeight());
+
+			// thumbnails are not scaled up
+			final Map<ImageHelper.ThumbnailSpec, ImageHelper.Thumbnail> unscaled = ImageHelper.createThumbnails(image, List.of(small, huge));
+
+			assertEquals("Invalid number of thumbnails", 2, unscaled.size());
+
+			assertThumbnailSize(unscaled.get(huge),  1600, 1200);
+			assertThumbnailSize(unscaled.get(small),  100,   75);
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		assertThumbnailAdmissionReleased();
+	}
+
+	@Test
+	public void testThumbnailAgentCreatesAllRequestedSizes() {
+
+		String uuid = null;
+
+		try (final Tx tx = app.tx()) {
+
+			final NodeInterface image = ImageHelper.createImageNode(securityContext, createImageData(800, 600), "image/png", StructrTraits.IMAGE, "agent.png", false);
+
+			// request both thumbnails, they are created from a single decoding pass
+			image.getProperty(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.TN_SMALL_PROPERTY));
+			image.getProperty(Traits.of(StructrTraits.IMAGE).key(ImageTraitDefinition.TN_MID_PROPERTY));
+
+			uuid = image.getUuid();
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		final String imageId = uuid;
+
+		tryWithTimeout(() -> {
+
+			try (final Tx tx = app.tx()) {
+
+				final Image image  = app.getNodeById(StructrTraits.IMAGE, imageId).as(Image.class);
+				final boolean done = image.getExistingThumbnail(100, 100, false) != null && image.getExistingThumbnail(300, 300, false) != null;
+
+				tx.success();
+
+				return done;
+
+			} catch (FrameworkException ex) {
+
+				ex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			return false;
+
+		}, () -> fail("Exceeded timeout while waiting for thumbnails to be available."), 30000, 500);
+
+		try (final Tx tx = app.tx()) {
+
+			final Image image = app.getNodeById(StructrTraits.IMAGE, imageId).as(Image.class);
+			final Image small = image.getExistingThumbnail(100, 100, false);
+			final Image mid   = image.getExistingThumbnail(300, 300, false);
+
+			assertEquals("Invalid thumbnail width",  Integer.valueOf(100), small.getWidth());
+			assertEquals("Invalid thumbnail height", Integer.valueOf(75),  small.getHeight());
+			assertEquals("Invalid thumbnail width",  Integer.valueOf(300), mid.getWidth());
+			assertEquals("Invalid thumbnail height", Integer.valueOf(225), mid.getHeight());
+
+			assertEquals("Each requested thumbnail must be created exactly once", 2, Iterables.count(image.getThumbnails()));
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		assertThumbnailAdmissionReleased();
+	}
+
+	@Test
+	public void testThumbnailAdmissionIsReleased() {
+
+		final ImageHelper.ThumbnailSpec spec = new ImageHelper.ThumbnailSpec(100, 100, false);
+		final List<String> imageIds          = new ArrayList<>();
+		String brokenImageId                 = null;
+
+		try (final Tx tx = app.tx()) {
+
+			for (int i=0; i<8; i++) {
+
+				imageIds.add(ImageHelper.createImageNode(securityContext, createImageData(1200, 900), "image/png", StructrTraits.IMAGE, "image" + i + ".png", false).getUuid());
+			}
+
+			// valid header and dimensions, but truncated pixel data so that decoding fails
+			final byte[] data      = createImageData(1200, 900);
+			final byte[] truncated = Arrays.copyOf(data, data.length / 2);
+
+			brokenImageId = ImageHelper.createImageNode(securityContext, truncated, "image/png", StructrTraits.IMAGE, "broken.png", false).getUuid();
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// failed decoding must release its admission
+		try (final Tx tx = app.tx()) {
+
+			final Image broken = app.getNodeById(StructrTraits.IMAGE, brokenImageId).as(Image.class);
+
+			assertTrue("No thumbnail must be created for a broken image", ImageHelper.createThumbnails(broken, List.of(spec)).isEmpty());
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		assertThumbnailAdmissionReleased();
+
+		// concurrent decoding of more images than there are workers
+		final ExecutorService executor      = Executors.newFixedThreadPool(imageIds.size());
+		final List<Future<Boolean>> results = new ArrayList<>();
+
+		try {
+
+			for (final String imageId : imageIds) {
+
+				results.add(executor.submit(() -> {
+
+					try (final Tx tx = app.tx()) {
+
+						final Image image     = app.getNodeById(StructrTraits.IMAGE, imageId).as(Image.class);
+						final boolean created = ImageHelper.createThumbnails(image, List.of(spec)).containsKey(spec);
+
+						tx.success();
+
+						return created;
+					}
+				}));
+			}
+
+			for (final Future<Boolean> result : results) {
+
+				assertTrue("Thumbnail was not created", result.get(30, TimeUnit.SECONDS));
+			}
+
+		} catch (Exception ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		assertThumbnailAdmissionReleased();
+	}
+
 	/*
 	 * Test is disabled because we cannot prevent users from creating identical
 	   folder paths. If that happens in a production system, the administrator
@@ -302,4 +513,49 @@ public class ImageTest extends StructrUiTest {
 			ioex.printStackTrace();
 		}
 	}
+
+	private byte[] createImageData(final int width, final int height) throws IOException {
+
+		final BufferedImage image        = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final Graphics2D g               = image.createGraphics();
+
+		g.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+		g.fillRect(0, 0, width, height);
+		g.dispose();
+
+		ImageIO.write(image, "png", baos);
+
+		return baos.toByteArray();
+	}
+
+	private void assertThumbnailSize(final ImageHelper.Thumbnail thumbnail, final int width, final int height) {
+
+		assertNotNull("Thumbnail was not created", thumbnail);
+		assertEquals("Invalid thumbnail width",  width,  thumbnail.getWidth());
+		assertEquals("Invalid thumbnail height", height, thumbnail.getHeight());
+
+		try {
+
+			// the encoded data must match the reported size
+			final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.getBytes()));
+
+			assertNotNull("Thumbnail data cannot be decoded", decoded);
+			assertEquals("Invalid width of thumbnail data",  width,  decoded.getWidth());
+			assertEquals("Invalid height of thumbnail data", height, decoded.getHeight());
+
+		} catch (IOException ioex) {
+
+			ioex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
+	private void assertThumbnailAdmissionReleased() {
+
+		final Map<String, Integer> info = ImageHelper.getThumbnailAdmissionInfo();
+
+		assertEquals("Thumbnail worker permits were not released", info.get("workers"),     info.get("availableWorkers"));
+		assertEquals("Thumbnail memory permits were not released", info.get("memoryLimit"), info.get("availableMemory"));
+	}
 }
@@ -21,6 +21,7 @@ package org.structr.test.web.advanced;
 import io.restassured.RestAssured;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.structr.api.config.Setting;
 import org.structr.api.config.Settings;
 import org.structr.api.schema.JsonSchema;
@@ -44,9 +45,13 @@ import org.structr.web.entity.File;
 import org.structr.web.entity.Folder;
 import org.structr.web.entity.User;
 import org.structr.web.traits.definitions.AbstractFileTraitDefinition;
+import org.structr.web.traits.definitions.FileTraitDefinition;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.zip.CRC32;
 
 import static org.testng.AssertJUnit.*;
 
@@ -109,6 +114,70 @@ public class UploadServletTest extends StructrUiTest {
 		}
 	}
 
+	@Test
+	public void testChecksumsOfUploadedFile() {
+
+		RestAssured.basePath = "/";
+
+		final String defaultChecksums = Settings.DefaultChecksums.getValue();
+		final byte[] data             = new byte[300_000];
+
+		new Random(42).nextBytes(data);
+
+		Settings.DefaultChecksums.setValue("crc32,md5,sha1,sha512");
+
+		try (final Tx tx = app.tx()) {
+
+			createAdminUser();
+
+			tx.success();
+
+		} catch (Throwable t) {
+
+			t.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		try {
+
+			RestAssured
+				.given()
+					.header(X_USER_HEADER,       ADMIN_USERNAME)
+					.header(X_PASSWORD_HEADER,   ADMIN_PASSWORD)
+					.multiPart("file",      "random.bin", data, "application/octet-stream")
+				.expect()
+					.statusCode(200)
+				.when()
+					.post(UPLOAD_SERVLET_PATH);
+
+			try (final Tx tx = app.tx()) {
+
+				final NodeInterface node = app.nodeQuery(StructrTraits.FILE).getFirst();
+				final Traits traits      = Traits.of(StructrTraits.FILE);
+				final CRC32 crc32        = new CRC32();
+
+				crc32.update(data);
+
+				assertEquals("Invalid xxHash checksum of uploaded file",  FileHelper.getChecksum(new ByteArrayInputStream(data), data.length), node.getProperty(traits.key(FileTraitDefinition.CHECKSUM_PROPERTY)));
+				assertEquals("Invalid CRC32 checksum of uploaded file",   (Long)crc32.getValue(),         node.getProperty(traits.key(FileTraitDefinition.CRC32_PROPERTY)));
+				assertEquals("Invalid MD5 checksum of uploaded file",     DigestUtils.md5Hex(data),       node.getProperty(traits.key(FileTraitDefinition.MD5_PROPERTY)));
+				assertEquals("Invalid SHA-1 checksum of uploaded file",   DigestUtils.sha1Hex(data),      node.getProperty(traits.key(FileTraitDefinition.SHA1_PROPERTY)));
+				assertEquals("Invalid SHA-512 checksum of uploaded file", DigestUtils.sha512Hex(data),    node.getProperty(traits.key(FileTraitDefinition.SHA512_PROPERTY)));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+		} finally {
+
+			Settings.DefaultChecksums.setValue(defaultChecksums);
+		}
+	}
+
 	@Test
 	public void testSuccessfulFileUploadWithRedirectAndUUID() {
 
@@ -23,6 +23,7 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.api.util.Iterables;
 import org.structr.common.PropertyView;
 import org.structr.common.error.FrameworkException;
@@ -32,11 +33,14 @@ import org.structr.core.property.PropertyKey;
 import org.structr.core.traits.StructrTraits;
 import org.structr.test.web.StructrUiTest;
 import org.structr.web.common.RenderContext;
+import org.structr.web.common.RenderedFragmentCache;
+import org.structr.web.entity.dom.Content;
 import org.structr.web.entity.dom.DOMElement;
 import org.structr.web.entity.dom.DOMNode;
 import org.structr.web.entity.dom.Page;
 import org.structr.web.entity.dom.Template;
 import org.structr.web.traits.wrappers.dom.DOMNodeTraitWrapper;
+import org.structr.websocket.command.CreateComponentCommand;
 import org.testng.annotations.Test;
 import org.w3c.dom.DOMException;
 
@@ -453,6 +457,218 @@ public class PageTest extends StructrUiTest {
 
 	}
 
+	@Test
+	public void testRenderedFragmentCache() {
+
+		Page page          = null;
+		Content staticText = null;
+
+		Settings.HtmlFragmentCacheEnabled.setValue(true);
+
+		try {
+
+			try (final Tx tx = app.tx()) {
+
+				page = Page.createNewPage(securityContext, "fragment-cache");
+
+				final DOMElement html   = page.createElement("html");
+				final DOMElement body   = page.createElement("body");
+				final DOMElement nav    = page.createElement("nav");
+				final DOMElement main   = page.createElement("main");
+
+				staticText = page.createTextNode("Static navigation");
+
+				page.appendChild(html);
+				html.appendChild(body);
+				body.appendChild(nav);
+				body.appendChild(main);
+				nav.appendChild(staticText);
+				main.appendChild(page.createTextNode("${add(1, 2)}"));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final String expected = page.getContent(RenderContext.EditMode.NONE);
+
+				assertTrue(expected.contains("Static navigation"));
+				assertTrue(expected.contains("3"));
+
+				// dynamic subtrees are narrowed down one level per request
+				for (int i=0; i<5; i++) {
+
+					assertEquals("Cached output must be identical to the rendered output", expected, page.getContent(RenderContext.EditMode.NONE));
+				}
+
+				assertTrue("Fragment cache should have been used", RenderedFragmentCache.getCacheInfo().get("hits") > 0);
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			// modification must invalidate the cached output
+			try (final Tx tx = app.tx()) {
+
+				staticText.setContent("Changed navigation");
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final String content = page.getContent(RenderContext.EditMode.NONE);
+
+				assertTrue(content.contains("Changed navigation"));
+				assertFalse(content.contains("Static navigation"));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+		} finally {
+
+			Settings.HtmlFragmentCacheEnabled.setValue(false);
+			RenderedFragmentCache.clear();
+		}
+	}
+
+	@Test
+	public void testRenderedFragmentCacheWithSharedComponent() {
+
+		Page page         = null;
+		DOMNode component = null;
+
+		Settings.HtmlFragmentCacheEnabled.setValue(true);
+
+		try {
+
+			try (final Tx tx = app.tx()) {
+
+				page = Page.createNewPage(securityContext, "fragment-cache-shared");
+
+				final DOMElement html = page.createElement("html");
+				final DOMElement body = page.createElement("body");
+				final DOMElement div  = page.createElement("div");
+
+				page.appendChild(html);
+				html.appendChild(body);
+				body.appendChild(div);
+				div.appendChild(page.createTextNode("Shared text"));
+
+				// the children of the div are moved to the shared component
+				component = new CreateComponentCommand().create(div);
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final String expected = page.getContent(RenderContext.EditMode.NONE);
+
+				assertTrue(expected.contains("Shared text"));
+				assertEquals("Cached output must be identical to the rendered output", expected, page.getContent(RenderContext.EditMode.NONE));
+				assertTrue("Fragment cache should have been used", RenderedFragmentCache.getCacheInfo().get("hits") > 0);
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			// editing the content of the shared component must invalidate the cached output of the page
+			try (final Tx tx = app.tx()) {
+
+				final Content text = component.getChildren().iterator().next().as(Content.class);
+
+				text.setContent("Changed shared text");
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final String content = page.getContent(RenderContext.EditMode.NONE);
+
+				assertTrue(content.contains("Changed shared text"));
+				assertFalse(content.contains("Shared text"));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			// adding a node to the shared component only modifies the component itself
+			try (final Tx tx = app.tx()) {
+
+				final Page shadowDocument = component.getOwnerDocument();
+				final DOMElement span     = shadowDocument.createElement("span");
+
+				span.appendChild(shadowDocument.createTextNode("Added to component"));
+				component.appendChild(span);
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final String content = page.getContent(RenderContext.EditMode.NONE);
+
+				assertTrue(content.contains("Changed shared text"));
+				assertTrue(content.contains("Added to component"));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				fex.printStackTrace();
+				fail("Unexpected exception");
+			}
+
+		} finally {
+
+			Settings.HtmlFragmentCacheEnabled.setValue(false);
+			RenderedFragmentCache.clear();
+		}
+	}
+
 	private boolean isClone(final DOMNode n1, final DOMNode n2) throws FrameworkException {
 
 		final String content1 = n1.getNodeValue();
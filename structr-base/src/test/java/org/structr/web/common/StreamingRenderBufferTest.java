@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.AssertJUnit.*;
+
+public class StreamingRenderBufferTest {
+
+	@Test
+	public void testOutputIsEncodedInChunks() {
+
+		final AtomicInteger notifications  = new AtomicInteger();
+		final StreamingRenderBuffer buffer = new StreamingRenderBuffer(notifications::incrementAndGet);
+		final StringBuilder expected       = new StringBuilder();
+
+		// multi-byte characters that cross chunk boundaries
+		for (int i=0; i<5000; i++) {
+
+			final String part = "äöü " + i + " ";
+
+			expected.append(part);
+			buffer.append(part);
+		}
+
+		buffer.finish();
+
+		assertTrue("Listener was not notified", notifications.get() > 1);
+		assertEquals("Invalid output", expected.toString(), drain(buffer));
+		assertTrue("Buffer should be done", buffer.isDone());
+	}
+
+	@Test
+	public void testRenderThreadWaitsForWriter() throws Exception {
+
+		final StreamingRenderBuffer buffer = new StreamingRenderBuffer(() -> {}, 2);
+		final String text                  = "x".repeat(8192);
+		final Thread renderThread          = new Thread(() -> {
+
+			for (int i=0; i<10; i++) {
+				buffer.append(text);
+			}
+
+			buffer.finish();
+		});
+
+		renderThread.start();
+
+		// the render thread must stop at the queue limit
+		waitFor(() -> renderThread.getState() == Thread.State.TIMED_WAITING);
+
+		assertEquals("Chunk queue exceeds its limit", 2, buffer.getQueuedChunks());
+		assertTrue("Render thread should wait for the writer", renderThread.isAlive());
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		while (!buffer.isDone()) {
+
+			final ByteBuffer chunk = buffer.poll();
+			if (chunk != null) {
+
+				assertTrue("Chunk queue exceeds its limit", buffer.getQueuedChunks() <= 2);
+
+				out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+				StreamingRenderBuffer.release(chunk);
+			}
+		}
+
+		renderThread.join(5000);
+
+		assertFalse("Render thread did not finish", renderThread.isAlive());
+		assertEquals("Invalid output", text.repeat(10), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCancelReleasesWaitingRenderThread() throws Exception {
+
+		final StreamingRenderBuffer buffer = new StreamingRenderBuffer(() -> {}, 1);
+		final String text                  = "x".repeat(8192);
+		final Thread renderThread          = new Thread(() -> {
+
+			for (int i=0; i<100; i++) {
+				buffer.append(text);
+			}
+		});
+
+		renderThread.start();
+
+		waitFor(() -> renderThread.getState() == Thread.State.TIMED_WAITING);
+
+		buffer.cancel();
+		renderThread.join(5000);
+
+		assertFalse("Render thread was not released by cancel", renderThread.isAlive());
+		assertTrue("Buffer should be cancelled", buffer.isCancelled());
+		assertEquals("Cancelled buffer must not hold chunks", 0, buffer.getQueuedChunks());
+		assertTrue("Cancelled buffer should be done", buffer.isDone());
+	}
+
+	// ----- private methods -----
+	private String drain(final StreamingRenderBuffer buffer) {
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		ByteBuffer chunk = buffer.poll();
+		while (chunk != null) {
+
+			out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+			StreamingRenderBuffer.release(chunk);
+
+			chunk = buffer.poll();
+		}
+
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private void waitFor(final BooleanSupplier condition) throws InterruptedException {
+
+		final long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+		while (!condition.getAsBoolean()) {
+
+			if (System.nanoTime() > timeout) {
+				fail("Timeout while waiting for condition");
+			}
+
+			Thread.sleep(10);
+		}
+	}
+}
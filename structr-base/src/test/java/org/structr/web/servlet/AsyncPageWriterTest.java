@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.servlet;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.structr.web.common.StreamingRenderBuffer;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.*;
+
+public class AsyncPageWriterTest {
+
+	private static final String CHUNK = "x".repeat(8192);
+
+	@Test
+	public void testWriterBecomesIdleWithoutData() throws IOException {
+
+		final TestSetup setup = new TestSetup(64);
+
+		assertEquals("Writer must wait for the container initially", HtmlServlet.AsyncPageWriter.AWAITING_IO, setup.writer.getState());
+
+		setup.writer.onWritePossible();
+
+		assertEquals("Writer without data must be idle", HtmlServlet.AsyncPageWriter.IDLE, setup.writer.getState());
+		assertEquals("Request must not be completed", 0, setup.async.completed);
+		assertEquals("Nothing must be written", 0, setup.out.data.size());
+	}
+
+	@Test
+	public void testDataDispatchesIdleWriter() throws IOException {
+
+		final TestSetup setup = new TestSetup(64);
+
+		setup.writer.onWritePossible();
+
+		// a full chunk is published and dispatches the idle writer
+		setup.buffer.append(CHUNK);
+
+		assertEquals("Idle writer must be dispatched", 1, setup.async.started);
+		assertEquals("Chunk was not written", CHUNK, setup.out.getOutput());
+		assertEquals("Writer must be idle after writing all chunks", HtmlServlet.AsyncPageWriter.IDLE, setup.writer.getState());
+
+		setup.buffer.finish();
+
+		assertEquals("Writer must be done after the end of output", HtmlServlet.AsyncPageWriter.DONE, setup.writer.getState());
+		assertEquals("Request must be completed once", 1, setup.async.completed);
+
+		// no further transitions after completion
+		setup.writer.onWritePossible();
+		setup.writer.dataAvailable();
+
+		assertEquals("Writer must stay done", HtmlServlet.AsyncPageWriter.DONE, setup.writer.getState());
+		assertEquals("Request must be completed once", 1, setup.async.completed);
+	}
+
+	@Test
+	public void testWriterWaitsForContainer() throws IOException {
+
+		final TestSetup setup = new TestSetup(64);
+
+		setup.writer.onWritePossible();
+
+		// the container accepts one write and is busy afterwards
+		setup.out.readyAfterWrite = false;
+		setup.buffer.append(CHUNK);
+
+		assertEquals("Writer must wait for the pending write", HtmlServlet.AsyncPageWriter.AWAITING_IO, setup.writer.getState());
+
+		// new data must not dispatch a writer that waits for the container
+		setup.buffer.append(CHUNK);
+		setup.buffer.finish();
+
+		assertEquals("Writer must not be dispatched while waiting", 1, setup.async.started);
+		assertEquals("Only one chunk must be written", CHUNK, setup.out.getOutput());
+		assertEquals("Request must not be completed", 0, setup.async.completed);
+
+		// the container reports that the pending write has completed
+		setup.out.readyAfterWrite = true;
+		setup.out.ready           = true;
+		setup.writer.onWritePossible();
+
+		assertEquals("Remaining chunks were not written", CHUNK + CHUNK, setup.out.getOutput());
+		assertEquals("Writer must be done after the end of output", HtmlServlet.AsyncPageWriter.DONE, setup.writer.getState());
+		assertEquals("Request must be completed once", 1, setup.async.completed);
+	}
+
+	@Test
+	public void testWriteErrorCancelsOutput() throws IOException {
+
+		final TestSetup setup = new TestSetup(64);
+
+		setup.writer.onWritePossible();
+		setup.writer.onError(new IOException("Connection reset"));
+
+		assertEquals("Writer must be done after an error", HtmlServlet.AsyncPageWriter.DONE, setup.writer.getState());
+		assertTrue("Output must be cancelled after an error", setup.buffer.isCancelled());
+		assertEquals("Request must be completed", 1, setup.async.completed);
+
+		// output after the error is discarded
+		setup.buffer.append(CHUNK);
+
+		assertEquals("Nothing must be written after an error", 0, setup.out.data.size());
+	}
+
+	@Test
+	public void testTimeoutReleasesWaitingRenderThread() throws Exception {
+
+		final TestSetup setup = new TestSetup(1);
+
+		// the container never becomes ready, so the render thread fills the queue
+		setup.out.ready = false;
+
+		final Thread renderThread = new Thread(() -> {
+
+			for (int i=0; i<100; i++) {
+				setup.buffer.append(CHUNK);
+			}
+
+			setup.buffer.finish();
+		});
+
+		renderThread.start();
+
+		final long timeout = System.currentTimeMillis() + 10000;
+		while (renderThread.getState() != Thread.State.TIMED_WAITING) {
+
+			assertTrue("Render thread does not wait for the writer", System.currentTimeMillis() < timeout);
+			Thread.sleep(10);
+		}
+
+		setup.writer.onTimeout(null);
+		renderThread.join(5000);
+
+		assertFalse("Render thread was not released by the timeout", renderThread.isAlive());
+		assertEquals("Writer must be done after a timeout", HtmlServlet.AsyncPageWriter.DONE, setup.writer.getState());
+		assertTrue("Output must be cancelled after a timeout", setup.buffer.isCancelled());
+		assertEquals("Request must be completed", 1, setup.async.completed);
+	}
+
+	@Test
+	public void testRejectedRenderTaskSends503() throws Exception {
+
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+		final CountDownLatch latch        = new CountDownLatch(1);
+
+		try {
+
+			// occupy the render thread and the queue
+			final TestSetup first  = new TestSetup(64);
+			final TestSetup second = new TestSetup(64);
+			final TestSetup third  = new TestSetup(64);
+
+			assertTrue("Render task must be accepted", HtmlServlet.submitRenderTask(executor, () -> await(latch), first.request, first.response, first.async, first.buffer));
+			assertTrue("Render task must be queued", HtmlServlet.submitRenderTask(executor, () -> await(latch), second.request, second.response, second.async, second.buffer));
+
+			assertFalse("Render task must be rejected", HtmlServlet.submitRenderTask(executor, () -> {}, third.request, third.response, third.async, third.buffer));
+
+			assertEquals("Rejected request must get 503", List.of(HttpServletResponse.SC_SERVICE_UNAVAILABLE), third.errors);
+			assertEquals("Rejected request must be completed", 1, third.async.completed);
+			assertTrue("Output of rejected request must be cancelled", third.buffer.isCancelled());
+
+			assertTrue("Accepted request must not get an error", first.errors.isEmpty());
+			assertEquals("Accepted request must not be completed", 0, first.async.completed);
+
+		} finally {
+
+			latch.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	// ----- private methods -----
+	private static void await(final CountDownLatch latch) {
+
+		try {
+
+			latch.await(10, TimeUnit.SECONDS);
+
+		} catch (InterruptedException ignore) {}
+	}
+
+	// ----- nested classes -----
+	private static class TestSetup {
+
+		private final List<Integer> errors                = new ArrayList<>();
+		private final TestOutputStream out                = new TestOutputStream();
+		private final TestAsyncContext async              = new TestAsyncContext();
+		private final HttpServletRequest request;
+		private final HttpServletResponse response;
+		private final HtmlServlet.AsyncPageWriter writer;
+		private final StreamingRenderBuffer buffer;
+
+		public TestSetup(final int maxQueuedChunks) {
+
+			this.request = (HttpServletRequest)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { HttpServletRequest.class }, (proxy, method, args) -> {
+
+				return switch (method.getName()) {
+					case "getRequestURI" -> "/test";
+					case "getRemoteAddr" -> "127.0.0.1";
+					default              -> null;
+				};
+			});
+
+			this.response = (HttpServletResponse)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { HttpServletResponse.class }, (proxy, method, args) -> {
+
+				if ("sendError".equals(method.getName())) {
+					errors.add((Integer)args[0]);
+				}
+
+				return null;
+			});
+
+			this.writer = new HtmlServlet.AsyncPageWriter(request, async, out);
+			this.buffer = new StreamingRenderBuffer(writer::dataAvailable, maxQueuedChunks);
+
+			writer.setBuffer(buffer);
+		}
+	}
+
+	private static class TestOutputStream extends ServletOutputStream {
+
+		private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		private volatile boolean readyAfterWrite = true;
+		private volatile boolean ready           = true;
+
+		@Override
+		public boolean isReady() {
+			return ready;
+		}
+
+		@Override
+		public void setWriteListener(final WriteListener writeListener) {
+		}
+
+		@Override
+		public void write(final int b) {
+
+			data.write(b);
+			ready = readyAfterWrite;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+
+			data.write(b, off, len);
+			ready = readyAfterWrite;
+		}
+
+		public String getOutput() {
+			return data.toString(StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Runs started tasks synchronously on the calling thread.
+	 */
+	private static class TestAsyncContext implements AsyncContext {
+
+		private volatile int completed = 0;
+		private volatile int started   = 0;
+
+		@Override
+		public ServletRequest getRequest() {
+			return null;
+		}
+
+		@Override
+		public ServletResponse getResponse() {
+			return null;
+		}
+
+		@Override
+		public boolean hasOriginalRequestAndResponse() {
+			return true;
+		}
+
+		@Override
+		public void dispatch() {
+		}
+
+		@Override
+		public void dispatch(final String path) {
+		}
+
+		@Override
+		public void dispatch(final ServletContext context, final String path) {
+		}
+
+		@Override
+		public synchronized void complete() {
+			completed++;
+		}
+
+		@Override
+		public void start(final Runnable run) {
+
+			started++;
+			run.run();
+		}
+
+		@Override
+		public void addListener(final AsyncListener listener) {
+		}
+
+		@Override
+		public void addListener(final AsyncListener listener, final ServletRequest servletRequest, final ServletResponse servletResponse) {
+		}
+
+		@Override
+		public <T extends AsyncListener> T createListener(final Class<T> clazz) {
+			return null;
+		}
+
+		@Override
+		public void setTimeout(final long timeout) {
+		}
+
+		@Override
+		public long getTimeout() {
+			return 0;
+		}
+	}
+}
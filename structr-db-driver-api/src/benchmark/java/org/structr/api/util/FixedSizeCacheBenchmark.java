@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.util;
+
+import org.apache.commons.collections4.map.LRUMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FixedSizeCache with the previous implementation (a fully
+ * synchronized LRUMap) under a read-mostly workload at 1, 8 and 64
+ * threads.
+ *
+ * Run with: mvn -P benchmark test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.structr.api.util.FixedSizeCacheBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixedSizeCacheBenchmark {
+
+	private static final int CACHE_SIZE = 100_000;
+	private static final int KEY_COUNT  = 2 * CACHE_SIZE;
+
+	@Param({ "FixedSizeCache", "SynchronizedLRUMap" })
+	private String implementation;
+
+	private Long[] keys  = null;
+	private Cache cache  = null;
+
+	@Setup
+	public void setup() {
+
+		keys = new Long[KEY_COUNT];
+
+		for (int i=0; i<KEY_COUNT; i++) {
+			keys[i] = Long.valueOf(i);
+		}
+
+		if ("FixedSizeCache".equals(implementation)) {
+
+			cache = new ConcurrentCache();
+
+		} else {
+
+			cache = new SynchronizedCache();
+		}
+
+		for (int i=0; i<CACHE_SIZE; i++) {
+			cache.put(keys[i]);
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object threads1() {
+		return access();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object threads8() {
+		return access();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public Object threads64() {
+		return access();
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(FixedSizeCacheBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	// ----- private methods -----
+	private Object access() {
+
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final Long key                 = keys[random.nextInt(KEY_COUNT)];
+
+		// 90% reads, 10% writes
+		if (random.nextInt(10) == 0) {
+
+			cache.put(key);
+			return key;
+		}
+
+		return cache.get(key);
+	}
+
+	// ----- nested classes -----
+	private interface Cache {
+
+		void put(final Long key);
+		Object get(final Long key);
+	}
+
+	private static class ConcurrentCache implements Cache {
+
+		private final FixedSizeCache<Long, Long> cache = new FixedSizeCache<>("Benchmark", CACHE_SIZE);
+
+		@Override
+		public void put(final Long key) {
+			cache.put(key, key);
+		}
+
+		@Override
+		public Object get(final Long key) {
+			return cache.get(key);
+		}
+	}
+
+	/**
+	 * The implementation FixedSizeCache used before, every access
+	 * synchronizes on the cache.
+	 */
+	private static class SynchronizedCache implements Cache {
+
+		private final LRUMap<Long, Long> cache = new LRUMap<>(CACHE_SIZE);
+
+		@Override
+		public synchronized void put(final Long key) {
+			cache.put(key, key);
+		}
+
+		@Override
+		public synchronized Object get(final Long key) {
+			return cache.get(key);
+		}
+	}
+}
@@ -22,6 +22,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.structr.api.config.Settings;
 import org.structr.api.graph.RelationshipType;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -32,6 +33,7 @@ public abstract class AbstractDatabaseService implements DatabaseService {
 
 	private static final Map<String, RelationshipType> relTypeCache   = new ConcurrentHashMap<>();
 	private static final long nanoEpoch                               = System.nanoTime();
+	private CacheInvalidationListener cacheInvalidationListener       = null;
 
 	@Override
 	public RelationshipType getRelationshipType(final String name) {
@@ -60,6 +62,25 @@ public abstract class AbstractDatabaseService implements DatabaseService {
 		return millis + "." + nanos;
 	}
 
+	@Override
+	public void invalidateCachedEntities(final Collection<Long> nodeIds, final Collection<Long> relationshipIds) {
+	}
+
+	@Override
+	public void setCacheInvalidationListener(final CacheInvalidationListener listener) {
+		this.cacheInvalidationListener = listener;
+	}
+
+	// ----- protected methods -----
+	protected void notifyCacheInvalidationListener(final Collection<Long> nodeIds, final Collection<Long> relationshipIds) {
+
+		final CacheInvalidationListener listener = this.cacheInvalidationListener;
+		if (listener != null) {
+
+			listener.cachedEntitiesInvalidated(nodeIds, relationshipIds);
+		}
+	}
+
 	// ----- private methods -----
 	private RelationshipType getOrCreateRelationshipType(final String name) {
 		return relTypeCache.computeIfAbsent(name, RelationshipType::forName);
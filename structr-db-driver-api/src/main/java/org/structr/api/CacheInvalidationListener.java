@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api;
+
+import java.util.Collection;
+
+/**
+ * Receives the database ids of entities that a database driver removed
+ * from its shared caches after a commit, so other instances that share
+ * the database can remove them as well. A null collection means that
+ * the whole cache was cleared.
+ */
+public interface CacheInvalidationListener {
+
+	void cachedEntitiesInvalidated(final Collection<Long> nodeIds, final Collection<Long> relationshipIds);
+}
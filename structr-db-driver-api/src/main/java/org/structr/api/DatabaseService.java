@@ -27,6 +27,7 @@ import org.structr.api.index.NewIndexConfig;
 import org.structr.api.util.CountResult;
 import org.structr.api.util.NodeWithOwnerResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -89,6 +90,7 @@ public interface DatabaseService {
 	Index<Node> nodeIndex();
 	Index<Relationship> relationshipIndex();
 	void updateIndexConfiguration(final List<NewIndexConfig> indexConfigList);
+	void updateIndexConfiguration(final List<NewIndexConfig> indexesToCreate, final List<NewIndexConfig> indexesToDrop);
 	boolean isIndexUpdateFinished();
 
 	// utils
@@ -102,4 +104,15 @@ public interface DatabaseService {
 	boolean supportsFeature(final DatabaseFeature feature, final Object...  parameters);
 
 	void flushCaches();
+
+	/**
+	 * Removes the entities with the given database ids from the shared
+	 * caches of this driver, a null collection clears the respective
+	 * cache. Used to apply invalidations received from other instances.
+	 *
+	 * @param nodeIds the node ids or null
+	 * @param relationshipIds the relationship ids or null
+	 */
+	void invalidateCachedEntities(final Collection<Long> nodeIds, final Collection<Long> relationshipIds);
+	void setCacheInvalidationListener(final CacheInvalidationListener listener);
 }
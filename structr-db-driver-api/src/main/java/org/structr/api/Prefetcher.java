@@ -18,6 +18,8 @@
  */
 package org.structr.api;
 
+import org.structr.api.graph.Identity;
+
 import java.util.Set;
 
 public interface Prefetcher {
@@ -28,4 +30,16 @@ public interface Prefetcher {
 	void prefetch2(final String query, final Set<String> outgoingKeys, final Set<String> incomingKeys, final String id);
 
 	void prefetchHint(final String hint);
+
+	/**
+	 * Loads the given nodes together with all their outgoing and incoming
+	 * relationships of the given types in a single query, so that subsequent
+	 * calls to getRelationships() for these types are served from the
+	 * transaction without additional round trips.
+	 *
+	 * @param nodeIds the IDs of the nodes to load
+	 * @param outgoingTypes the outgoing relationship types to load
+	 * @param incomingTypes the incoming relationship types to load
+	 */
+	void prefetchNodes(final Iterable<Identity> nodeIds, final Set<String> outgoingTypes, final Set<String> incomingTypes);
 }
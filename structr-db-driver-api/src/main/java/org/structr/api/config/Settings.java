@@ -107,9 +107,17 @@ public class Settings {
 	// scripting related settings
 	public static final Setting<Boolean> ScriptingDebugger          = new BooleanSetting(generalGroup,         "Scripting",   "application.scripting.debugger",               false,"Enables <b>Chrome</b> debugger initialization in scripting engine. The current debugger URL will be shown in the server log and also made available on the dashboard.");
 	public static final Setting<Boolean> WrapJSInMainFunction       = new BooleanSetting(generalGroup,         "Scripting",   "application.scripting.js.wrapinmainfunction",  false,"Forces js scripts to be wrapped in a main function for legacy behaviour.");
+	public static final Setting<Integer> StructrScriptCacheSize     = new IntegerSetting(generalGroup,         "Scripting",   "application.scripting.cache.size",             10_000, "Number of parsed StructrScript expressions, pre-split templates and polyglot script sources that are kept in memory, so that identical source strings are not parsed again on every evaluation. 0 disables the cache.");
+	public static final Setting<Integer> ScriptingContextPoolSize   = new IntegerSetting(generalGroup,         "Scripting",   "application.scripting.contextpool.size",       0, "Number of idle JavaScript contexts that are kept for reuse instead of being closed when a script has finished. Global bindings that a script created are removed before a context is reused, and contexts in which a script modified global or built-in objects are closed. Python contexts are never reused. 0 disables pooling.").setLongDescription("""
+		<br><strong>WARNING</strong>: A reused context is not a fresh context. State that is not reachable from the global object, e.g. imported modules or functions that a script stored outside of the context, is not reset and can be visible to scripts of other users. Only enable pooling if all scripts are trusted.<br>
+		""");
 
 	public static final Setting<String> AllowedHostClasses          = new StringSetting(generalGroup,          "Scripting",   "application.scripting.allowedhostclasses",     "", "Space-separated list of fully-qualified Java class names that you can load dynamically in a scripting environment.");
 
+	// agent service
+	public static final Setting<Integer> AgentServiceMaxAgents         = new IntegerSetting(generalGroup,         "Application", "application.agents.max",                       10, "Maximum number of concurrently running agents per task type (e.g. thumbnail generation, fulltext indexing). Tasks that exceed the capacity of all running agents stay in the queue until an agent becomes available.");
+	public static final Setting<Boolean> AgentServiceJournalEnabled   = new BooleanSetting(generalGroup,         "Application", "application.agents.journal.enabled",           true, "Records queued thumbnail and fulltext indexing tasks in a journal file in the base path, so that tasks which were not processed before a shutdown or crash are queued again on the next start.");
+
 	// clustering
 	public static final Setting<Boolean> ClusterModeEnabled            = new BooleanSetting(generalGroup,         "Application", "application.cluster.enabled",                  false, "Enables cluster mode (experimental)");
 	public static final Setting<String> ClusterName                    = new StringSetting(generalGroup,          "Application", "application.cluster.name",                    "structr", "The name of the Structr cluster");
@@ -179,6 +187,8 @@ public class Settings {
 	public static final Setting<Boolean> JsonIndentation         = new BooleanSetting(serverGroup, "HTTP Settings", "json.indentation",                     true,  "Whether JSON output should be indented (beautified) or compacted");
 	public static final Setting<Boolean> HtmlIndentation         = new BooleanSetting(serverGroup, "HTTP Settings", "html.indentation",                     true,  "Whether the page source should be indented (beautified) or compacted. Note: Does not work for template/content nodes which contain raw HTML");
 	public static final Setting<Boolean> WsIndentation           = new BooleanSetting(serverGroup, "HTTP Settings", "ws.indentation",                       false, "Prettyprints websocket responses if set to true.");
+	public static final Setting<Integer> WsBroadcastQueueSize    = new IntegerSetting(serverGroup, "HTTP Settings", "ws.broadcast.queuesize",               10_000, "Maximum number of websocket broadcasts that wait to be dispatched to the connected clients. If the queue is full, committing transactions wait up to one second before the broadcast is dropped.");
+	public static final Setting<Integer> WsClientQueueSize       = new IntegerSetting(serverGroup, "HTTP Settings", "ws.broadcast.clientqueuesize",         1_000, "Maximum number of outbound broadcast messages per websocket client. If a slow client falls behind by more than this number of messages, its oldest pending messages are dropped.");
 	public static final Setting<Integer> SessionTimeout          = new IntegerSetting(serverGroup, "HTTP Settings", "application.session.timeout",          1800,  "The session timeout for inactive HTTP sessions in seconds. Default is 1800. Values lower or equal than 0 indicate that sessions never time out.");
 	public static final Setting<Integer> MaxSessionsPerUser      = new IntegerSetting(serverGroup, "HTTP Settings", "application.session.max.number",       -1,    "The maximum number of active sessions per user. Default is -1 (unlimited).");
 	public static final Setting<Boolean> ClearSessionsOnStartup  = new BooleanSetting(serverGroup, "HTTP Settings", "application.session.clear.onstartup",  false, "Clear all sessions on startup if set to true.");
@@ -248,14 +258,20 @@ public class Settings {
 	public static final Setting<String> ConnectionDatabaseName       = new StringSetting(databaseGroup,  "hidden",                  "database.connection.databasename", "neo4j");
 	public static final Setting<String> TenantIdentifier             = new StringSetting(databaseGroup,  "hidden",                  "database.tenant.identifier",       "");
 	public static final Setting<Integer> UuidCacheSize               = new IntegerSetting(databaseGroup, "hidden",                  "database.cache.uuid.size",         1000000, "Size of the database driver relationship cache");
+	public static final Setting<Integer> NodeCacheSize               = new IntegerSetting(databaseGroup, "Caching",                 "database.cache.node.size",         0, "Number of nodes the database driver keeps in a cache that is shared between transactions. The cache is invalidated when a transaction commits, in cluster mode the invalidation is sent to the other cluster members. 0 disables it. Do not enable if other applications write to the database.");
+	public static final Setting<Integer> RelationshipCacheSize       = new IntegerSetting(databaseGroup, "Caching",                 "database.cache.relationship.size", 0, "Number of relationships the database driver keeps in a cache that is shared between transactions. The cache is invalidated when a transaction commits, in cluster mode the invalidation is sent to the other cluster members. 0 disables it. Do not enable if other applications write to the database.");
 	public static final Setting<Boolean> ForceResultStreaming        = new BooleanSetting(databaseGroup, "Result Streaming",        "database.result.lazy",             false, "Forces Structr to use lazy evaluation for relationship queries");
 	public static final Setting<Boolean> CypherDebugLogging          = new BooleanSetting(databaseGroup, "Debugging",               "log.cypher.debug",                 false, "Turns on debug logging for the generated Cypher queries");
 	public static final Setting<Boolean> CypherDebugLoggingPing      = new BooleanSetting(databaseGroup, "Debugging",               "log.cypher.debug.ping",            false, "Turns on debug logging for the generated Cypher queries of the websocket PING command. Can only be used in conjunction with log.cypher.debug");
 	public static final Setting<Integer> ResultCountSoftLimit        = new IntegerSetting(databaseGroup, "Soft result count limit", "database.result.softlimit",        10_000, "Soft result count limit for a single query (can be overridden by setting the <code>_pageSize</code> request parameter or by adding the request parameter <code>_disableSoftLimit</code> to a non-null value)");
 	public static final Setting<Integer> FetchSize                   = new IntegerSetting(databaseGroup, "Result fetch size",       "database.result.fetchsize",        100_000, "Number of database records to fetch per batch when fetching large results");
+	public static final Setting<Integer> SortTopKLimit               = new IntegerSetting(databaseGroup, "Result sorting",          "database.result.sort.topk",        10_000, "Maximum number of results (page times page size) that are kept in memory when a query result must be sorted in Structr, e.g. for path property sorting. Deeper pages fall back to sorting the whole result.");
 	public static final Setting<Integer> PrefetchingThreshold        = new IntegerSetting(databaseGroup, "Prefetching",             "database.prefetching.threshold",   100, "How many identical queries must run in a transaction to activate prefetching for that query.");
 	public static final Setting<Integer> PrefetchingMaxDuration      = new IntegerSetting(databaseGroup, "Prefetching",             "database.prefetching.maxduration", 1000, "How long a prefetching query may take before prefetching will be deactivated for that query.");
 	public static final Setting<Integer> PrefetchingMaxCount         = new IntegerSetting(databaseGroup, "Prefetching",             "database.prefetching.maxcount",    50_000, "How many results a prefetching query may return before prefetching will be deactivated for that query.");
+	public static final Setting<String> MemoryStoragePath            = new StringSetting(databaseGroup,  "Memory database",         "database.memory.storage.path",     "", "Directory in which the in-memory database driver keeps a snapshot and a change log of its data. The data is loaded on startup and a new snapshot is written on shutdown. Leave empty to disable persistence.");
+	public static final Setting<Boolean> WriteBehindEnabled          = new BooleanSetting(databaseGroup, "Write-behind",            "database.writebehind.enabled",     false, "Collects property updates in the transaction and writes them in batches before the next query and on commit, instead of sending one query per update.");
+	public static final Setting<Integer> WriteBehindBatchSize        = new IntegerSetting(databaseGroup, "Write-behind",            "database.writebehind.batchsize",   1000, "Maximum number of entities written by a single batched write-behind query.");
 
 	// Neo4j specific settings
 	public static final Setting<String> Neo4jDefaultUsername         = new StringSetting(databaseGroup,  "hidden",                  "database.neo4j.default.username",   "neo4j");
@@ -264,6 +280,9 @@ public class Settings {
 	// application settings
 	public static final Setting<Boolean> ChangelogEnabled            = new BooleanSetting(applicationGroup, "Changelog",    "application.changelog.enabled",                   false, "Turns on logging of changes to nodes and relationships");
 	public static final Setting<Boolean> UserChangelogEnabled        = new BooleanSetting(applicationGroup, "Changelog",    "application.changelog.user_centric.enabled",      false, "Turns on user-centric logging of what a user changed/created/deleted");
+	public static final Setting<Integer> ChangelogQueueSize          = new IntegerSetting(applicationGroup, "Changelog",    "application.changelog.queuesize",                 100_000, "Maximum number of changelog entries waiting to be written to disk. Transactions wait when the queue is full.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
+	public static final Setting<Integer> ChangelogMaxOpenFiles       = new IntegerSetting(applicationGroup, "Changelog",    "application.changelog.maxopenfiles",              256,   "Maximum number of changelog files that are kept open for appending. The least recently used file is closed when the limit is reached.");
+	public static final Setting<Integer> ChangelogSyncInterval       = new IntegerSetting(applicationGroup, "Changelog",    "application.changelog.syncinterval",              1000,  "Interval in milliseconds in which written changelog entries are forced to disk. A value of 0 forces every written batch to disk.");
 	public static final Setting<Boolean> FilesystemEnabled           = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.enabled",                  false, "If enabled, Structr will create a separate home directory for each user. The home directory of authenticated users will override the default upload folder setting. See Filesystem for more information.");
 	public static final Setting<Boolean> UniquePaths                 = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.unique.paths",             true,  "If enabled, Structr will not allow files/folders of the same name in the same folder and automatically rename the file.");
 	public static final Setting<String> UniquePathsInsertionPosition = new ChoiceSetting(applicationGroup,  "Filesystem",    "application.filesystem.unique.insertionposition", "beforeextension", Settings.getStringsAsSet("start", "beforeextension", "end"), "Defines the insertion position of the uniqueness criterion (currently a timestamp).<dl><dt>start</dt><dd>prefixes the name with a timestamp</dd><dt>beforeextension</dt><dd>puts the timestamp before the last dot (or at the end if the name does not contain a dot)</dd><dt>end</dt><dd>appends the timestamp after the complete name</dd></dl>");
@@ -272,6 +291,8 @@ public class Settings {
 	public static final Setting<Integer> IndexingMaxFileSize         = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.maxsize",         10,    "Maximum size (MB) of a file to be indexed");
 	public static final Setting<Boolean> FollowSymlinks              = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.mount.followsymlinks",     true);
 	public static final Setting<String> DefaultUploadFolder          = new StringSetting(applicationGroup,  "Filesystem",   "application.uploads.folder",                      "/._structr_uploads", "The default upload folder for files uploaded via the UploadServlet. This must be a valid folder path and can not be empty. Final slashes are automatically removed. Uploads to the root directory are not allowed.");
+	public static final Setting<Integer> ThumbnailWorkers            = new IntegerSetting(applicationGroup, "Filesystem",   "application.thumbnails.workers",                  Math.max(1, Runtime.getRuntime().availableProcessors() / 2), "Maximum number of images that are decoded concurrently to create thumbnails.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
+	public static final Setting<Integer> ThumbnailMemoryLimit        = new IntegerSetting(applicationGroup, "Filesystem",   "application.thumbnails.memorylimit",              (int)Math.max(64, Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024)), "Maximum amount of memory (MB) that decoded images may occupy during thumbnail creation. Images are admitted in order until the limit is reached, an image that exceeds the limit on its own is processed exclusively.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
 
 	public static final Setting<Boolean> FeedItemIndexRemoteDocument        = new BooleanSetting(applicationGroup, "Indexing",   "application.feeditem.indexing.remote",             true,  "Whether indexing for type FeedItem will index the target URL of the FeedItem or the description");
 	public static final Setting<Boolean> FeedItemContentIndexingEnabled     = new BooleanSetting(applicationGroup, "Indexing",   "application.feeditemcontent.indexing.enabled",     true,  "Whether indexing is enabled for type FeedItemContent");
@@ -370,6 +391,11 @@ public class Settings {
 	public static final Setting<String> HtmlResourceProvider      = new StringSetting(servletsGroup,  "hidden", "htmlservlet.resourceprovider",      "org.structr.web.common.UiResourceProvider", "FQCN of resource provider class to use in the HTTP server. Do not change unless you know what you are doing.");
 	public static final Setting<String> HtmlResolveProperties     = new StringSetting(servletsGroup,  "HtmlServlet", "htmlservlet.resolveproperties",     "NodeInterface.name", "Specifies the list of properties that are be used to resolve entities from URL paths.");
 	public static final Setting<String> HtmlCustomResponseHeaders = new TextSetting(servletsGroup,    "HtmlServlet", "htmlservlet.customresponseheaders", "Strict-Transport-Security:max-age=60,X-Content-Type-Options:nosniff,X-Frame-Options:SAMEORIGIN,X-XSS-Protection:1;mode=block", "List of custom response headers that will be added to every HTTP response");
+	public static final Setting<Boolean> HtmlFragmentCacheEnabled = new BooleanSetting(servletsGroup, "HtmlServlet", "htmlservlet.fragmentcache.enabled", false, "Enables the server-side cache for the rendered output of page elements. Elements without request-dependent scripting are cached automatically, the <code>cacheFragment</code> property of an element (always, never) overrides this. Cached output is invalidated when a rendered element or data object changes.");
+	public static final Setting<Integer> HtmlFragmentCacheSize    = new IntegerSetting(servletsGroup, "HtmlServlet", "htmlservlet.fragmentcache.size",    10_000, "Maximum number of rendered fragments kept in the fragment cache.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
+	public static final Setting<Integer> HtmlRenderThreads        = new IntegerSetting(servletsGroup, "HtmlServlet", "htmlservlet.async.renderthreads",   Runtime.getRuntime().availableProcessors() * 2, "Maximum number of pages that are rendered concurrently when asynchronous request handling is enabled.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
+	public static final Setting<Integer> HtmlRenderQueueSize      = new IntegerSetting(servletsGroup, "HtmlServlet", "htmlservlet.async.renderqueuesize", 1000, "Maximum number of pages waiting to be rendered. Requests exceeding this limit are answered with 503 Service Unavailable.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
+	public static final Setting<Boolean> HtmlRenderVirtualThreads = new BooleanSetting(servletsGroup, "HtmlServlet", "htmlservlet.async.virtualthreads",  false, "Whether asynchronous page rendering uses virtual threads instead of platform threads.<br><br><strong>INFO</strong>: Requires a restart to take effect.");
 
 	public static final Setting<String> PdfServletPath           = new StringSetting(servletsGroup,  "hidden", "pdfservlet.path",                  "/structr/pdf/*", "The URI under which requests are accepted by the servlet. Needs to include a wildcard at the end.");
 	public static final Setting<String> PdfServletClass          = new StringSetting(servletsGroup,  "hidden", "pdfservlet.class",                 "org.structr.pdf.servlet.PdfServlet");
@@ -497,6 +523,8 @@ public class Settings {
 	public static final Setting<String> SuperUserName                  = new StringSetting(securityGroup,     "Superuser",            "superuser.username",                    "superadmin", "Name of the superuser");
 	public static final Setting<String> SuperUserPassword              = new PasswordSetting(securityGroup,   "Superuser",            "superuser.password",                    null, "Password of the superuser").setIsProtected();
 	public static final Setting<Integer> ResolutionDepth               = new IntegerSetting(applicationGroup, "Application Security", "application.security.resolution.depth", 5);
+	public static final Setting<Integer> PermissionResolutionCacheSize = new IntegerSetting(applicationGroup, "Application Security", "application.security.resolution.cachesize", 100_000, "Maximum number of node/principal combinations for which the results of permission resolution are cached. Entries that were not used recently are removed when the limit is reached.");
+	public static final Setting<Boolean> PermissionQueryFiltering      = new BooleanSetting(applicationGroup, "Application Security", "application.security.queryfiltering",   false, "Filters search results for non-admin users by visibility flags, ownership, security relationships and group membership in the database query, so that only the requested page is fetched. Has no effect for types with schema-based grants or if the schema contains permission-propagating relationships.");
 	public static final Setting<Boolean> XMLParserSecurity             = new BooleanSetting(applicationGroup, "Application Security", "application.xml.parser.security", true, "Enables various security measures for XML parsing to prevent exploits.");
 
 	public static final Setting<String> AuthenticationPropertyKeys      = new StringSetting(securityGroup,     "Authentication", "security.authentication.propertykeys", null, "List of property keys separated by space in the form of <Type>.<key> (example: 'Member.memberId') to be used in addition to the default 'Principal.name Principal.eMail'");
@@ -18,6 +18,8 @@
  */
 package org.structr.api.index;
 
+import java.util.Objects;
+
 public class NewIndexConfig {
 
 	private final String propertyKey;
@@ -51,6 +53,10 @@ public class NewIndexConfig {
 		return propertyKey;
 	}
 
+	public boolean isNodeIndex() {
+		return isNodeIndex;
+	}
+
 	public String getIndexDescriptionForStatement() {
 
 		if (this.isNodeIndex) {
@@ -61,4 +67,19 @@ public class NewIndexConfig {
 		return "()-[n:" + type + "]-()";
 	}
 
+	@Override
+	public boolean equals(final Object other) {
+
+		if (other instanceof NewIndexConfig config) {
+
+			return type.equals(config.type) && propertyKey.equals(config.propertyKey) && isNodeIndex == config.isNodeIndex && isTextIndex == config.isTextIndex && isFulltextIndex == config.isFulltextIndex;
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(type, propertyKey, isNodeIndex, isTextIndex, isFulltextIndex);
+	}
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.search;
+
+import java.util.Set;
+
+/**
+ * Restricts a node query to the nodes that a principal is allowed to
+ * see, based on the visibility flags, ownership and security
+ * relationships of the nodes.
+ */
+public interface PermissionQuery extends QueryPredicate {
+
+	/**
+	 * The UUIDs of the accessing principal and all of its groups,
+	 * empty for anonymous access.
+	 *
+	 * @return the principal UUIDs
+	 */
+	Set<String> getPrincipalIds();
+
+	boolean isPublicOnly();
+	String getPermission();
+	String getIdPropertyName();
+	String getPublicPropertyName();
+	String getAuthenticatedPropertyName();
+	String getOwnerRelationship();
+	String getSecurityRelationship();
+	String getAllowedPropertyName();
+}
@@ -26,6 +26,7 @@ public class QueryContext {
 	private boolean overridesFetchSize = false;
 	private boolean deferred           = false;
 	private boolean isSuperuser        = false;
+	private boolean permissionFiltered = false;
 	private boolean sliced             = false;
 	private boolean prefetch           = false;
 	private int overriddenFetchSize    = -1;
@@ -112,6 +113,21 @@ public class QueryContext {
 		return isSuperuser;
 	}
 
+	/**
+	 * Indicates that the query contains a predicate that filters the
+	 * results by the permissions of the accessing user, so paging can
+	 * be done in the database like for superusers.
+	 *
+	 * @param permissionFiltered
+	 */
+	public void setIsPermissionFiltered(final boolean permissionFiltered) {
+		this.permissionFiltered = permissionFiltered;
+	}
+
+	public boolean isPermissionFiltered() {
+		return permissionFiltered;
+	}
+
 	public boolean isDeferred() {
 		return deferred;
 	}
@@ -18,64 +18,255 @@
  */
 package org.structr.api.util;
 
-import org.apache.commons.collections4.map.LRUMap;
-
 import java.util.Collection;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
  * A map-like storage structure with a fixed maximum size that
- * removes the least recently used entry when the insertion of
- * a new entry causes the map to exceed the specified maximum
+ * removes an entry that was not used recently when the insertion
+ * of a new entry causes the map to exceed the specified maximum
  * size.
  *
+ * Reads are lock-free, eviction uses the CLOCK (second chance)
+ * approximation of LRU: entries that were read since the last
+ * eviction pass are skipped once. Null keys are not supported.
+ *
+ * An optional eviction listener is notified of every entry that is
+ * removed because the cache exceeded its maximum size. It is called
+ * while the eviction lock is held and must not access the cache.
+ *
  * @param <K>
  * @param <V>
  */
 public class FixedSizeCache<K, V> {
 
-	private LRUMap<K, V> cache = null;
-	private String name        = null;
+	private final Map<K, Entry<K, V>> cache        = new ConcurrentHashMap<>();
+	private final Queue<Entry<K, V>> evictionQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queueSize          = new AtomicInteger();
+	private final ReentrantLock evictionLock       = new ReentrantLock();
+	private final LongAdder hits                   = new LongAdder();
+	private final LongAdder misses                 = new LongAdder();
+	private final LongAdder evictions              = new LongAdder();
+	private final BiConsumer<K, V> evictionListener;
+	private final String name;
+	private final int maxSize;
 
 	public FixedSizeCache(final String name, final int maxSize) {
+		this(name, maxSize, null);
+	}
 
-		this.cache       = new LRUMap<>(maxSize);
-		this.name        = name;
+	public FixedSizeCache(final String name, final int maxSize, final BiConsumer<K, V> evictionListener) {
+
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("FixedSizeCache max size must be greater than 0");
+		}
+
+		this.evictionListener = evictionListener;
+		this.maxSize          = maxSize;
+		this.name             = name;
 	}
 
-	public synchronized void put(final K key, final V value) {
-		cache.put(key, value);
+	public void put(final K key, final V value) {
+
+		if (key == null) {
+			return;
+		}
+
+		final Entry<K, V> existing = cache.get(key);
+		if (existing != null && !existing.removed) {
+
+			existing.value = value;
+			existing.markAccessed();
+
+			return;
+		}
+
+		final Entry<K, V> entry    = new Entry<>(key, value);
+		final Entry<K, V> previous = cache.put(key, entry);
+
+		if (previous != null) {
+			previous.removed = true;
+		}
+
+		evictionQueue.offer(entry);
+
+		if (queueSize.incrementAndGet() > maxSize) {
+			evict();
+		}
 	}
 
-	public synchronized V get(final K key) {
-		return cache.get(key);
+	public V get(final K key) {
+
+		if (key == null) {
+			return null;
+		}
+
+		final Entry<K, V> entry = cache.get(key);
+		if (entry != null) {
+
+			hits.increment();
+			entry.markAccessed();
+
+			return entry.value;
+		}
+
+		misses.increment();
+
+		return null;
 	}
 
-	public synchronized void removeAll(final Collection<K> keys) {
-		cache.keySet().removeAll(keys);
+	public void removeAll(final Collection<K> keys) {
+
+		for (final K key : keys) {
+			remove(key);
+		}
 	}
 
-	public synchronized V remove(final K key) {
-		return cache.remove(key);
+	public V remove(final K key) {
+
+		if (key == null) {
+			return null;
+		}
+
+		final Entry<K, V> entry = cache.remove(key);
+		if (entry != null) {
+
+			entry.removed = true;
+
+			return entry.value;
+		}
+
+		return null;
 	}
 
-	public synchronized void clear() {
-		cache.clear();
+	public void clear() {
+
+		evictionLock.lock();
+		try {
+
+			for (final Entry<K, V> entry : cache.values()) {
+				entry.removed = true;
+			}
+
+			cache.clear();
+			evictionQueue.clear();
+			queueSize.set(0);
+
+		} finally {
+
+			evictionLock.unlock();
+		}
 	}
 
-	public synchronized int size() {
+	public int size() {
 		return cache.size();
 	}
 
-	public synchronized Map<String, Integer> getCacheInfo() {
-		return Map.of("max", cache.maxSize(), "size", size());
+	public Map<String, Integer> getCacheInfo() {
+
+		return Map.of(
+			"max",       maxSize,
+			"size",      size(),
+			"hits",      toInt(hits.sum()),
+			"misses",    toInt(misses.sum()),
+			"evictions", toInt(evictions.sum())
+		);
 	}
 
-	public synchronized boolean isEmpty() {
+	public boolean isEmpty() {
 		return cache.isEmpty();
 	}
 
-	public synchronized boolean containsKey(final K key) {
-		return cache.containsKey(key);
+	public boolean containsKey(final K key) {
+		return key != null && cache.containsKey(key);
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + size() + "/" + maxSize + ")";
+	}
+
+	// ----- private methods -----
+	/**
+	 * Removes entries from the head of the eviction queue until the
+	 * cache is back at its maximum size. Entries that were accessed
+	 * since the last pass get a second chance, entries that were
+	 * removed or replaced in the meantime are dropped from the queue.
+	 */
+	private void evict() {
+
+		evictionLock.lock();
+		try {
+
+			Entry<K, V> entry = null;
+
+			// the queue can contain stale entries, so it is allowed to grow up to twice the maximum size
+			while ((cache.size() > maxSize || queueSize.get() > 2 * maxSize) && (entry = evictionQueue.poll()) != null) {
+
+				queueSize.decrementAndGet();
+
+				if (entry.removed) {
+					continue;
+				}
+
+				if (cache.size() <= maxSize || entry.accessed) {
+
+					entry.accessed = false;
+
+					evictionQueue.offer(entry);
+					queueSize.incrementAndGet();
+
+					continue;
+				}
+
+				if (cache.remove(entry.key, entry)) {
+
+					entry.removed = true;
+					evictions.increment();
+
+					if (evictionListener != null) {
+						evictionListener.accept(entry.key, entry.value);
+					}
+				}
+			}
+
+		} finally {
+
+			evictionLock.unlock();
+		}
+	}
+
+	private int toInt(final long value) {
+		return (int)Math.min(Integer.MAX_VALUE, value);
+	}
+
+	// ----- nested classes -----
+	private static class Entry<K, V> {
+
+		private volatile boolean accessed = false;
+		private volatile boolean removed  = false;
+		private volatile V value          = null;
+		private final K key;
+
+		public Entry(final K key, final V value) {
+
+			this.value = value;
+			this.key   = key;
+		}
+
+		public void markAccessed() {
+
+			// avoid writing to a shared cache line when the flag is already set
+			if (!accessed) {
+				accessed = true;
+			}
+		}
 	}
 }
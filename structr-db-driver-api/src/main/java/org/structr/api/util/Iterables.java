@@ -24,6 +24,7 @@ import org.structr.api.Predicate;
 
 import java.io.Closeable;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
@@ -191,6 +192,22 @@ public class Iterables {
 		return new ClosingCallbackIterable<>(iterable, callback);
 	}
 
+	/**
+	 * Returns an Iterable that reads the given source in batches of the
+	 * given size and passes each batch to the callback before its first
+	 * element is returned, e.g. to load data for all elements of a batch
+	 * at once.
+	 *
+	 * @param source the source
+	 * @param batchSize the batch size
+	 * @param callback the callback that receives each batch
+	 *
+	 * @return an Iterable with the same elements as the source
+	 */
+	public static <T> Iterable<T> batch(final Iterable<T> source, final int batchSize, final Consumer<List<T>> callback) {
+		return new BatchingIterable<>(source, batchSize, callback);
+	}
+
 	private static class MapIterable<S, T> implements Iterable<T> {
 
 		private final Iterable<S> from;
@@ -412,6 +429,77 @@ public class Iterables {
 		}
 	}
 
+	private static class BatchingIterable<T> implements Iterable<T> {
+
+		private final Consumer<List<T>> callback;
+		private final Iterable<T> source;
+		private final int batchSize;
+		private Iterator<T> iterator = null;
+
+		public BatchingIterable(final Iterable<T> source, final int batchSize, final Consumer<List<T>> callback) {
+
+			this.source    = source;
+			this.batchSize = Math.max(1, batchSize);
+			this.callback  = callback;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+
+			if (iterator == null) {
+
+				final Iterator<T> sourceIterator = source.iterator();
+
+				iterator = new CloseableIterator<T>() {
+
+					private final List<T> batch = new ArrayList<>();
+					private int position        = 0;
+
+					@Override
+					public boolean hasNext() {
+
+						if (position >= batch.size()) {
+
+							batch.clear();
+							position = 0;
+
+							while (batch.size() < batchSize && sourceIterator.hasNext()) {
+								batch.add(sourceIterator.next());
+							}
+
+							if (!batch.isEmpty()) {
+								callback.accept(Collections.unmodifiableList(batch));
+							}
+						}
+
+						return position < batch.size();
+					}
+
+					@Override
+					public T next() {
+
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+
+						return batch.get(position++);
+					}
+
+					@Override
+					public void close() throws Exception {
+
+						if (sourceIterator instanceof AutoCloseable) {
+
+							((AutoCloseable)sourceIterator).close();
+						}
+					}
+				};
+			}
+
+			return iterator;
+		}
+	}
+
 	private static class ClosingCallbackIterable<T> implements Iterable<T>, Closeable {
 
 		private Iterable<T> iterable     = null;
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the first <code>limit</code> elements of a sorted sequence
+ * without sorting the whole sequence. A bounded heap is used so that
+ * only <code>limit</code> elements are held in memory, which reduces
+ * the cost of sorting from O(n log n) to O(n log k). The result is
+ * identical to the first elements of the stably sorted sequence.
+ */
+public class TopKSelector<T> {
+
+	private final Comparator<Candidate<T>> comparator;
+	private final PriorityQueue<Candidate<T>> heap;
+	private final int limit;
+	private long count = 0L;
+
+	public TopKSelector(final Comparator<? super T> comparator, final int limit) {
+
+		if (limit < 1) {
+			throw new IllegalArgumentException("Limit must be greater than zero");
+		}
+
+		this.comparator = new CandidateComparator<>(comparator);
+		this.heap       = new PriorityQueue<>(Math.min(limit, 1024) + 1, this.comparator.reversed());
+		this.limit      = limit;
+	}
+
+	public TopKSelector<T> addAll(final Iterable<T> source) {
+
+		for (final T value : source) {
+			add(value);
+		}
+
+		return this;
+	}
+
+	public void add(final T value) {
+
+		final Candidate<T> candidate = new Candidate<>(value, count++);
+
+		if (heap.size() < limit) {
+
+			heap.add(candidate);
+
+		} else if (comparator.compare(candidate, heap.peek()) < 0) {
+
+			// candidate is smaller than the largest element in the heap => replace
+			heap.poll();
+			heap.add(candidate);
+		}
+	}
+
+	/**
+	 * Returns the number of elements that were added to this selector.
+	 *
+	 * @return the number of elements seen
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the selected elements in sorted order.
+	 *
+	 * @return the first limit elements of the sorted sequence
+	 */
+	public List<T> getResult() {
+
+		final List<Candidate<T>> candidates = new ArrayList<>(heap);
+		final List<T> result                = new ArrayList<>(candidates.size());
+
+		Collections.sort(candidates, comparator);
+
+		for (final Candidate<T> candidate : candidates) {
+			result.add(candidate.value);
+		}
+
+		return result;
+	}
+
+	// ----- nested classes -----
+	private static class Candidate<T> {
+
+		private final long index;
+		private final T value;
+
+		public Candidate(final T value, final long index) {
+
+			this.value = value;
+			this.index = index;
+		}
+	}
+
+	private static class CandidateComparator<T> implements Comparator<Candidate<T>> {
+
+		private final Comparator<? super T> comparator;
+
+		public CandidateComparator(final Comparator<? super T> comparator) {
+			this.comparator = comparator;
+		}
+
+		@Override
+		public int compare(final Candidate<T> o1, final Candidate<T> o2) {
+
+			final int result = comparator.compare(o1.value, o2.value);
+			if (result != 0) {
+
+				return result;
+			}
+
+			// keep original order of equal elements (stable sort)
+			return Long.compare(o1.index, o2.index);
+		}
+	}
+}
@@ -20,8 +20,18 @@ package org.structr.api.util;
 
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
 
 /**
  *
@@ -59,4 +69,104 @@ public class FixedSizeCacheTest {
 		}
 
 	}
+
+	@Test
+	public void testRecentlyUsedEntriesAreKept() {
+
+		final FixedSizeCache<Long, Long> test = new FixedSizeCache<>("Test cache", 10);
+
+		for (long i=0; i<10; i++) {
+			test.put(i, i);
+		}
+
+		// access the first entry so it survives the next eviction
+		assertEquals("Invalid FixedSizeCache contents", Long.valueOf(0), test.get(0L));
+
+		test.put(10L, 10L);
+
+		assertEquals("Invalid FixedSizeCache size", 10, test.size());
+		assertEquals("Recently used entry was evicted", Long.valueOf(0), test.get(0L));
+		assertNull("Least recently used entry was not evicted", test.get(1L));
+
+		final Map<String, Integer> info = test.getCacheInfo();
+
+		assertEquals("Invalid cache info", 10, (int)info.get("max"));
+		assertEquals("Invalid cache info", 10, (int)info.get("size"));
+		assertEquals("Invalid cache info",  2, (int)info.get("hits"));
+		assertEquals("Invalid cache info",  1, (int)info.get("misses"));
+		assertEquals("Invalid cache info",  1, (int)info.get("evictions"));
+	}
+
+	@Test
+	public void testEvictionListener() {
+
+		final Map<Long, Long> evicted         = new LinkedHashMap<>();
+		final FixedSizeCache<Long, Long> test = new FixedSizeCache<>("Test cache", 10, evicted::put);
+
+		for (long i=0; i<10; i++) {
+			test.put(i, i * 100);
+		}
+
+		// explicit removal is not an eviction
+		test.remove(5L);
+		test.put(5L, 500L);
+
+		assertTrue("Eviction listener called without eviction", evicted.isEmpty());
+
+		test.put(10L, 1000L);
+		test.put(11L, 1100L);
+
+		assertEquals("Invalid FixedSizeCache size", 10, test.size());
+		assertEquals("Eviction listener not called for evicted entries", Map.of(0L, 0L, 1L, 100L), evicted);
+	}
+
+	@Test
+	public void testConcurrentAccess() {
+
+		final FixedSizeCache<Integer, Integer> test = new FixedSizeCache<>("Test cache", 1000);
+		final ExecutorService executor              = Executors.newFixedThreadPool(8);
+		final List<Future<?>> futures               = new ArrayList<>();
+
+		try {
+
+			for (int t=0; t<8; t++) {
+
+				final int offset = t * 1000;
+
+				futures.add(executor.submit(() -> {
+
+					for (int i=0; i<100_000; i++) {
+
+						final int key = offset + (i % 2000);
+
+						test.put(key, key);
+
+						final Integer value = test.get(key);
+						if (value != null && value != key) {
+
+							throw new IllegalStateException("Invalid value " + value + " for key " + key);
+						}
+
+						if (i % 7 == 0) {
+							test.remove(key);
+						}
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+
+		} catch (Throwable t) {
+
+			fail("Unexpected exception: " + t.getMessage());
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		assertTrue("FixedSizeCache exceeds maximum size", test.size() <= 1000);
+	}
 }
@@ -116,4 +116,26 @@ public class IterablesTest {
 		assertEquals(Integer.valueOf(23), result.get(19));
 		assertEquals(Integer.valueOf(24), result.get(20));
 	}
+
+	@Test
+	public void testBatchingIterable() {
+
+		final List<Integer> source        = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9 );
+		final List<List<Integer>> batches = new LinkedList<>();
+		final List<Integer> result        = new LinkedList<>();
+		final Iterable<Integer> batched   = Iterables.batch(source, 4, batch -> batches.add(new LinkedList<>(batch)));
+
+		for (final Integer i : batched) {
+
+			// the batch containing an element must be known before the element is returned
+			assertEquals("Batch callback not called before element was returned", (i / 4) + 1, batches.size());
+			result.add(i);
+		}
+
+		assertEquals("Invalid batching result", source, result);
+		assertEquals("Invalid number of batches", 3, batches.size());
+		assertEquals("Invalid batch", Arrays.asList(0, 1, 2, 3), batches.get(0));
+		assertEquals("Invalid batch", Arrays.asList(4, 5, 6, 7), batches.get(1));
+		assertEquals("Invalid batch", Arrays.asList(8, 9),       batches.get(2));
+	}
 }
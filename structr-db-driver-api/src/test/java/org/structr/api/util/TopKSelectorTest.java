@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.util;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class TopKSelectorTest {
+
+	@Test
+	public void testSelectionMatchesFullSort() {
+
+		final Random random        = new Random(42);
+		final List<Integer> values = new ArrayList<>();
+
+		for (int i=0; i<10_000; i++) {
+			values.add(random.nextInt(1000));
+		}
+
+		final List<Integer> sorted = new ArrayList<>(values);
+		Collections.sort(sorted);
+
+		for (final int limit : new int[] { 1, 10, 999, 10_000, 20_000 }) {
+
+			final TopKSelector<Integer> selector = new TopKSelector<Integer>(Comparator.naturalOrder(), limit).addAll(values);
+
+			assertEquals("Invalid result count", 10_000, selector.getCount());
+			assertEquals("Invalid top-k selection", sorted.subList(0, Math.min(limit, sorted.size())), selector.getResult());
+		}
+	}
+
+	@Test
+	public void testSelectionIsStable() {
+
+		final List<String> values = List.of("b1", "a1", "c1", "a2", "b2", "a3", "c2");
+		final List<String> result = new TopKSelector<String>(Comparator.comparing(s -> s.charAt(0)), 5).addAll(values).getResult();
+
+		assertEquals("Top-k selection must keep the order of equal elements", List.of("a1", "a2", "a3", "b1", "b2"), result);
+	}
+}
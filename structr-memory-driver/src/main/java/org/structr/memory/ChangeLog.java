@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes committed since the last snapshot. Each
+ * commit is written as a single compressed record, prefixed with its
+ * length and CRC32 checksum, so that a partially written record at the
+ * end of the log is detected and ignored on replay. Entities are logged
+ * with their complete committed state, so replaying a record more than
+ * once has no additional effect.
+ */
+final class ChangeLog implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+
+	private DataOutputStream out = null;
+	private final File file;
+
+	ChangeLog(final File file) throws IOException {
+
+		this.file = file;
+
+		open(true);
+	}
+
+	synchronized void append(final Collection<MemoryNode> nodes, final Collection<MemoryRelationship> relationships, final Collection<MemoryIdentity> deletedNodes, final Collection<MemoryIdentity> deletedRelationships) throws IOException {
+
+		if (nodes.isEmpty() && relationships.isEmpty() && deletedNodes.isEmpty() && deletedRelationships.isEmpty()) {
+			return;
+		}
+
+		final byte[] data = SnapshotFile.compress(o -> {
+
+			o.writeInt(nodes.size());
+
+			for (final MemoryNode node : nodes) {
+				node.writeSnapshot(o);
+			}
+
+			o.writeInt(relationships.size());
+
+			for (final MemoryRelationship relationship : relationships) {
+				relationship.writeSnapshot(o);
+			}
+
+			o.writeInt(deletedNodes.size());
+
+			for (final MemoryIdentity id : deletedNodes) {
+				id.writeSnapshot(o);
+			}
+
+			o.writeInt(deletedRelationships.size());
+
+			for (final MemoryIdentity id : deletedRelationships) {
+				id.writeSnapshot(o);
+			}
+		});
+
+		final CRC32 crc = new CRC32();
+
+		crc.update(data);
+
+		out.writeInt(data.length);
+		out.writeLong(crc.getValue());
+		out.write(data);
+		out.flush();
+	}
+
+	/**
+	 * Discards all records, called after a snapshot has been written.
+	 */
+	synchronized void reset() throws IOException {
+
+		out.close();
+
+		open(false);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Applies all complete records of the given log file to the given
+	 * database, in the order they were written.
+	 */
+	static void replay(final File file, final MemoryDatabaseService db) throws IOException {
+
+		if (!file.exists()) {
+			return;
+		}
+
+		int count = 0;
+
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			while (true) {
+
+				final byte[] data;
+				long checksum;
+
+				try {
+
+					final int length = in.readInt();
+
+					checksum = in.readLong();
+
+					if (length < 0 || length > file.length()) {
+
+						logger.warn("Ignoring incomplete record at the end of {}", file.getAbsolutePath());
+						break;
+					}
+
+					data = new byte[length];
+
+					in.readFully(data);
+
+				} catch (EOFException eof) {
+
+					// end of log, or incomplete record
+					break;
+				}
+
+				final CRC32 crc = new CRC32();
+
+				crc.update(data);
+
+				if (crc.getValue() != checksum) {
+
+					logger.warn("Ignoring incomplete record at the end of {}", file.getAbsolutePath());
+					break;
+				}
+
+				try (final DataInputStream record = SnapshotFile.decompress(data)) {
+
+					final List<MemoryNode> nodes                 = new ArrayList<>();
+					final List<MemoryRelationship> relationships = new ArrayList<>();
+					final List<MemoryIdentity> deletedNodes      = new ArrayList<>();
+					final List<MemoryIdentity> deletedRels       = new ArrayList<>();
+
+					for (int i=record.readInt(); i>0; i--) {
+						nodes.add(MemoryNode.createFromSnapshot(db, record));
+					}
+
+					for (int i=record.readInt(); i>0; i--) {
+						relationships.add(MemoryRelationship.createFromSnapshot(db, record));
+					}
+
+					for (int i=record.readInt(); i>0; i--) {
+						deletedNodes.add(MemoryIdentity.readSnapshot(record));
+					}
+
+					for (int i=record.readInt(); i>0; i--) {
+						deletedRels.add(MemoryIdentity.readSnapshot(record));
+					}
+
+					db.replayChanges(nodes, relationships, deletedNodes, deletedRels);
+				}
+
+				count++;
+			}
+		}
+
+		logger.info("Replayed {} change log records from {}", count, file.getAbsolutePath());
+	}
+
+	// ----- private methods -----
+	private void open(final boolean append) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append)));
+	}
+}
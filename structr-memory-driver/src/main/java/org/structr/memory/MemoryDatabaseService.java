@@ -18,6 +18,10 @@
  */
 package org.structr.memory;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.structr.api.*;
 import org.structr.api.config.Settings;
 import org.structr.api.graph.*;
@@ -31,26 +35,118 @@ import org.structr.memory.index.MemoryNodeIndex;
 import org.structr.memory.index.MemoryRelationshipIndex;
 import org.structr.memory.index.filter.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 /**
  */
 public class MemoryDatabaseService extends AbstractDatabaseService {
 
+	private static final Logger logger                                  = LoggerFactory.getLogger(MemoryDatabaseService.class);
 	private static final ThreadLocal<MemoryTransaction> transactions    = new ThreadLocal<>();
 	private final MemoryRelationshipRepository relationships            = new MemoryRelationshipRepository();
 	private final MemoryNodeRepository nodes                            = new MemoryNodeRepository();
 	private MemoryRelationshipIndex relIndex                            = null;
 	private MemoryNodeIndex nodeIndex                                   = null;
 	private MemoryFulltextNodeIndex fulltextIndex                       = null;
+	private File storageDirectory                                       = null;
+	private ChangeLog changeLog                                         = null;
 
 	@Override
 	public boolean initialize(final String serviceName, final String version, final String instance) {
+
+		final String storagePath = Settings.MemoryStoragePath.getValue();
+		if (StringUtils.isNotBlank(storagePath)) {
+
+			final File directory = new File(storagePath);
+
+			directory.mkdirs();
+
+			try {
+
+				loadSnapshot(directory);
+
+				this.changeLog        = new ChangeLog(getChangeLogFile(directory));
+				this.storageDirectory = directory;
+
+			} catch (IOException ioex) {
+
+				logger.error("Unable to load memory database from {}: {}", directory.getAbsolutePath(), ExceptionUtils.getStackTrace(ioex));
+
+				return false;
+			}
+		}
+
 		return true;
 	}
 
 	@Override
 	public void shutdown() {
+
+		if (storageDirectory != null) {
+
+			try {
+
+				writeSnapshot(storageDirectory);
+
+				changeLog.close();
+
+			} catch (IOException ioex) {
+				logger.error("Unable to write memory database to {}: {}", storageDirectory.getAbsolutePath(), ExceptionUtils.getStackTrace(ioex));
+			}
+		}
+	}
+
+	/**
+	 * Loads the snapshot from the given directory and replays the changes
+	 * that were logged after it was written.
+	 *
+	 * @param directory the storage directory
+	 *
+	 * @throws IOException
+	 */
+	public void loadSnapshot(final File directory) throws IOException {
+
+		final long t0 = System.currentTimeMillis();
+
+		nodes.loadSnapshot(this, directory);
+		relationships.loadSnapshot(this, directory);
+
+		ChangeLog.replay(getChangeLogFile(directory), this);
+
+		logger.info("Loaded {} nodes and {} relationships in {} ms", nodes.getMasterData().size(), relationships.getMasterData().size(), System.currentTimeMillis() - t0);
+	}
+
+	/**
+	 * Writes a snapshot of the committed data to the given directory. If
+	 * the directory is the storage directory of this instance, the change
+	 * log is reset afterwards.
+	 *
+	 * @param directory the storage directory
+	 *
+	 * @throws IOException
+	 */
+	public void writeSnapshot(final File directory) throws IOException {
+
+		final boolean resetChangeLog = changeLog != null && directory.equals(storageDirectory);
+
+		if (resetChangeLog) {
+
+			// block commit logging so that no change between snapshot and reset is lost
+			synchronized (changeLog) {
+
+				nodes.writeSnapshot(directory);
+				relationships.writeSnapshot(directory);
+
+				changeLog.reset();
+			}
+
+		} else {
+
+			nodes.writeSnapshot(directory);
+			relationships.writeSnapshot(directory);
+		}
 	}
 
 	@Override
@@ -222,6 +318,11 @@ public class MemoryDatabaseService extends AbstractDatabaseService {
 		// no indexes here..
 	}
 
+	@Override
+	public void updateIndexConfiguration(final List<NewIndexConfig> indexesToCreate, final List<NewIndexConfig> indexesToDrop) {
+		// no indexes here..
+	}
+
 	@Override
 	public boolean isIndexUpdateFinished() {
 		return true;
@@ -306,7 +407,7 @@ public class MemoryDatabaseService extends AbstractDatabaseService {
 
 	@Override
 	public Map<String, Map<String, Integer>> getCachesInfo() {
-		return Map.of();
+		return Map.of("propertyIndexes", nodes.getPropertyIndexInfo());
 	}
 
 	@Override
@@ -428,7 +529,7 @@ public class MemoryDatabaseService extends AbstractDatabaseService {
 		return tx;
 	}
 
-	void commitTransaction(final Map<MemoryIdentity, MemoryNode> newNodes, final Map<MemoryIdentity, MemoryRelationship> newRelationships, Set<MemoryIdentity> deletedNodes, Map<MemoryIdentity, MemoryRelationship> deletedRelationships) {
+	void commitTransaction(final Map<MemoryIdentity, MemoryNode> newNodes, final Map<MemoryIdentity, MemoryRelationship> newRelationships, Set<MemoryIdentity> deletedNodes, Map<MemoryIdentity, MemoryRelationship> deletedRelationships, final Set<MemoryEntity> modifiedEntities) {
 
 		newNodes.keySet().removeAll(deletedNodes);
 		nodes.remove(deletedNodes);
@@ -438,9 +539,52 @@ public class MemoryDatabaseService extends AbstractDatabaseService {
 		relationships.remove(deletedRelationships);
 		relationships.add(newRelationships.values());
 
+		if (changeLog != null) {
+
+			logChanges(newNodes, newRelationships, deletedNodes, deletedRelationships, modifiedEntities);
+		}
+
 		transactions.remove();
 	}
 
+	/**
+	 * Applies a change log record. Entities are removed before they are
+	 * added again, because the log contains their complete state.
+	 */
+	void replayChanges(final List<MemoryNode> newNodes, final List<MemoryRelationship> newRelationships, final List<MemoryIdentity> deletedNodes, final List<MemoryIdentity> deletedRelationships) {
+
+		final Map<MemoryIdentity, MemoryRelationship> removedRelationships = new LinkedHashMap<>();
+		final Set<MemoryIdentity> removedNodes                             = new LinkedHashSet<>(deletedNodes);
+
+		for (final MemoryNode node : newNodes) {
+			removedNodes.add(node.getIdentity());
+		}
+
+		for (final MemoryIdentity id : deletedRelationships) {
+
+			final MemoryRelationship existing = relationships.get(id);
+			if (existing != null) {
+
+				removedRelationships.put(id, existing);
+			}
+		}
+
+		for (final MemoryRelationship relationship : newRelationships) {
+
+			final MemoryRelationship existing = relationships.get(relationship.getIdentity());
+			if (existing != null) {
+
+				removedRelationships.put(existing.getIdentity(), existing);
+			}
+		}
+
+		nodes.remove(removedNodes);
+		nodes.add(newNodes);
+
+		relationships.remove(removedRelationships);
+		relationships.add(newRelationships);
+	}
+
 	void rollbackTransaction() {
 		transactions.remove();
 	}
@@ -479,6 +623,45 @@ public class MemoryDatabaseService extends AbstractDatabaseService {
 		relationships.updateCache(relationship);
 	}
 
+	void updateIndex(final MemoryNode node, final String key, final Object oldValue, final Object newValue) {
+		nodes.updateIndex(node, key, oldValue, newValue);
+	}
+
+	Set<MemoryIdentity> lookupNodes(final MemoryIndexFilter<MemoryNode> filter) {
+		return nodes.lookup(filter);
+	}
+
+	// ----- private methods -----
+	private void logChanges(final Map<MemoryIdentity, MemoryNode> newNodes, final Map<MemoryIdentity, MemoryRelationship> newRelationships, Set<MemoryIdentity> deletedNodes, Map<MemoryIdentity, MemoryRelationship> deletedRelationships, final Set<MemoryEntity> modifiedEntities) {
+
+		final Set<MemoryRelationship> changedRelationships = new LinkedHashSet<>(newRelationships.values());
+		final Set<MemoryNode> changedNodes                 = new LinkedHashSet<>(newNodes.values());
+
+		for (final MemoryEntity entity : modifiedEntities) {
+
+			if (entity instanceof MemoryNode node && !deletedNodes.contains(node.getIdentity())) {
+
+				changedNodes.add(node);
+
+			} else if (entity instanceof MemoryRelationship relationship && !deletedRelationships.containsKey(relationship.getIdentity())) {
+
+				changedRelationships.add(relationship);
+			}
+		}
+
+		try {
+
+			changeLog.append(changedNodes, changedRelationships, deletedNodes, deletedRelationships.keySet());
+
+		} catch (IOException ioex) {
+			logger.error("Unable to write change log: {}", ExceptionUtils.getStackTrace(ioex));
+		}
+	}
+
+	private File getChangeLogFile(final File directory) {
+		return directory.toPath().resolve("changes.log").toFile();
+	}
+
 	// ----- nested classes -----
 	private class LazyAccessor<T> implements Iterable<T> {
 
@@ -22,6 +22,8 @@ import org.structr.api.graph.Identity;
 import org.structr.api.graph.PropertyContainer;
 import org.structr.api.util.ChangeAwareMap;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -29,6 +31,7 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -57,6 +60,7 @@ public abstract class MemoryEntity implements PropertyContainer {
 	}
 
 	protected abstract void updateCache();
+	protected abstract void updateIndex(final String key, final Object oldValue, final Object newValue);
 
 	@Override
 	public Identity getId() {
@@ -165,7 +169,9 @@ public abstract class MemoryEntity implements PropertyContainer {
 
 			for (final String key : changes.getModifiedKeys()) {
 
-				final Object value = changes.get(key);
+				final Object value    = changes.get(key);
+				final Object previous = data.get(key);
+
 				if (value != null) {
 
 					data.put(key, value);
@@ -174,6 +180,10 @@ public abstract class MemoryEntity implements PropertyContainer {
 
 					data.remove(key);
 				}
+
+				if (!Objects.equals(previous, value)) {
+					updateIndex(key, previous, value);
+				}
 			}
 
 			txData.remove(transactionId);
@@ -187,6 +197,21 @@ public abstract class MemoryEntity implements PropertyContainer {
 		unlock();
 	}
 
+	boolean hasChanges(final long transactionId) {
+
+		final ChangeAwareMap changes = txData.get(transactionId);
+		if (changes != null) {
+
+			return !changes.getModifiedKeys().isEmpty();
+		}
+
+		return false;
+	}
+
+	Object getCommittedProperty(final String key) {
+		return data.get(key);
+	}
+
 	MemoryEntity lock() {
 
 		if (!lock.isHeldByCurrentThread()) {
@@ -259,6 +284,51 @@ public abstract class MemoryEntity implements PropertyContainer {
 		}
 	}
 
+	void readSnapshot(final DataInput in) throws IOException {
+
+		id = MemoryIdentity.readSnapshot(in);
+
+		final int labelCount = in.readInt();
+
+		for (int i=0; i<labelCount; i++) {
+
+			labels.add(in.readUTF());
+		}
+
+		final int propertyCount = in.readInt();
+
+		for (int i=0; i<propertyCount; i++) {
+
+			final String key   = in.readUTF();
+			final Object value = SnapshotValues.read(in);
+
+			if (value != null) {
+
+				data.put(key, value);
+			}
+		}
+	}
+
+	void writeSnapshot(final DataOutput out) throws IOException {
+
+		id.writeSnapshot(out);
+
+		out.writeInt(labels.size());
+
+		for (final String label : labels) {
+
+			out.writeUTF(label);
+		}
+
+		out.writeInt(data.size());
+
+		for (final Entry<String, Object> entry : data.entrySet()) {
+
+			out.writeUTF(entry.getKey());
+			SnapshotValues.write(out, entry.getValue());
+		}
+	}
+
 
 	// ----- private methods -----
 	private ChangeAwareMap getData(final boolean read) {
@@ -20,6 +20,8 @@ package org.structr.memory;
 
 import org.structr.api.graph.Identity;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -106,4 +108,25 @@ public class MemoryIdentity implements Identity {
 		out.writeUTF(type);
 		out.writeLong(id);
 	}
+
+	static MemoryIdentity readSnapshot(final DataInput in) throws IOException {
+
+		final MemoryIdentity identity = new MemoryIdentity();
+
+		identity.isNode = in.readBoolean();
+		identity.type   = in.readUTF();
+		identity.id     = in.readLong();
+
+		// make sure that new identities do not collide with loaded ones
+		idCounter.accumulateAndGet(identity.id + 1, Math::max);
+
+		return identity;
+	}
+
+	void writeSnapshot(final DataOutput out) throws IOException {
+
+		out.writeBoolean(isNode);
+		out.writeUTF(type);
+		out.writeLong(id);
+	}
 }
@@ -26,6 +26,7 @@ import org.structr.api.graph.RelationshipType;
 import org.structr.api.util.Iterables;
 import org.structr.memory.index.filter.MemoryLabelFilter;
 
+import java.io.DataInput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.LinkedHashMap;
@@ -146,6 +147,11 @@ public class MemoryNode extends MemoryEntity implements Node {
 		db.updateCache(this);
 	}
 
+	@Override
+	protected void updateIndex(final String key, final Object oldValue, final Object newValue) {
+		db.updateIndex(this, key, oldValue, newValue);
+	}
+
 	// ----- package-private methods -----
 	static MemoryNode createFromStorage(final MemoryDatabaseService db, final ObjectInputStream is) throws IOException, ClassNotFoundException {
 
@@ -157,4 +163,13 @@ public class MemoryNode extends MemoryEntity implements Node {
 
 		return node;
 	}
+
+	static MemoryNode createFromSnapshot(final MemoryDatabaseService db, final DataInput in) throws IOException {
+
+		final MemoryNode node = new MemoryNode(db);
+
+		node.readSnapshot(in);
+
+		return node;
+	}
 }
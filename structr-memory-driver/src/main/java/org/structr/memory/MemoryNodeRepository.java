@@ -22,7 +22,9 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.util.Iterables;
+import org.structr.memory.index.PropertyIndex;
 import org.structr.memory.index.filter.Filter;
+import org.structr.memory.index.filter.MemoryIndexFilter;
 import org.structr.memory.index.filter.MemoryLabelFilter;
 import org.structr.memory.index.filter.MemoryTypeFilter;
 
@@ -33,8 +35,11 @@ import java.io.ObjectOutputStream;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  */
@@ -45,6 +50,17 @@ public class MemoryNodeRepository extends EntityRepository {
 	final Map<MemoryIdentity, MemoryNode> masterData  = new ConcurrentSkipListMap<>();
 	final Map<String, Set<MemoryIdentity>> labelCache = new ConcurrentSkipListMap<>();
 	final Map<String, Set<MemoryIdentity>> typeCache  = new ConcurrentSkipListMap<>();
+	final Map<String, PropertyIndex> propertyIndexes  = new ConcurrentHashMap<>();
+	final ReadWriteLock propertyIndexLock             = new ReentrantReadWriteLock();
+	boolean enablePropertyIndexes                     = true;
+
+	public MemoryNodeRepository() {
+		this(true);
+	}
+
+	public MemoryNodeRepository(final boolean enablePropertyIndexes) {
+		this.enablePropertyIndexes = enablePropertyIndexes;
+	}
 
 	MemoryNode get(final MemoryIdentity id) {
 		return masterData.get(id);
@@ -54,12 +70,24 @@ public class MemoryNodeRepository extends EntityRepository {
 		masterData.clear();
 		labelCache.clear();
 		typeCache.clear();
+		propertyIndexes.clear();
 	}
 
 	Iterable<MemoryNode> values(final Filter<MemoryNode> filter) {
 
 		if (filter != null) {
 
+			if (filter instanceof MemoryIndexFilter<MemoryNode> mi) {
+
+				final Set<MemoryIdentity> candidates = lookup(mi);
+				if (candidates != null) {
+
+					return Iterables.filter(n -> n != null && mi.matchesLabels(n), Iterables.map(i -> masterData.get(i), candidates));
+				}
+
+				return values(mi.getFallbackFilter());
+			}
+
 			if (filter instanceof MemoryLabelFilter<MemoryNode> mt) {
 
 				final Set<MemoryIdentity> cache = new LinkedHashSet<>();
@@ -107,7 +135,21 @@ public class MemoryNodeRepository extends EntityRepository {
 
 		getCacheForType(type).add(id);
 
-		masterData.put(id, node);
+		// index maintenance must not overlap with the population of a new index
+		propertyIndexLock.readLock().lock();
+		try {
+
+			masterData.put(id, node);
+
+			for (final PropertyIndex index : propertyIndexes.values()) {
+
+				index.add(node.getCommittedProperty(index.getKey()), id);
+			}
+
+		} finally {
+
+			propertyIndexLock.readLock().unlock();
+		}
 	}
 
 	void remove(final Set<MemoryIdentity> ids) {
@@ -115,7 +157,30 @@ public class MemoryNodeRepository extends EntityRepository {
 		// avoid iteration of caches when there are no IDs to remove..
 		if (!ids.isEmpty()) {
 
-			masterData.keySet().removeAll(ids);
+			propertyIndexLock.readLock().lock();
+			try {
+
+				if (!propertyIndexes.isEmpty()) {
+
+					for (final MemoryIdentity id : ids) {
+
+						final MemoryNode node = masterData.get(id);
+						if (node != null) {
+
+							for (final PropertyIndex index : propertyIndexes.values()) {
+
+								index.remove(node.getCommittedProperty(index.getKey()), id);
+							}
+						}
+					}
+				}
+
+				masterData.keySet().removeAll(ids);
+
+			} finally {
+
+				propertyIndexLock.readLock().unlock();
+			}
 
 			for (final Set<MemoryIdentity> cache : labelCache.values()) {
 				cache.removeAll(ids);
@@ -149,6 +214,58 @@ public class MemoryNodeRepository extends EntityRepository {
 
 		// add identity to type cache again
 		getCacheForType(type).add(id);
+
+		// property indexes are independent of labels and contain committed values only,
+		// so they are not affected here; they are maintained in updateIndex() instead.
+	}
+
+	void updateIndex(final MemoryNode node, final String key, final Object oldValue, final Object newValue) {
+
+		final MemoryIdentity id = node.getIdentity();
+
+		propertyIndexLock.readLock().lock();
+		try {
+
+			// only committed nodes are indexed, new nodes are indexed in add()
+			if (masterData.containsKey(id)) {
+
+				final PropertyIndex index = propertyIndexes.get(key);
+				if (index != null) {
+
+					index.remove(oldValue, id);
+					index.add(newValue, id);
+				}
+			}
+
+		} finally {
+
+			propertyIndexLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the candidates of the query in the given filter from the property
+	 * indexes of this repository, or null if the query cannot be resolved.
+	 */
+	Set<MemoryIdentity> lookup(final MemoryIndexFilter<MemoryNode> filter) {
+
+		if (enablePropertyIndexes) {
+
+			return filter.getQuery().lookup(this::getPropertyIndex);
+		}
+
+		return null;
+	}
+
+	Map<String, Integer> getPropertyIndexInfo() {
+
+		long size = 0L;
+
+		for (final PropertyIndex index : propertyIndexes.values()) {
+			size += index.size();
+		}
+
+		return Map.of("count", propertyIndexes.size(), "size", (int)Math.min(Integer.MAX_VALUE, size));
 	}
 
 	void loadFromStorage(final MemoryDatabaseService db, final File storageDirectory) {
@@ -212,11 +329,64 @@ public class MemoryNodeRepository extends EntityRepository {
 		}
 	}
 
+	void loadSnapshot(final MemoryDatabaseService db, final File storageDirectory) throws IOException {
+
+		final File snapshotFile = getNodeSnapshotFile(storageDirectory);
+
+		if (snapshotFile.exists()) {
+
+			SnapshotFile.read(snapshotFile, in -> MemoryNode.createFromSnapshot(db, in), this::add);
+		}
+	}
+
+	void writeSnapshot(final File storageDirectory) throws IOException {
+		SnapshotFile.write(getNodeSnapshotFile(storageDirectory), masterData.values(), MemoryNode::writeSnapshot);
+	}
+
 	Map<MemoryIdentity, MemoryNode> getMasterData() {
 		return masterData;
 	}
 
 	// ----- private methods -----
+	private PropertyIndex getPropertyIndex(final String key) {
+
+		PropertyIndex index = propertyIndexes.get(key);
+		if (index == null) {
+
+			index = createPropertyIndex(key);
+		}
+
+		return index;
+	}
+
+	private PropertyIndex createPropertyIndex(final String key) {
+
+		// the write lock blocks all index maintenance, so the new index is fully
+		// populated with the committed values when it becomes visible
+		propertyIndexLock.writeLock().lock();
+		try {
+
+			PropertyIndex index = propertyIndexes.get(key);
+			if (index == null) {
+
+				index = new PropertyIndex(key);
+
+				for (final MemoryNode node : masterData.values()) {
+
+					index.add(node.getCommittedProperty(key), node.getIdentity());
+				}
+
+				propertyIndexes.put(key, index);
+			}
+
+			return index;
+
+		} finally {
+
+			propertyIndexLock.writeLock().unlock();
+		}
+	}
+
 	private synchronized Set<MemoryIdentity> getCacheForLabel(final String type) {
 
 		Set<MemoryIdentity> cache = labelCache.get(type);
@@ -244,4 +414,8 @@ public class MemoryNodeRepository extends EntityRepository {
 	private File getNodeStorageFile(final File storageDirectory) {
 		return storageDirectory.toPath().resolve("nodes.bin.zip").toFile();
 	}
+
+	private File getNodeSnapshotFile(final File storageDirectory) {
+		return storageDirectory.toPath().resolve("nodes.snapshot").toFile();
+	}
 }
@@ -24,6 +24,8 @@ import org.structr.api.graph.Node;
 import org.structr.api.graph.Relationship;
 import org.structr.api.graph.RelationshipType;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -122,6 +124,11 @@ public class MemoryRelationship extends MemoryEntity implements Relationship {
 		db.updateCache(this);
 	}
 
+	@Override
+	protected void updateIndex(final String key, final Object oldValue, final Object newValue) {
+		// relationships have no property indexes
+	}
+
 	// ----- package-private methods -----
 	static MemoryRelationship createFromStorage(final MemoryDatabaseService db, final ObjectInputStream is) throws IOException, ClassNotFoundException {
 
@@ -157,4 +164,35 @@ public class MemoryRelationship extends MemoryEntity implements Relationship {
 		out.writeUTF(relType.name());
 	}
 
+	static MemoryRelationship createFromSnapshot(final MemoryDatabaseService db, final DataInput in) throws IOException {
+
+		final MemoryRelationship relationship = new MemoryRelationship(db);
+
+		relationship.readSnapshot(in);
+
+		return relationship;
+	}
+
+	@Override
+	void readSnapshot(final DataInput in) throws IOException {
+
+		super.readSnapshot(in);
+
+		sourceNode = MemoryIdentity.readSnapshot(in);
+		targetNode = MemoryIdentity.readSnapshot(in);
+
+		relType = db.getRelationshipType(in.readUTF());
+	}
+
+	@Override
+	void writeSnapshot(final DataOutput out) throws IOException {
+
+		super.writeSnapshot(out);
+
+		sourceNode.writeSnapshot(out);
+		targetNode.writeSnapshot(out);
+
+		out.writeUTF(relType.name());
+	}
+
 }
@@ -255,6 +255,20 @@ public class MemoryRelationshipRepository extends EntityRepository {
 		}
 	}
 
+	void loadSnapshot(final MemoryDatabaseService db, final File storageDirectory) throws IOException {
+
+		final File snapshotFile = getRelationshipSnapshotFile(storageDirectory);
+
+		if (snapshotFile.exists()) {
+
+			SnapshotFile.read(snapshotFile, in -> MemoryRelationship.createFromSnapshot(db, in), this::add);
+		}
+	}
+
+	void writeSnapshot(final File storageDirectory) throws IOException {
+		SnapshotFile.write(getRelationshipSnapshotFile(storageDirectory), masterData.values(), MemoryRelationship::writeSnapshot);
+	}
+
 	Map<MemoryIdentity, MemoryRelationship> getMasterData() {
 		return masterData;
 	}
@@ -311,4 +325,8 @@ public class MemoryRelationshipRepository extends EntityRepository {
 	private File getRelationshipStorageFile(final File storageDirectory) {
 		return storageDirectory.toPath().resolve("relationships.bin.zip").toFile();
 	}
+
+	private File getRelationshipSnapshotFile(final File storageDirectory) {
+		return storageDirectory.toPath().resolve("relationships.snapshot").toFile();
+	}
 }
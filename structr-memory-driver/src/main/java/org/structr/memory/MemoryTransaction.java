@@ -24,6 +24,7 @@ import org.structr.api.graph.Node;
 import org.structr.api.graph.Relationship;
 import org.structr.api.util.Iterables;
 import org.structr.memory.index.filter.Filter;
+import org.structr.memory.index.filter.MemoryIndexFilter;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,7 +36,7 @@ public class MemoryTransaction implements Transaction {
 	private static final AtomicLong idCounter = new AtomicLong();
 
 	private final MemoryRelationshipRepository createdRelationships            = new MemoryRelationshipRepository(true);
-	private final MemoryNodeRepository createdNodes                            = new MemoryNodeRepository();
+	private final MemoryNodeRepository createdNodes                            = new MemoryNodeRepository(false);
 
 	//private final Map<MemoryIdentity, MemoryRelationship> createdRelationships = new LinkedHashMap<>();
 	private final Map<MemoryIdentity, MemoryRelationship> deletedRelationships = new LinkedHashMap<>();
@@ -92,7 +93,7 @@ public class MemoryTransaction implements Transaction {
 				entity.commit(transactionId);
 			}
 
-			db.commitTransaction(createdNodes.getMasterData(), createdRelationships.getMasterData(), deletedNodes, deletedRelationships);
+			db.commitTransaction(createdNodes.getMasterData(), createdRelationships.getMasterData(), deletedNodes, deletedRelationships, modifiedEntities);
 
 		} else {
 
@@ -169,6 +170,10 @@ public class MemoryTransaction implements Transaction {
 	// ----- package-private methods -----
 	Iterable<MemoryNode> getNodes(final Filter<MemoryNode> filter) {
 
+		if (filter instanceof MemoryIndexFilter<MemoryNode> indexFilter) {
+			return getIndexedNodes(indexFilter);
+		}
+
 		final List<Iterable<MemoryNode>> sources = new LinkedList<>();
 
 		sources.add(createdNodes.values(filter));
@@ -178,6 +183,43 @@ public class MemoryTransaction implements Transaction {
 		return Iterables.filter(n -> exists(n.getIdentity()) && !deletedNodes.contains(n.getIdentity()), Iterables.flatten(sources));
 	}
 
+	private Iterable<MemoryNode> getIndexedNodes(final MemoryIndexFilter<MemoryNode> filter) {
+
+		final Set<MemoryIdentity> indexed = db.lookupNodes(filter);
+		if (indexed == null) {
+
+			return getNodes(filter.getFallbackFilter());
+		}
+
+		final Set<MemoryNode> candidates   = new LinkedHashSet<>();
+		final Set<MemoryIdentity> existing = new TreeSet<>(indexed);
+
+		// nodes created in this transaction are not indexed yet
+		Iterables.addAll(candidates, createdNodes.values(filter.getFallbackFilter()));
+
+		// the index contains committed values only, so nodes modified in this transaction must be examined as well
+		for (final MemoryEntity entity : modifiedEntities) {
+
+			if (entity instanceof MemoryNode node && node.hasChanges(transactionId)) {
+
+				existing.add(node.getIdentity());
+			}
+		}
+
+		// existing nodes are returned in identity order like in an unindexed query
+		for (final MemoryIdentity id : existing) {
+
+			final MemoryNode node = db.getNodeFromRepository(id);
+			if (node != null && filter.matchesLabels(node)) {
+
+				candidates.add(node);
+			}
+		}
+
+		// return union of new and existing nodes, filtered for deleted nodes
+		return Iterables.filter(n -> exists(n.getIdentity()) && !deletedNodes.contains(n.getIdentity()), candidates);
+	}
+
 	Iterable<MemoryRelationship> getRelationships(final Filter<MemoryRelationship> filter) {
 
 		final List<Iterable<MemoryRelationship>> sources = new LinkedList<>();
@@ -258,6 +300,10 @@ public class MemoryTransaction implements Transaction {
 	public void prefetch2(String query, Set<String> outgoingKeys, Set<String> incomingKeys, final String id) {
 	}
 
+	@Override
+	public void prefetchNodes(final Iterable<Identity> nodeIds, final Set<String> outgoingTypes, final Set<String> incomingTypes) {
+	}
+
 	public boolean isPing() {
 		return isPing;
 	}
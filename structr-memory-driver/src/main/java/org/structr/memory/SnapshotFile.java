@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary snapshot format for the memory database (format version 2).
+ *
+ * A snapshot file consists of a header (magic number and format version)
+ * followed by segments of up to {@link #SEGMENT_SIZE} entities. Each
+ * segment is compressed independently and prefixed with its entity count
+ * and compressed length, so segments can be encoded and decoded in
+ * parallel while the file itself is written and read sequentially. A
+ * segment with entity count 0 marks the end of the file.
+ */
+final class SnapshotFile {
+
+	static final int FORMAT_VERSION = 2;
+
+	private static final int MAGIC        = 0x53545253;
+	private static final int SEGMENT_SIZE = 10_000;
+
+	private SnapshotFile() {}
+
+	interface Reader<T> {
+		T read(final DataInput in) throws IOException;
+	}
+
+	interface Writer<T> {
+		void write(final T value, final DataOutput out) throws IOException;
+	}
+
+	interface Encoder {
+		void encode(final DataOutput out) throws IOException;
+	}
+
+	/**
+	 * Writes the given values to the given file. The file is replaced
+	 * atomically after all values have been written.
+	 */
+	static <T> void write(final File file, final Iterable<T> values, final Writer<T> writer) throws IOException {
+
+		final Deque<CompletableFuture<Segment>> queue = new ArrayDeque<>();
+		final File tmpFile                            = new File(file.getPath() + ".tmp");
+		final int window                              = getWindowSize();
+
+		try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile, false)))) {
+
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+
+			List<T> chunk = new ArrayList<>(SEGMENT_SIZE);
+
+			for (final T value : values) {
+
+				chunk.add(value);
+
+				if (chunk.size() == SEGMENT_SIZE) {
+
+					queue.add(encodeAsync(chunk, writer));
+					chunk = new ArrayList<>(SEGMENT_SIZE);
+
+					// limit the number of segments held in memory
+					if (queue.size() >= window) {
+						writeSegment(out, join(queue.poll()));
+					}
+				}
+			}
+
+			if (!chunk.isEmpty()) {
+				queue.add(encodeAsync(chunk, writer));
+			}
+
+			while (!queue.isEmpty()) {
+				writeSegment(out, join(queue.poll()));
+			}
+
+			// end marker
+			out.writeInt(0);
+		}
+
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads the given file and passes the decoded values to the given
+	 * consumer, one segment at a time and in the order they were written.
+	 */
+	static <T> void read(final File file, final Reader<T> reader, final Consumer<List<T>> consumer) throws IOException {
+
+		final Deque<CompletableFuture<List<T>>> queue = new ArrayDeque<>();
+		final int window                              = getWindowSize();
+
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			final int magic = in.readInt();
+			if (magic != MAGIC) {
+
+				throw new IllegalStateException(file.getAbsolutePath() + " is not a snapshot file");
+			}
+
+			final int formatVersion = in.readInt();
+			if (formatVersion != FORMAT_VERSION) {
+
+				throw new IllegalStateException("Snapshot format " + formatVersion + " of " + file.getAbsolutePath() + " does not match current format " + FORMAT_VERSION);
+			}
+
+			int count = in.readInt();
+
+			while (count > 0) {
+
+				final byte[] data = new byte[in.readInt()];
+				final int size    = count;
+
+				in.readFully(data);
+
+				queue.add(CompletableFuture.supplyAsync(() -> decode(data, size, reader), ForkJoinPool.commonPool()));
+
+				if (queue.size() >= window) {
+					consumer.accept(join(queue.poll()));
+				}
+
+				count = in.readInt();
+			}
+
+			while (!queue.isEmpty()) {
+				consumer.accept(join(queue.poll()));
+			}
+		}
+	}
+
+	static byte[] compress(final Encoder encoder) throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final Deflater deflater           = new Deflater(Deflater.BEST_SPEED);
+
+		try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater)))) {
+
+			encoder.encode(out);
+
+		} finally {
+
+			deflater.end();
+		}
+
+		return bytes.toByteArray();
+	}
+
+	static DataInputStream decompress(final byte[] data) {
+		return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(data))));
+	}
+
+	// ----- private methods -----
+	private static <T> CompletableFuture<Segment> encodeAsync(final List<T> values, final Writer<T> writer) {
+
+		return CompletableFuture.supplyAsync(() -> {
+
+			try {
+
+				return new Segment(values.size(), compress(out -> {
+
+					for (final T value : values) {
+						writer.write(value, out);
+					}
+				}));
+
+			} catch (IOException ioex) {
+				throw new UncheckedIOException(ioex);
+			}
+
+		}, ForkJoinPool.commonPool());
+	}
+
+	private static <T> List<T> decode(final byte[] data, final int count, final Reader<T> reader) {
+
+		final List<T> values = new ArrayList<>(count);
+
+		try (final DataInputStream in = decompress(data)) {
+
+			for (int i=0; i<count; i++) {
+				values.add(reader.read(in));
+			}
+
+		} catch (IOException ioex) {
+			throw new UncheckedIOException(ioex);
+		}
+
+		return values;
+	}
+
+	private static void writeSegment(final DataOutputStream out, final Segment segment) throws IOException {
+
+		out.writeInt(segment.count);
+		out.writeInt(segment.data.length);
+		out.write(segment.data);
+	}
+
+	private static <T> T join(final CompletableFuture<T> future) throws IOException {
+
+		try {
+
+			return future.join();
+
+		} catch (CompletionException cex) {
+
+			if (cex.getCause() instanceof UncheckedIOException uioex) {
+				throw uioex.getCause();
+			}
+
+			throw cex;
+		}
+	}
+
+	private static int getWindowSize() {
+		return Math.max(2, ForkJoinPool.commonPool().getParallelism() * 2);
+	}
+
+	// ----- nested classes -----
+	private static class Segment {
+
+		private final byte[] data;
+		private final int count;
+
+		public Segment(final int count, final byte[] data) {
+
+			this.count = count;
+			this.data  = data;
+		}
+	}
+}
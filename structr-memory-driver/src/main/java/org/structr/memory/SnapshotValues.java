@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Binary encoding of property values for the snapshot format. Common
+ * value types are written directly, everything else falls back to Java
+ * serialization.
+ */
+final class SnapshotValues {
+
+	private static final byte NULL       = 0;
+	private static final byte STRING     = 1;
+	private static final byte BOOLEAN    = 2;
+	private static final byte INTEGER    = 3;
+	private static final byte LONG       = 4;
+	private static final byte DOUBLE     = 5;
+	private static final byte FLOAT      = 6;
+	private static final byte DATE       = 7;
+	private static final byte BYTES      = 8;
+	private static final byte ARRAY      = 9;
+	private static final byte SERIALIZED = 127;
+
+	private SnapshotValues() {}
+
+	static void write(final DataOutput out, final Object value) throws IOException {
+
+		if (value == null) {
+
+			out.writeByte(NULL);
+
+		} else if (value instanceof String s) {
+
+			out.writeByte(STRING);
+			writeString(out, s);
+
+		} else if (value instanceof Boolean b) {
+
+			out.writeByte(BOOLEAN);
+			out.writeBoolean(b);
+
+		} else if (value instanceof Integer i) {
+
+			out.writeByte(INTEGER);
+			out.writeInt(i);
+
+		} else if (value instanceof Long l) {
+
+			out.writeByte(LONG);
+			out.writeLong(l);
+
+		} else if (value instanceof Double d) {
+
+			out.writeByte(DOUBLE);
+			out.writeDouble(d);
+
+		} else if (value instanceof Float f) {
+
+			out.writeByte(FLOAT);
+			out.writeFloat(f);
+
+		} else if (Date.class.equals(value.getClass())) {
+
+			out.writeByte(DATE);
+			out.writeLong(((Date)value).getTime());
+
+		} else if (value instanceof byte[] bytes) {
+
+			out.writeByte(BYTES);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+
+		} else if (value instanceof Object[] array && getComponentTag(array.getClass().getComponentType()) != SERIALIZED) {
+
+			out.writeByte(ARRAY);
+			out.writeByte(getComponentTag(array.getClass().getComponentType()));
+			out.writeInt(array.length);
+
+			for (final Object element : array) {
+				write(out, element);
+			}
+
+		} else {
+
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+			try (final ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+				oos.writeObject(value);
+			}
+
+			out.writeByte(SERIALIZED);
+			out.writeInt(bytes.size());
+			out.write(bytes.toByteArray());
+		}
+	}
+
+	static Object read(final DataInput in) throws IOException {
+
+		final byte tag = in.readByte();
+
+		switch (tag) {
+
+			case NULL:
+				return null;
+
+			case STRING:
+				return readString(in);
+
+			case BOOLEAN:
+				return in.readBoolean();
+
+			case INTEGER:
+				return in.readInt();
+
+			case LONG:
+				return in.readLong();
+
+			case DOUBLE:
+				return in.readDouble();
+
+			case FLOAT:
+				return in.readFloat();
+
+			case DATE:
+				return new Date(in.readLong());
+
+			case BYTES:
+				return readBytes(in);
+
+			case ARRAY: {
+
+				final Class componentType = getComponentType(in.readByte());
+				final int length          = in.readInt();
+				final Object[] array      = (Object[])Array.newInstance(componentType, length);
+
+				for (int i=0; i<length; i++) {
+					array[i] = read(in);
+				}
+
+				return array;
+			}
+
+			case SERIALIZED:
+
+				try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+
+					return ois.readObject();
+
+				} catch (ClassNotFoundException cnfex) {
+					throw new IOException(cnfex);
+				}
+
+			default:
+				throw new IOException("Unknown value tag " + tag);
+		}
+	}
+
+	static void writeString(final DataOutput out, final String value) throws IOException {
+
+		// DataOutput#writeUTF is limited to 64k bytes
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(final DataInput in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	// ----- private methods -----
+	private static byte[] readBytes(final DataInput in) throws IOException {
+
+		final byte[] bytes = new byte[in.readInt()];
+
+		in.readFully(bytes);
+
+		return bytes;
+	}
+
+	private static byte getComponentTag(final Class type) {
+
+		if (String.class.equals(type))  { return STRING;  }
+		if (Boolean.class.equals(type)) { return BOOLEAN; }
+		if (Integer.class.equals(type)) { return INTEGER; }
+		if (Long.class.equals(type))    { return LONG;    }
+		if (Double.class.equals(type))  { return DOUBLE;  }
+		if (Float.class.equals(type))   { return FLOAT;   }
+		if (Date.class.equals(type))    { return DATE;    }
+
+		return SERIALIZED;
+	}
+
+	private static Class getComponentType(final byte tag) throws IOException {
+
+		switch (tag) {
+
+			case STRING:  return String.class;
+			case BOOLEAN: return Boolean.class;
+			case INTEGER: return Integer.class;
+			case LONG:    return Long.class;
+			case DOUBLE:  return Double.class;
+			case FLOAT:   return Float.class;
+			case DATE:    return Date.class;
+		}
+
+		throw new IOException("Unknown array component tag " + tag);
+	}
+}
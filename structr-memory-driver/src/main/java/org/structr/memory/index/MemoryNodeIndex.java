@@ -25,9 +25,7 @@ import org.structr.api.search.QueryContext;
 import org.structr.api.util.Iterables;
 import org.structr.api.util.PagingIterable;
 import org.structr.memory.MemoryDatabaseService;
-import org.structr.memory.index.filter.MemoryLabelFilter;
-
-import java.util.Set;
+import org.structr.memory.index.filter.MemoryIndexFilter;
 
 /**
  *
@@ -45,7 +43,6 @@ public class MemoryNodeIndex extends AbstractMemoryIndex<Node> {
 	public Iterable<Node> getResult(final MemoryQuery query) {
 
 		final QueryContext queryContext = query.getQueryContext();
-		final Set<String> labels        = query.getTypeLabels();
 		Iterable<Node> result           = null;
 
 		if (db.logQueries()) {
@@ -56,21 +53,22 @@ public class MemoryNodeIndex extends AbstractMemoryIndex<Node> {
 			}
 		}
 
-		if (labels.isEmpty()) {
-
-			result = Iterables.filter(query, query.sort(db.getAllNodes()));
-
-		} else {
-
-			result = Iterables.filter(query, query.sort(db.getFilteredNodes(new MemoryLabelFilter<>(labels))));
-		}
+		// candidates are resolved through the property indexes if possible, label caches otherwise,
+		// and the query is applied before sorting so that only matching nodes need to be sorted
+		result = Iterables.filter(query, Iterables.map(n -> n, db.getFilteredNodes(new MemoryIndexFilter<>(query))));
 
 		if (queryContext.isSliced()) {
 
 			final int pageSize = queryContext.getPageSize();
 			final int page     = queryContext.getPage();
+			final long limit   = (long)page * (long)pageSize;
+
+			// only the elements up to the end of the requested page need to be sorted
+			result = new PagingIterable<>(query.toString(), query.sort(result, (int)Math.min(Integer.MAX_VALUE, limit)), pageSize, page);
+
+		} else {
 
-			result = new PagingIterable<>(query.toString(), result, pageSize, page);
+			result = query.sort(result);
 		}
 
 		return result;
@@ -28,6 +28,8 @@ import org.structr.api.search.QueryContext;
 import org.structr.api.search.SortOrder;
 import org.structr.api.search.SortSpec;
 import org.structr.api.util.Iterables;
+import org.structr.api.util.TopKSelector;
+import org.structr.memory.MemoryIdentity;
 import org.structr.memory.index.predicate.Conjunction;
 import org.structr.memory.index.predicate.GroupPredicate;
 import org.structr.memory.index.predicate.NotPredicate;
@@ -149,6 +151,38 @@ public class MemoryQuery<T extends PropertyContainer> implements DatabaseQuery,
 		return source;
 	}
 
+	/**
+	 * Sorts the given source and returns only the first <code>limit</code>
+	 * elements, without sorting the whole source (see {@link TopKSelector}).
+	 *
+	 * @param source the source
+	 * @param limit the maximum number of elements to return
+	 * @return the first limit elements of the sorted source
+	 */
+	public Iterable<T> sort(final Iterable<T> source, final int limit) {
+
+		if (sortOrder != null && limit > 0 && limit < Integer.MAX_VALUE) {
+
+			try {
+
+				return new TopKSelector<T>(new Sorter(sortOrder), limit).addAll(source).getResult();
+
+			} catch (Throwable t) {
+				logger.error(ExceptionUtils.getStackTrace(t));
+			}
+		}
+
+		return sort(source);
+	}
+
+	/**
+	 * Returns the candidates for this query from the given property indexes,
+	 * or null if the query cannot be resolved through an index.
+	 */
+	public Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes) {
+		return rootPredicate.lookup(indexes);
+	}
+
 	@Override
 	public boolean accept(final T value) {
 
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory.index;
+
+import org.structr.memory.MemoryIdentity;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index for a single property key of the committed node data in the
+ * memory database. Exact lookups are answered by a hash map, range and prefix
+ * lookups by sorted maps (one per value class, since values of different types
+ * cannot be compared with each other).
+ *
+ * Numeric values are normalized to Double so that a lookup with an Integer
+ * finds Long values as well, which matches the comparison semantics of the
+ * ValuePredicate. The results of a lookup are candidates only, the caller
+ * must always evaluate the actual predicate on the candidates. Candidates are
+ * returned in identity order, which is the insertion order of the nodes.
+ *
+ * Write access is serialized, read access is lock-free.
+ */
+public class PropertyIndex {
+
+	private final Map<Class, NavigableMap<Comparable, Set<MemoryIdentity>>> sortedIndexes = new ConcurrentHashMap<>();
+	private final Map<Object, Set<MemoryIdentity>> hashIndex                              = new ConcurrentHashMap<>();
+	private NavigableMap<String, Set<MemoryIdentity>> lowerCaseIndex                      = null;
+	private volatile boolean hasNonStringValues                                           = false;
+	private volatile long size                                                            = 0L;
+	private String key                                                                    = null;
+
+	public PropertyIndex(final String key) {
+		this.key = key;
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyIndex(" + key + ", " + hashIndex.size() + " distinct values)";
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public synchronized void add(final Object value, final MemoryIdentity id) {
+
+		final Object normalized = normalize(value);
+		if (normalized != null) {
+
+			if (getOrCreate(hashIndex, normalized).add(id)) {
+				size++;
+			}
+
+			if (normalized instanceof Comparable comparable) {
+
+				getOrCreate(sortedIndexes.computeIfAbsent(normalized.getClass(), k -> new ConcurrentSkipListMap<>()), comparable).add(id);
+			}
+
+			if (normalized instanceof String string) {
+
+				if (lowerCaseIndex != null) {
+					getOrCreate(lowerCaseIndex, string.toLowerCase()).add(id);
+				}
+
+			} else {
+
+				hasNonStringValues = true;
+			}
+		}
+	}
+
+	public synchronized void remove(final Object value, final MemoryIdentity id) {
+
+		final Object normalized = normalize(value);
+		if (normalized != null) {
+
+			if (removeFrom(hashIndex, normalized, id)) {
+				size--;
+			}
+
+			if (normalized instanceof Comparable comparable) {
+
+				final NavigableMap<Comparable, Set<MemoryIdentity>> sortedIndex = sortedIndexes.get(normalized.getClass());
+				if (sortedIndex != null) {
+
+					removeFrom(sortedIndex, comparable, id);
+				}
+			}
+
+			if (normalized instanceof String string && lowerCaseIndex != null) {
+
+				removeFrom(lowerCaseIndex, string.toLowerCase(), id);
+			}
+		}
+	}
+
+	/**
+	 * Returns the identities of all entities whose value is equal to the given
+	 * value, or null if the value cannot be looked up in this index.
+	 */
+	public Set<MemoryIdentity> getExact(final Object value) {
+
+		final Object normalized = normalize(value);
+		if (normalized != null) {
+
+			final Set<MemoryIdentity> ids = hashIndex.get(normalized);
+			if (ids != null) {
+
+				return new TreeSet<>(ids);
+			}
+
+			return new TreeSet<>();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the identities of all entities whose value is within the given
+	 * range (bounds are always inclusive, one of them may be null), or null if
+	 * the range cannot be looked up in this index.
+	 */
+	public Set<MemoryIdentity> getRange(final Object start, final Object end) {
+
+		final Object normalizedStart = normalize(start);
+		final Object normalizedEnd   = normalize(end);
+
+		if (normalizedStart == null && normalizedEnd == null) {
+			return null;
+		}
+
+		if (normalizedStart != null && normalizedEnd != null && !normalizedStart.getClass().equals(normalizedEnd.getClass())) {
+			return null;
+		}
+
+		final Class type = normalizedStart != null ? normalizedStart.getClass() : normalizedEnd.getClass();
+		if (!Comparable.class.isAssignableFrom(type)) {
+			return null;
+		}
+
+		final NavigableMap<Comparable, Set<MemoryIdentity>> sortedIndex = sortedIndexes.get(type);
+		if (sortedIndex == null) {
+
+			return new TreeSet<>();
+		}
+
+		final NavigableMap<Comparable, Set<MemoryIdentity>> range;
+
+		if (normalizedStart == null) {
+
+			range = sortedIndex.headMap((Comparable)normalizedEnd, true);
+
+		} else if (normalizedEnd == null) {
+
+			range = sortedIndex.tailMap((Comparable)normalizedStart, true);
+
+		} else {
+
+			if (((Comparable)normalizedStart).compareTo(normalizedEnd) > 0) {
+				return new TreeSet<>();
+			}
+
+			range = sortedIndex.subMap((Comparable)normalizedStart, true, (Comparable)normalizedEnd, true);
+		}
+
+		return collect(range);
+	}
+
+	/**
+	 * Returns the identities of all entities with a string value that starts
+	 * with the given prefix, or null if the prefix cannot be looked up in this
+	 * index (because the property contains non-string values that would be
+	 * matched by their string representation).
+	 */
+	public Set<MemoryIdentity> getPrefix(final String prefix, final boolean ignoreCase) {
+
+		if (prefix == null || hasNonStringValues) {
+			return null;
+		}
+
+		if (ignoreCase) {
+
+			final String lowerCasePrefix = prefix.toLowerCase();
+
+			return collect(getLowerCaseIndex().subMap(lowerCasePrefix, true, lowerCasePrefix + Character.MAX_VALUE, true));
+		}
+
+		final NavigableMap<Comparable, Set<MemoryIdentity>> sortedIndex = sortedIndexes.get(String.class);
+		if (sortedIndex == null) {
+
+			return new TreeSet<>();
+		}
+
+		return collect(sortedIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, true));
+	}
+
+	// ----- private methods -----
+	private synchronized NavigableMap<String, Set<MemoryIdentity>> getLowerCaseIndex() {
+
+		if (lowerCaseIndex == null) {
+
+			final NavigableMap<String, Set<MemoryIdentity>> index = new ConcurrentSkipListMap<>();
+
+			for (final Map.Entry<Object, Set<MemoryIdentity>> entry : hashIndex.entrySet()) {
+
+				if (entry.getKey() instanceof String string) {
+
+					getOrCreate(index, string.toLowerCase()).addAll(entry.getValue());
+				}
+			}
+
+			lowerCaseIndex = index;
+		}
+
+		return lowerCaseIndex;
+	}
+
+	private <K> Set<MemoryIdentity> getOrCreate(final Map<K, Set<MemoryIdentity>> map, final K key) {
+
+		Set<MemoryIdentity> ids = map.get(key);
+		if (ids == null) {
+
+			ids = new ConcurrentSkipListSet<>();
+			map.put(key, ids);
+		}
+
+		return ids;
+	}
+
+	private <K> boolean removeFrom(final Map<K, Set<MemoryIdentity>> map, final K key, final MemoryIdentity id) {
+
+		final Set<MemoryIdentity> ids = map.get(key);
+		if (ids != null) {
+
+			final boolean removed = ids.remove(id);
+
+			if (ids.isEmpty()) {
+				map.remove(key);
+			}
+
+			return removed;
+		}
+
+		return false;
+	}
+
+	private Set<MemoryIdentity> collect(final Map<? extends Comparable, Set<MemoryIdentity>> range) {
+
+		final Set<MemoryIdentity> result = new TreeSet<>();
+
+		for (final Set<MemoryIdentity> ids : range.values()) {
+			result.addAll(ids);
+		}
+
+		return result;
+	}
+
+	private Object normalize(final Object value) {
+
+		if (value == null || value.getClass().isArray()) {
+			return null;
+		}
+
+		if (value instanceof Number number) {
+			return number.doubleValue();
+		}
+
+		return value;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory.index.filter;
+
+import org.structr.memory.MemoryEntity;
+import org.structr.memory.index.MemoryQuery;
+
+import java.util.Set;
+
+/**
+ * Filter that resolves the candidates of a query through the property indexes
+ * of a repository and falls back to the label caches if the query cannot be
+ * resolved.
+ */
+public class MemoryIndexFilter<T extends MemoryEntity> implements Filter<T> {
+
+	private MemoryQuery query = null;
+
+	public MemoryIndexFilter(final MemoryQuery query) {
+		this.query = query;
+	}
+
+	public MemoryQuery getQuery() {
+		return query;
+	}
+
+	public Set<String> getLabels() {
+		return query.getTypeLabels();
+	}
+
+	public Filter<T> getFallbackFilter() {
+
+		final Set<String> labels = getLabels();
+		if (labels.isEmpty()) {
+
+			return null;
+		}
+
+		return new MemoryLabelFilter<>(labels);
+	}
+
+	public boolean matchesLabels(final T entity) {
+
+		final Set<String> labels = getLabels();
+		if (labels.isEmpty()) {
+
+			return true;
+		}
+
+		// multiple labels result in OR not AND query
+		for (final String label : labels) {
+
+			if (entity.hasLabel(label)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -20,16 +20,20 @@ package org.structr.memory.index.predicate;
 
 import org.apache.commons.lang3.StringUtils;
 import org.structr.api.Predicate;
+import org.structr.memory.MemoryIdentity;
+import org.structr.memory.index.PropertyIndexProvider;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.structr.memory.index.predicate.Conjunction.And;
 import static org.structr.memory.index.predicate.Conjunction.Not;
 
 /**
  */
-public class GroupPredicate<T> implements Predicate<T> {
+public class GroupPredicate<T> implements IndexablePredicate<T> {
 
 	private final List<Predicate<T>> predicates = new LinkedList<>();
 	private Conjunction conjunction             = Conjunction.And;
@@ -83,4 +87,63 @@ public class GroupPredicate<T> implements Predicate<T> {
 
 		return result;
 	}
+
+	@Override
+	public Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes) {
+
+		switch (conjunction) {
+
+			case And: {
+
+				// every predicate must match, so the smallest candidate set is sufficient
+				Set<MemoryIdentity> smallest = null;
+
+				for (final Predicate<T> predicate : predicates) {
+
+					if (predicate instanceof IndexablePredicate<T> indexable) {
+
+						final Set<MemoryIdentity> candidates = indexable.lookup(indexes);
+						if (candidates != null && (smallest == null || candidates.size() < smallest.size())) {
+
+							smallest = candidates;
+
+							if (smallest.isEmpty()) {
+								break;
+							}
+						}
+					}
+				}
+
+				return smallest;
+			}
+
+			case Or: {
+
+				// any predicate can match, so all of them must be resolvable
+				final Set<MemoryIdentity> union = new TreeSet<>();
+
+				for (final Predicate<T> predicate : predicates) {
+
+					if (predicate instanceof IndexablePredicate<T> indexable) {
+
+						final Set<MemoryIdentity> candidates = indexable.lookup(indexes);
+						if (candidates == null) {
+
+							return null;
+						}
+
+						union.addAll(candidates);
+
+					} else {
+
+						return null;
+					}
+				}
+
+				return predicates.isEmpty() ? null : union;
+			}
+		}
+
+		return null;
+	}
 }
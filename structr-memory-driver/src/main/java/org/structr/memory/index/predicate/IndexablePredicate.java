@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory.index.predicate;
+
+import org.structr.api.Predicate;
+import org.structr.memory.MemoryIdentity;
+import org.structr.memory.index.PropertyIndexProvider;
+
+import java.util.Set;
+
+/**
+ * A predicate that can determine its candidate set from a property index.
+ */
+public interface IndexablePredicate<T> extends Predicate<T> {
+
+	/**
+	 * Returns the identities of all committed entities that may be accepted
+	 * by this predicate, or null if the candidates cannot be determined from
+	 * the available indexes. The result is a superset, the predicate must
+	 * still be applied to every candidate.
+	 *
+	 * @param indexes the index provider
+	 * @return a set of candidates or null
+	 */
+	Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes);
+}
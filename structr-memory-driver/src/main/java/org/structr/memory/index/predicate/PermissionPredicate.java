@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.memory.index.predicate;
+
+import org.structr.api.Predicate;
+import org.structr.api.graph.Direction;
+import org.structr.api.graph.PropertyContainer;
+import org.structr.api.graph.Relationship;
+import org.structr.api.graph.RelationshipType;
+import org.structr.api.search.PermissionQuery;
+import org.structr.memory.MemoryNode;
+
+import java.util.Set;
+
+/**
+ */
+public class PermissionPredicate<T extends PropertyContainer> implements Predicate<T> {
+
+	private PermissionQuery permissionQuery = null;
+
+	public PermissionPredicate(final PermissionQuery permissionQuery) {
+		this.permissionQuery = permissionQuery;
+	}
+
+	@Override
+	public String toString() {
+		return "PERMISSION(" + permissionQuery.getPrincipalIds() + ")";
+	}
+
+	@Override
+	public boolean accept(final T entity) {
+
+		if (entity instanceof MemoryNode node) {
+
+			if (Boolean.TRUE.equals(node.getProperty(permissionQuery.getPublicPropertyName()))) {
+				return true;
+			}
+
+			final Set<String> principalIds = permissionQuery.getPrincipalIds();
+			if (permissionQuery.isPublicOnly() || principalIds.isEmpty()) {
+				return false;
+			}
+
+			if (Boolean.TRUE.equals(node.getProperty(permissionQuery.getAuthenticatedPropertyName()))) {
+				return true;
+			}
+
+			final String idKey = permissionQuery.getIdPropertyName();
+
+			if (principalIds.contains(node.getProperty(idKey))) {
+				return true;
+			}
+
+			for (final Relationship rel : node.getRelationships(Direction.INCOMING, RelationshipType.forName(permissionQuery.getOwnerRelationship()))) {
+
+				if (principalIds.contains(rel.getStartNode().getProperty(idKey))) {
+					return true;
+				}
+			}
+
+			for (final Relationship rel : node.getRelationships(Direction.INCOMING, RelationshipType.forName(permissionQuery.getSecurityRelationship()))) {
+
+				if (principalIds.contains(rel.getStartNode().getProperty(idKey)) && isAllowed(rel.getProperty(permissionQuery.getAllowedPropertyName()))) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	// ----- private methods -----
+	private boolean isAllowed(final Object allowed) {
+
+		if (allowed instanceof Object[] array) {
+
+			for (final Object value : array) {
+
+				if (permissionQuery.getPermission().equals(value)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+}
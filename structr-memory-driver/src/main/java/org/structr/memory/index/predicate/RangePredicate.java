@@ -18,14 +18,17 @@
  */
 package org.structr.memory.index.predicate;
 
-import org.structr.api.Predicate;
 import org.structr.api.graph.PropertyContainer;
+import org.structr.memory.MemoryIdentity;
+import org.structr.memory.index.PropertyIndex;
+import org.structr.memory.index.PropertyIndexProvider;
 
 import java.util.Date;
+import java.util.Set;
 
 /**
  */
-public class RangePredicate<T extends PropertyContainer, V extends Comparable> implements Predicate<T> {
+public class RangePredicate<T extends PropertyContainer, V extends Comparable> implements IndexablePredicate<T> {
 
 	private Class typeHint         = null;
 	private String key             = null;
@@ -88,6 +91,23 @@ public class RangePredicate<T extends PropertyContainer, V extends Comparable> i
 		return false;
 	}
 
+	@Override
+	public Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes) {
+
+		// type hints can truncate values (e.g. Double to Long), which the index can not reproduce
+		if (typeHint == null) {
+
+			final PropertyIndex index = indexes.getPropertyIndex(key);
+			if (index != null) {
+
+				// bounds are inclusive here, exclusive bounds are handled by accept()
+				return index.getRange(rangeStart, rangeEnd);
+			}
+		}
+
+		return null;
+	}
+
 	// ----- private methods -----
 	private boolean greaterThan(final Comparable actual, final Comparable expected) {
 
@@ -18,12 +18,16 @@
  */
 package org.structr.memory.index.predicate;
 
-import org.structr.api.Predicate;
 import org.structr.api.graph.PropertyContainer;
+import org.structr.memory.MemoryIdentity;
+import org.structr.memory.index.PropertyIndex;
+import org.structr.memory.index.PropertyIndexProvider;
+
+import java.util.Set;
 
 /**
  */
-public class StartsOrEndsWithPredicate<T extends PropertyContainer, V> implements Predicate<T> {
+public class StartsOrEndsWithPredicate<T extends PropertyContainer, V> implements IndexablePredicate<T> {
 
 	private boolean caseInsensitive = false;
 	private boolean startsWith      = false;
@@ -74,4 +78,20 @@ public class StartsOrEndsWithPredicate<T extends PropertyContainer, V> implement
 
 		return false;
 	}
+
+	@Override
+	public Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes) {
+
+		if (startsWith) {
+
+			final PropertyIndex index = indexes.getPropertyIndex(key);
+			if (index != null) {
+
+				// must match the comparison in accept(): the lower-cased comparison is used if caseInsensitive is NOT set
+				return index.getPrefix(value, !caseInsensitive);
+			}
+		}
+
+		return null;
+	}
 }
@@ -18,14 +18,17 @@
  */
 package org.structr.memory.index.predicate;
 
-import org.structr.api.Predicate;
 import org.structr.api.graph.PropertyContainer;
+import org.structr.memory.MemoryIdentity;
+import org.structr.memory.index.PropertyIndex;
+import org.structr.memory.index.PropertyIndexProvider;
 
 import java.util.Arrays;
+import java.util.Set;
 
 /**
  */
-public class ValuePredicate<T extends PropertyContainer, V> implements Predicate<T> {
+public class ValuePredicate<T extends PropertyContainer, V> implements IndexablePredicate<T> {
 
 	private String key     = null;
 	private V desiredValue = null;
@@ -50,6 +53,18 @@ public class ValuePredicate<T extends PropertyContainer, V> implements Predicate
 		return ValuePredicate.compareValues(desiredValue, value);
 	}
 
+	@Override
+	public Set<MemoryIdentity> lookup(final PropertyIndexProvider indexes) {
+
+		final PropertyIndex index = indexes.getPropertyIndex(key);
+		if (index != null) {
+
+			return index.getExact(desiredValue);
+		}
+
+		return null;
+	}
+
 	public static boolean compareValues(final Object expectedValue, final Object actualValue) {
 
 		// support for null values
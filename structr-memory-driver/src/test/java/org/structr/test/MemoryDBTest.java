@@ -18,15 +18,38 @@
  */
 package org.structr.test;
 
+import org.structr.api.Predicate;
 import org.structr.api.Transaction;
+import org.structr.api.config.Settings;
+import org.structr.api.graph.Direction;
 import org.structr.api.graph.Identity;
 import org.structr.api.graph.Node;
+import org.structr.api.search.QueryContext;
+import org.structr.api.search.SortOrder;
+import org.structr.api.search.SortSpec;
+import org.structr.api.search.SortType;
+import org.structr.api.util.CountResult;
+import org.structr.api.util.Iterables;
 import org.structr.memory.MemoryDatabaseService;
+import org.structr.memory.index.MemoryNodeIndex;
+import org.structr.memory.index.MemoryQuery;
 import org.structr.memory.index.filter.MemoryLabelFilter;
+import org.structr.memory.index.predicate.RangePredicate;
+import org.structr.memory.index.predicate.StartsOrEndsWithPredicate;
+import org.structr.memory.index.predicate.ValuePredicate;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 /**
  */
@@ -67,4 +90,317 @@ public class MemoryDBTest {
 		}
 
 	}
+
+	@Test
+	public void testPropertyIndexes() {
+
+		final MemoryDatabaseService service = new MemoryDatabaseService();
+		final MemoryNodeIndex index         = (MemoryNodeIndex)service.nodeIndex();
+
+		try (final Transaction tx = service.beginTx()) {
+
+			for (int i=0; i<100; i++) {
+
+				final Map<String, Object> data = new LinkedHashMap<>();
+
+				data.put("name", "n" + i);
+				data.put("age",  i);
+
+				service.createNode("Test", null, data);
+			}
+
+			tx.success();
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			assertEquals("Invalid exact index lookup result",  1, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "n5")))));
+			assertEquals("Invalid range index lookup result", 10, Iterables.count(index.getResult(query(new RangePredicate<>("age", 10, 19, null)))));
+			assertEquals("Invalid prefix index lookup result", 11, Iterables.count(index.getResult(query(new StartsOrEndsWithPredicate<>("name", "n1", true, true)))));
+
+			// modify a node, index must reflect the uncommitted value in this transaction
+			final Node node = Iterables.first(index.getResult(query(new ValuePredicate<>("name", "n5"))));
+
+			node.setProperty("name", "changed");
+
+			assertEquals("Invalid index lookup result for modified node", 1, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "changed")))));
+
+			tx.success();
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			assertEquals("Index not updated after commit", 0, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "n5")))));
+			assertEquals("Index not updated after commit", 1, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "changed")))));
+
+			final Node node = Iterables.first(index.getResult(query(new ValuePredicate<>("name", "n6"))));
+
+			node.setProperty("name", "rolledBack");
+
+			// no success => rollback
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			assertEquals("Index not consistent after rollback", 0, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "rolledBack")))));
+			assertEquals("Index not consistent after rollback", 1, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "n6")))));
+
+			Iterables.first(index.getResult(query(new ValuePredicate<>("name", "n7")))).delete(true);
+
+			tx.success();
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			assertEquals("Index not updated after deletion", 0, Iterables.count(index.getResult(query(new ValuePredicate<>("name", "n7")))));
+
+			tx.success();
+		}
+	}
+
+	@Test
+	public void testSortedPaging() {
+
+		final MemoryDatabaseService service = new MemoryDatabaseService();
+		final MemoryNodeIndex index         = (MemoryNodeIndex)service.nodeIndex();
+
+		try (final Transaction tx = service.beginTx()) {
+
+			for (int i=0; i<50; i++) {
+
+				final Map<String, Object> data = new LinkedHashMap<>();
+
+				data.put("name", "n" + i);
+				data.put("rank", i % 10);
+
+				service.createNode("Test", null, data);
+			}
+
+			tx.success();
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			final MemoryQuery fullQuery = query(new ValuePredicate<>("type", "Test"));
+			fullQuery.sort(sortOrder("rank", true));
+
+			final List<Node> full = Iterables.toList(index.getResult(fullQuery));
+
+			assertEquals("Invalid sorted result size", 50, full.size());
+
+			for (int page=1; page<=8; page++) {
+
+				final MemoryQuery pagedQuery = query(new QueryContext().page(7, page), new ValuePredicate<>("type", "Test"));
+				pagedQuery.sort(sortOrder("rank", true));
+
+				final List<Node> expected = full.subList(Math.min(50, (page - 1) * 7), Math.min(50, page * 7));
+
+				assertEquals("Top-k sorting result differs from full sort", expected, Iterables.toList(index.getResult(pagedQuery)));
+			}
+
+			tx.success();
+		}
+	}
+
+	@Test
+	public void testSnapshotPersistence() throws IOException {
+
+		final File directory  = Files.createTempDirectory("structr-memory-snapshot").toFile();
+		final String longText = "x".repeat(100_000);
+		Identity modifiedId   = null;
+		Identity deletedId    = null;
+		Identity createdId    = null;
+
+		Settings.MemoryStoragePath.setValue(directory.getAbsolutePath());
+
+		try {
+
+			final MemoryDatabaseService service = new MemoryDatabaseService();
+
+			assertTrue(service.initialize("test", null, null));
+
+			try (final Transaction tx = service.beginTx()) {
+
+				Node previous = null;
+
+				// more than one snapshot segment
+				for (int i=0; i<12_000; i++) {
+
+					final Map<String, Object> data = new LinkedHashMap<>();
+
+					data.put("type",    "Test");
+					data.put("name",    "n" + i);
+					data.put("index",   i);
+					data.put("created", new Date(i));
+					data.put("tags",    new String[] { "a" + i, "b" + i });
+
+					final Node node = service.createNode("Test", Set.of("Test"), data);
+
+					if (previous != null) {
+						previous.createRelationshipTo(node, service.getRelationshipType("NEXT"));
+					}
+
+					if (i == 10) { modifiedId = node.getId(); }
+					if (i == 20) { deletedId  = node.getId(); }
+
+					previous = node;
+				}
+
+				tx.success();
+			}
+
+			service.writeSnapshot(directory);
+
+			// changes after the snapshot are only stored in the change log
+			try (final Transaction tx = service.beginTx()) {
+
+				service.getNodeById(modifiedId).setProperty("name", longText);
+				service.getNodeById(deletedId).delete(true);
+
+				createdId = service.createNode("Test", Set.of("Test"), new LinkedHashMap<>(Map.of("type", "Test", "name", "new"))).getId();
+
+				tx.success();
+			}
+		} finally {
+
+			Settings.MemoryStoragePath.setValue("");
+		}
+
+		// load without shutdown of the first instance (no final snapshot)
+		final MemoryDatabaseService service = new MemoryDatabaseService();
+
+		service.loadSnapshot(directory);
+
+		try (final Transaction tx = service.beginTx()) {
+
+			final CountResult count = service.getNodeAndRelationshipCount();
+
+			assertEquals("Invalid node count after loading snapshot", 12_000, count.getNodeCount());
+			assertEquals("Invalid relationship count after loading snapshot", 11_997, count.getRelationshipCount());
+
+			final Node node = service.getNodeById(modifiedId);
+
+			assertEquals("Invalid string property after loading snapshot", longText, node.getProperty("name"));
+			assertEquals("Invalid int property after loading snapshot", 10, node.getProperty("index"));
+			assertEquals("Invalid date property after loading snapshot", new Date(10), node.getProperty("created"));
+			assertEquals("Invalid array property after loading snapshot", List.of("a10", "b10"), List.of((String[])node.getProperty("tags")));
+			assertEquals("Invalid node after replaying change log", "new", service.getNodeById(createdId).getProperty("name"));
+			assertEquals("Invalid relationship count after loading snapshot", 1, Iterables.count(node.getRelationships(Direction.OUTGOING)));
+
+			// new identities must not collide with loaded ones
+			final Identity newId = service.createNode("Test", Set.of("Test"), new LinkedHashMap<>(Map.of("type", "Test"))).getId();
+
+			assertTrue("Identity collision after loading snapshot", newId.getId() > createdId.getId());
+
+			tx.success();
+		}
+	}
+
+	// ----- private methods -----
+	@Test
+	public void testPropertyIndexResultOrder() {
+
+		final MemoryDatabaseService service = new MemoryDatabaseService();
+		final MemoryNodeIndex index         = (MemoryNodeIndex)service.nodeIndex();
+
+		try (final Transaction tx = service.beginTx()) {
+
+			for (int i=0; i<50; i++) {
+
+				final Map<String, Object> data = new LinkedHashMap<>();
+
+				data.put("group", i % 3);
+				data.put("age",   49 - i);
+
+				service.createNode("Test", null, data);
+			}
+
+			tx.success();
+		}
+
+		try (final Transaction tx = service.beginTx()) {
+
+			// modify a node in the middle, it must keep its position in the result
+			final Node modified = Iterables.first(index.getResult(query(new ValuePredicate<>("age", 25))));
+
+			modified.setProperty("group", 1);
+
+			// unsorted results must be returned in insertion order (descending age), not in hash or value order
+			assertDescending(index.getResult(query(new ValuePredicate<>("group", 1))), 18);
+			assertDescending(index.getResult(query(new RangePredicate<>("age", 0, 49, null))), 50);
+
+			tx.success();
+		}
+	}
+
+	private void assertDescending(final Iterable<Node> nodes, final int expectedCount) {
+
+		int previous = Integer.MAX_VALUE;
+		int count    = 0;
+
+		for (final Node node : nodes) {
+
+			final int age = ((Number)node.getProperty("age")).intValue();
+
+			assertTrue("Unsorted result is not in insertion order", age < previous);
+
+			previous = age;
+			count++;
+		}
+
+		assertEquals("Invalid result size", expectedCount, count);
+	}
+
+	private MemoryQuery query(final Predicate predicate) {
+		return query(new QueryContext(), predicate);
+	}
+
+	private MemoryQuery query(final QueryContext queryContext, final Predicate predicate) {
+
+		final MemoryQuery query = new MemoryQuery(queryContext);
+
+		query.addTypeLabel("Test");
+		query.addPredicate(predicate);
+
+		return query;
+	}
+
+	private SortOrder sortOrder(final String key, final boolean descending) {
+
+		final SortSpec spec = new SortSpec() {
+
+			@Override
+			public SortType getSortType() {
+				return SortType.Default;
+			}
+
+			@Override
+			public String getSortKey() {
+				return key;
+			}
+
+			@Override
+			public boolean sortDescending() {
+				return descending;
+			}
+		};
+
+		return new SortOrder() {
+
+			@Override
+			public List<SortSpec> getSortElements() {
+				return List.of(spec);
+			}
+
+			@Override
+			public boolean isEmpty() {
+				return false;
+			}
+
+			@Override
+			public int compare(final Object o1, final Object o2) {
+				return 0;
+			}
+		};
+	}
 }
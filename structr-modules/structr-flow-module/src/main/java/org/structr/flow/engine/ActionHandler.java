@@ -29,6 +29,6 @@ public class ActionHandler implements FlowHandler {
 
 		flowElement.as(FlowAction.class).execute(context);
 
-		return flowElement.next();
+		return context.next(flowElement);
 	}
 }
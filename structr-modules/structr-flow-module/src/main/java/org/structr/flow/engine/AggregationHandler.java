@@ -29,7 +29,7 @@ public class AggregationHandler implements FlowHandler {
 
 		flowElement.as(FlowAggregate.class).aggregate(context);
 
-		return flowElement.next();
+		return context.next(flowElement);
 
 	}
 }
@@ -21,6 +21,7 @@ package org.structr.flow.engine;
 import org.structr.common.SecurityContext;
 import org.structr.core.GraphObject;
 import org.structr.flow.impl.FlowBaseNode;
+import org.structr.flow.impl.FlowNode;
 import org.structr.schema.action.ActionContext;
 
 import java.util.*;
@@ -37,6 +38,7 @@ public class Context {
 	private GraphObject thisObject          = null;
 	private Object result                   = null;
 	private FlowError error                 = null;
+	private FlowPlan plan                   = null;
 
 	public Context() {}
 
@@ -48,6 +50,7 @@ public class Context {
 		this.parameters   = deepCopyMap(context.parameters);
 		this.currentData  = deepCopyMap(context.currentData);
 		this.forkPromises = deepCopyQueue(context.forkPromises);
+		this.plan         = context.plan;
 	}
 
 	public Context(final GraphObject thisObject) {
@@ -138,6 +141,32 @@ public class Context {
 		return this.forkPromises;
 	}
 
+	public FlowPlan getPlan() {
+		return plan;
+	}
+
+	public void setPlan(final FlowPlan plan) {
+		this.plan = plan;
+	}
+
+	public FlowNode next(final FlowNode node) {
+
+		if (plan != null) {
+			return plan.next(node);
+		}
+
+		return node.next();
+	}
+
+	public String getScript(final FlowBaseNode node, final String key) {
+
+		if (plan != null) {
+			return plan.getScript(node, key);
+		}
+
+		return node.getProperty(node.getTraits().key(key));
+	}
+
 	public ActionContext getActionContext(final SecurityContext securityContext, final FlowBaseNode node) {
 
 		final ActionContext ctx = new ActionContext(securityContext);
@@ -26,7 +26,7 @@ public class ExceptionHandler implements FlowHandler {
 	@Override
 	public FlowNode handle(final Context context, final FlowNode flowElement) {
 
-		return flowElement.next();
+		return context.next(flowElement);
 
 	}
 }
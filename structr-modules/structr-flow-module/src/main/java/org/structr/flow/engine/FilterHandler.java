@@ -29,6 +29,6 @@ public class FilterHandler implements FlowHandler {
 
 		flowElement.as(FlowFilter.class).filter(context);
 
-		return flowElement.next();
+		return context.next(flowElement);
 	}
 }
@@ -67,9 +67,22 @@ public class FlowEngine {
 
 		FlowNode current = step;
 
+		// resolve the compiled plan of the step's container unless the context already carries it
+		if (current != null && (context.getPlan() == null || !context.getPlan().contains(current.getUuid()))) {
+
+			final FlowPlan compiled = FlowPlanCache.getPlan(current.getFlowContainer());
+			if (compiled != null) {
+
+				context.setPlan(compiled);
+			}
+		}
+
+		final FlowPlan plan = context.getPlan();
+
 		while (current != null) {
 
-			final FlowHandler handler = handlers.get(current.getFlowType());
+			final FlowType type       = plan != null ? plan.getFlowType(current) : current.getFlowType();
+			final FlowHandler handler = handlers.get(type);
 			if (handler != null) {
 
 				FlowNode next = null;
@@ -98,7 +111,7 @@ public class FlowEngine {
 
 			} else {
 
-				logger.warn("No handler registered for type {}, aborting.", current.getFlowType());
+				logger.warn("No handler registered for type {}, aborting.", type);
 
 			}
 
@@ -128,12 +141,22 @@ public class FlowEngine {
 
 	protected FlowResult handleException(final Context context, final FlowException exception, final FlowNode current) throws FrameworkException {
 
-		ThrowingElement throwingElement = exception.getThrowingElement();
+		final ThrowingElement throwingElement = exception.getThrowingElement();
+		final FlowPlan plan                   = context.getPlan();
 
 		// Check if throwing element has a linked FlowExceptionHandler or if there is a global one
 		if (throwingElement != null) {
 
-			FlowExceptionHandler exceptionHandler = throwingElement.getExceptionHandler(context);
+			final FlowExceptionHandler exceptionHandler;
+
+			if (plan != null && throwingElement instanceof FlowBaseNode node) {
+
+				exceptionHandler = plan.getExceptionHandler(node);
+
+			} else {
+
+				exceptionHandler = throwingElement.getExceptionHandler(context);
+			}
 
 			if (exceptionHandler != null) {
 
@@ -145,33 +168,45 @@ public class FlowEngine {
 		}
 
 		// No linked FlowExceptionHandler was found, try to find an eligible global one
-		final Logger logger = LoggerFactory.getLogger(FlowEngine.class);
-		try {
-			FlowContainer container = current.getFlowContainer();
+		if (plan != null && plan.contains(current.getUuid())) {
+
+			final FlowExceptionHandler exceptionHandler = plan.getGlobalExceptionHandler(current);
+			if (exceptionHandler != null) {
 
-			Iterable<FlowBaseNode> flowNodes = container.getFlowNodes();
-			if (flowNodes != null) {
+				context.setData(exceptionHandler.getUuid(), exception);
+				return this.execute(context, exceptionHandler);
+			}
 
-				for (final FlowBaseNode node : flowNodes) {
+		} else {
 
-					if (node.is(StructrTraits.FLOW_EXCEPTION_HANDLER)) {
+			final Logger logger = LoggerFactory.getLogger(FlowEngine.class);
+			try {
+				FlowContainer container = current.getFlowContainer();
 
-						final FlowExceptionHandler exceptionHandler = node.as(FlowExceptionHandler.class);
-						final List<FlowBaseNode> handledNodes       = Iterables.toList(exceptionHandler.getHandledNodes());
+				Iterable<FlowBaseNode> flowNodes = container.getFlowNodes();
+				if (flowNodes != null) {
 
-						if (handledNodes == null || handledNodes.isEmpty()) {
+					for (final FlowBaseNode node : flowNodes) {
 
-							context.setData(exceptionHandler.getUuid(), exception);
-							return this.execute(context, exceptionHandler);
+						if (node.is(StructrTraits.FLOW_EXCEPTION_HANDLER)) {
 
+							final FlowExceptionHandler exceptionHandler = node.as(FlowExceptionHandler.class);
+							final List<FlowBaseNode> handledNodes       = Iterables.toList(exceptionHandler.getHandledNodes());
+
+							if (handledNodes == null || handledNodes.isEmpty()) {
+
+								context.setData(exceptionHandler.getUuid(), exception);
+								return this.execute(context, exceptionHandler);
+
+							}
 						}
 					}
 				}
-			}
 
-		} catch (NullPointerException ex) {
+			} catch (NullPointerException ex) {
 
-			logger.error("Exception while processing FlowException.", ex);
+				logger.error("Exception while processing FlowException.", ex);
+			}
 		}
 
 		// In case no handler is present at all, print the stack trace and return the intermediate result
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.flow.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.NotFoundException;
+import org.structr.api.graph.Identity;
+import org.structr.api.graph.Node;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.Services;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.NodeFactory;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.traits.StructrTraits;
+import org.structr.core.traits.Traits;
+import org.structr.flow.api.FlowType;
+import org.structr.flow.impl.FlowBaseNode;
+import org.structr.flow.impl.FlowContainer;
+import org.structr.flow.impl.FlowExceptionHandler;
+import org.structr.flow.impl.FlowNode;
+import org.structr.flow.traits.definitions.FlowActionTraitDefinition;
+import org.structr.flow.traits.definitions.FlowDataSourceTraitDefinition;
+import org.structr.flow.traits.definitions.FlowReturnTraitDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled structure of a flow container. Every node of the
+ * container is compiled into a step that holds its database identity, flow
+ * type and script sources, and is linked to the steps of its successor and
+ * its exception handler.
+ *
+ * Following a link resolves the node directly from its identity in the
+ * caller's security context, which avoids re-traversing the relationships
+ * of the flow graph and looking up nodes by UUID on every execution step.
+ * Nodes that are not part of the plan fall back to the live graph.
+ */
+public class FlowPlan {
+
+	private static final Logger logger              = LoggerFactory.getLogger(FlowPlan.class);
+	private static final List<String> scriptKeys    = List.of(FlowActionTraitDefinition.SCRIPT_PROPERTY, FlowDataSourceTraitDefinition.QUERY_PROPERTY, FlowReturnTraitDefinition.RESULT_PROPERTY);
+
+	private final List<Step> globalExceptionHandlers;
+	private final Map<String, Step> steps;
+	private final Set<String> references;
+	private final String containerUuid;
+
+	private FlowPlan(final String containerUuid, final Map<String, Step> steps, final List<Step> globalExceptionHandlers, final Set<String> references) {
+
+		this.containerUuid           = containerUuid;
+		this.steps                   = Map.copyOf(steps);
+		this.globalExceptionHandlers = List.copyOf(globalExceptionHandlers);
+		this.references              = Set.copyOf(references);
+	}
+
+	public static FlowPlan compile(final FlowContainer container) {
+
+		final List<Step> globalExceptionHandlers = new ArrayList<>();
+		final Map<String, FlowBaseNode> nodes    = new HashMap<>();
+		final Map<String, Step> steps            = new HashMap<>();
+		final Set<String> references             = new HashSet<>();
+
+		// compile with full visibility, access is checked when nodes are resolved
+		for (final FlowBaseNode node : getSuperUserContainer(container).getFlowNodes()) {
+
+			final String uuid = node.getUuid();
+
+			nodes.put(uuid, node);
+			steps.put(uuid, new Step(node));
+			references.add(uuid);
+		}
+
+		// link the steps, successors outside of the container get an unregistered step
+		for (final Map.Entry<String, FlowBaseNode> entry : nodes.entrySet()) {
+
+			final FlowBaseNode node = entry.getValue();
+			final Step step         = steps.get(entry.getKey());
+
+			if (node.is(StructrTraits.FLOW_NODE)) {
+
+				final FlowNode next = node.as(FlowNode.class).next();
+				if (next != null) {
+
+					step.next = getStep(steps, references, next);
+				}
+			}
+
+			final FlowExceptionHandler exceptionHandler = getLinkedExceptionHandler(node);
+			if (exceptionHandler != null) {
+
+				step.exceptionHandler = getStep(steps, references, exceptionHandler);
+			}
+
+			if (node.is(StructrTraits.FLOW_EXCEPTION_HANDLER) && !node.as(FlowExceptionHandler.class).getHandledNodes().iterator().hasNext()) {
+
+				globalExceptionHandlers.add(step);
+			}
+		}
+
+		return new FlowPlan(container.getUuid(), steps, globalExceptionHandlers, references);
+	}
+
+	public boolean contains(final String uuid) {
+		return steps.containsKey(uuid);
+	}
+
+	public boolean references(final Collection<String> uuids) {
+
+		for (final String uuid : uuids) {
+
+			if (uuid.equals(containerUuid) || references.contains(uuid)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public FlowType getFlowType(final FlowNode node) {
+
+		final Step step = steps.get(node.getUuid());
+		if (step != null && step.flowType != null) {
+
+			return step.flowType;
+		}
+
+		return node.getFlowType();
+	}
+
+	/**
+	 * Returns the source of the given script property (script, query or
+	 * result) as it was when the plan was compiled.
+	 */
+	public String getScript(final FlowBaseNode node, final String key) {
+
+		final Step step = steps.get(node.getUuid());
+		if (step != null) {
+
+			return step.scripts.get(key);
+		}
+
+		return node.getProperty(node.getTraits().key(key));
+	}
+
+	public FlowNode next(final FlowNode node) {
+
+		final Step step = steps.get(node.getUuid());
+		if (step != null) {
+
+			return resolve(node, step.next, FlowNode.class);
+		}
+
+		return node.next();
+	}
+
+	public FlowExceptionHandler getExceptionHandler(final FlowBaseNode node) {
+
+		final Step step = steps.get(node.getUuid());
+		if (step != null) {
+
+			return resolve(node, step.exceptionHandler, FlowExceptionHandler.class);
+		}
+
+		return getLinkedExceptionHandler(node);
+	}
+
+	public FlowExceptionHandler getGlobalExceptionHandler(final FlowBaseNode node) {
+
+		for (final Step step : globalExceptionHandlers) {
+
+			final FlowExceptionHandler exceptionHandler = resolve(node, step, FlowExceptionHandler.class);
+			if (exceptionHandler != null) {
+
+				return exceptionHandler;
+			}
+		}
+
+		return null;
+	}
+
+	// ----- private methods -----
+	private <T> T resolve(final FlowBaseNode source, final Step step, final Class<T> wrapperType) {
+
+		if (step != null) {
+
+			try {
+
+				final Node node             = Services.getInstance().getDatabaseService().getNodeById(step.identity);
+				final NodeInterface wrapper = new NodeFactory(source.getSecurityContext()).instantiate(node);
+
+				if (wrapper != null) {
+
+					return wrapper.as(wrapperType);
+				}
+
+			} catch (NotFoundException nfex) {
+
+				logger.warn("Unable to resolve flow node {} of container {}: {}", step.uuid, containerUuid, nfex.getMessage());
+			}
+		}
+
+		return null;
+	}
+
+	private static Step getStep(final Map<String, Step> steps, final Set<String> references, final FlowBaseNode node) {
+
+		final String uuid = node.getUuid();
+		final Step step   = steps.get(uuid);
+
+		if (step != null) {
+
+			return step;
+		}
+
+		references.add(uuid);
+
+		return new Step(node);
+	}
+
+	private static FlowContainer getSuperUserContainer(final FlowContainer container) {
+
+		try {
+
+			final NodeInterface node = StructrApp.getInstance().getNodeById(StructrTraits.FLOW_CONTAINER, container.getUuid());
+			if (node != null) {
+
+				return node.as(FlowContainer.class);
+			}
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("Unable to load flow container {} for compilation: {}", container.getUuid(), fex.getMessage());
+		}
+
+		return container;
+	}
+
+	private static FlowExceptionHandler getLinkedExceptionHandler(final FlowBaseNode node) {
+
+		// all throwing element types share the same key name
+		final Traits traits = node.getTraits();
+		if (traits.hasKey(FlowDataSourceTraitDefinition.EXCEPTION_HANDLER_PROPERTY)) {
+
+			final NodeInterface exceptionHandler = node.getProperty(traits.key(FlowDataSourceTraitDefinition.EXCEPTION_HANDLER_PROPERTY));
+			if (exceptionHandler != null) {
+
+				return exceptionHandler.as(FlowExceptionHandler.class);
+			}
+		}
+
+		return null;
+	}
+
+	// ----- nested classes -----
+	/**
+	 * Compiled flow node. The links to other steps are only set while the
+	 * plan is compiled.
+	 */
+	private static class Step {
+
+		private final Map<String, String> scripts;
+		private final Identity identity;
+		private final FlowType flowType;
+		private final String uuid;
+
+		private Step exceptionHandler = null;
+		private Step next             = null;
+
+		public Step(final FlowBaseNode node) {
+
+			final Map<String, String> scripts = new HashMap<>();
+			final Traits traits               = node.getTraits();
+
+			this.uuid     = node.getUuid();
+			this.identity = node.getNode().getId();
+			this.flowType = node.is(StructrTraits.FLOW_NODE) ? node.as(FlowNode.class).getFlowType() : null;
+
+			for (final String key : scriptKeys) {
+
+				if (traits.hasKey(key) && node.getProperty(traits.key(key)) instanceof String source) {
+
+					scripts.put(key, source);
+				}
+			}
+
+			this.scripts = Map.copyOf(scripts);
+		}
+	}
+}
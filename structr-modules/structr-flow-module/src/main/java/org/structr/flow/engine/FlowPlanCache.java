@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.flow.engine;
+
+import org.structr.core.GraphObject;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.traits.StructrTraits;
+import org.structr.flow.impl.FlowBaseNode;
+import org.structr.flow.impl.FlowContainer;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches compiled {@link FlowPlan}s by container UUID.
+ *
+ * Plans are only cached when compiled in a transaction without pending
+ * changes, so they always reflect committed state. Modifications of a
+ * container or any of its nodes invalidate the affected plans once in the
+ * modifying transaction and again after it has finished, which discards
+ * plans that concurrent transactions compiled in the meantime.
+ */
+public class FlowPlanCache {
+
+	private static final Map<String, FlowPlan> plans = new ConcurrentHashMap<>();
+	private static long generation                   = 0L;
+
+	public static FlowPlan getPlan(final FlowContainer container) {
+
+		if (container == null) {
+			return null;
+		}
+
+		final String uuid = container.getUuid();
+		FlowPlan plan     = plans.get(uuid);
+
+		if (plan == null) {
+
+			if (TransactionCommand.hasChanges()) {
+
+				// uncommitted changes must not leak into the shared cache
+				return FlowPlan.compile(container);
+			}
+
+			final long compiledAt = getGeneration();
+
+			plan = FlowPlan.compile(container);
+
+			synchronized (plans) {
+
+				if (generation == compiledAt) {
+					plans.put(uuid, plan);
+				}
+			}
+		}
+
+		return plan;
+	}
+
+	public static void invalidate(final GraphObject obj) {
+
+		final Set<String> uuids = new LinkedHashSet<>();
+
+		uuids.add(obj.getUuid());
+
+		if (obj.is(StructrTraits.FLOW_BASE_NODE)) {
+
+			final FlowContainer container = obj.as(FlowBaseNode.class).getFlowContainer();
+			if (container != null) {
+
+				uuids.add(container.getUuid());
+			}
+		}
+
+		invalidate(uuids);
+
+		TransactionCommand.queuePostProcessProcedure(() -> invalidate(uuids));
+	}
+
+	// ----- private methods -----
+	private static void invalidate(final Set<String> uuids) {
+
+		synchronized (plans) {
+
+			generation++;
+			plans.values().removeIf(plan -> plan.references(uuids));
+		}
+	}
+
+	private static long getGeneration() {
+
+		synchronized (plans) {
+			return generation;
+		}
+	}
+}
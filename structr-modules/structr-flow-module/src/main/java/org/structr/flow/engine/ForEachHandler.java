@@ -144,7 +144,7 @@ public class ForEachHandler implements FlowHandler {
 
 		}
 
-		return flowElement.next();
+		return context.next(flowElement);
 	}
 
 	private Map<String,Object> getAggregationData(final Context context, final FlowNode flowElement) {
@@ -63,7 +63,7 @@ public class ForkHandler implements FlowHandler {
 
 		}
 
-		return flowElement.next();
+		return context.next(flowElement);
 	}
 
 
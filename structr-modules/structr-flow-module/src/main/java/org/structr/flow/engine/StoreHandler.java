@@ -30,6 +30,6 @@ public class StoreHandler implements FlowHandler {
 
 		flowElement.as(FlowStore.class).handleStorage(context);
 
-		return flowElement.next();
+		return context.next(flowElement);
 	}
 }
@@ -43,12 +43,12 @@ public class SwitchHandler implements FlowHandler {
 
 					if (caseValue != null && data != null && caseValue.equals(data.toString())) {
 
-						return switchCase.next();
+						return context.next(switchCase);
 					}
 				}
 			}
 		}
 
-		return switchElement.next();
+		return context.next(switchElement);
 	}
 }
@@ -57,7 +57,7 @@ public class FlowAggregate extends FlowDataSource implements DeployableEntity, T
 
 		try {
 
-			final String _script            = getScript();
+			final String _script            = context.getScript(this, FlowAggregateTraitDefinition.SCRIPT_PROPERTY);
 			final FlowDataSource ds         = getDataSource();
 			final FlowDataSource startValue = getStartValueSource();
 
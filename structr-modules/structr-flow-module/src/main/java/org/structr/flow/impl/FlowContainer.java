@@ -34,6 +34,7 @@ import org.structr.core.traits.wrappers.AbstractNodeTraitWrapper;
 import org.structr.flow.api.FlowResult;
 import org.structr.flow.engine.Context;
 import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.FlowPlanCache;
 import org.structr.flow.traits.definitions.FlowContainerTraitDefinition;
 import org.structr.flow.traits.operations.GetExportData;
 import org.structr.module.api.DeployableEntity;
@@ -104,6 +105,7 @@ public class FlowContainer extends AbstractNodeTraitWrapper implements Deployabl
 		final Context context   = new Context();
 
 		context.setParameters(parameters);
+		context.setPlan(FlowPlanCache.getPlan(this));
 
 		final FlowNode entry        = getStartNode();
 		final FlowResult flowResult = engine.execute(context, entry);
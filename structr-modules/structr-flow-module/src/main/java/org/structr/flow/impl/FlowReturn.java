@@ -56,7 +56,7 @@ public class FlowReturn extends FlowNode implements DeployableEntity, ThrowingEl
 	public Object getResult(final Context context) throws FlowException {
 
 		final FlowDataSource ds = getDataSource();
-		final String _script    = getResult();
+		final String _script    = context.getScript(this, FlowReturnTraitDefinition.RESULT_PROPERTY);
 
 		String script = _script;
 		if (script == null || script.equals("")) {
@@ -93,7 +93,7 @@ public class FlowActionTraitDefinition extends AbstractNodeTraitDefinition {
 					@Override
 					public void execute(final Context context, final FlowAction action) throws FlowException {
 
-						final String _script = action.getScript();
+						final String _script = context.getScript(action, SCRIPT_PROPERTY);
 						if (_script != null) {
 
 							final String uuid = action.getUuid();
@@ -24,6 +24,7 @@ import org.structr.common.error.ErrorBuffer;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.entity.Relation;
+import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.property.Property;
 import org.structr.core.property.PropertyKey;
@@ -36,6 +37,9 @@ import org.structr.core.traits.definitions.GraphObjectTraitDefinition;
 import org.structr.core.traits.operations.FrameworkMethod;
 import org.structr.core.traits.operations.LifecycleMethod;
 import org.structr.core.traits.operations.graphobject.OnCreation;
+import org.structr.core.traits.operations.graphobject.OnModification;
+import org.structr.core.traits.operations.nodeinterface.OnNodeDeletion;
+import org.structr.flow.engine.FlowPlanCache;
 import org.structr.flow.impl.FlowBaseNode;
 import org.structr.flow.traits.operations.GetExportData;
 
@@ -63,6 +67,25 @@ public class FlowBaseNodeTraitDefinition extends AbstractNodeTraitDefinition {
 					@Override
 					public void onCreation(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer) throws FrameworkException {
 						graphObject.setVisibility(true, true);
+						FlowPlanCache.invalidate(graphObject);
+					}
+				},
+
+				OnModification.class,
+				new OnModification() {
+
+					@Override
+					public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
+						FlowPlanCache.invalidate(graphObject);
+					}
+				},
+
+				OnNodeDeletion.class,
+				new OnNodeDeletion() {
+
+					@Override
+					public void onNodeDeletion(final NodeInterface nodeInterface, final SecurityContext securityContext) throws FrameworkException {
+						FlowPlanCache.invalidate(nodeInterface);
 					}
 				}
 		);
@@ -44,6 +44,7 @@ import org.structr.core.traits.operations.graphobject.IsValid;
 import org.structr.core.traits.operations.graphobject.OnCreation;
 import org.structr.core.traits.operations.graphobject.OnModification;
 import org.structr.core.traits.operations.nodeinterface.OnNodeDeletion;
+import org.structr.flow.engine.FlowPlanCache;
 import org.structr.flow.impl.FlowBaseNode;
 import org.structr.flow.impl.FlowContainer;
 import org.structr.flow.traits.operations.GetExportData;
@@ -146,6 +147,7 @@ public class FlowContainerTraitDefinition extends AbstractNodeTraitDefinition {
 				@Override
 				public void onModification(final GraphObject graphObject, final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
 					graphObject.as(FlowContainer.class).setScheduledForIndexing(false);
+					FlowPlanCache.invalidate(graphObject);
 				}
 			},
 
@@ -154,6 +156,7 @@ public class FlowContainerTraitDefinition extends AbstractNodeTraitDefinition {
 
 				@Override
 				public void onNodeDeletion(final NodeInterface nodeInterface, final SecurityContext securityContext) throws FrameworkException {
+					FlowPlanCache.invalidate(nodeInterface);
 					nodeInterface.as(FlowContainer.class).deleteChildren();
 				}
 			}
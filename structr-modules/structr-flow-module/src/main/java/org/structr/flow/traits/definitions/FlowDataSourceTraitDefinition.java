@@ -74,7 +74,7 @@ public class FlowDataSourceTraitDefinition extends AbstractNodeTraitDefinition {
 								context.setData(uuid, data);
 							}
 
-							final String _script = dataSource.getQuery();
+							final String _script = context.getScript(dataSource, QUERY_PROPERTY);
 							if (_script != null) {
 
 								try {
@@ -80,7 +80,7 @@ public class FlowLogTraitDefinition extends AbstractNodeTraitDefinition {
 					public void execute(final Context context, final FlowAction action) throws FlowException {
 
 						final String uuid = action.getUuid();
-						String _script    = action.getScript();
+						String _script    = context.getScript(action, SCRIPT_PROPERTY);
 
 						if (_script == null) {
 
@@ -70,7 +70,7 @@ public class FlowScriptConditionTraitDefinition extends AbstractNodeTraitDefinit
 
 							final FlowDataSource _ds = condition.getDataSource();
 							final FlowDataSource _sc = condition.getScriptSource();
-							final String _script     = condition.getScript();
+							final String _script     = context.getScript(condition, SCRIPT_PROPERTY);
 							final String uuid        = condition.getUuid();
 
 							final String _dynamicScript = _sc != null ? (String)_sc.get(context) : null;
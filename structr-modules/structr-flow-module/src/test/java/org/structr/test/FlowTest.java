@@ -498,6 +498,149 @@ public class FlowTest extends StructrUiTest {
 
 	}
 
+	@Test
+	public void testFlowPlanInvalidation() {
+
+		String containerId = null;
+		String actionId    = null;
+		String firstId     = null;
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.create(StructrTraits.FLOW_CONTAINER, "testFlowPlanInvalidation").as(FlowContainer.class);
+
+			final FlowAction flowAction = app.create(StructrTraits.FLOW_ACTION).as(FlowAction.class);
+			flowAction.setFlowContainer(container);
+			flowAction.setScript("1");
+			container.setStartNode(flowAction);
+
+			final FlowReturn first = app.create(StructrTraits.FLOW_RETURN).as(FlowReturn.class);
+			first.setFlowContainer(container);
+			first.setResult("'first'");
+			flowAction.setNext(first);
+
+			containerId = container.getUuid();
+			actionId    = flowAction.getUuid();
+			firstId     = first.getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// evaluate twice so the second run uses the cached plan
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.getNodeById(StructrTraits.FLOW_CONTAINER, containerId).as(FlowContainer.class);
+
+			assertEquals("Flow should return the first result.", "first", container.evaluate(securityContext, new HashMap<>()));
+			assertEquals("Flow should return the first result.", "first", container.evaluate(securityContext, new HashMap<>()));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// relink the action to a new return element
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.getNodeById(StructrTraits.FLOW_CONTAINER, containerId).as(FlowContainer.class);
+			final FlowAction flowAction   = app.getNodeById(StructrTraits.FLOW_ACTION, actionId).as(FlowAction.class);
+
+			final FlowReturn second = app.create(StructrTraits.FLOW_RETURN).as(FlowReturn.class);
+			second.setFlowContainer(container);
+			second.setResult("'second'");
+			flowAction.setNext(second);
+
+			assertEquals("Uncommitted changes must be visible to the modifying transaction.", "second", container.evaluate(securityContext, new HashMap<>()));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.getNodeById(StructrTraits.FLOW_CONTAINER, containerId).as(FlowContainer.class);
+
+			assertEquals("Cached plan should be invalidated by the modification.", "second", container.evaluate(securityContext, new HashMap<>()));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// delete the new return element and link the action back to the first one
+		try (final Tx tx = app.tx()) {
+
+			final FlowAction flowAction = app.getNodeById(StructrTraits.FLOW_ACTION, actionId).as(FlowAction.class);
+
+			app.delete(flowAction.next());
+			flowAction.setNext(app.getNodeById(StructrTraits.FLOW_RETURN, firstId).as(FlowReturn.class));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.getNodeById(StructrTraits.FLOW_CONTAINER, containerId).as(FlowContainer.class);
+
+			assertEquals("Cached plan should be invalidated by the deletion.", "first", container.evaluate(securityContext, new HashMap<>()));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		// modify a script source that is cached in the plan
+		try (final Tx tx = app.tx()) {
+
+			app.getNodeById(StructrTraits.FLOW_RETURN, firstId).as(FlowReturn.class).setResult("'modified'");
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.getNodeById(StructrTraits.FLOW_CONTAINER, containerId).as(FlowContainer.class);
+
+			assertEquals("Cached script source should be invalidated by the modification.", "modified", container.evaluate(securityContext, new HashMap<>()));
+			assertEquals("Cached script source should be invalidated by the modification.", "modified", container.evaluate(securityContext, new HashMap<>()));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
+
 	private DOMNode createElement(final Page page, final DOMNode parent, final String tag, final String... content) throws FrameworkException {
 
 		final DOMNode child = page.createElement(tag);
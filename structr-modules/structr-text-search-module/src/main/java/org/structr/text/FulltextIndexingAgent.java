@@ -125,6 +125,11 @@ public class FulltextIndexingAgent extends Agent<String> {
 		return FulltextIndexingTask.class;
 	}
 
+	@Override
+	public Task<String> restoreTask(final String entry) {
+		return new FulltextIndexingTask(entry);
+	}
+
 	@Override
 	protected boolean canHandleMore() {
 		return true;
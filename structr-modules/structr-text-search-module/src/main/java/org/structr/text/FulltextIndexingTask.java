@@ -28,4 +28,9 @@ public class FulltextIndexingTask extends AbstractTask<String> {
 	public FulltextIndexingTask(final String indexableId) {
 		super(FulltextIndexingAgent.TASK_NAME, null, indexableId);
 	}
+
+	@Override
+	public String getJournalEntry() {
+		return getWorkObjects().get(0);
+	}
 }
@@ -94,6 +94,7 @@ abstract class AbstractCypherIndex<T extends PropertyContainer> extends Abstract
 		factories.put(AnyQuery.class,          new AnyQueryFactory(this));
 		factories.put(RelationshipQuery.class, new RelationshipQueryFactory(this));
 		factories.put(ComparisonQuery.class,   new ComparisonQueryFactory(this));
+		factories.put(PermissionQuery.class,   new PermissionQueryFactory(this));
 
 		converters.put(Boolean.class, new BooleanTypeConverter());
 		converters.put(String.class,  new StringTypeConverter());
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.bolt;
+
+import org.structr.api.graph.Direction;
+import org.structr.api.graph.Relationship;
+
+import java.util.*;
+
+/**
+ * A compact per-node cache for relationships, keyed by direction and
+ * relationship type. Each bucket stores the relationship IDs in a
+ * primitive array that is kept in the natural order of relationships
+ * (internalTimestamp, then ID), so reads never need to sort. The
+ * relationships themselves are resolved from the current transaction.
+ */
+class AdjacencyCache {
+
+	private static final String INTERNAL_TIMESTAMP = "internalTimestamp";
+
+	private final Map<Direction, Map<String, Bucket>> buckets = new EnumMap<>(Direction.class);
+	private final BoltDatabaseService db;
+
+	public AdjacencyCache(final BoltDatabaseService db) {
+		this.db = db;
+	}
+
+	public void add(final Relationship relationship, final Direction direction) {
+
+		final String timestamp = relationship.hasProperty(INTERNAL_TIMESTAMP) ? (String)relationship.getProperty(INTERNAL_TIMESTAMP) : null;
+		final long id          = db.unwrap(relationship.getId());
+
+		buckets.computeIfAbsent(direction, k -> new HashMap<>()).computeIfAbsent(relationship.getType().name(), k -> new Bucket()).add(id, timestamp);
+	}
+
+	/**
+	 * Returns the cached relationships for the given direction and type,
+	 * or null if no relationship is cached for the given combination. A
+	 * null direction or type matches all directions or types.
+	 *
+	 * @param direction the direction, or null
+	 * @param type the relationship type name, or null
+	 *
+	 * @return the relationships in their natural order, or null
+	 */
+	public List<Relationship> get(final Direction direction, final String type) {
+
+		final List<Bucket> matches = new ArrayList<>();
+
+		for (final Map.Entry<Direction, Map<String, Bucket>> entry : buckets.entrySet()) {
+
+			if (direction == null || direction.equals(entry.getKey())) {
+
+				final Map<String, Bucket> byType = entry.getValue();
+
+				if (type != null) {
+
+					final Bucket bucket = byType.get(type);
+					if (bucket != null) {
+
+						matches.add(bucket);
+					}
+
+				} else {
+
+					matches.addAll(byType.values());
+				}
+			}
+		}
+
+		if (matches.isEmpty()) {
+
+			// the unrestricted lookup always succeeds (may be empty)
+			return (direction == null && type == null) ? List.of() : null;
+		}
+
+		return new RelationshipList(merge(matches));
+	}
+
+	public void clear() {
+		buckets.clear();
+	}
+
+	// ----- private methods -----
+	private long[] merge(final List<Bucket> sources) {
+
+		if (sources.size() == 1) {
+
+			final Bucket bucket = sources.get(0);
+
+			return Arrays.copyOf(bucket.ids, bucket.size);
+		}
+
+		final int[] positions = new int[sources.size()];
+		int total             = 0;
+
+		for (final Bucket bucket : sources) {
+			total += bucket.size;
+		}
+
+		final long[] result = new long[total];
+
+		// k-way merge of the already sorted buckets
+		for (int i=0; i<total; i++) {
+
+			int min = -1;
+
+			for (int j=0; j<positions.length; j++) {
+
+				final Bucket candidate = sources.get(j);
+				final int pos          = positions[j];
+
+				if (pos < candidate.size) {
+
+					if (min < 0) {
+
+						min = j;
+
+					} else {
+
+						final Bucket current = sources.get(min);
+						final int currentPos = positions[min];
+
+						if (compare(candidate.timestamps[pos], candidate.ids[pos], current.timestamps[currentPos], current.ids[currentPos]) < 0) {
+							min = j;
+						}
+					}
+				}
+			}
+
+			result[i] = sources.get(min).ids[positions[min]++];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Same order as Relationship#compareTo: relationships without timestamp
+	 * first, then by timestamp, then by ID.
+	 */
+	private static int compare(final String timestamp1, final long id1, final String timestamp2, final long id2) {
+
+		if (timestamp1 == null && timestamp2 != null) {
+			return -1;
+		}
+
+		if (timestamp1 != null && timestamp2 == null) {
+			return 1;
+		}
+
+		if (timestamp1 != null) {
+
+			final int result = timestamp1.compareTo(timestamp2);
+			if (result != 0) {
+
+				return result;
+			}
+		}
+
+		return Long.compare(id1, id2);
+	}
+
+	// ----- nested classes -----
+	private static class Bucket {
+
+		private String[] timestamps = new String[4];
+		private long[] ids          = new long[4];
+		private int size            = 0;
+
+		public void add(final long id, final String timestamp) {
+
+			int pos = size;
+
+			// relationships are usually fetched in order, so appending is the common case
+			if (size > 0 && compare(timestamp, id, timestamps[size - 1], ids[size - 1]) <= 0) {
+
+				pos = search(id, timestamp);
+				if (pos < 0) {
+
+					// already present
+					return;
+				}
+			}
+
+			if (size == ids.length) {
+
+				final int capacity = size + (size >> 1);
+
+				ids        = Arrays.copyOf(ids, capacity);
+				timestamps = Arrays.copyOf(timestamps, capacity);
+			}
+
+			System.arraycopy(ids,        pos, ids,        pos + 1, size - pos);
+			System.arraycopy(timestamps, pos, timestamps, pos + 1, size - pos);
+
+			ids[pos]        = id;
+			timestamps[pos] = timestamp;
+
+			size++;
+		}
+
+		/**
+		 * Returns the insertion point for the given entry, or -1 if the
+		 * entry is already present.
+		 */
+		private int search(final long id, final String timestamp) {
+
+			int low  = 0;
+			int high = size - 1;
+
+			while (low <= high) {
+
+				final int mid    = (low + high) >>> 1;
+				final int result = compare(timestamps[mid], ids[mid], timestamp, id);
+
+				if (result < 0) {
+
+					low = mid + 1;
+
+				} else if (result > 0) {
+
+					high = mid - 1;
+
+				} else {
+
+					return -1;
+				}
+			}
+
+			return low;
+		}
+	}
+
+	private class RelationshipList extends AbstractList<Relationship> implements RandomAccess {
+
+		private final long[] ids;
+
+		public RelationshipList(final long[] ids) {
+			this.ids = ids;
+		}
+
+		@Override
+		public Relationship get(final int index) {
+			return db.getCurrentTransaction().getRelationshipWrapper(ids[index]);
+		}
+
+		@Override
+		public int size() {
+			return ids.length;
+		}
+	}
+}
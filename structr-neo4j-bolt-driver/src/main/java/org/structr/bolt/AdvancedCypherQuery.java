@@ -24,6 +24,7 @@ import org.structr.api.config.Settings;
 import org.structr.api.graph.Direction;
 import org.structr.api.graph.RelationshipType;
 import org.structr.api.search.Operation;
+import org.structr.api.search.PermissionQuery;
 import org.structr.api.search.QueryContext;
 import org.structr.api.search.SortOrder;
 import org.structr.api.search.SortSpec;
@@ -73,7 +74,7 @@ public class AdvancedCypherQuery implements CypherQuery {
 			}
 		}
 
-		if (queryContext.isSuperuser() && requestedPageSize < Integer.MAX_VALUE) {
+		if ((queryContext.isSuperuser() || queryContext.isPermissionFiltered()) && requestedPageSize < Integer.MAX_VALUE) {
 
 			final int firstRequestedIndex = (requestedPage - 1) * requestedPageSize;
 			final int firstFetchIndex     = (firstRequestedIndex / fetchSize);
@@ -352,6 +353,60 @@ public class AdvancedCypherQuery implements CypherQuery {
 		}
 	}
 
+	public void addPermissionParameter(final PermissionQuery permissionQuery) {
+
+		final Set<String> principalIds = permissionQuery.getPrincipalIds();
+
+		buffer.append("(n.`");
+		buffer.append(permissionQuery.getPublicPropertyName());
+		buffer.append("` = true");
+
+		if (!permissionQuery.isPublicOnly() && !principalIds.isEmpty()) {
+
+			final String principalsKey = "param" + count++;
+			final String permissionKey = "param" + count++;
+			final String idKey         = permissionQuery.getIdPropertyName();
+
+			parameters.put(principalsKey, new ArrayList<>(principalIds));
+			parameters.put(permissionKey, permissionQuery.getPermission());
+
+			// visible to authenticated users
+			buffer.append(" OR n.`");
+			buffer.append(permissionQuery.getAuthenticatedPropertyName());
+			buffer.append("` = true");
+
+			// the principal itself or one of its groups
+			buffer.append(" OR n.`");
+			buffer.append(idKey);
+			buffer.append("` IN $");
+			buffer.append(principalsKey);
+
+			// owned by the principal or one of its groups
+			buffer.append(" OR ANY(permId IN [(n)<-[:");
+			buffer.append(permissionQuery.getOwnerRelationship());
+			buffer.append("]-(permOwner) | permOwner.`");
+			buffer.append(idKey);
+			buffer.append("`] WHERE permId IN $");
+			buffer.append(principalsKey);
+			buffer.append(")");
+
+			// permission granted to the principal or one of its groups
+			buffer.append(" OR ANY(permId IN [(n)<-[permRel:");
+			buffer.append(permissionQuery.getSecurityRelationship());
+			buffer.append("]-(permPrincipal) WHERE $");
+			buffer.append(permissionKey);
+			buffer.append(" IN permRel.`");
+			buffer.append(permissionQuery.getAllowedPropertyName());
+			buffer.append("` | permPrincipal.`");
+			buffer.append(idKey);
+			buffer.append("`] WHERE permId IN $");
+			buffer.append(principalsKey);
+			buffer.append(")");
+		}
+
+		buffer.append(")");
+	}
+
 	public void addNullObjectParameter(final Direction direction, final String relationship) {
 
 		buffer.append("not (n)");
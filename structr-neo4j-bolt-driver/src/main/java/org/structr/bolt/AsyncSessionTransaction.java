@@ -87,6 +87,22 @@ class AsyncSessionTransaction extends SessionTransaction {
 	@Override
 	public void close() {
 
+		RuntimeException flushException = null;
+
+		// buffered property updates must be written before commit, a failure rolls back the transaction
+		if (isSuccessful()) {
+
+			try {
+
+				flushPendingWrites();
+
+			} catch (RuntimeException rex) {
+
+				flushException = rex;
+				forcedFailure  = true;
+			}
+		}
+
 		clearChangeset();
 
 		if (forcedFailure || !success) {
@@ -115,6 +131,8 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 				resolveImmediately(tx.commitAsync());
 
+				invalidateCachedEntities();
+
 			} catch (TransientException tex) {
 				closed = true;
 				throw new RetryException(tex);
@@ -149,6 +167,10 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 			resolveImmediately(session.closeAsync());
 		}
+
+		if (flushException != null) {
+			throw flushException;
+		}
 	}
 
 	@Override
@@ -165,6 +187,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -198,6 +221,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -231,6 +255,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -270,6 +295,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -312,6 +338,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 			final String statement = query.getStatement();
 			final Map<String, Object> map = query.getParameters();
 
+			flushPendingWrites();
 			logQuery(query);
 
 			tx.runAsync(statement, map)
@@ -334,6 +361,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 			final String statement        = query.getStatement();
 			final Map<String, Object> map = query.getParameters();
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final ResultCursor cursor  = resolveImmediately(tx.runAsync(statement, map));
@@ -362,6 +390,7 @@ class AsyncSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(statement, map);
 
 			final ResultCursor cursor   = resolveImmediately(tx.runAsync(statement, map));
@@ -68,6 +68,8 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 	private Driver driver                                         = null;
 	private SessionConfig sessionConfig                           = null;
 	private IndexUpdater indexUpdater                             = null;
+	private EntityCache<org.neo4j.driver.types.Node> nodeCache        = null;
+	private EntityCache<org.neo4j.driver.types.Relationship> relCache = null;
 
 	@Override
 	public boolean initialize(final String name, final String version, final String instance) {
@@ -156,6 +158,8 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 				throw new RuntimeException(errorMessage);
 			}
 
+			initializeCaches();
+
 			// signal success
 			return true;
 
@@ -462,68 +466,22 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 	@Override
 	public void updateIndexConfiguration(final List<NewIndexConfig> schemaIndexConfigSource) {
 
-		switch (neo4jMajorVersion) {
-
-			// Cheers to date-based versioning.....
-			case 2025:
-			case 2026:
-			case 2027:
-			case 2028:
-			case 2029:
-			case 2030:
-			case 2031:
-			case 2032:
-			case 2033:
-			case 2034:
-			case 2035:
-			case 2036:
-			case 2037:
-			case 2038:
-			case 2039:
-			case 2040:
-			case 2041:
-			case 2042:
-			case 2043:
-			case 2044:
-			case 2045:
-			case 2046:
-			case 2047:
-			case 2048:
-			case 2049:
-			case 2050:
-			case 5:
-				// cannot use db.indexes(), replaced by SHOW INDEXES call
-				indexUpdater = new Neo5IndexUpdater(this, supportsRelationshipIndexes);
-				break;
-
-			case 4:
-				if (supportsIdempotentIndexCreation) {
-
-					// idempotent index update, no need to check for existance first
-					indexUpdater = new Neo4IndexUpdater(this, supportsRelationshipIndexes);
+		indexUpdater = createIndexUpdater();
 
-				} else {
-
-					logger.warn("This driver does not support index creation on Neo4j 4.0.x databases. Performance will be impacted.");
-				}
-				break;
-
-			case 3:
+		if (indexUpdater != null) {
 
-				// non-idempotent index update, need to check for existance first
-				indexUpdater = new Neo3IndexUpdater(this, supportsRelationshipIndexes);
-				break;
+			indexUpdater.updateIndexConfiguration(schemaIndexConfigSource);
+		}
+	}
 
-			default:
+	@Override
+	public void updateIndexConfiguration(final List<NewIndexConfig> indexesToCreate, final List<NewIndexConfig> indexesToDrop) {
 
-				// not supported
-				logger.warn("This driver does not support index creation on Neo4j " + neo4jMajorVersion + ".x databases. Performance will be impacted.");
-				break;
-		}
+		indexUpdater = createIndexUpdater();
 
 		if (indexUpdater != null) {
 
-			indexUpdater.updateIndexConfiguration(schemaIndexConfigSource);
+			indexUpdater.updateIndexConfiguration(indexesToCreate, indexesToDrop);
 		}
 	}
 
@@ -554,7 +512,14 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 
 		if (nativeQuery instanceof AbstractNativeQuery) {
 
-			return (T)((AbstractNativeQuery)nativeQuery).execute((SessionTransaction) tx);
+			final AbstractNativeQuery query = (AbstractNativeQuery)nativeQuery;
+
+			// we cannot know which entities a native query modifies
+			if (SessionTransaction.isWriteQuery(query.getQuery())) {
+				((SessionTransaction)tx).invalidateAllCachedEntities();
+			}
+
+			return (T)query.execute((SessionTransaction) tx);
 		}
 
 		throw new IllegalArgumentException("Unsupported query type " + nativeQuery.getClass().getName() + ".");
@@ -630,7 +595,11 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 	}
 
 	void consume(final String nativeQuery, final Map<String, Object> parameters) {
-		getCurrentTransaction().set(nativeQuery, parameters);
+
+		final SessionTransaction tx = getCurrentTransaction();
+
+		tx.invalidateAllCachedEntities();
+		tx.set(nativeQuery, parameters);
 	}
 
 	Iterable<Map<String, Object>> execute(final String nativeQuery) {
@@ -848,15 +817,153 @@ public class BoltDatabaseService extends AbstractDatabaseService {
 
 	@Override
 	public Map<String, Map<String, Integer>> getCachesInfo() {
-		return Map.of();
+
+		final Map<String, Map<String, Integer>> info = new LinkedHashMap<>();
+
+		if (nodeCache != null) {
+			info.put("nodes", nodeCache.getCacheInfo());
+		}
+
+		if (relCache != null) {
+			info.put("relationships", relCache.getCacheInfo());
+		}
+
+		return info;
 	}
 
 	@Override
 	public void flushCaches() {
+
 		SessionTransaction.flushCaches();
+
+		if (nodeCache != null) {
+			nodeCache.clear();
+		}
+
+		if (relCache != null) {
+			relCache.clear();
+		}
+	}
+
+	@Override
+	public void invalidateCachedEntities(final Collection<Long> nodeIds, final Collection<Long> relationshipIds) {
+
+		if (nodeCache != null) {
+
+			if (nodeIds == null) {
+
+				nodeCache.clear();
+
+			} else if (!nodeIds.isEmpty()) {
+
+				nodeCache.invalidate(nodeIds);
+			}
+		}
+
+		if (relCache != null) {
+
+			if (relationshipIds == null) {
+
+				relCache.clear();
+
+			} else if (!relationshipIds.isEmpty()) {
+
+				relCache.invalidate(relationshipIds);
+			}
+		}
+	}
+
+	void invalidateCommittedEntities(final Collection<Long> nodeIds, final Collection<Long> relationshipIds) {
+
+		invalidateCachedEntities(nodeIds, relationshipIds);
+		notifyCacheInvalidationListener(nodeIds, relationshipIds);
+	}
+
+	EntityCache<org.neo4j.driver.types.Node> getNodeCache() {
+		return nodeCache;
+	}
+
+	EntityCache<org.neo4j.driver.types.Relationship> getRelationshipCache() {
+		return relCache;
 	}
 
 	// ----- private methods -----
+	private IndexUpdater createIndexUpdater() {
+
+		switch (neo4jMajorVersion) {
+
+			// Cheers to date-based versioning.....
+			case 2025:
+			case 2026:
+			case 2027:
+			case 2028:
+			case 2029:
+			case 2030:
+			case 2031:
+			case 2032:
+			case 2033:
+			case 2034:
+			case 2035:
+			case 2036:
+			case 2037:
+			case 2038:
+			case 2039:
+			case 2040:
+			case 2041:
+			case 2042:
+			case 2043:
+			case 2044:
+			case 2045:
+			case 2046:
+			case 2047:
+			case 2048:
+			case 2049:
+			case 2050:
+			case 5:
+				// cannot use db.indexes(), replaced by SHOW INDEXES call
+				return new Neo5IndexUpdater(this, supportsRelationshipIndexes);
+
+			case 4:
+				if (supportsIdempotentIndexCreation) {
+
+					// idempotent index update, no need to check for existance first
+					return new Neo4IndexUpdater(this, supportsRelationshipIndexes);
+
+				} else {
+
+					logger.warn("This driver does not support index creation on Neo4j 4.0.x databases. Performance will be impacted.");
+				}
+
+				return null;
+
+			case 3:
+
+				// non-idempotent index update, need to check for existance first
+				return new Neo3IndexUpdater(this, supportsRelationshipIndexes);
+
+			default:
+
+				// not supported
+				logger.warn("This driver does not support index creation on Neo4j " + neo4jMajorVersion + ".x databases. Performance will be impacted.");
+		}
+
+		return null;
+	}
+
+	private void initializeCaches() {
+
+		final int nodeCacheSize = Settings.NodeCacheSize.getValue(0);
+		final int relCacheSize  = Settings.RelationshipCacheSize.getValue(0);
+
+		if (nodeCacheSize > 0) {
+			nodeCache = new EntityCache<>("Node cache", nodeCacheSize);
+		}
+
+		if (relCacheSize > 0) {
+			relCache = new EntityCache<>("Relationship cache", relCacheSize);
+		}
+	}
+
 	private String getNeo4jVersion() {
 
 		try (final Session session = driver.session()) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2010-2026 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.bolt;
+
+import org.structr.api.util.FixedSizeCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache for database entities that is shared between
+ * transactions. Every invalidation increments a version counter, and
+ * values are only stored if no invalidation happened since the value
+ * was read from the database, so a slow reader can never put a stale
+ * entity into the cache.
+ *
+ * @param <T>
+ */
+class EntityCache<T> {
+
+	private final AtomicLong version      = new AtomicLong();
+	private FixedSizeCache<Long, T> cache = null;
+
+	public EntityCache(final String name, final int maxSize) {
+		this.cache = new FixedSizeCache<>(name, maxSize);
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	public T get(final long id) {
+		return cache.get(id);
+	}
+
+	public synchronized void put(final long id, final T value, final long readVersion) {
+
+		if (version.get() == readVersion) {
+			cache.put(id, value);
+		}
+	}
+
+	public synchronized void invalidate(final Collection<Long> ids) {
+
+		version.incrementAndGet();
+		cache.removeAll(ids);
+	}
+
+	public synchronized void clear() {
+
+		version.incrementAndGet();
+		cache.clear();
+	}
+
+	public Map<String, Integer> getCacheInfo() {
+		return cache.getCacheInfo();
+	}
+}
@@ -30,7 +30,8 @@ import java.util.Map.Entry;
 
 abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 
-	private Map<String, Object> dataCache = new HashMap<>();
+	private Map<String, Object> pendingProperties = null;
+	private Map<String, Object> dataCache         = new HashMap<>();
 	protected final BoltDatabaseService db;
 	protected final BoltIdentity identity;
 	protected final long id;
@@ -69,12 +70,29 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 
 	@Override
 	public boolean hasProperty(final String name) {
+
+		if (pendingProperties != null && pendingProperties.containsKey(name)) {
+			return pendingProperties.get(name) != null;
+		}
+
 		return entity.containsKey(name);
 	}
 
 	@Override
 	public Object getProperty(final String name) {
 
+		if (pendingProperties != null && pendingProperties.containsKey(name)) {
+
+			final Object value = pendingProperties.get(name);
+
+			// empty arrays are read back as null from the database
+			if (value != null && value.getClass().isArray() && Array.getLength(value) == 0) {
+				return null;
+			}
+
+			return value;
+		}
+
 		final Object value = entity.get(name).asObject();
 		if (value instanceof List) {
 
@@ -123,6 +141,12 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 		// only update values if actually different from what is stored
 		if (needsUpdate(key, value)) {
 
+			if (tx.isWriteBehindEnabled()) {
+
+				addPendingProperty(tx, key, value);
+				return;
+			}
+
 			final String query = getQueryPrefix() + " WHERE ID(n) = $id SET n += $properties RETURN n";
 
 			final Map<String, Object> properties = new HashMap<>();
@@ -147,6 +171,19 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 		if (!values.isEmpty()) {
 
 			final SessionTransaction tx   = db.getCurrentTransaction();
+
+			tx.queryResultCache.clear();
+
+			if (tx.isWriteBehindEnabled()) {
+
+				for (final Entry<String, Object> entry : values.entrySet()) {
+
+					addPendingProperty(tx, entry.getKey(), entry.getValue());
+				}
+
+				return;
+			}
+
 			final String query            = getQueryPrefix() + " WHERE ID(n) = $id SET n += $properties RETURN n";
 
 			final Map<String, Object> map = Map.of(
@@ -154,8 +191,6 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 					"properties", values
 			);
 
-			tx.queryResultCache.clear();
-
 			updateEntity(tx, query, map);
 		}
 	}
@@ -164,6 +199,15 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 	public void removeProperty(String key) {
 
 		final SessionTransaction tx   = db.getCurrentTransaction();
+
+		if (tx.isWriteBehindEnabled()) {
+
+			tx.queryResultCache.clear();
+
+			addPendingProperty(tx, key, null);
+			return;
+		}
+
 		final String query            = getQueryPrefix() + " WHERE ID(n) = $id SET n += $properties RETURN n";
 
 		final Map<String, Object> properties = new HashMap<>();
@@ -181,6 +225,30 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 
 	@Override
 	public Iterable<String> getPropertyKeys() {
+
+		if (pendingProperties != null) {
+
+			final Set<String> keys = new LinkedHashSet<>();
+
+			for (final String key : entity.keys()) {
+				keys.add(key);
+			}
+
+			for (final Entry<String, Object> entry : pendingProperties.entrySet()) {
+
+				if (entry.getValue() != null) {
+
+					keys.add(entry.getKey());
+
+				} else {
+
+					keys.remove(entry.getKey());
+				}
+			}
+
+			return keys;
+		}
+
 		return entity.keys();
 	}
 
@@ -222,9 +290,30 @@ abstract class EntityWrapper<T extends Entity> implements PropertyContainer {
 		this.entity = entity;
 	}
 
+	Map<String, Object> getPendingProperties() {
+		return pendingProperties;
+	}
+
+	void clearPendingProperties() {
+		pendingProperties = null;
+	}
+
 	// ----- private methods -----
+	private void addPendingProperty(final SessionTransaction tx, final String key, final Object value) {
+
+		if (pendingProperties == null) {
+
+			pendingProperties = new HashMap<>();
+			tx.addPendingWrite(this);
+		}
+
+		pendingProperties.put(key, value);
+	}
+
 	private void updateEntity(final SessionTransaction tx, final String query, final Map<String, Object> map) {
 
+		tx.modified(this);
+
 		// execute query
 		if (isNode()) {
 
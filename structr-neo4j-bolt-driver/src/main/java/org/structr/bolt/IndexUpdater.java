@@ -80,6 +80,49 @@ public abstract class IndexUpdater {
 		}
 	}
 
+	/**
+	 * Incremental variant that only creates and drops the given indexes
+	 * and leaves all other existing indexes untouched.
+	 */
+	public void updateIndexConfiguration(final List<NewIndexConfig> indexesToBeCreated, final List<NewIndexConfig> indexesToBeDropped) {
+
+		isFinished.set(false);
+
+		try {
+
+			// 1. fetch existing indexes
+			final Map<String, ExistingIndexInfo> existingIndexes = getExistingIndexes();
+			final Map<String, ExistingIndexInfo> indexesToDrop   = new LinkedHashMap<>();
+
+			for (final NewIndexConfig config : indexesToBeDropped) {
+
+				final String identifier         = getIndexIdentifier(config);
+				final ExistingIndexInfo existing = existingIndexes.remove(identifier);
+
+				if (existing != null) {
+
+					indexesToDrop.put(identifier, existing);
+				}
+			}
+
+			// 2. drop first, a changed index is replaced by one with the same identifier
+			final int droppedIndexCount = dropIndexes(indexesToDrop);
+
+			// 3. create indexes that don't exist
+			final int newIndexCount = createIndexes(indexesToBeCreated, existingIndexes);
+
+			if (newIndexCount > 0 || droppedIndexCount > 0) {
+
+				logger.info("Created {} new indexes", newIndexCount);
+				logger.info("Dropped {} indexes", droppedIndexCount);
+			}
+
+		} finally {
+
+			isFinished.set(true);
+		}
+	}
+
 	public boolean isFinished() {
 		return isFinished.get();
 	}
@@ -33,14 +33,14 @@ import java.util.function.Supplier;
  */
 class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements Node {
 
-	private final TreeCache<Relationship> relationshipCache;
+	private final AdjacencyCache relationshipCache;
 	private Set<String> prefetched = new LinkedHashSet<>();
 	private String cachedTenantId = null;
 
 	public NodeWrapper(final BoltDatabaseService db, final org.neo4j.driver.types.Node entity) {
 		super(db, entity);
 
-		this.relationshipCache = new TreeCache<>(entity.id(), "/");
+		this.relationshipCache = new AdjacencyCache(db);
 	}
 
 	@Override
@@ -86,6 +86,9 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 		if (newRelationship != null) {
 
 			final RelationshipWrapper newRel = tx.getRelationshipWrapper(newRelationship);
+
+			// the database may reuse the id of a deleted relationship
+			tx.modified(newRel);
 			final NodeWrapper otherNode = (NodeWrapper) endNode;
 			final String relKey1 = createKey(newRel);
 			final String relKey2 = otherNode.createKey(newRel);
@@ -140,6 +143,7 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 
 		map.put("id", id);
 
+		tx.modified(this);
 		tx.getNode(new SimpleCypherQuery(concat("MATCH (n", tenantIdentifier, ") WHERE ID(n) = $id SET n :", labels, " RETURN n"), map));
 	}
 
@@ -154,6 +158,7 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 
 		map.put("id", id);
 
+		tx.modified(this);
 		tx.getNode(new SimpleCypherQuery(concat("MATCH (n", tenantIdentifier, ") WHERE ID(n) = $id REMOVE n:", label, " RETURN n"), map));
 	}
 
@@ -223,10 +228,10 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 				return getRelationships();
 
 			case OUTGOING:
-				return getRelationshipsFromCache(key, null, true, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r]->(t)"), "RETURN r, t ORDER BY r.internalTimestamp", key, null, direction));
+				return getRelationshipsFromCache(key, null, direction, null, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r]->(t)"), "RETURN r, t ORDER BY r.internalTimestamp", key, null, direction));
 
 			case INCOMING:
-				return getRelationshipsFromCache(key, null, false, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier , ")<-[r]-(s)"), "RETURN r, s ORDER BY r.internalTimestamp", key, null, direction));
+				return getRelationshipsFromCache(key, null, direction, null, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier , ")<-[r]-(s)"), "RETURN r, s ORDER BY r.internalTimestamp", key, null, direction));
 		}
 
 		return null;
@@ -247,16 +252,16 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 				final String key2 = createKey(Direction.INCOMING, relationshipType);
 				return Iterables.flatten(
 					List.of(
-						getRelationshipsFromCache(key1, type, true, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r:", rel, "]->(t", tenantIdentifier, ")"), "RETURN r, t ORDER BY r.internalTimestamp", key1, relationshipType, direction)),
-						getRelationshipsFromCache(key2, type, false, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")<-[r:", rel, "]-(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key2, relationshipType, direction))
+						getRelationshipsFromCache(key1, type, Direction.OUTGOING, relationshipType, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r:", rel, "]->(t", tenantIdentifier, ")"), "RETURN r, t ORDER BY r.internalTimestamp", key1, relationshipType, direction)),
+						getRelationshipsFromCache(key2, type, Direction.INCOMING, relationshipType, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")<-[r:", rel, "]-(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key2, relationshipType, direction))
 					)
 				);
 
 			case OUTGOING:
-				return getRelationshipsFromCache(key, type, true, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r:", rel, "]->(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key, relationshipType, direction));
+				return getRelationshipsFromCache(key, type, direction, relationshipType, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")-[r:", rel, "]->(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key, relationshipType, direction));
 
 			case INCOMING:
-				return getRelationshipsFromCache(key, type, false, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")<-[r:", rel, "]-(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key, relationshipType, direction));
+				return getRelationshipsFromCache(key, type, direction, relationshipType, () -> fetchAndCacheRelationships(db, id, concat("(n", tenantIdentifier, ")<-[r:", rel, "]-(s", tenantIdentifier, ")"), "RETURN r, s ORDER BY r.internalTimestamp", key, relationshipType, direction));
 		}
 
 		return null;
@@ -292,7 +297,7 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 
 		final String key = createKey(rel);
 
-		relationshipCache.insert(key, rel);
+		relationshipCache.add(rel, rel.getDirectionForNode(this));
 
 		if (prefetched) {
 
@@ -311,6 +316,10 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 		this.prefetched.addAll(keys);
 	}
 
+	public boolean isPrefetched(final Set<String> keys) {
+		return this.prefetched.containsAll(keys);
+	}
+
 	@Override
 	public void invalidate() {
 
@@ -343,14 +352,14 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 
 		query.getParameters().put("id", id);
 
-		final List<Relationship> list = new LinkedList<>();
+		final List<Relationship> list = new ArrayList<>();
 
 		// store rels in cache
 		for (final Relationship rel : index.getResult(query)) {
 
 			final String relKey = createKey(rel);
 
-			relationshipCache.insert(relKey, rel);
+			relationshipCache.add(rel, rel.getDirectionForNode(this));
 			list.add(rel);
 
 			prefetched.add(relKey);
@@ -382,11 +391,13 @@ class NodeWrapper extends EntityWrapper<org.neo4j.driver.types.Node> implements
 		return buf.toString();
 	}
 
-	private Iterable<Relationship> getRelationshipsFromCache(final String key, final String type, final boolean outgoing, final Supplier<Iterable<Relationship>> valueSupplier) {
+	private Iterable<Relationship> getRelationshipsFromCache(final String key, final String type, final Direction direction, final RelationshipType relationshipType, final Supplier<Iterable<Relationship>> valueSupplier) {
 
-		final Iterable<Relationship> relationships = relationshipCache.get(key);
+		final Iterable<Relationship> relationships = relationshipCache.get(direction, relationshipType != null ? relationshipType.name() : null);
 		if (relationships == null) {
 
+			final boolean outgoing = Direction.OUTGOING.equals(direction);
+
 			if (prefetched.contains(key)) {
 
 				return List.of();
@@ -87,6 +87,22 @@ class ReactiveSessionTransaction extends SessionTransaction {
 	@Override
 	public void close() {
 
+		RuntimeException flushException = null;
+
+		// buffered property updates must be written before commit, a failure rolls back the transaction
+		if (isSuccessful()) {
+
+			try {
+
+				flushPendingWrites();
+
+			} catch (RuntimeException rex) {
+
+				flushException = rex;
+				forcedFailure  = true;
+			}
+		}
+
 		clearChangeset();
 
 		if (forcedFailure || !success) {
@@ -116,6 +132,8 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 				Mono.from(tx.commit()).block();
 
+				invalidateCachedEntities();
+
 			} catch (TransientException tex) {
 				closed = true;
 				throw new RetryException(tex);
@@ -152,6 +170,10 @@ class ReactiveSessionTransaction extends SessionTransaction {
 		}
 
 		super.close();
+
+		if (flushException != null) {
+			throw flushException;
+		}
 	}
 
 	@Override
@@ -164,6 +186,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement            = query.getStatement();
@@ -198,6 +221,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement            = query.getStatement();
@@ -237,6 +261,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement            = query.getStatement();
@@ -276,6 +301,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement            = query.getStatement();
@@ -324,6 +350,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -352,6 +379,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(query);
 
 			final String statement        = query.getStatement();
@@ -380,6 +408,7 @@ class ReactiveSessionTransaction extends SessionTransaction {
 
 		try {
 
+			flushPendingWrites();
 			logQuery(statement, map);
 
 			final RxResult result = tx.run(statement, map);
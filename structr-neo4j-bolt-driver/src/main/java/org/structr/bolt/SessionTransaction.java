@@ -42,6 +42,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  *
@@ -50,6 +51,7 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 
 	private static final Logger logger                         = LoggerFactory.getLogger(SessionTransaction.class);
 	protected static final AtomicLong ID_SOURCE                = new AtomicLong();
+	private static final Pattern WRITE_QUERY_PATTERN           = Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE|CALL|FOREACH)\\b", Pattern.CASE_INSENSITIVE);
 
 	protected static final Map<String, Set<PrefetchInfo>> prefetchInfos = new ConcurrentHashMap<>();
 	protected static final Map<String, Boolean> prefetchBlacklist       = new ConcurrentHashMap<>();
@@ -60,12 +62,18 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 	protected final Set<Long> deletedNodes              = new HashSet<>();
 	protected final Set<Long> createdNodes              = new HashSet<>();
 	protected final Set<Long> deletedRels               = new HashSet<>();
+	protected final Set<Long> modifiedNodes             = new HashSet<>();
+	protected final Set<Long> modifiedRels              = new HashSet<>();
 	protected final Set<String> prefetchedOutgoing      = new HashSet<>();
 	protected final Set<String> prefetchedIncoming      = new HashSet<>();
 	protected final Set<String> prefetchedQueries       = new HashSet<>();
 
 	protected final Map<Integer, Set<Long>> queryResultCache = new HashMap<>();
 
+	protected final Map<Long, EntityWrapper> pendingNodeWrites = new LinkedHashMap<>();
+	protected final Map<Long, EntityWrapper> pendingRelWrites  = new LinkedHashMap<>();
+	protected final boolean writeBehind                        = Settings.WriteBehindEnabled.getValue();
+
 	protected final BoltDatabaseService db;
 	protected final long transactionId;
 
@@ -74,6 +82,8 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 	protected boolean isPing                            = false;
 	protected boolean logPrefetching                    = false;
 	protected boolean isRolledBack                      = false;
+	protected boolean flushingPendingWrites             = false;
+	protected boolean invalidateAllCachedEntities       = false;
 
 	public SessionTransaction(final BoltDatabaseService db) {
 
@@ -115,6 +125,26 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 		queryResultCache.clear();
 	}
 
+	public void modified(final EntityWrapper wrapper) {
+
+		if (wrapper.isNode()) {
+
+			modifiedNodes.add(wrapper.getDatabaseId());
+
+		} else {
+
+			modifiedRels.add(wrapper.getDatabaseId());
+		}
+	}
+
+	public void invalidateAllCachedEntities() {
+		this.invalidateAllCachedEntities = true;
+	}
+
+	public static boolean isWriteQuery(final String statement) {
+		return statement != null && WRITE_QUERY_PATTERN.matcher(statement).find();
+	}
+
 	public void setIsPing(final boolean isPing) {
 		this.isPing = isPing;
 	}
@@ -133,6 +163,10 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 		return isRolledBack;
 	}
 
+	public boolean isWriteBehindEnabled() {
+		return writeBehind;
+	}
+
 	public static void flushCaches() {
 
 		synchronized (prefetchInfos) {
@@ -185,12 +219,31 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 			return node;
 		}
 
+		final EntityCache<Node> cache = invalidateAllCachedEntities ? null : db.getNodeCache();
+		if (cache != null) {
+
+			final Node cached = cache.get(id);
+			if (cached != null) {
+
+				node = new NodeWrapper(db, cached);
+
+				nodes.put(id, node);
+
+				return node;
+			}
+		}
+
+		final long cacheVersion          = cache != null ? cache.getVersion() : 0L;
 		final String rawTenantIdentifier = db.getTenantIdentifier();
 		final String tenantIdentifier = StringUtils.isNotBlank(rawTenantIdentifier) ? ":" + rawTenantIdentifier : "";
 
 		final Node entity = getNode(new SimpleCypherQuery("MATCH (n" + tenantIdentifier + ") WHERE ID(n) = $id RETURN n", Map.of("id", id)));
 		if (entity != null) {
 
+			if (cache != null && !hasWrites()) {
+				cache.put(id, entity, cacheVersion);
+			}
+
 			node = new NodeWrapper(db, entity);
 
 			nodes.put(id, node);
@@ -209,6 +262,21 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 			return rel;
 		}
 
+		final EntityCache<Relationship> cache = invalidateAllCachedEntities ? null : db.getRelationshipCache();
+		if (cache != null) {
+
+			final Relationship cached = cache.get(id);
+			if (cached != null) {
+
+				rel = new RelationshipWrapper(db, cached);
+
+				rels.put(id, rel);
+
+				return rel;
+			}
+		}
+
+		final long cacheVersion       = cache != null ? cache.getVersion() : 0L;
 		final SessionTransaction tx   = db.getCurrentTransaction();
 		final StringBuilder buf       = new StringBuilder();
 		final String tenantIdentifier = db.getTenantIdentifier();
@@ -232,6 +300,10 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 		final Relationship entity = tx.getRelationship(new SimpleCypherQuery(buf, Map.of("id", id)));
 		if (entity != null) {
 
+			if (cache != null && !hasWrites()) {
+				cache.put(id, entity, cacheVersion);
+			}
+
 			rel = new RelationshipWrapper(db, entity);
 
 			rels.put(id, rel);
@@ -600,6 +672,99 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 		}
 	}
 
+	@Override
+	public void prefetchNodes(final Iterable<Identity> nodeIds, final Set<String> outgoingTypes, final Set<String> incomingTypes) {
+
+		final Set<String> outgoingKeys = createPrefetchKeys("OUTGOING", outgoingTypes);
+		final Set<String> incomingKeys = createPrefetchKeys("INCOMING", incomingTypes);
+		final Set<String> keys         = SetUtils.union(outgoingKeys, incomingKeys);
+		final String tenantIdentifier  = db.getTenantIdentifier();
+		final StringBuilder buf        = new StringBuilder();
+		final List<Long> ids           = new ArrayList<>();
+		final long t0                  = System.currentTimeMillis();
+		long count                     = 0L;
+
+		for (final Identity identity : nodeIds) {
+
+			final long id              = db.unwrap(identity);
+			final NodeWrapper existing = nodes.get(id);
+
+			// skip nodes whose relationships are already known in this transaction
+			if (existing == null || !existing.isPrefetched(keys)) {
+
+				ids.add(id);
+			}
+		}
+
+		if (ids.isEmpty()) {
+			return;
+		}
+
+		buf.append("MATCH (n");
+
+		if (!StringUtils.isBlank(tenantIdentifier)) {
+
+			buf.append(":");
+			buf.append(tenantIdentifier);
+		}
+
+		buf.append(") WHERE ID(n) IN $ids");
+
+		if (!outgoingTypes.isEmpty()) {
+
+			buf.append(" OPTIONAL MATCH (n)-[o:");
+			buf.append(joinRelationshipTypes(outgoingTypes));
+			buf.append("]->(t) WITH n, collect(o) AS outgoing, collect(t) AS targets");
+
+		} else {
+
+			buf.append(" WITH n, [] AS outgoing, [] AS targets");
+		}
+
+		if (!incomingTypes.isEmpty()) {
+
+			buf.append(" OPTIONAL MATCH (n)<-[i:");
+			buf.append(joinRelationshipTypes(incomingTypes));
+			buf.append("]-(s) RETURN n, outgoing, targets, collect(i) AS incoming, collect(s) AS sources");
+
+		} else {
+
+			buf.append(" RETURN n, outgoing, targets, [] AS incoming, [] AS sources");
+		}
+
+		for (final org.neo4j.driver.Record r : collectRecords(new SimpleCypherQuery(buf, Map.of("ids", ids)), null)) {
+
+			final NodeWrapper node                 = getNodeWrapper(r.get("n").asNode());
+			final List<Node> neighbours            = new ArrayList<>();
+			final List<Relationship> relationships = new ArrayList<>();
+
+			neighbours.addAll((List)r.get("targets").asList());
+			neighbours.addAll((List)r.get("sources").asList());
+			relationships.addAll((List)r.get("outgoing").asList());
+			relationships.addAll((List)r.get("incoming").asList());
+
+			// create wrappers for the other ends so that they don't need to be fetched individually
+			for (final Node neighbour : neighbours) {
+				getNodeWrapper(neighbour);
+			}
+
+			for (final Relationship relationship : relationships) {
+
+				node.storeRelationship(getRelationshipWrapper(relationship), true);
+				count++;
+			}
+
+			// the other ends are not marked as prefetched because only some of their relationships are known
+			node.storePrefetchInfo(keys);
+			count++;
+		}
+
+		if (logPrefetching || db.logQueries()) {
+
+			logger.info(transactionId + ": prefetched {} entities for {} nodes in {} ms with {}", count, ids.size(), (System.currentTimeMillis() - t0), buf);
+		}
+	}
+
 	// ----- public static methods -----
 	public static RuntimeException translateClientException(final ClientException cex) {
 
@@ -634,6 +799,32 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 	}
 
 	// ----- protected methods -----
+	private String joinRelationshipTypes(final Set<String> types) {
+
+		final List<String> quoted = new ArrayList<>(types.size());
+
+		for (final String type : types) {
+
+			// escape backticks by doubling them
+			quoted.add("`" + type.replace("`", "``") + "`");
+		}
+
+		return StringUtils.join(quoted, "|");
+	}
+
+	protected Set<String> createPrefetchKeys(final String direction, final Set<String> types) {
+
+		final Set<String> keys = new LinkedHashSet<>();
+
+		for (final String type : types) {
+
+			// must match the keys created in NodeWrapper
+			keys.add("all/" + direction + "/" + type);
+		}
+
+		return keys;
+	}
+
 	protected void logQuery(final CypherQuery query) {
 
 		if (prefetchHint != null && query.getType() != null && query.getRelationshipType() != null) {
@@ -731,10 +922,165 @@ abstract class SessionTransaction implements org.structr.api.Transaction {
 		}
 	}
 
+	/**
+	 * Removes the entities that were created, modified or deleted in this
+	 * transaction from the shared entity caches and notifies the cache
+	 * invalidation listener, so other cluster members can do the same.
+	 * Must be called after a successful commit.
+	 */
+	protected void invalidateCachedEntities() {
+
+		if (db.getNodeCache() == null && db.getRelationshipCache() == null) {
+			return;
+		}
+
+		Set<Long> nodeIds = null;
+		Set<Long> relIds  = null;
+
+		if (!invalidateAllCachedEntities) {
+
+			nodeIds = new HashSet<>(modifiedNodes);
+			nodeIds.addAll(createdNodes);
+			nodeIds.addAll(deletedNodes);
+
+			// deleting a node removes its relationships without reporting them,
+			// and the database may reuse their ids, so the whole cache must go
+			if (deletedNodes.isEmpty()) {
+
+				relIds = new HashSet<>(modifiedRels);
+				relIds.addAll(deletedRels);
+			}
+		}
+
+		if (nodeIds != null && nodeIds.isEmpty() && relIds != null && relIds.isEmpty()) {
+			return;
+		}
+
+		db.invalidateCommittedEntities(nodeIds, relIds);
+	}
+
+	/**
+	 * Indicates whether this transaction wrote to the database. Entities
+	 * read by such a transaction may contain uncommitted changes and must
+	 * not be put into the shared entity caches.
+	 */
+	protected boolean hasWrites() {
+
+		return invalidateAllCachedEntities
+			|| !modifiedNodes.isEmpty() || !modifiedRels.isEmpty()
+			|| !createdNodes.isEmpty()  || !deletedNodes.isEmpty()
+			|| !deletedRels.isEmpty()   || !pendingNodeWrites.isEmpty()
+			|| !pendingRelWrites.isEmpty();
+	}
+
 	protected void clearChangeset() {
 
+		// discard buffered writes that were not flushed, e.g. on rollback
+		for (final EntityWrapper wrapper : pendingNodeWrites.values()) {
+			wrapper.clearPendingProperties();
+		}
+
+		for (final EntityWrapper wrapper : pendingRelWrites.values()) {
+			wrapper.clearPendingProperties();
+		}
+
 		nodes.clear();
 		rels.clear();
+		pendingNodeWrites.clear();
+		pendingRelWrites.clear();
+	}
+
+	void addPendingWrite(final EntityWrapper wrapper) {
+
+		if (wrapper.isNode()) {
+
+			pendingNodeWrites.put(wrapper.getDatabaseId(), wrapper);
+
+		} else {
+
+			pendingRelWrites.put(wrapper.getDatabaseId(), wrapper);
+		}
+	}
+
+	/**
+	 * Writes all buffered property updates of this transaction to the
+	 * database, using one UNWIND query per batch of entities. Must be
+	 * called before any other query is sent, so the database never sees
+	 * a state that differs from what the wrappers report.
+	 */
+	protected void flushPendingWrites() {
+
+		if (flushingPendingWrites || (pendingNodeWrites.isEmpty() && pendingRelWrites.isEmpty())) {
+			return;
+		}
+
+		flushingPendingWrites = true;
+
+		try {
+
+			flushPendingWrites(pendingNodeWrites.values());
+			flushPendingWrites(pendingRelWrites.values());
+
+		} finally {
+
+			pendingNodeWrites.clear();
+			pendingRelWrites.clear();
+
+			flushingPendingWrites = false;
+		}
+	}
+
+	private void flushPendingWrites(final Collection<EntityWrapper> wrappers) {
+
+		final int batchSize                    = Math.max(1, Settings.WriteBehindBatchSize.getValue(1000));
+		final List<Map<String, Object>> rows   = new ArrayList<>();
+		final List<EntityWrapper> batch        = new ArrayList<>();
+
+		for (final EntityWrapper wrapper : wrappers) {
+
+			final Map<String, Object> properties = wrapper.getPendingProperties();
+			if (properties != null && !wrapper.isDeleted()) {
+
+				rows.add(Map.of("id", wrapper.getDatabaseId(), "properties", properties));
+				batch.add(wrapper);
+
+				if (rows.size() >= batchSize) {
+
+					flushPendingBatch(batch, rows);
+				}
+
+			} else {
+
+				wrapper.clearPendingProperties();
+			}
+		}
+
+		if (!rows.isEmpty()) {
+
+			flushPendingBatch(batch, rows);
+		}
+	}
+
+	private void flushPendingBatch(final List<EntityWrapper> batch, final List<Map<String, Object>> rows) {
+
+		final String statement = "UNWIND $rows AS row " + batch.get(0).getQueryPrefix() + " WHERE ID(n) = row.id SET n += row.properties RETURN n";
+
+		// clear pending state first so the wrappers report the values returned by the database
+		for (final EntityWrapper wrapper : batch) {
+
+			wrapper.clearPendingProperties();
+			modified(wrapper);
+		}
+
+		// mapping the result updates the entities of the existing wrappers
+		for (final Map<String, Object> row : run(new SimpleCypherQuery(statement, Map.of("rows", new ArrayList<>(rows))))) {
+			row.get("n");
+		}
+
+		queryResultCache.clear();
+
+		batch.clear();
+		rows.clear();
 	}
 
 	private String createPatternFromDetails(final String type, final Set<String> relTypes, final boolean outgoing) {